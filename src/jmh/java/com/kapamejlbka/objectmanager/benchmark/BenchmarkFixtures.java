@@ -0,0 +1,181 @@
+package com.kapamejlbka.objectmanager.benchmark;
+
+import com.kapamejlbka.objectmanager.config.DefaultMaterialsInitializer;
+import com.kapamejlbka.objectmanager.domain.calcengine.EndpointCalculator;
+import com.kapamejlbka.objectmanager.domain.calcengine.FiberCalculator;
+import com.kapamejlbka.objectmanager.domain.calcengine.LinkCalculator;
+import com.kapamejlbka.objectmanager.domain.calcengine.NodeCalculator;
+import com.kapamejlbka.objectmanager.domain.calcengine.dsl.ExpressionEvaluator;
+import com.kapamejlbka.objectmanager.domain.calcengine.routes.RouteCalculator;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDeviceType;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRouteType;
+import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.repository.MaterialRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeds the default material catalog through {@link DefaultMaterialsInitializer} and generates synthetic
+ * topologies for the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private static final String[] LINK_TYPES = {"UTP", "UTP", "POWER", "FIBER"};
+    private static final String[] MOUNT_SURFACES = {"WALL", "CEILING", "POLE", "RACK"};
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<MaterialNorm> seededNorms() {
+        List<Material> materials = new ArrayList<>();
+        List<MaterialNorm> norms = new ArrayList<>();
+        MaterialRepository materialRepository = StubRepositories.create(MaterialRepository.class, Map.of(
+                "count", args -> (long) materials.size(),
+                "save", args -> {
+                    Material material = (Material) args[0];
+                    setId(material, (long) materials.size() + 1);
+                    materials.add(material);
+                    return material;
+                }));
+        MaterialNormRepository normRepository = StubRepositories.create(MaterialNormRepository.class, Map.of(
+                "count", args -> (long) norms.size(),
+                "save", args -> {
+                    MaterialNorm norm = (MaterialNorm) args[0];
+                    norms.add(norm);
+                    return norm;
+                },
+                "findAllWithMaterial", args -> List.copyOf(norms)));
+        new DefaultMaterialsInitializer(materialRepository, normRepository).run();
+        return List.copyOf(norms);
+    }
+
+    static MaterialNormCatalogService catalog(List<MaterialNorm> norms) {
+        MaterialNormRepository repository = StubRepositories.create(
+                MaterialNormRepository.class, Map.of("findAllWithMaterial", args -> norms));
+        MaterialNormCatalogService catalog = new MaterialNormCatalogService(repository);
+        catalog.refresh();
+        return catalog;
+    }
+
+    static Calculators calculators(MaterialNormCatalogService catalog, ExpressionEvaluator evaluator) {
+        return new Calculators(
+                new RouteCalculator(catalog, evaluator),
+                new LinkCalculator(catalog, evaluator),
+                new EndpointCalculator(catalog, evaluator),
+                new NodeCalculator(catalog, evaluator),
+                new FiberCalculator(catalog, evaluator));
+    }
+
+    /**
+     * Builds a topology of roughly {@code elementCount} elements: half endpoint devices, one node per twenty
+     * devices, a link from every device to its node and a route for every five links.
+     */
+    static Topology topology(int elementCount) {
+        SystemCalculation calculation = new SystemCalculation();
+        setId(calculation, 1L);
+
+        int deviceCount = Math.max(1, elementCount / 2);
+        int nodeCount = Math.max(1, deviceCount / 20);
+        EndpointDeviceType[] deviceTypes = EndpointDeviceType.values();
+        InstallationRouteType[] routeTypes = InstallationRouteType.values();
+
+        List<NetworkNode> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            NetworkNode node = new NetworkNode();
+            setId(node, (long) i + 1);
+            node.setCalculation(calculation);
+            node.setName("Node " + i);
+            node.setMountSurface(MOUNT_SURFACES[i % MOUNT_SURFACES.length]);
+            node.setCabinetSize(400);
+            node.setBaseCircuitBreakers(1);
+            node.setExtraCircuitBreakers(i % 3);
+            node.setBaseSockets(1);
+            node.setExtraSockets(i % 2);
+            nodes.add(node);
+        }
+
+        List<EndpointDevice> devices = new ArrayList<>();
+        List<TopologyLink> links = new ArrayList<>();
+        for (int i = 0; i < deviceCount; i++) {
+            EndpointDevice device = new EndpointDevice();
+            setId(device, (long) i + 1);
+            device.setCalculation(calculation);
+            device.setName("Device " + i);
+            device.setType(deviceTypes[i % deviceTypes.length].name());
+            devices.add(device);
+
+            TopologyLink link = new TopologyLink();
+            setId(link, (long) i + 1);
+            link.setCalculation(calculation);
+            link.setFromDevice(device);
+            link.setToNode(nodes.get(i % nodeCount));
+            link.setLinkType(LINK_TYPES[i % LINK_TYPES.length]);
+            link.setWireless(false);
+            link.setCableLength(5.0 + (i % 60));
+            link.setFiberCores(i % 2 == 0 ? 4 : 8);
+            link.setFiberSpliceCount(2);
+            link.setFiberConnectorCount(2);
+            links.add(link);
+        }
+
+        List<InstallationRoute> routes = new ArrayList<>();
+        List<RouteSegmentLink> segments = new ArrayList<>();
+        for (int i = 0; i * 5 < links.size(); i++) {
+            InstallationRoute route = new InstallationRoute();
+            setId(route, (long) i + 1);
+            route.setCalculation(calculation);
+            route.setName("Route " + i);
+            route.setRouteType(routeTypes[i % routeTypes.length].name());
+            route.setOrientation(i % 2 == 0 ? "HORIZONTAL" : "VERTICAL");
+            route.setFixingMethod(i % 2 == 0 ? "ONE_CLIP" : "PE_TIES");
+            route.setMountSurface(MOUNT_SURFACES[i % MOUNT_SURFACES.length]);
+            route.setLengthMeters(20.0 + (i % 40));
+            routes.add(route);
+            for (int j = i * 5; j < Math.min(links.size(), i * 5 + 5); j++) {
+                RouteSegmentLink segment = new RouteSegmentLink();
+                setId(segment, (long) j + 1);
+                segment.setRoute(route);
+                segment.setTopologyLink(links.get(j));
+                segments.add(segment);
+            }
+        }
+
+        return new Topology(calculation, devices, nodes, links, routes, segments);
+    }
+
+    static void setId(Object entity, Long id) {
+        try {
+            Field field = entity.getClass().getDeclaredField("id");
+            field.setAccessible(true);
+            field.set(entity, id);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot assign id to " + entity.getClass().getSimpleName(), ex);
+        }
+    }
+
+    record Calculators(
+            RouteCalculator routeCalculator,
+            LinkCalculator linkCalculator,
+            EndpointCalculator endpointCalculator,
+            NodeCalculator nodeCalculator,
+            FiberCalculator fiberCalculator) {}
+
+    record Topology(
+            SystemCalculation calculation,
+            List<EndpointDevice> devices,
+            List<NetworkNode> nodes,
+            List<TopologyLink> links,
+            List<InstallationRoute> routes,
+            List<RouteSegmentLink> segments) {}
+}
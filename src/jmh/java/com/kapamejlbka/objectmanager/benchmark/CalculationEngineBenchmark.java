@@ -0,0 +1,129 @@
+package com.kapamejlbka.objectmanager.benchmark;
+
+import com.kapamejlbka.objectmanager.config.CalculationChangesProperties;
+import com.kapamejlbka.objectmanager.config.CalculationEngineProperties;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationEngineImpl;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationGraphLoader;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationResult;
+import com.kapamejlbka.objectmanager.domain.calcengine.dsl.ExpressionEvaluator;
+import com.kapamejlbka.objectmanager.domain.calculation.repository.CalculationChangeRepository;
+import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
+import com.kapamejlbka.objectmanager.domain.device.repository.EndpointDeviceRepository;
+import com.kapamejlbka.objectmanager.domain.device.repository.NetworkNodeRepository;
+import com.kapamejlbka.objectmanager.domain.settings.CalculationSettings;
+import com.kapamejlbka.objectmanager.domain.topology.repository.InstallationRouteRepository;
+import com.kapamejlbka.objectmanager.domain.topology.repository.RouteSegmentLinkRepository;
+import com.kapamejlbka.objectmanager.domain.topology.repository.TopologyLinkRepository;
+import com.kapamejlbka.objectmanager.repository.CalculationSettingsRepository;
+import com.kapamejlbka.objectmanager.service.CalculationEventHub;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService;
+import com.kapamejlbka.objectmanager.service.SettingsService;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculationEngineBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int elementCount;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private CalculationEngineImpl engine;
+    private CalculationEventHub eventHub;
+    private Long calculationId;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.Topology topology = BenchmarkFixtures.topology(elementCount);
+        BenchmarkFixtures.Calculators calculators = BenchmarkFixtures.calculators(
+                BenchmarkFixtures.catalog(BenchmarkFixtures.seededNorms()), new ExpressionEvaluator());
+        calculationId = topology.calculation().getId();
+
+        SystemCalculationRepository systemCalculationRepository = StubRepositories.create(
+                SystemCalculationRepository.class, Map.of(
+                        "findById", args -> Optional.of(topology.calculation()),
+                        "findInputRevisionById", args -> Optional.of(0L)));
+        EndpointDeviceRepository endpointDeviceRepository = StubRepositories.create(
+                EndpointDeviceRepository.class, Map.of("findByCalculationId", args -> topology.devices()));
+        NetworkNodeRepository networkNodeRepository = StubRepositories.create(
+                NetworkNodeRepository.class, Map.of("findByCalculationId", args -> topology.nodes()));
+        TopologyLinkRepository topologyLinkRepository = StubRepositories.create(
+                TopologyLinkRepository.class, Map.of("findWithEndpointsByCalculationId", args -> topology.links()));
+        InstallationRouteRepository installationRouteRepository = StubRepositories.create(
+                InstallationRouteRepository.class,
+                Map.of("findWithMainMaterialByCalculationId", args -> topology.routes()));
+        RouteSegmentLinkRepository routeSegmentLinkRepository = StubRepositories.create(
+                RouteSegmentLinkRepository.class, Map.of("findByRouteCalculation_Id", args -> topology.segments()));
+
+        CalculationSettings storedSettings = new CalculationSettings();
+        storedSettings.setId(1L);
+        storedSettings.setStandardCabinetDropLengthMeters(0.0);
+        CalculationSettingsRepository settingsRepository = StubRepositories.create(
+                CalculationSettingsRepository.class, Map.of("findById", args -> Optional.of(storedSettings)));
+        eventHub = new CalculationEventHub();
+        SettingsService settingsService = new SettingsService(
+                settingsRepository,
+                new CalculationRevisionService(
+                        systemCalculationRepository,
+                        StubRepositories.create(CalculationChangeRepository.class, Map.of()),
+                        eventHub,
+                        new CalculationChangesProperties()));
+
+        CalculationEngineProperties properties = new CalculationEngineProperties();
+        properties.setParallel(parallel);
+        properties.setParallelThreshold(1);
+
+        engine = new CalculationEngineImpl(
+                systemCalculationRepository,
+                endpointDeviceRepository,
+                networkNodeRepository,
+                topologyLinkRepository,
+                installationRouteRepository,
+                routeSegmentLinkRepository,
+                calculators.routeCalculator(),
+                calculators.linkCalculator(),
+                calculators.endpointCalculator(),
+                calculators.nodeCalculator(),
+                calculators.fiberCalculator(),
+                settingsService,
+                new CalculationGraphLoader(
+                        systemCalculationRepository,
+                        endpointDeviceRepository,
+                        networkNodeRepository,
+                        topologyLinkRepository,
+                        installationRouteRepository,
+                        routeSegmentLinkRepository),
+                properties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+        eventHub.shutdown();
+    }
+
+    @Benchmark
+    public CalculationResult calculate() {
+        return engine.calculate(calculationId);
+    }
+}
@@ -0,0 +1,88 @@
+package com.kapamejlbka.objectmanager.benchmark;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.dsl.ExpressionEvaluator;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.settings.dto.CalculationSettingsDto;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark {
+
+    private BenchmarkFixtures.Calculators calculators;
+    private BenchmarkFixtures.Topology topology;
+    private Map<Long, List<TopologyLink>> linksByRoute;
+    private CalculationSettingsDto settings;
+
+    @Setup
+    public void setUp() {
+        calculators = BenchmarkFixtures.calculators(
+                BenchmarkFixtures.catalog(BenchmarkFixtures.seededNorms()), new ExpressionEvaluator());
+        topology = BenchmarkFixtures.topology(1000);
+        linksByRoute = topology.segments().stream()
+                .collect(Collectors.groupingBy(
+                        segment -> segment.getRoute().getId(),
+                        Collectors.mapping(RouteSegmentLink::getTopologyLink, Collectors.toList())));
+        settings = new CalculationSettingsDto();
+    }
+
+    @Benchmark
+    public void endpoints(Blackhole blackhole) {
+        for (EndpointDevice device : topology.devices()) {
+            blackhole.consume(calculators.endpointCalculator().calculateForDevice(device));
+        }
+    }
+
+    @Benchmark
+    public void nodes(Blackhole blackhole) {
+        for (NetworkNode node : topology.nodes()) {
+            blackhole.consume(calculators.nodeCalculator().calculateForNode(node, 20, settings));
+        }
+    }
+
+    @Benchmark
+    public void links(Blackhole blackhole) {
+        for (TopologyLink link : topology.links()) {
+            blackhole.consume(calculators.linkCalculator().calculateForLink(link));
+        }
+    }
+
+    @Benchmark
+    public void fiberLinks(Blackhole blackhole) {
+        for (TopologyLink link : topology.links()) {
+            if ("FIBER".equals(link.getLinkType())) {
+                blackhole.consume(calculators.fiberCalculator().calculateForFiberLink(link));
+            }
+        }
+    }
+
+    @Benchmark
+    public void routes(Blackhole blackhole) {
+        for (InstallationRoute route : topology.routes()) {
+            List<TopologyLink> links = linksByRoute.getOrDefault(route.getId(), List.of());
+            blackhole.consume(calculators.routeCalculator().calculateForRoute(route, links, settings));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.kapamejlbka.objectmanager.benchmark;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.dsl.ExpressionEvaluator;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionEvaluatorBenchmark {
+
+    private static final Map<String, Object> CONTEXT = Map.ofEntries(
+            Map.entry("length", 37.5),
+            Map.entry("lengthMeters", 37.5),
+            Map.entry("step", 0.4),
+            Map.entry("deviceCount", 1),
+            Map.entry("branchCount", 3),
+            Map.entry("incomingLinesCount", 4),
+            Map.entry("lugCount", 14),
+            Map.entry("extraSockets", 1),
+            Map.entry("baseSockets", 1),
+            Map.entry("socketCount", 2),
+            Map.entry("fiberSpliceCount", 2),
+            Map.entry("fiberConnectorCount", 2));
+
+    private ExpressionEvaluator evaluator;
+    private List<String> formulas;
+
+    @Setup
+    public void setUp() {
+        evaluator = new ExpressionEvaluator();
+        formulas = BenchmarkFixtures.seededNorms().stream()
+                .map(MaterialNorm::getFormula)
+                .distinct()
+                .filter(this::evaluatesWithContext)
+                .toList();
+    }
+
+    @Benchmark
+    public void evaluateSeededFormulas(Blackhole blackhole) {
+        for (String formula : formulas) {
+            blackhole.consume(evaluator.evaluate(formula, CONTEXT));
+        }
+    }
+
+    @Benchmark
+    public void compileSeededFormulasCold(Blackhole blackhole) {
+        evaluator.clearCache();
+        for (String formula : formulas) {
+            blackhole.consume(evaluator.compile(formula));
+        }
+    }
+
+    private boolean evaluatesWithContext(String formula) {
+        try {
+            evaluator.evaluate(formula, CONTEXT);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.kapamejlbka.objectmanager.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds repository implementations backed by plain lambdas so benchmarks run without a database or a
+ * Spring context. Only the methods listed in {@code handlers} are supported.
+ */
+final class StubRepositories {
+
+    private StubRepositories() {
+    }
+
+    static <T> T create(Class<T> repositoryType, Map<String, Function<Object[], Object>> handlers) {
+        Object proxy = Proxy.newProxyInstance(
+                repositoryType.getClassLoader(),
+                new Class<?>[] {repositoryType},
+                (instance, method, args) -> {
+                    Function<Object[], Object> handler = handlers.get(method.getName());
+                    if (handler != null) {
+                        return handler.apply(args == null ? new Object[0] : args);
+                    }
+                    return switch (method.getName()) {
+                        case "toString" -> repositoryType.getSimpleName() + "Stub";
+                        case "hashCode" -> System.identityHashCode(instance);
+                        case "equals" -> instance == args[0];
+                        default -> throw new UnsupportedOperationException(
+                                repositoryType.getSimpleName() + "." + method.getName() + " is not stubbed");
+                    };
+                });
+        return repositoryType.cast(proxy);
+    }
+}
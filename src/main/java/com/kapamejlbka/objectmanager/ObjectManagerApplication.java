@@ -7,6 +7,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(
         scanBasePackages = {
@@ -20,7 +21,13 @@ import org.springframework.context.annotation.Bean;
         "org.springframework.boot.autoconfigure.mongo.MongoReactiveRepositoriesAutoConfiguration",
         "org.springframework.boot.autoconfigure.session.MongoSessionConfiguration"
 })
-@EnableConfigurationProperties(com.kapamejlbka.objectmanager.config.FileStorageProperties.class)
+@EnableConfigurationProperties({
+        com.kapamejlbka.objectmanager.config.FileStorageProperties.class,
+        com.kapamejlbka.objectmanager.config.CalculationEngineProperties.class,
+        com.kapamejlbka.objectmanager.config.HistoryArchiveProperties.class,
+        com.kapamejlbka.objectmanager.config.CalculationChangesProperties.class
+})
+@EnableScheduling
 public class ObjectManagerApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,22 @@
+package com.kapamejlbka.objectmanager.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "calculation.changes")
+@Validated
+public class CalculationChangesProperties {
+
+    /** How many editor revisions of change history a client may fall behind before it reloads in full. */
+    @Min(1)
+    private long retainedRevisions = 1000;
+
+    public long getRetainedRevisions() {
+        return retainedRevisions;
+    }
+
+    public void setRetainedRevisions(long retainedRevisions) {
+        this.retainedRevisions = retainedRevisions;
+    }
+}
@@ -0,0 +1,42 @@
+package com.kapamejlbka.objectmanager.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "calculation.engine")
+@Validated
+public class CalculationEngineProperties {
+
+    private boolean parallel = false;
+
+    @Min(1)
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    @Min(1)
+    private int parallelThreshold = 256;
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+}
@@ -8,22 +8,32 @@ import gg.jte.springframework.boot.autoconfigure.JteViewResolver;
 import java.nio.file.Path;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.servlet.ViewResolver;
 
 @Configuration
 public class JteConfig {
 
     /**
-     * Создаём TemplateEngine, который будет читать шаблоны из src/main/jte.
-     * При сборке Gradle jte-шаблоны компилируются, и движок их подхватывает.
+     * Профиль dev: читаем шаблоны прямо из src/main/jte и перекомпилируем их при изменении.
      */
     @Bean
+    @Profile("dev")
     public TemplateEngine jteTemplateEngine() {
-        // DEV-вариант: читаем шаблоны прямо из src/main/jte/templates
         DirectoryCodeResolver codeResolver = new DirectoryCodeResolver(Path.of("src/main/jte"));
         return TemplateEngine.create(codeResolver, ContentType.Html);
     }
 
+    /**
+     * Остальные профили: шаблоны скомпилированы задачей Gradle generateJte вместе с основным кодом,
+     * статические части хранятся в бинарном виде. Движок только загружает готовые классы.
+     */
+    @Bean
+    @Profile("!dev")
+    public TemplateEngine precompiledJteTemplateEngine() {
+        return TemplateEngine.createPrecompiled(ContentType.Html);
+    }
+
     /**
      * Регистрируем JteViewResolver, который будет искать шаблоны по имени вида "auth/login"
      * как файлы src/main/jte/templates/auth/login.jte
@@ -0,0 +1,20 @@
+package com.kapamejlbka.objectmanager.config;
+
+import com.kapamejlbka.objectmanager.service.VisibilityService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VisibilityInitializer implements CommandLineRunner {
+
+    private final VisibilityService visibilityService;
+
+    public VisibilityInitializer(VisibilityService visibilityService) {
+        this.visibilityService = visibilityService;
+    }
+
+    @Override
+    public void run(String... args) {
+        visibilityService.rebuild();
+    }
+}
@@ -0,0 +1,14 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recomputed contributions of the elements touched by a change. An empty contribution means the element
+ * no longer adds anything to the bill of materials (for example, because it was deleted).
+ */
+public record CalculationDelta(
+        Long calculationId,
+        Map<CalculationElement, Map<Material, Double>> contributions,
+        Map<Long, Set<CalculationElement>> linkDependents) {}
@@ -0,0 +1,24 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+public record CalculationElement(Type type, Long id) {
+
+    public enum Type {
+        ROUTE, LINK, ENDPOINT, NODE
+    }
+
+    public static CalculationElement route(Long id) {
+        return new CalculationElement(Type.ROUTE, id);
+    }
+
+    public static CalculationElement link(Long id) {
+        return new CalculationElement(Type.LINK, id);
+    }
+
+    public static CalculationElement endpoint(Long id) {
+        return new CalculationElement(Type.ENDPOINT, id);
+    }
+
+    public static CalculationElement node(Long id) {
+        return new CalculationElement(Type.NODE, id);
+    }
+}
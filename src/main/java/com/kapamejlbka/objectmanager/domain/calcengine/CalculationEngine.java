@@ -1,5 +1,19 @@
 package com.kapamejlbka.objectmanager.domain.calcengine;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
 public interface CalculationEngine {
     CalculationResult calculate(Long calculationId);
+
+    Map<Long, CalculationResult> calculateAll(Collection<Long> calculationIds);
+
+    Optional<CalculationResult> cachedResult(Long calculationId, long revision);
+
+    CalculationDelta prepareDelta(Long calculationId, Collection<CalculationElement> changedElements);
+
+    void applyDelta(CalculationDelta delta, long baseRevision, long newRevision);
+
+    void evict(Long calculationId);
 }
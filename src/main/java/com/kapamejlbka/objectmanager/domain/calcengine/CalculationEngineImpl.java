@@ -1,6 +1,6 @@
 package com.kapamejlbka.objectmanager.domain.calcengine;
 
-import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.config.CalculationEngineProperties;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.calcengine.LinkCalculator;
 import com.kapamejlbka.objectmanager.domain.calcengine.routes.RouteCalculator;
@@ -17,11 +17,24 @@ import com.kapamejlbka.objectmanager.domain.topology.repository.InstallationRout
 import com.kapamejlbka.objectmanager.domain.topology.repository.RouteSegmentLinkRepository;
 import com.kapamejlbka.objectmanager.domain.topology.repository.TopologyLinkRepository;
 import com.kapamejlbka.objectmanager.service.SettingsService;
+import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
@@ -33,6 +46,8 @@ public class CalculationEngineImpl implements CalculationEngine {
 
     private static final Logger LOG = LoggerFactory.getLogger(CalculationEngineImpl.class);
 
+    private static final int MAX_CACHED_LEDGERS = 32;
+
     private final SystemCalculationRepository systemCalculationRepository;
     private final EndpointDeviceRepository endpointDeviceRepository;
     private final NetworkNodeRepository networkNodeRepository;
@@ -45,6 +60,18 @@ public class CalculationEngineImpl implements CalculationEngine {
     private final NodeCalculator nodeCalculator;
     private final FiberCalculator fiberCalculator;
     private final SettingsService settingsService;
+    private final CalculationGraphLoader calculationGraphLoader;
+    private final CalculationEngineProperties engineProperties;
+
+    private volatile ForkJoinPool parallelPool;
+
+    private final Map<Long, CalculationLedger> ledgers =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CalculationLedger> eldest) {
+                    return size() > MAX_CACHED_LEDGERS;
+                }
+            };
 
     public CalculationEngineImpl(
             SystemCalculationRepository systemCalculationRepository,
@@ -58,7 +85,9 @@ public class CalculationEngineImpl implements CalculationEngine {
             EndpointCalculator endpointCalculator,
             NodeCalculator nodeCalculator,
             FiberCalculator fiberCalculator,
-            SettingsService settingsService) {
+            SettingsService settingsService,
+            CalculationGraphLoader calculationGraphLoader,
+            CalculationEngineProperties engineProperties) {
         this.systemCalculationRepository = systemCalculationRepository;
         this.endpointDeviceRepository = endpointDeviceRepository;
         this.networkNodeRepository = networkNodeRepository;
@@ -71,55 +100,82 @@ public class CalculationEngineImpl implements CalculationEngine {
         this.nodeCalculator = nodeCalculator;
         this.fiberCalculator = fiberCalculator;
         this.settingsService = settingsService;
+        this.calculationGraphLoader = calculationGraphLoader;
+        this.engineProperties = engineProperties;
     }
 
     @Override
     public CalculationResult calculate(Long calculationId) {
-        SystemCalculation calculation = systemCalculationRepository
-                .findById(calculationId)
-                .orElseThrow(() -> new IllegalArgumentException("System calculation not found: " + calculationId));
-
-        List<EndpointDevice> endpointDevices = endpointDeviceRepository.findByCalculationId(calculationId);
-        List<NetworkNode> networkNodes = networkNodeRepository.findByCalculationId(calculationId);
-        List<TopologyLink> topologyLinks = topologyLinkRepository.findByCalculationId(calculationId);
-        List<InstallationRoute> installationRoutes = installationRouteRepository.findByCalculationId(calculationId);
+        long revision = systemCalculationRepository.findInputRevisionById(calculationId).orElse(0L);
+        CalculationGraph graph = calculationGraphLoader.load(calculationId);
+        CalculationLedger ledger =
+                buildLedger(graph, revision, settingsService.getSettings(), engineProperties.isParallel());
+
+        synchronized (ledgers) {
+            ledgers.put(calculationId, ledger);
+        }
+        return toResult(graph.calculation().getId(), ledger.totals());
+    }
+
+    @Override
+    public Map<Long, CalculationResult> calculateAll(Collection<Long> calculationIds) {
+        if (calculationIds == null || calculationIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> revisions = new HashMap<>();
+        for (Object[] row : systemCalculationRepository.findInputRevisionsByIdIn(calculationIds)) {
+            revisions.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        List<CalculationGraph> graphs = List.copyOf(calculationGraphLoader.loadAll(calculationIds).values());
         CalculationSettingsDto settings = settingsService.getSettings();
-        Map<Long, List<RouteSegmentLink>> routeToSegments = installationRoutes.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        InstallationRoute::getId,
-                        route -> routeSegmentLinkRepository.findByRouteId(route.getId())));
 
-        Map<Material, Double> materialTotals = new HashMap<>();
+        // Every input is already in memory, so the workers never touch the database.
+        List<CalculationResult> results = runInPool(() -> graphs.parallelStream()
+                .map(graph -> {
+                    Long id = graph.calculation().getId();
+                    CalculationLedger ledger = buildLedger(graph, revisions.getOrDefault(id, 0L), settings, false);
+                    return toResult(id, ledger.totals());
+                })
+                .toList());
+
+        Map<Long, CalculationResult> resultsById = new LinkedHashMap<>();
+        results.forEach(result -> resultsById.put(result.calculationId(), result));
+        return resultsById;
+    }
+
+    private CalculationLedger buildLedger(
+            CalculationGraph graph, long revision, CalculationSettingsDto settings, boolean parallel) {
+        List<EndpointDevice> endpointDevices = graph.endpointDevices();
+        List<NetworkNode> networkNodes = graph.networkNodes();
+        List<TopologyLink> topologyLinks = graph.topologyLinks();
+        List<InstallationRoute> installationRoutes = graph.installationRoutes();
+        Map<Long, List<RouteSegmentLink>> routeToSegments = graph.segmentsByRoute();
+
+        CalculationLedger ledger = new CalculationLedger(revision);
+        Map<Long, Set<CalculationElement>> routesByLink = new HashMap<>();
+        List<ElementWork> work = new ArrayList<>();
 
         installationRoutes.forEach(route -> {
-            try {
-                List<TopologyLink> linksInRoute = routeToSegments.getOrDefault(route.getId(), List.of()).stream()
-                        .map(RouteSegmentLink::getTopologyLink)
-                        .toList();
-                if (linksInRoute.isEmpty()) {
-                    return;
-                }
-                merge(materialTotals, routeCalculator.calculateForRoute(route, linksInRoute, settings));
-            } catch (Exception ex) {
-                LOG.warn("Failed to calculate materials for route {}: {}", route.getName(), ex.getMessage());
-            }
+            List<RouteSegmentLink> segments = routeToSegments.getOrDefault(route.getId(), List.of());
+            segments.stream()
+                    .map(RouteSegmentLink::getTopologyLink)
+                    .filter(link -> link != null && link.getId() != null)
+                    .forEach(link -> routesByLink
+                            .computeIfAbsent(link.getId(), key -> new HashSet<>())
+                            .add(CalculationElement.route(route.getId())));
+            work.add(new ElementWork(
+                    CalculationElement.route(route.getId()), () -> routeContribution(route, segments, settings)));
         });
 
         topologyLinks.forEach(link -> {
-            try {
-                merge(materialTotals, linkCalculator.calculateForLink(link));
-            } catch (Exception ex) {
-                LOG.warn("Failed to calculate materials for link {}: {}", link.getId(), ex.getMessage());
-            }
+            work.add(new ElementWork(CalculationElement.link(link.getId()), () -> linkContribution(link)));
+            Set<CalculationElement> dependents = new HashSet<>(nodesOf(link));
+            dependents.addAll(routesByLink.getOrDefault(link.getId(), Set.of()));
+            ledger.putDependents(link.getId(), dependents);
         });
 
-        endpointDevices.forEach(device -> {
-            try {
-                merge(materialTotals, endpointCalculator.calculateForDevice(device));
-            } catch (Exception ex) {
-                LOG.warn("Failed to calculate materials for endpoint {}: {}", device.getName(), ex.getMessage());
-            }
-        });
+        endpointDevices.forEach(device -> work.add(new ElementWork(
+                CalculationElement.endpoint(device.getId()), () -> endpointContribution(device))));
 
         Map<Long, Long> nodeIncomingCounts = topologyLinks.stream()
                 .flatMap(link -> Stream.of(link.getFromNode(), link.getToNode()))
@@ -127,27 +183,218 @@ public class CalculationEngineImpl implements CalculationEngine {
                 .collect(Collectors.groupingBy(NetworkNode::getId, Collectors.counting()));
 
         networkNodes.forEach(node -> {
+            int linked = nodeIncomingCounts.getOrDefault(node.getId(), 0L).intValue();
+            work.add(new ElementWork(
+                    CalculationElement.node(node.getId()), () -> nodeContribution(node, linked, settings)));
+        });
+
+        // Contributions are folded into the ledger in the same order on both paths, so the totals match bit for bit.
+        List<Map<Material, Double>> contributions = computeContributions(work, parallel);
+        for (int i = 0; i < work.size(); i++) {
+            ledger.put(work.get(i).element(), contributions.get(i));
+        }
+        return ledger;
+    }
+
+    @Override
+    public Optional<CalculationResult> cachedResult(Long calculationId, long revision) {
+        CalculationLedger ledger = findLedger(calculationId);
+        if (ledger == null || ledger.revision() != revision) {
+            return Optional.empty();
+        }
+        return Optional.of(toResult(calculationId, ledger.totals()));
+    }
+
+    @Override
+    public CalculationDelta prepareDelta(Long calculationId, Collection<CalculationElement> changedElements) {
+        CalculationLedger ledger = findLedger(calculationId);
+        if (ledger == null || changedElements == null || changedElements.isEmpty()) {
+            return null;
+        }
+        CalculationSettingsDto settings = settingsService.getSettings();
+
+        Set<CalculationElement> affected = new LinkedHashSet<>();
+        Map<Long, Set<CalculationElement>> linkDependents = new HashMap<>();
+        for (CalculationElement element : changedElements) {
+            affected.add(element);
+            if (element.type() != CalculationElement.Type.LINK) {
+                continue;
+            }
+            // A link also feeds the node port counts and the routes it belongs to, before and after the change.
+            affected.addAll(ledger.dependentsOf(element.id()));
+            Set<CalculationElement> dependents = new HashSet<>();
+            topologyLinkRepository.findById(element.id()).ifPresent(link -> {
+                dependents.addAll(nodesOf(link));
+                routeSegmentLinkRepository.findByTopologyLinkId(link.getId()).stream()
+                        .map(RouteSegmentLink::getRoute)
+                        .filter(Objects::nonNull)
+                        .forEach(route -> dependents.add(CalculationElement.route(route.getId())));
+            });
+            linkDependents.put(element.id(), dependents);
+            affected.addAll(dependents);
+        }
+
+        Map<CalculationElement, Map<Material, Double>> contributions = new LinkedHashMap<>();
+        affected.forEach(element -> contributions.put(element, contributionOf(element, settings)));
+        return new CalculationDelta(calculationId, contributions, linkDependents);
+    }
+
+    @Override
+    public void applyDelta(CalculationDelta delta, long baseRevision, long newRevision) {
+        if (delta == null) {
+            return;
+        }
+        synchronized (ledgers) {
+            CalculationLedger ledger = ledgers.get(delta.calculationId());
+            if (ledger == null) {
+                return;
+            }
+            if (!ledger.apply(delta, baseRevision, newRevision)) {
+                LOG.debug("Dropping stale ledger of calculation {} (revision {}, expected {})",
+                        delta.calculationId(), ledger.revision(), baseRevision);
+                ledgers.remove(delta.calculationId());
+            }
+        }
+    }
+
+    @Override
+    public void evict(Long calculationId) {
+        synchronized (ledgers) {
+            ledgers.remove(calculationId);
+        }
+    }
+
+    private List<Map<Material, Double>> computeContributions(List<ElementWork> work, boolean parallel) {
+        if (!parallel || work.size() < engineProperties.getParallelThreshold()) {
+            return work.stream().map(item -> item.contribution().get()).toList();
+        }
+        return runInPool(() -> work.parallelStream().map(item -> item.contribution().get()).toList());
+    }
+
+    private <T> T runInPool(Callable<T> task) {
+        try {
+            return parallelPool().submit(task).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calculation was interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Parallel calculation failed", ex.getCause());
+        }
+    }
+
+    private ForkJoinPool parallelPool() {
+        ForkJoinPool pool = parallelPool;
+        if (pool != null) {
+            return pool;
+        }
+        synchronized (this) {
+            if (parallelPool == null) {
+                parallelPool = new ForkJoinPool(Math.max(1, engineProperties.getParallelism()));
+            }
+            return parallelPool;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ForkJoinPool pool = parallelPool;
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private CalculationLedger findLedger(Long calculationId) {
+        synchronized (ledgers) {
+            return ledgers.get(calculationId);
+        }
+    }
+
+    private Map<Material, Double> contributionOf(CalculationElement element, CalculationSettingsDto settings) {
+        Long id = element.id();
+        return switch (element.type()) {
+            case ROUTE -> installationRouteRepository.findById(id)
+                    .map(route -> routeContribution(route, routeSegmentLinkRepository.findByRouteId(id), settings))
+                    .orElse(Map.of());
+            case LINK -> topologyLinkRepository.findById(id)
+                    .map(this::linkContribution)
+                    .orElse(Map.of());
+            case ENDPOINT -> endpointDeviceRepository.findById(id)
+                    .map(this::endpointContribution)
+                    .orElse(Map.of());
+            case NODE -> networkNodeRepository.findById(id)
+                    .map(node -> nodeContribution(node, countLinks(id), settings))
+                    .orElse(Map.of());
+        };
+    }
+
+    private int countLinks(Long nodeId) {
+        return (int) (topologyLinkRepository.countByFromNodeId(nodeId) + topologyLinkRepository.countByToNodeId(nodeId));
+    }
+
+    private Set<CalculationElement> nodesOf(TopologyLink link) {
+        Set<CalculationElement> nodes = new HashSet<>();
+        Stream.of(link.getFromNode(), link.getToNode())
+                .filter(node -> node != null && node.getId() != null)
+                .forEach(node -> nodes.add(CalculationElement.node(node.getId())));
+        return nodes;
+    }
+
+    private Map<Material, Double> routeContribution(
+            InstallationRoute route, List<RouteSegmentLink> segments, CalculationSettingsDto settings) {
+        try {
+            List<TopologyLink> linksInRoute = segments.stream()
+                    .map(RouteSegmentLink::getTopologyLink)
+                    .toList();
+            if (linksInRoute.isEmpty()) {
+                return Map.of();
+            }
+            return routeCalculator.calculateForRoute(route, linksInRoute, settings);
+        } catch (Exception ex) {
+            LOG.warn("Failed to calculate materials for route {}: {}", route.getName(), ex.getMessage());
+            return Map.of();
+        }
+    }
+
+    private Map<Material, Double> linkContribution(TopologyLink link) {
+        Map<Material, Double> contribution = new HashMap<>();
+        try {
+            merge(contribution, linkCalculator.calculateForLink(link));
+        } catch (Exception ex) {
+            LOG.warn("Failed to calculate materials for link {}: {}", link.getId(), ex.getMessage());
+        }
+        if (link.getLinkType() != null && "FIBER".equalsIgnoreCase(link.getLinkType())) {
             try {
-                int incoming = nodeIncomingCounts.getOrDefault(node.getId(), 0L).intValue();
-                if (node.getIncomingLinesCount() != null) {
-                    incoming = Math.max(incoming, node.getIncomingLinesCount());
-                }
-                merge(materialTotals, nodeCalculator.calculateForNode(node, incoming, settings));
+                merge(contribution, fiberCalculator.calculateForFiberLink(link));
             } catch (Exception ex) {
-                LOG.warn("Failed to calculate materials for node {}: {}", node.getName(), ex.getMessage());
+                LOG.warn("Failed to calculate materials for fiber link {}: {}", link.getId(), ex.getMessage());
             }
-        });
+        }
+        return contribution;
+    }
+
+    private Map<Material, Double> endpointContribution(EndpointDevice device) {
+        try {
+            return endpointCalculator.calculateForDevice(device);
+        } catch (Exception ex) {
+            LOG.warn("Failed to calculate materials for endpoint {}: {}", device.getName(), ex.getMessage());
+            return Map.of();
+        }
+    }
 
-        topologyLinks.stream()
-                .filter(link -> link.getLinkType() != null && "FIBER".equalsIgnoreCase(link.getLinkType()))
-                .forEach(link -> {
-                    try {
-                        merge(materialTotals, fiberCalculator.calculateForFiberLink(link));
-                    } catch (Exception ex) {
-                        LOG.warn("Failed to calculate materials for fiber link {}: {}", link.getId(), ex.getMessage());
-                    }
-                });
+    private Map<Material, Double> nodeContribution(NetworkNode node, int linked, CalculationSettingsDto settings) {
+        try {
+            int incoming = linked;
+            if (node.getIncomingLinesCount() != null) {
+                incoming = Math.max(incoming, node.getIncomingLinesCount());
+            }
+            return nodeCalculator.calculateForNode(node, incoming, settings);
+        } catch (Exception ex) {
+            LOG.warn("Failed to calculate materials for node {}: {}", node.getName(), ex.getMessage());
+            return Map.of();
+        }
+    }
 
+    private CalculationResult toResult(Long calculationId, Map<Material, Double> materialTotals) {
         List<MaterialItemResult> items = materialTotals.entrySet().stream()
                 .sorted(Comparator.comparing(
                                 (Map.Entry<Material, Double> e) -> e.getKey().getCategory(),
@@ -161,7 +408,10 @@ public class CalculationEngineImpl implements CalculationEngine {
                         entry.getValue()))
                 .toList();
 
-        return new CalculationResult(calculation.getId(), items, LocalDateTime.now());
+        return new CalculationResult(calculationId, items, LocalDateTime.now());
+    }
+
+    private record ElementWork(CalculationElement element, Supplier<Map<Material, Double>> contribution) {
     }
 
     private void merge(Map<Material, Double> target, Map<Material, Double> addition) {
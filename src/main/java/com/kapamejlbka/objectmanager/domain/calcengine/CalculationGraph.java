@@ -0,0 +1,19 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import java.util.List;
+import java.util.Map;
+
+public record CalculationGraph(
+        SystemCalculation calculation,
+        List<EndpointDevice> endpointDevices,
+        List<NetworkNode> networkNodes,
+        List<TopologyLink> topologyLinks,
+        List<InstallationRoute> installationRoutes,
+        Map<Long, List<RouteSegmentLink>> segmentsByRoute,
+        long statementCount) {}
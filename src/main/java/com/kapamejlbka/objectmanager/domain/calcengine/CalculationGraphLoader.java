@@ -0,0 +1,140 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+import com.kapamejlbka.objectmanager.config.SqlStatementCounter;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.device.repository.EndpointDeviceRepository;
+import com.kapamejlbka.objectmanager.domain.device.repository.NetworkNodeRepository;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.topology.repository.InstallationRouteRepository;
+import com.kapamejlbka.objectmanager.domain.topology.repository.RouteSegmentLinkRepository;
+import com.kapamejlbka.objectmanager.domain.topology.repository.TopologyLinkRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads everything the engine needs for one calculation in a fixed number of queries, independent of the
+ * number of routes or links. Devices and nodes are read before the links so that the link endpoints are
+ * already managed when they are fetched.
+ */
+@Component
+public class CalculationGraphLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CalculationGraphLoader.class);
+
+    private static final int MAX_IDS_PER_QUERY = 200;
+
+    private final SystemCalculationRepository systemCalculationRepository;
+    private final EndpointDeviceRepository endpointDeviceRepository;
+    private final NetworkNodeRepository networkNodeRepository;
+    private final TopologyLinkRepository topologyLinkRepository;
+    private final InstallationRouteRepository installationRouteRepository;
+    private final RouteSegmentLinkRepository routeSegmentLinkRepository;
+
+    public CalculationGraphLoader(
+            SystemCalculationRepository systemCalculationRepository,
+            EndpointDeviceRepository endpointDeviceRepository,
+            NetworkNodeRepository networkNodeRepository,
+            TopologyLinkRepository topologyLinkRepository,
+            InstallationRouteRepository installationRouteRepository,
+            RouteSegmentLinkRepository routeSegmentLinkRepository) {
+        this.systemCalculationRepository = systemCalculationRepository;
+        this.endpointDeviceRepository = endpointDeviceRepository;
+        this.networkNodeRepository = networkNodeRepository;
+        this.topologyLinkRepository = topologyLinkRepository;
+        this.installationRouteRepository = installationRouteRepository;
+        this.routeSegmentLinkRepository = routeSegmentLinkRepository;
+    }
+
+    public CalculationGraph load(Long calculationId) {
+        long statementsBefore = SqlStatementCounter.current();
+
+        SystemCalculation calculation = systemCalculationRepository
+                .findById(calculationId)
+                .orElseThrow(() -> new IllegalArgumentException("System calculation not found: " + calculationId));
+        List<EndpointDevice> endpointDevices = endpointDeviceRepository.findByCalculationId(calculationId);
+        List<NetworkNode> networkNodes = networkNodeRepository.findByCalculationId(calculationId);
+        List<TopologyLink> topologyLinks = topologyLinkRepository.findWithEndpointsByCalculationId(calculationId);
+        List<InstallationRoute> installationRoutes =
+                installationRouteRepository.findWithMainMaterialByCalculationId(calculationId);
+
+        Map<Long, List<RouteSegmentLink>> segmentsByRoute = new HashMap<>();
+        installationRoutes.forEach(route -> segmentsByRoute.put(route.getId(), new ArrayList<>()));
+        for (RouteSegmentLink segment : routeSegmentLinkRepository.findByRouteCalculation_Id(calculationId)) {
+            segmentsByRoute.computeIfAbsent(segment.getRoute().getId(), key -> new ArrayList<>()).add(segment);
+        }
+
+        long statementCount = SqlStatementCounter.current() - statementsBefore;
+        LOG.debug("Loaded graph of calculation {} ({} links, {} routes) with {} SQL statements",
+                calculationId, topologyLinks.size(), installationRoutes.size(), statementCount);
+        return new CalculationGraph(
+                calculation,
+                endpointDevices,
+                networkNodes,
+                topologyLinks,
+                installationRoutes,
+                segmentsByRoute,
+                statementCount);
+    }
+
+    public Map<Long, CalculationGraph> loadAll(Collection<Long> calculationIds) {
+        List<Long> ids = calculationIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, CalculationGraph> graphs = new LinkedHashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            graphs.putAll(loadChunk(ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY))));
+        }
+        return graphs;
+    }
+
+    private Map<Long, CalculationGraph> loadChunk(List<Long> ids) {
+        long statementsBefore = SqlStatementCounter.current();
+
+        List<SystemCalculation> calculations = systemCalculationRepository.findAllById(ids);
+        Map<Long, List<EndpointDevice>> devices = endpointDeviceRepository.findByCalculationIdIn(ids).stream()
+                .collect(Collectors.groupingBy(device -> device.getCalculation().getId()));
+        Map<Long, List<NetworkNode>> nodes = networkNodeRepository.findByCalculationIdIn(ids).stream()
+                .collect(Collectors.groupingBy(node -> node.getCalculation().getId()));
+        Map<Long, List<TopologyLink>> links = topologyLinkRepository.findWithEndpointsByCalculationIdIn(ids).stream()
+                .collect(Collectors.groupingBy(link -> link.getCalculation().getId()));
+        Map<Long, List<InstallationRoute>> routes =
+                installationRouteRepository.findWithMainMaterialByCalculationIdIn(ids).stream()
+                        .collect(Collectors.groupingBy(route -> route.getCalculation().getId()));
+        Map<Long, List<RouteSegmentLink>> segments = routeSegmentLinkRepository.findByRouteCalculation_IdIn(ids)
+                .stream()
+                .collect(Collectors.groupingBy(segment -> segment.getRoute().getId()));
+
+        long statementCount = SqlStatementCounter.current() - statementsBefore;
+        LOG.debug("Loaded graphs of {} calculations with {} SQL statements", calculations.size(), statementCount);
+
+        Map<Long, CalculationGraph> graphs = new LinkedHashMap<>();
+        for (SystemCalculation calculation : calculations) {
+            Long id = calculation.getId();
+            List<InstallationRoute> calculationRoutes = routes.getOrDefault(id, List.of());
+            Map<Long, List<RouteSegmentLink>> segmentsByRoute = new HashMap<>();
+            calculationRoutes.forEach(route ->
+                    segmentsByRoute.put(route.getId(), segments.getOrDefault(route.getId(), List.of())));
+            graphs.put(id, new CalculationGraph(
+                    calculation,
+                    devices.getOrDefault(id, List.of()),
+                    nodes.getOrDefault(id, List.of()),
+                    links.getOrDefault(id, List.of()),
+                    calculationRoutes,
+                    segmentsByRoute,
+                    statementCount));
+        }
+        return graphs;
+    }
+}
@@ -0,0 +1,81 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-element material contributions of one calculation together with their running totals, stamped with
+ * the input revision they reflect.
+ */
+final class CalculationLedger {
+
+    private final Map<CalculationElement, Map<Material, Double>> contributions = new HashMap<>();
+    private final Map<Long, Set<CalculationElement>> linkDependents = new HashMap<>();
+    private final Map<Material, Double> totals = new HashMap<>();
+    private final Map<Material, Integer> references = new HashMap<>();
+    private long revision;
+
+    CalculationLedger(long revision) {
+        this.revision = revision;
+    }
+
+    synchronized long revision() {
+        return revision;
+    }
+
+    synchronized void put(CalculationElement element, Map<Material, Double> contribution) {
+        Map<Material, Double> previous = contributions.remove(element);
+        if (previous != null) {
+            previous.forEach((material, quantity) -> subtract(material, quantity));
+        }
+        if (contribution == null || contribution.isEmpty()) {
+            return;
+        }
+        Map<Material, Double> copy = new HashMap<>(contribution);
+        contributions.put(element, copy);
+        copy.forEach(this::add);
+    }
+
+    synchronized void putDependents(Long linkId, Set<CalculationElement> dependents) {
+        if (dependents == null || dependents.isEmpty()) {
+            linkDependents.remove(linkId);
+            return;
+        }
+        linkDependents.put(linkId, Set.copyOf(dependents));
+    }
+
+    synchronized Set<CalculationElement> dependentsOf(Long linkId) {
+        return linkDependents.getOrDefault(linkId, Set.of());
+    }
+
+    synchronized boolean apply(CalculationDelta delta, long baseRevision, long newRevision) {
+        if (revision != baseRevision) {
+            return false;
+        }
+        delta.contributions().forEach(this::put);
+        delta.linkDependents().forEach(this::putDependents);
+        revision = newRevision;
+        return true;
+    }
+
+    synchronized Map<Material, Double> totals() {
+        return new HashMap<>(totals);
+    }
+
+    private void add(Material material, Double quantity) {
+        totals.merge(material, quantity == null ? 0d : quantity, Double::sum);
+        references.merge(material, 1, Integer::sum);
+    }
+
+    private void subtract(Material material, Double quantity) {
+        Integer remaining = references.merge(material, -1, Integer::sum);
+        if (remaining == null || remaining <= 0) {
+            references.remove(material);
+            totals.remove(material);
+            return;
+        }
+        totals.merge(material, quantity == null ? 0d : -quantity, Double::sum);
+    }
+}
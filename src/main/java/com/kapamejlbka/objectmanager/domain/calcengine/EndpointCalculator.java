@@ -5,7 +5,7 @@ import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
 import com.kapamejlbka.objectmanager.domain.material.Material;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
-import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -45,11 +45,12 @@ public class EndpointCalculator {
     private static final MaterialNormContext ENDPOINT_OTHER_DEVICE_RJ45 =
             MaterialNormContext.ENDPOINT_OTHER_NETWORK_DEVICE_RJ45;
 
-    private final MaterialNormRepository materialNormRepository;
+    private final MaterialNormCatalogService materialNormCatalogService;
     private final ExpressionEvaluator expressionEvaluator;
 
-    public EndpointCalculator(MaterialNormRepository materialNormRepository, ExpressionEvaluator expressionEvaluator) {
-        this.materialNormRepository = materialNormRepository;
+    public EndpointCalculator(
+            MaterialNormCatalogService materialNormCatalogService, ExpressionEvaluator expressionEvaluator) {
+        this.materialNormCatalogService = materialNormCatalogService;
         this.expressionEvaluator = expressionEvaluator;
     }
 
@@ -95,7 +96,7 @@ public class EndpointCalculator {
     }
 
     private void addFromNorm(Map<Material, Double> result, MaterialNormContext contextType, Map<String, Object> context) {
-        List<MaterialNorm> norms = materialNormRepository.findAllByContextType(contextType);
+        List<MaterialNorm> norms = materialNormCatalogService.findByContext(contextType);
         if (norms.isEmpty()) {
             LOG.warn("Material norm not found for context: {}", contextType.name());
             return;
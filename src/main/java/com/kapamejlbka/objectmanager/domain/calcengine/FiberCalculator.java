@@ -5,7 +5,7 @@ import com.kapamejlbka.objectmanager.domain.material.Material;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
-import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,11 +22,12 @@ public class FiberCalculator {
     private static final MaterialNormContext FIBER_SPLICE = MaterialNormContext.FIBER_SPLICE;
     private static final MaterialNormContext FIBER_CONNECTOR = MaterialNormContext.FIBER_CONNECTOR;
 
-    private final MaterialNormRepository materialNormRepository;
+    private final MaterialNormCatalogService materialNormCatalogService;
     private final ExpressionEvaluator expressionEvaluator;
 
-    public FiberCalculator(MaterialNormRepository materialNormRepository, ExpressionEvaluator expressionEvaluator) {
-        this.materialNormRepository = materialNormRepository;
+    public FiberCalculator(
+            MaterialNormCatalogService materialNormCatalogService, ExpressionEvaluator expressionEvaluator) {
+        this.materialNormCatalogService = materialNormCatalogService;
         this.expressionEvaluator = expressionEvaluator;
     }
 
@@ -73,7 +74,7 @@ public class FiberCalculator {
             return;
         }
 
-        List<MaterialNorm> norms = materialNormRepository.findAllByContextType(normContext);
+        List<MaterialNorm> norms = materialNormCatalogService.findByContext(normContext);
         if (norms.isEmpty()) {
             LOG.warn("Material norm not found for context: {}", normContext.name());
             return;
@@ -5,7 +5,7 @@ import com.kapamejlbka.objectmanager.domain.material.Material;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
-import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -22,11 +22,12 @@ public class LinkCalculator {
     private static final MaterialNormContext LINK_UTP_LENGTH = MaterialNormContext.LINK_UTP_LENGTH;
     private static final MaterialNormContext LINK_POWER_LENGTH = MaterialNormContext.LINK_POWER_LENGTH;
 
-    private final MaterialNormRepository materialNormRepository;
+    private final MaterialNormCatalogService materialNormCatalogService;
     private final ExpressionEvaluator expressionEvaluator;
 
-    public LinkCalculator(MaterialNormRepository materialNormRepository, ExpressionEvaluator expressionEvaluator) {
-        this.materialNormRepository = materialNormRepository;
+    public LinkCalculator(
+            MaterialNormCatalogService materialNormCatalogService, ExpressionEvaluator expressionEvaluator) {
+        this.materialNormCatalogService = materialNormCatalogService;
         this.expressionEvaluator = expressionEvaluator;
     }
 
@@ -73,7 +74,7 @@ public class LinkCalculator {
     }
 
     private void addFromNorm(Map<Material, Double> result, MaterialNormContext contextType, Map<String, Object> context) {
-        List<MaterialNorm> norms = materialNormRepository.findAllByContextType(contextType);
+        List<MaterialNorm> norms = materialNormCatalogService.findByContext(contextType);
         if (norms.isEmpty()) {
             LOG.warn("Material norm not found for context: {}", contextType.name());
             return;
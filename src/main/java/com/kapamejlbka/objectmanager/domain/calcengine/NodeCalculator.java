@@ -6,7 +6,7 @@ import com.kapamejlbka.objectmanager.domain.material.Material;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
 import com.kapamejlbka.objectmanager.domain.settings.dto.CalculationSettingsDto;
-import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -31,11 +31,12 @@ public class NodeCalculator {
     private static final int MIN_LUGS = 10;
     private static final int LUGS_PER_EXTRA_SOCKET = 4;
 
-    private final MaterialNormRepository materialNormRepository;
+    private final MaterialNormCatalogService materialNormCatalogService;
     private final ExpressionEvaluator expressionEvaluator;
 
-    public NodeCalculator(MaterialNormRepository materialNormRepository, ExpressionEvaluator expressionEvaluator) {
-        this.materialNormRepository = materialNormRepository;
+    public NodeCalculator(
+            MaterialNormCatalogService materialNormCatalogService, ExpressionEvaluator expressionEvaluator) {
+        this.materialNormCatalogService = materialNormCatalogService;
         this.expressionEvaluator = expressionEvaluator;
     }
 
@@ -125,7 +126,7 @@ public class NodeCalculator {
     }
 
     private void addFromNorm(Map<Material, Double> result, MaterialNormContext contextType, Map<String, Object> context) {
-        List<MaterialNorm> norms = materialNormRepository.findAllByContextType(contextType);
+        List<MaterialNorm> norms = materialNormCatalogService.findByContext(contextType);
         if (norms.isEmpty()) {
             LOG.warn("Material norm not found for context: {}", contextType.name());
             return;
@@ -0,0 +1,85 @@
+package com.kapamejlbka.objectmanager.domain.calcengine.dsl;
+
+import java.util.Map;
+
+public final class CompiledExpression {
+
+    static final byte PUSH_CONSTANT = 0;
+    static final byte PUSH_VARIABLE = 1;
+    static final byte ADD = 2;
+    static final byte SUBTRACT = 3;
+    static final byte MULTIPLY = 4;
+    static final byte DIVIDE = 5;
+    static final byte CEIL = 6;
+    static final byte FLOOR = 7;
+    static final byte MAX = 8;
+    static final byte MIN = 9;
+
+    private final String source;
+    private final byte[] opcodes;
+    private final double[] constants;
+    private final String[] variables;
+    private final int maxStackDepth;
+
+    CompiledExpression(String source, byte[] opcodes, double[] constants, String[] variables, int maxStackDepth) {
+        this.source = source;
+        this.opcodes = opcodes;
+        this.constants = constants;
+        this.variables = variables;
+        this.maxStackDepth = maxStackDepth;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public double evaluate(Map<String, Object> context) {
+        Map<String, Object> values = context == null ? Map.of() : context;
+        double[] stack = new double[maxStackDepth];
+        int top = 0;
+
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (opcodes[i]) {
+                case PUSH_CONSTANT -> stack[top++] = constants[i];
+                case PUSH_VARIABLE -> stack[top++] = resolveVariable(variables[i], values);
+                case ADD -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] + stack[top];
+                }
+                case SUBTRACT -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] - stack[top];
+                }
+                case MULTIPLY -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] * stack[top];
+                }
+                case DIVIDE -> {
+                    top--;
+                    stack[top - 1] = stack[top - 1] / stack[top];
+                }
+                case CEIL -> stack[top - 1] = Math.ceil(stack[top - 1]);
+                case FLOOR -> stack[top - 1] = Math.floor(stack[top - 1]);
+                case MAX -> {
+                    top--;
+                    stack[top - 1] = Math.max(stack[top - 1], stack[top]);
+                }
+                case MIN -> {
+                    top--;
+                    stack[top - 1] = Math.min(stack[top - 1], stack[top]);
+                }
+                default -> throw new IllegalStateException("Unexpected opcode: " + opcodes[i]);
+            }
+        }
+
+        return stack[0];
+    }
+
+    private double resolveVariable(String name, Map<String, Object> context) {
+        Object value = context.get(name);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        throw new IllegalArgumentException("Unknown or non-numeric variable: " + name);
+    }
+}
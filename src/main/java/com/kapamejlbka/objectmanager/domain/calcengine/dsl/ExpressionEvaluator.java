@@ -3,6 +3,7 @@ package com.kapamejlbka.objectmanager.domain.calcengine.dsl;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -18,12 +19,49 @@ public class ExpressionEvaluator {
     private record Token(TokenType type, String value) {
     }
 
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+
+    private final Map<String, CompiledExpression> compiledCache =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            };
+
     public double evaluate(String expression, Map<String, Object> context) {
+        return compile(expression).evaluate(context);
+    }
+
+    public CompiledExpression compile(String expression) {
         Objects.requireNonNull(expression, "expression must not be null");
-        Map<String, Object> values = context == null ? Map.of() : context;
+        synchronized (compiledCache) {
+            CompiledExpression cached = compiledCache.get(expression);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        List<Token> rpn = toRpn(expression);
-        return evaluateRpn(rpn, values);
+        CompiledExpression compiled = toProgram(expression, toRpn(expression));
+        synchronized (compiledCache) {
+            compiledCache.put(expression, compiled);
+        }
+        return compiled;
+    }
+
+    public void evict(String expression) {
+        if (expression == null) {
+            return;
+        }
+        synchronized (compiledCache) {
+            compiledCache.remove(expression);
+        }
+    }
+
+    public void clearCache() {
+        synchronized (compiledCache) {
+            compiledCache.clear();
+        }
     }
 
     private List<Token> toRpn(String expression) {
@@ -159,83 +197,79 @@ public class ExpressionEvaluator {
         };
     }
 
-    private double evaluateRpn(List<Token> tokens, Map<String, Object> context) {
-        Deque<Double> stack = new ArrayDeque<>();
+    private CompiledExpression toProgram(String expression, List<Token> tokens) {
+        int size = tokens.size();
+        byte[] opcodes = new byte[size];
+        double[] constants = new double[size];
+        String[] variables = new String[size];
+        int depth = 0;
+        int maxDepth = 0;
 
-        for (Token token : tokens) {
+        for (int i = 0; i < size; i++) {
+            Token token = tokens.get(i);
             switch (token.type()) {
-                case NUMBER -> stack.push(Double.parseDouble(token.value()));
-                case VARIABLE -> stack.push(resolveVariable(token.value(), context));
-                case OPERATOR -> applyOperator(stack, token.value());
-                case FUNCTION -> applyFunction(stack, token.value());
+                case NUMBER -> {
+                    opcodes[i] = CompiledExpression.PUSH_CONSTANT;
+                    constants[i] = Double.parseDouble(token.value());
+                    depth++;
+                }
+                case VARIABLE -> {
+                    opcodes[i] = CompiledExpression.PUSH_VARIABLE;
+                    variables[i] = token.value();
+                    depth++;
+                }
+                case OPERATOR -> {
+                    if (depth < 2) {
+                        throw new IllegalArgumentException("Insufficient values for operator " + token.value());
+                    }
+                    opcodes[i] = operatorOpcode(token.value());
+                    depth--;
+                }
+                case FUNCTION -> {
+                    int arity = functionArity(token.value());
+                    if (depth < arity) {
+                        throw new IllegalArgumentException("Insufficient values for function " + token.value());
+                    }
+                    opcodes[i] = functionOpcode(token.value());
+                    depth -= arity - 1;
+                }
                 default -> throw new IllegalStateException("Unexpected token type: " + token.type());
             }
+            maxDepth = Math.max(maxDepth, depth);
         }
 
-        if (stack.size() != 1) {
+        if (depth != 1) {
             throw new IllegalArgumentException("Invalid expression");
         }
 
-        return stack.pop();
-    }
-
-    private double resolveVariable(String name, Map<String, Object> context) {
-        Object value = context.get(name);
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        throw new IllegalArgumentException("Unknown or non-numeric variable: " + name);
+        return new CompiledExpression(expression, opcodes, constants, variables, maxDepth);
     }
 
-    private void applyOperator(Deque<Double> stack, String operator) {
-        if (stack.size() < 2) {
-            throw new IllegalArgumentException("Insufficient values for operator " + operator);
-        }
-        double right = stack.pop();
-        double left = stack.pop();
-
-        double result = switch (operator) {
-            case "+" -> left + right;
-            case "-" -> left - right;
-            case "*" -> left * right;
-            case "/" -> left / right;
+    private byte operatorOpcode(String operator) {
+        return switch (operator) {
+            case "+" -> CompiledExpression.ADD;
+            case "-" -> CompiledExpression.SUBTRACT;
+            case "*" -> CompiledExpression.MULTIPLY;
+            case "/" -> CompiledExpression.DIVIDE;
             default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
         };
-
-        stack.push(result);
     }
 
-    private void applyFunction(Deque<Double> stack, String function) {
-        double result;
-        switch (function) {
-            case "ceil" -> {
-                ensureStackSize(stack, 1, function);
-                result = Math.ceil(stack.pop());
-            }
-            case "floor" -> {
-                ensureStackSize(stack, 1, function);
-                result = Math.floor(stack.pop());
-            }
-            case "max" -> {
-                ensureStackSize(stack, 2, function);
-                double b = stack.pop();
-                double a = stack.pop();
-                result = Math.max(a, b);
-            }
-            case "min" -> {
-                ensureStackSize(stack, 2, function);
-                double b = stack.pop();
-                double a = stack.pop();
-                result = Math.min(a, b);
-            }
+    private int functionArity(String function) {
+        return switch (function) {
+            case "ceil", "floor" -> 1;
+            case "max", "min" -> 2;
             default -> throw new IllegalArgumentException("Unsupported function: " + function);
-        }
-        stack.push(result);
+        };
     }
 
-    private void ensureStackSize(Deque<Double> stack, int expected, String name) {
-        if (stack.size() < expected) {
-            throw new IllegalArgumentException("Insufficient values for function " + name);
-        }
+    private byte functionOpcode(String function) {
+        return switch (function) {
+            case "ceil" -> CompiledExpression.CEIL;
+            case "floor" -> CompiledExpression.FLOOR;
+            case "max" -> CompiledExpression.MAX;
+            case "min" -> CompiledExpression.MIN;
+            default -> throw new IllegalArgumentException("Unsupported function: " + function);
+        };
     }
 }
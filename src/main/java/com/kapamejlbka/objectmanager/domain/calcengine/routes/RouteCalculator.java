@@ -7,7 +7,7 @@ import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
 import com.kapamejlbka.objectmanager.domain.settings.dto.CalculationSettingsDto;
 import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
-import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -37,11 +37,12 @@ public class RouteCalculator {
     private static final MaterialNormContext BARE_CABLE_ONE_CLIP = MaterialNormContext.BARE_CABLE_ONE_CLIP;
     private static final MaterialNormContext BARE_CABLE_PE_TIES = MaterialNormContext.BARE_CABLE_PE_TIES;
 
-    private final MaterialNormRepository materialNormRepository;
+    private final MaterialNormCatalogService materialNormCatalogService;
     private final ExpressionEvaluator expressionEvaluator;
 
-    public RouteCalculator(MaterialNormRepository materialNormRepository, ExpressionEvaluator expressionEvaluator) {
-        this.materialNormRepository = materialNormRepository;
+    public RouteCalculator(
+            MaterialNormCatalogService materialNormCatalogService, ExpressionEvaluator expressionEvaluator) {
+        this.materialNormCatalogService = materialNormCatalogService;
         this.expressionEvaluator = expressionEvaluator;
     }
 
@@ -176,7 +177,7 @@ public class RouteCalculator {
             return;
         }
 
-        List<MaterialNorm> norms = materialNormRepository.findAllByContextType(contextType);
+        List<MaterialNorm> norms = materialNormCatalogService.findByContext(contextType);
         if (norms.isEmpty()) {
             LOG.warn("Material norm not found for context: {}", contextType.name());
             return;
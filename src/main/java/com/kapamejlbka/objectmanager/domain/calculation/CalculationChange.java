@@ -0,0 +1,73 @@
+package com.kapamejlbka.objectmanager.domain.calculation;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One element touched at a given editor revision of a calculation. A row without an element means
+ * that everything may have changed (for example after a material or settings update) and clients
+ * have to reload in full.
+ */
+@Entity
+@Table(
+        name = "calculation_changes",
+        indexes = @Index(name = "idx_calculation_changes_revision", columnList = "calculation_id, revision"))
+public class CalculationChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "calculation_id", nullable = false)
+    private Long calculationId;
+
+    @Column(nullable = false)
+    private long revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "element_type", length = 16)
+    private CalculationElement.Type elementType;
+
+    @Column(name = "element_id")
+    private Long elementId;
+
+    protected CalculationChange() {
+    }
+
+    public CalculationChange(Long calculationId, long revision, CalculationElement element) {
+        this.calculationId = calculationId;
+        this.revision = revision;
+        if (element != null) {
+            this.elementType = element.type();
+            this.elementId = element.id();
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCalculationId() {
+        return calculationId;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public CalculationElement.Type getElementType() {
+        return elementType;
+    }
+
+    public Long getElementId() {
+        return elementId;
+    }
+}
@@ -0,0 +1,80 @@
+package com.kapamejlbka.objectmanager.domain.calculation;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(
+        name = "calculation_snapshots",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"calculation_id"})
+)
+public class CalculationSnapshot {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "calculation_id", nullable = false)
+    private SystemCalculation calculation;
+
+    @Column(name = "input_revision", nullable = false)
+    private long inputRevision;
+
+    @Column(name = "executed_at", nullable = false)
+    private LocalDateTime executedAt;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "calculation_snapshot_items", joinColumns = @JoinColumn(name = "snapshot_id"))
+    @OrderColumn(name = "position")
+    private List<CalculationSnapshotItem> items = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public SystemCalculation getCalculation() {
+        return calculation;
+    }
+
+    public void setCalculation(SystemCalculation calculation) {
+        this.calculation = calculation;
+    }
+
+    public long getInputRevision() {
+        return inputRevision;
+    }
+
+    public void setInputRevision(long inputRevision) {
+        this.inputRevision = inputRevision;
+    }
+
+    public LocalDateTime getExecutedAt() {
+        return executedAt;
+    }
+
+    public void setExecutedAt(LocalDateTime executedAt) {
+        this.executedAt = executedAt;
+    }
+
+    public List<CalculationSnapshotItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CalculationSnapshotItem> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,67 @@
+package com.kapamejlbka.objectmanager.domain.calculation;
+
+import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+@Embeddable
+public class CalculationSnapshotItem {
+
+    @Column(name = "material_code")
+    private String materialCode;
+
+    @Column(name = "material_name")
+    private String materialName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category")
+    private MaterialCategory category;
+
+    @Column(name = "unit")
+    private String unit;
+
+    @Column(name = "quantity", nullable = false)
+    private double quantity;
+
+    public String getMaterialCode() {
+        return materialCode;
+    }
+
+    public void setMaterialCode(String materialCode) {
+        this.materialCode = materialCode;
+    }
+
+    public String getMaterialName() {
+        return materialName;
+    }
+
+    public void setMaterialName(String materialName) {
+        this.materialName = materialName;
+    }
+
+    public MaterialCategory getCategory() {
+        return category;
+    }
+
+    public void setCategory(MaterialCategory category) {
+        this.category = category;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -40,6 +40,12 @@ public class SystemCalculation {
     @Column(nullable = false)
     private String status;
 
+    @Column(name = "input_revision", updatable = false)
+    private Long inputRevision;
+
+    @Column(name = "editor_revision", updatable = false)
+    private Long editorRevision;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -48,6 +54,12 @@ public class SystemCalculation {
 
     @PrePersist
     public void prePersist() {
+        if (inputRevision == null) {
+            inputRevision = 0L;
+        }
+        if (editorRevision == null) {
+            editorRevision = 0L;
+        }
         LocalDateTime now = LocalDateTime.now();
         if (createdAt == null) {
             createdAt = now;
@@ -106,6 +118,14 @@ public class SystemCalculation {
         this.status = status;
     }
 
+    public Long getInputRevision() {
+        return inputRevision;
+    }
+
+    public Long getEditorRevision() {
+        return editorRevision;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,5 @@
+package com.kapamejlbka.objectmanager.domain.calculation.dto;
+
+import java.util.List;
+
+public record PortfolioCalculationRequest(List<Long> calculationIds, Long customerId) {}
@@ -0,0 +1,6 @@
+package com.kapamejlbka.objectmanager.domain.calculation.dto;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.MaterialItemResult;
+import java.util.List;
+
+public record PortfolioCalculationResult(List<SiteCalculationResult> sites, List<MaterialItemResult> totals) {}
@@ -0,0 +1,12 @@
+package com.kapamejlbka.objectmanager.domain.calculation.dto;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.MaterialItemResult;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SiteCalculationResult(
+        Long calculationId,
+        Long siteId,
+        String siteName,
+        LocalDateTime executedAt,
+        List<MaterialItemResult> items) {}
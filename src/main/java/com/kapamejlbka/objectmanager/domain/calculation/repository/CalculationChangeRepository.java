@@ -0,0 +1,30 @@
+package com.kapamejlbka.objectmanager.domain.calculation.repository;
+
+import com.kapamejlbka.objectmanager.domain.calculation.CalculationChange;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CalculationChangeRepository extends JpaRepository<CalculationChange, Long> {
+
+    @Query("select distinct change.elementType, change.elementId from CalculationChange change"
+            + " where change.calculationId = :calculationId and change.revision > :since")
+    List<Object[]> findElementsChangedSince(@Param("calculationId") Long calculationId, @Param("since") long since);
+
+    @Modifying
+    @Query("insert into CalculationChange (calculationId, revision)"
+            + " select c.id, coalesce(c.editorRevision, 0) from SystemCalculation c")
+    int insertFullChangeForAll();
+
+    /**
+     * Drops changes that are more than {@code retained} editor revisions behind their calculation,
+     * and changes of calculations that no longer exist.
+     */
+    @Modifying
+    @Query("delete from CalculationChange change where change.revision + :retained <="
+            + " (select coalesce(c.editorRevision, 0) from SystemCalculation c where c.id = change.calculationId)"
+            + " or not exists (select c.id from SystemCalculation c where c.id = change.calculationId)")
+    int deleteOutsideRetention(@Param("retained") long retained);
+}
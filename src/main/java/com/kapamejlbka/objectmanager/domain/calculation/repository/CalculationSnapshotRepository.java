@@ -0,0 +1,16 @@
+package com.kapamejlbka.objectmanager.domain.calculation.repository;
+
+import com.kapamejlbka.objectmanager.domain.calculation.CalculationSnapshot;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CalculationSnapshotRepository extends JpaRepository<CalculationSnapshot, Long> {
+
+    Optional<CalculationSnapshot> findByCalculationId(Long calculationId);
+
+    @EntityGraph(attributePaths = "items")
+    List<CalculationSnapshot> findByCalculationIdIn(Collection<Long> calculationIds);
+}
@@ -1,13 +1,56 @@
 package com.kapamejlbka.objectmanager.domain.calculation.repository;
 
 import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SystemCalculationRepository extends JpaRepository<SystemCalculation, Long> {
 
     List<SystemCalculation> findBySiteId(Long siteId);
 
     Optional<SystemCalculation> findFirstBySiteId(Long siteId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from SystemCalculation c where c.id = :id")
+    Optional<SystemCalculation> findLockedById(@Param("id") Long id);
+
+    List<SystemCalculation> findBySiteCustomerId(Long customerId);
+
+    @Query("select c from SystemCalculation c join fetch c.site s join fetch s.customer where c.id in :ids")
+    List<SystemCalculation> findWithSiteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select c from SystemCalculation c join fetch c.site s join fetch s.customer customer"
+            + " where customer.id = :customerId")
+    List<SystemCalculation> findWithSiteBySiteCustomerId(@Param("customerId") Long customerId);
+
+    @Query("select coalesce(c.inputRevision, 0) from SystemCalculation c where c.id = :id")
+    Optional<Long> findInputRevisionById(@Param("id") Long id);
+
+    @Query("select c.id, coalesce(c.inputRevision, 0) from SystemCalculation c where c.id in :ids")
+    List<Object[]> findInputRevisionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select coalesce(c.editorRevision, 0) from SystemCalculation c where c.id = :id")
+    Optional<Long> findEditorRevisionById(@Param("id") Long id);
+
+    /** Every input change is also an editor change, so both revisions move together. */
+    @Modifying
+    @Query("update SystemCalculation c set c.inputRevision = coalesce(c.inputRevision, 0) + 1,"
+            + " c.editorRevision = coalesce(c.editorRevision, 0) + 1 where c.id = :id")
+    int incrementInputRevision(@Param("id") Long id);
+
+    @Modifying
+    @Query("update SystemCalculation c set c.inputRevision = coalesce(c.inputRevision, 0) + 1,"
+            + " c.editorRevision = coalesce(c.editorRevision, 0) + 1")
+    int incrementAllInputRevisions();
+
+    @Modifying
+    @Query("update SystemCalculation c set c.editorRevision = coalesce(c.editorRevision, 0) + 1 where c.id = :id")
+    int incrementEditorRevision(@Param("id") Long id);
 }
@@ -0,0 +1,133 @@
+package com.kapamejlbka.objectmanager.domain.customer;
+
+import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * {@link ObjectChange} moved out of the hot table once it is older than the configured age. The
+ * object is referenced by id only; the rows are removed together with the object when it is
+ * deleted permanently.
+ */
+@Entity
+@Table(
+        name = "object_changes_archive",
+        indexes = @Index(name = "idx_object_changes_archive_object", columnList = "object_id, changed_at, id"))
+public class ArchivedObjectChange implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "object_id")
+    private UUID objectId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private AppUser user;
+
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt;
+
+    @Enumerated(EnumType.STRING)
+    private ObjectChangeType changeType;
+
+    private String fieldName;
+
+    @Lob
+    private String oldValue;
+
+    @Lob
+    private String newValue;
+
+    @Column(length = 1024)
+    private String summary;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    protected ArchivedObjectChange() {
+    }
+
+    public ArchivedObjectChange(ObjectChange change, LocalDateTime archivedAt) {
+        this.id = change.getId();
+        this.objectId = change.getManagedObject() == null ? null : change.getManagedObject().getId();
+        this.user = change.getUser();
+        this.changedAt = change.getChangedAt();
+        this.changeType = change.getChangeType();
+        this.fieldName = change.getFieldName();
+        this.oldValue = change.getOldValue();
+        this.newValue = change.getNewValue();
+        this.summary = change.getSummary();
+        this.archivedAt = archivedAt;
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public UUID getObjectId() {
+        return objectId;
+    }
+
+    public AppUser getUser() {
+        return user;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public ObjectChangeType getChangeType() {
+        return changeType;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    public String getNewValue() {
+        return newValue;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
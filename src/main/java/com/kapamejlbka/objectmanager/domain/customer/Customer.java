@@ -1,9 +1,12 @@
 package com.kapamejlbka.objectmanager.domain.customer;
 
+import com.kapamejlbka.objectmanager.domain.search.SearchIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
@@ -12,7 +15,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "customers")
+@EntityListeners(SearchIndexListener.class)
+@Table(name = "customers", indexes = {
+        @Index(name = "idx_customers_name_id", columnList = "name, id"),
+        @Index(name = "idx_customers_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_customers_updated_at_id", columnList = "updated_at, id")
+})
 public class Customer {
 
     @Id
@@ -0,0 +1,54 @@
+package com.kapamejlbka.objectmanager.domain.customer;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "file_blobs")
+public class FileBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    private long size;
+
+    @Column(name = "reference_count", nullable = false)
+    private long referenceCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public FileBlob() {
+    }
+
+    public FileBlob(String contentHash, long size, long referenceCount, LocalDateTime createdAt) {
+        this.contentHash = contentHash;
+        this.size = size;
+        this.referenceCount = referenceCount;
+        this.createdAt = createdAt;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getReferenceCount() {
+        return referenceCount;
+    }
+
+    public void setReferenceCount(long referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -1,9 +1,11 @@
 package com.kapamejlbka.objectmanager.domain.customer;
 
+import com.kapamejlbka.objectmanager.domain.search.SearchIndexListener;
 import com.kapamejlbka.objectmanager.domain.user.AppUser;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -25,6 +27,7 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "managed_objects")
 public class ManagedObject {
 
@@ -8,6 +8,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Lob;
@@ -16,7 +17,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "object_changes")
+@Table(
+        name = "object_changes",
+        indexes = {
+                @Index(name = "idx_object_changes_object", columnList = "object_id, changedAt, id"),
+                @Index(name = "idx_object_changes_changed_at", columnList = "changedAt")
+        })
 public class ObjectChange {
 
     @Id
@@ -0,0 +1,18 @@
+package com.kapamejlbka.objectmanager.domain.customer;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * List view of an {@link ObjectChange} without the old and new values, which are large objects
+ * and are fetched only when a single change is opened.
+ */
+public record ObjectChangeSummary(
+        UUID id,
+        LocalDateTime changedAt,
+        ObjectChangeType changeType,
+        String fieldName,
+        String summary,
+        String username,
+        boolean hasValues
+) {}
@@ -1,7 +1,9 @@
 package com.kapamejlbka.objectmanager.domain.customer;
 
+import com.kapamejlbka.objectmanager.domain.search.SearchIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
@@ -12,6 +14,7 @@ import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "sites")
 public class Site {
 
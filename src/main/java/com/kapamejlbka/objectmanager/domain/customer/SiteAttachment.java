@@ -33,6 +33,9 @@ public class SiteAttachment {
 
     private Long size;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "attachment_type")
     private String attachmentType;
 
@@ -90,6 +93,14 @@ public class SiteAttachment {
         this.size = size;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public String getAttachmentType() {
         return attachmentType;
     }
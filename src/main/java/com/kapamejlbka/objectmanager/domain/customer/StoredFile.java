@@ -31,6 +31,9 @@ public class StoredFile {
     @Column(name = "content_type")
     private String contentType;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "object_id")
     private ManagedObject managedObject;
@@ -103,6 +106,14 @@ public class StoredFile {
         return originalFilename.substring(lastDotIndex + 1);
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public boolean isImageType() {
         String normalizedContentType = normalizeContentType();
         return !normalizedContentType.isEmpty() && normalizedContentType.startsWith("image/");
@@ -0,0 +1,114 @@
+package com.kapamejlbka.objectmanager.domain.customer;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Materialized "user may see target" row. The primary key (user, target type, target) makes an
+ * access check a single index lookup; the secondary index serves the rewrites per target.
+ */
+@Entity
+@Table(
+        name = "visibility_entries",
+        indexes = @Index(name = "idx_visibility_entries_target", columnList = "target_type, target_id"))
+public class VisibilityEntry implements Persistable<VisibilityEntry.Key> {
+
+    public enum TargetType {
+        CUSTOMER, OBJECT
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Transient
+    private boolean isNew = true;
+
+    protected VisibilityEntry() {
+    }
+
+    public VisibilityEntry(Long userId, TargetType targetType, UUID targetId) {
+        this.id = new Key(userId, targetType, targetId);
+    }
+
+    @Override
+    public Key getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "target_type", nullable = false, length = 16)
+        private TargetType targetType;
+
+        @Column(name = "target_id", nullable = false)
+        private UUID targetId;
+
+        protected Key() {
+        }
+
+        public Key(Long userId, TargetType targetType, UUID targetId) {
+            this.userId = userId;
+            this.targetType = targetType;
+            this.targetId = targetId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public TargetType getTargetType() {
+            return targetType;
+        }
+
+        public UUID getTargetId() {
+            return targetId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(userId, key.userId)
+                    && targetType == key.targetType
+                    && Objects.equals(targetId, key.targetId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, targetType, targetId);
+        }
+    }
+}
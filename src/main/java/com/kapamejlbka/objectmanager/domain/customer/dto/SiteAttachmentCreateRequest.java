@@ -7,6 +7,7 @@ public class SiteAttachmentCreateRequest {
     private String contentType;
     private Long size;
     private String attachmentType;
+    private String contentHash;
 
     public String getFileName() {
         return fileName;
@@ -47,4 +48,12 @@ public class SiteAttachmentCreateRequest {
     public void setAttachmentType(String attachmentType) {
         this.attachmentType = attachmentType;
     }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
 }
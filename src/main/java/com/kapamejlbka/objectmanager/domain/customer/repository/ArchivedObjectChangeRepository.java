@@ -0,0 +1,50 @@
+package com.kapamejlbka.objectmanager.domain.customer.repository;
+
+import com.kapamejlbka.objectmanager.domain.customer.ArchivedObjectChange;
+import com.kapamejlbka.objectmanager.domain.customer.ObjectChangeSummary;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ArchivedObjectChangeRepository extends JpaRepository<ArchivedObjectChange, UUID> {
+
+    @Query("""
+            select new com.kapamejlbka.objectmanager.domain.customer.ObjectChangeSummary(
+                c.id, c.changedAt, c.changeType, c.fieldName, c.summary, u.username,
+                case when c.oldValue is not null or c.newValue is not null then true else false end)
+            from ArchivedObjectChange c
+            left join c.user u
+            where c.objectId = :objectId
+            order by c.changedAt desc, c.id desc
+            """)
+    List<ObjectChangeSummary> findSummaries(@Param("objectId") UUID objectId, Limit limit);
+
+    @Query("""
+            select new com.kapamejlbka.objectmanager.domain.customer.ObjectChangeSummary(
+                c.id, c.changedAt, c.changeType, c.fieldName, c.summary, u.username,
+                case when c.oldValue is not null or c.newValue is not null then true else false end)
+            from ArchivedObjectChange c
+            left join c.user u
+            where c.objectId = :objectId
+              and (c.changedAt < :changedAt or (c.changedAt = :changedAt and c.id < :id))
+            order by c.changedAt desc, c.id desc
+            """)
+    List<ObjectChangeSummary> findSummariesBefore(
+            @Param("objectId") UUID objectId,
+            @Param("changedAt") LocalDateTime changedAt,
+            @Param("id") UUID id,
+            Limit limit);
+
+    @Query("select c from ArchivedObjectChange c left join fetch c.user where c.id = :id and c.objectId = :objectId")
+    Optional<ArchivedObjectChange> findByIdAndObjectId(@Param("id") UUID id, @Param("objectId") UUID objectId);
+
+    @Modifying
+    @Query("delete from ArchivedObjectChange c where c.objectId = :objectId")
+    int deleteByObjectId(@Param("objectId") UUID objectId);
+}
@@ -2,9 +2,56 @@ package com.kapamejlbka.objectmanager.domain.customer.repository;
 
 import com.kapamejlbka.objectmanager.domain.customer.Customer;
 import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    /** Case-insensitive name order with nulls last; the id breaks ties so that keyset pages are stable. */
+    String ORDER_BY_NAME = " order by lower(c.name) asc nulls last, c.id asc";
+
+    /** Matches {@code :pattern}, an upper-cased {@code like} pattern escaped with a backslash. */
+    String MATCHES_QUERY = " (upper(c.name) like :pattern escape '\\' or upper(c.taxNumber) like :pattern escape '\\')";
+
+    String AFTER_NAME = " (lower(c.name) > lower(:name) or (lower(c.name) = lower(:name) and c.id > :id))";
+
     List<Customer> findByNameContainingIgnoreCaseOrTaxNumberContainingIgnoreCase(String name, String taxNumber);
+
+    Page<Customer> findByNameContainingIgnoreCaseOrTaxNumberContainingIgnoreCase(
+            String name, String taxNumber, Pageable pageable);
+
+    Window<Customer> findByNameContainingIgnoreCaseOrTaxNumberContainingIgnoreCase(
+            String name, String taxNumber, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Customer> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    @Query(value = "select c from Customer c" + ORDER_BY_NAME, countQuery = "select count(c) from Customer c")
+    Page<Customer> findOrderedByName(Pageable pageable);
+
+    @Query(value = "select c from Customer c where" + MATCHES_QUERY + ORDER_BY_NAME,
+            countQuery = "select count(c) from Customer c where" + MATCHES_QUERY)
+    Page<Customer> searchOrderedByName(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("select c from Customer c" + ORDER_BY_NAME)
+    List<Customer> findOrderedByName(Limit limit);
+
+    @Query("select c from Customer c where" + MATCHES_QUERY + ORDER_BY_NAME)
+    List<Customer> searchOrderedByName(@Param("pattern") String pattern, Limit limit);
+
+    @Query("select c from Customer c where" + AFTER_NAME + ORDER_BY_NAME)
+    List<Customer> findAfterName(@Param("name") String name, @Param("id") Long id, Limit limit);
+
+    @Query("select c from Customer c where" + MATCHES_QUERY + " and" + AFTER_NAME + ORDER_BY_NAME)
+    List<Customer> searchAfterName(
+            @Param("pattern") String pattern, @Param("name") String name, @Param("id") Long id, Limit limit);
+
+    @Query("select c.id, c.name, c.taxNumber, c.city, c.addressLine, c.notes from Customer c")
+    List<Object[]> findSearchRows();
 }
@@ -0,0 +1,16 @@
+package com.kapamejlbka.objectmanager.domain.customer.repository;
+
+import com.kapamejlbka.objectmanager.domain.customer.FileBlob;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from FileBlob b where b.contentHash = :hash")
+    Optional<FileBlob> findLockedByContentHash(@Param("hash") String hash);
+}
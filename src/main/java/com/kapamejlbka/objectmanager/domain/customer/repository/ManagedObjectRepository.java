@@ -1,7 +1,6 @@
 package com.kapamejlbka.objectmanager.domain.customer.repository;
 
 import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
-import com.kapamejlbka.objectmanager.domain.user.AppUser;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,26 +15,37 @@ public interface ManagedObjectRepository extends JpaRepository<ManagedObject, UU
     List<ManagedObject> findAllDeletionRequested();
 
     @Query("""
-            select distinct mo from ManagedObject mo
-            left join mo.owners owners
-            left join mo.customer customer
-            left join customer.owners customerOwners
-            where mo.deletionRequested = false and (
-                mo.createdBy = :user or owners = :user or customer.createdBy = :user or customerOwners = :user
+            select mo from ManagedObject mo
+            where mo.deletionRequested = false and mo.id in (
+                select v.id.targetId from VisibilityEntry v
+                where v.id.userId = :userId
+                  and v.id.targetType = com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType.OBJECT
             )
             order by mo.createdAt desc
             """)
-    List<ManagedObject> findAllVisibleForUser(@Param("user") AppUser user);
+    List<ManagedObject> findAllVisibleForUser(@Param("userId") Long userId);
 
     @Query("""
-            select distinct mo from ManagedObject mo
-            left join mo.owners owners
-            left join mo.customer customer
-            left join customer.owners customerOwners
-            where mo.deletionRequested = true and (
-                mo.createdBy = :user or owners = :user or customer.createdBy = :user or customerOwners = :user
+            select mo from ManagedObject mo
+            where mo.deletionRequested = true and mo.id in (
+                select v.id.targetId from VisibilityEntry v
+                where v.id.userId = :userId
+                  and v.id.targetType = com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType.OBJECT
             )
             order by mo.deletionRequestedAt desc
             """)
-    List<ManagedObject> findAllDeletionRequestedForUser(@Param("user") AppUser user);
+    List<ManagedObject> findAllDeletionRequestedForUser(@Param("userId") Long userId);
+
+    @Query("select mo.id, mo.name, mo.description from ManagedObject mo")
+    List<Object[]> findSearchRows();
+
+    @Query("""
+            select mo.id, creator.id, customer.id from ManagedObject mo
+            left join mo.createdBy creator
+            left join mo.customer customer
+            """)
+    List<Object[]> findVisibilityRows();
+
+    @Query("select mo.id, owner.id from ManagedObject mo join mo.owners owner")
+    List<Object[]> findOwnerRows();
 }
@@ -1,7 +1,6 @@
 package com.kapamejlbka.objectmanager.domain.customer.repository;
 
 import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
-import com.kapamejlbka.objectmanager.domain.user.AppUser;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,10 +13,22 @@ public interface ProjectCustomerRepository extends JpaRepository<ProjectCustomer
     Optional<ProjectCustomer> findByNameIgnoreCase(String name);
 
     @Query("""
-            select distinct customer from ProjectCustomer customer
-            left join customer.owners owners
-            where customer.createdBy = :user or owners = :user
+            select customer from ProjectCustomer customer
+            where customer.id in (
+                select v.id.targetId from VisibilityEntry v
+                where v.id.userId = :userId
+                  and v.id.targetType = com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType.CUSTOMER
+            )
             order by customer.createdAt desc
             """)
-    List<ProjectCustomer> findAllVisibleForUser(@Param("user") AppUser user);
+    List<ProjectCustomer> findAllVisibleForUser(@Param("userId") Long userId);
+
+    @Query("""
+            select customer.id, creator.id from ProjectCustomer customer
+            left join customer.createdBy creator
+            """)
+    List<Object[]> findVisibilityRows();
+
+    @Query("select customer.id, owner.id from ProjectCustomer customer join customer.owners owner")
+    List<Object[]> findOwnerRows();
 }
@@ -1,12 +1,21 @@
 package com.kapamejlbka.objectmanager.domain.customer.repository;
 
 import com.kapamejlbka.objectmanager.domain.customer.Site;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SiteRepository extends JpaRepository<Site, Long> {
 
     List<Site> findByCustomerId(Long customerId);
 
     long countByCustomerId(Long customerId);
+
+    @Query("select s.customer.id, count(s) from Site s where s.customer.id in :customerIds group by s.customer.id")
+    List<Object[]> countByCustomerIdIn(@Param("customerIds") Collection<Long> customerIds);
+
+    @Query("select s.id, s.name, s.description, s.fullAddress from Site s")
+    List<Object[]> findSearchRows();
 }
@@ -0,0 +1,26 @@
+package com.kapamejlbka.objectmanager.domain.customer.repository;
+
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface VisibilityEntryRepository extends JpaRepository<VisibilityEntry, VisibilityEntry.Key> {
+
+    @Query("select v from VisibilityEntry v where v.id.targetType = :targetType and v.id.targetId = :targetId")
+    List<VisibilityEntry> findAllByTarget(
+            @Param("targetType") VisibilityEntry.TargetType targetType,
+            @Param("targetId") UUID targetId);
+
+    @Query("""
+            select v.id.targetId from VisibilityEntry v
+            where v.id.userId = :userId and v.id.targetType = :targetType and v.id.targetId in :targetIds
+            """)
+    List<UUID> findVisibleTargetIds(
+            @Param("userId") Long userId,
+            @Param("targetType") VisibilityEntry.TargetType targetType,
+            @Param("targetIds") Collection<UUID> targetIds);
+}
@@ -10,7 +10,9 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
 @Table(name = "endpoint_devices")
@@ -42,6 +44,13 @@ public class EndpointDevice {
     @Column(name = "mount_surface")
     private String mountSurface;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "position_version", nullable = false)
+    private long positionVersion;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -135,6 +144,9 @@ public class EndpointDevice {
     }
 
     public void setPosX(Integer posX) {
+        if (id != null && !Objects.equals(this.posX, posX)) {
+            positionVersion = version + 1;
+        }
         this.posX = posX;
     }
 
@@ -143,6 +155,9 @@ public class EndpointDevice {
     }
 
     public void setPosY(Integer posY) {
+        if (id != null && !Objects.equals(this.posY, posY)) {
+            positionVersion = version + 1;
+        }
         this.posY = posY;
     }
 
@@ -161,4 +176,15 @@ public class EndpointDevice {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether the position changed after the given entity version was read.
+     */
+    public boolean positionChangedSince(long baseVersion) {
+        return positionVersion > baseVersion;
+    }
 }
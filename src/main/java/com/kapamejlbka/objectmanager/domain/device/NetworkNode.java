@@ -10,7 +10,9 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
 @Table(name = "network_nodes")
@@ -60,6 +62,13 @@ public class NetworkNode {
     @Column(name = "incoming_lines_count")
     private Integer incomingLinesCount;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "position_version", nullable = false)
+    private long positionVersion;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -131,6 +140,9 @@ public class NetworkNode {
     }
 
     public void setPosX(Integer posX) {
+        if (id != null && !Objects.equals(this.posX, posX)) {
+            positionVersion = version + 1;
+        }
         this.posX = posX;
     }
 
@@ -139,6 +151,9 @@ public class NetworkNode {
     }
 
     public void setPosY(Integer posY) {
+        if (id != null && !Objects.equals(this.posY, posY)) {
+            positionVersion = version + 1;
+        }
         this.posY = posY;
     }
 
@@ -205,4 +220,15 @@ public class NetworkNode {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether the position changed after the given entity version was read.
+     */
+    public boolean positionChangedSince(long baseVersion) {
+        return positionVersion > baseVersion;
+    }
 }
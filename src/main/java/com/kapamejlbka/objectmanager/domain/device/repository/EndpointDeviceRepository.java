@@ -1,6 +1,7 @@
 package com.kapamejlbka.objectmanager.domain.device.repository;
 
 import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
@@ -8,6 +9,10 @@ public interface EndpointDeviceRepository extends JpaRepository<EndpointDevice,
 
     List<EndpointDevice> findByCalculationId(Long calculationId);
 
+    List<EndpointDevice> findByCalculationIdIn(Collection<Long> calculationIds);
+
+    List<EndpointDevice> findByCalculationIdAndIdIn(Long calculationId, Collection<Long> ids);
+
     long countByCalculationId(Long calculationId);
 
     long countByCalculationSiteId(Long siteId);
@@ -1,6 +1,7 @@
 package com.kapamejlbka.objectmanager.domain.device.repository;
 
 import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
@@ -8,6 +9,10 @@ public interface NetworkNodeRepository extends JpaRepository<NetworkNode, Long>
 
     List<NetworkNode> findByCalculationId(Long calculationId);
 
+    List<NetworkNode> findByCalculationIdIn(Collection<Long> calculationIds);
+
+    List<NetworkNode> findByCalculationIdAndIdIn(Long calculationId, Collection<Long> ids);
+
     long countByCalculationId(Long calculationId);
 
     long countByCalculationSiteId(Long siteId);
@@ -1,7 +1,9 @@
 package com.kapamejlbka.objectmanager.domain.material;
 
+import com.kapamejlbka.objectmanager.domain.search.SearchIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -10,8 +12,10 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "materials")
 public class Material {
 
@@ -116,4 +120,20 @@ public class Material {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Material material)) {
+            return false;
+        }
+        return id != null && Objects.equals(id, material.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
 }
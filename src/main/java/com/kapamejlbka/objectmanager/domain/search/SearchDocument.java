@@ -0,0 +1,56 @@
+package com.kapamejlbka.objectmanager.domain.search;
+
+import com.kapamejlbka.objectmanager.domain.customer.Customer;
+import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
+import com.kapamejlbka.objectmanager.domain.customer.Site;
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Searchable projection of an entity: a title that ranks higher and the remaining text fields.
+ */
+public record SearchDocument(SearchEntityType type, String id, String title, String subtitle, List<String> texts) {
+
+    public static SearchDocument customer(
+            Long id, String name, String taxNumber, String city, String addressLine, String notes) {
+        return new SearchDocument(SearchEntityType.CUSTOMER, String.valueOf(id), name, taxNumber,
+                texts(taxNumber, city, addressLine, notes));
+    }
+
+    public static SearchDocument site(Long id, String name, String description, String fullAddress) {
+        return new SearchDocument(SearchEntityType.SITE, String.valueOf(id), name, fullAddress,
+                texts(description, fullAddress));
+    }
+
+    public static SearchDocument managedObject(Object id, String name, String description) {
+        return new SearchDocument(SearchEntityType.MANAGED_OBJECT, String.valueOf(id), name, description,
+                texts(description));
+    }
+
+    public static SearchDocument material(Long id, String code, String name, String notes) {
+        return new SearchDocument(SearchEntityType.MATERIAL, String.valueOf(id), name, code, texts(code, notes));
+    }
+
+    public static SearchDocument of(Customer customer) {
+        return customer(customer.getId(), customer.getName(), customer.getTaxNumber(), customer.getCity(),
+                customer.getAddressLine(), customer.getNotes());
+    }
+
+    public static SearchDocument of(Site site) {
+        return site(site.getId(), site.getName(), site.getDescription(), site.getFullAddress());
+    }
+
+    public static SearchDocument of(ManagedObject managedObject) {
+        return managedObject(managedObject.getId(), managedObject.getName(), managedObject.getDescription());
+    }
+
+    public static SearchDocument of(Material material) {
+        return material(material.getId(), material.getCode(), material.getName(), material.getNotes());
+    }
+
+    private static List<String> texts(String... values) {
+        return Arrays.stream(values).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,5 @@
+package com.kapamejlbka.objectmanager.domain.search;
+
+public enum SearchEntityType {
+    CUSTOMER, SITE, MANAGED_OBJECT, MATERIAL
+}
@@ -0,0 +1,4 @@
+package com.kapamejlbka.objectmanager.domain.search;
+
+public record SearchHit(SearchEntityType type, String id, String title, String subtitle, double score) {
+}
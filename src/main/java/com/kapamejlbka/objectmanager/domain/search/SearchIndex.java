@@ -0,0 +1,197 @@
+package com.kapamejlbka.objectmanager.domain.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over {@link SearchDocument}s. Terms are kept sorted so that a query
+ * token matches every indexed term it is a prefix of; all query tokens must match (AND).
+ */
+public final class SearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private record Key(SearchEntityType type, String id) {
+    }
+
+    private record Entry(SearchDocument document, Set<String> titleTerms, Set<String> terms) {
+    }
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final TreeMap<String, Set<Key>> postings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(SearchDocument document) {
+        Key key = new Key(document.type(), document.id());
+        Set<String> titleTerms = tokenize(document.title());
+        Set<String> terms = new HashSet<>(titleTerms);
+        for (String text : document.texts()) {
+            terms.addAll(tokenize(text));
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            entries.put(key, new Entry(document, titleTerms, terms));
+            for (String term : terms) {
+                postings.computeIfAbsent(term, ignored -> new HashSet<>()).add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(SearchEntityType type, String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new Key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Set<Key>> matches = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Set<Key> keys = new HashSet<>();
+                for (Set<Key> posting : prefixRange(token).values()) {
+                    keys.addAll(posting);
+                }
+                if (keys.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(keys);
+            }
+            matches.sort(Comparator.comparingInt(Set::size));
+            Set<Key> candidates = new HashSet<>(matches.get(0));
+            for (int i = 1; i < matches.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(matches.get(i));
+            }
+
+            List<SearchHit> hits = new ArrayList<>(candidates.size());
+            for (Key key : candidates) {
+                Entry entry = entries.get(key);
+                hits.add(new SearchHit(key.type(), key.id(), entry.document().title(), entry.document().subtitle(),
+                        score(entry, tokens)));
+            }
+            hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                    .thenComparing(hit -> hit.title() == null ? "" : hit.title(), String.CASE_INSENSITIVE_ORDER));
+            return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cases, folds "ё" to "е" and splits on anything that is not a letter or digit. A chunk
+     * such as "UTP-5e" also yields the joined term "utp5e" so codes match with or without separators.
+     */
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replace('ё', 'е');
+        Set<String> terms = new LinkedHashSet<>();
+        for (String chunk : WHITESPACE.split(normalized)) {
+            String[] parts = SEPARATORS.split(chunk);
+            StringBuilder joined = new StringBuilder();
+            int partCount = 0;
+            for (String part : parts) {
+                if (!part.isEmpty()) {
+                    terms.add(part);
+                    joined.append(part);
+                    partCount++;
+                }
+            }
+            if (partCount > 1) {
+                terms.add(joined.toString());
+            }
+        }
+        return terms;
+    }
+
+    private NavigableMap<String, Set<Key>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private double score(Entry entry, List<String> tokens) {
+        double score = 0;
+        for (String token : tokens) {
+            if (entry.titleTerms().contains(token)) {
+                score += 3;
+            } else if (entry.terms().contains(token)) {
+                score += 2;
+            } else if (startsAny(entry.titleTerms(), token)) {
+                score += 1.5;
+            } else {
+                score += 1;
+            }
+        }
+        return score;
+    }
+
+    private boolean startsAny(Set<String> terms, String prefix) {
+        for (String term : terms) {
+            if (term.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeLocked(Key key) {
+        Entry previous = entries.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Set<Key> keys = postings.get(term);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
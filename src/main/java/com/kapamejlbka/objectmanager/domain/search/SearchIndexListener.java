@@ -0,0 +1,33 @@
+package com.kapamejlbka.objectmanager.domain.search;
+
+import com.kapamejlbka.objectmanager.service.SearchIndexService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the search index in sync with indexed entities. The service is looked up lazily because
+ * entity listeners are created while the entity manager factory is still being built.
+ */
+@Component
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+
+    public SearchIndexListener(ObjectProvider<SearchIndexService> searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        searchIndexService.ifAvailable(service -> service.entitySaved(entity));
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        searchIndexService.ifAvailable(service -> service.entityRemoved(entity));
+    }
+}
@@ -11,7 +11,9 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
 @Table(name = "installation_routes")
@@ -47,6 +49,16 @@ public class InstallationRoute {
     @Column(name = "fixing_method")
     private String fixingMethod;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "length_version", nullable = false)
+    private long lengthVersion;
+
+    @Column(name = "details_version", nullable = false)
+    private long detailsVersion;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -86,6 +98,9 @@ public class InstallationRoute {
     }
 
     public void setName(String name) {
+        if (!Objects.equals(this.name, name)) {
+            detailsVersion = nextVersion(detailsVersion);
+        }
         this.name = name;
     }
 
@@ -94,6 +109,9 @@ public class InstallationRoute {
     }
 
     public void setRouteType(String routeType) {
+        if (!Objects.equals(this.routeType, routeType)) {
+            detailsVersion = nextVersion(detailsVersion);
+        }
         this.routeType = routeType;
     }
 
@@ -102,6 +120,9 @@ public class InstallationRoute {
     }
 
     public void setMountSurface(String mountSurface) {
+        if (!Objects.equals(this.mountSurface, mountSurface)) {
+            detailsVersion = nextVersion(detailsVersion);
+        }
         this.mountSurface = mountSurface;
     }
 
@@ -110,6 +131,9 @@ public class InstallationRoute {
     }
 
     public void setMainMaterial(Material mainMaterial) {
+        if (!Objects.equals(materialId(this.mainMaterial), materialId(mainMaterial))) {
+            detailsVersion = nextVersion(detailsVersion);
+        }
         this.mainMaterial = mainMaterial;
     }
 
@@ -118,6 +142,9 @@ public class InstallationRoute {
     }
 
     public void setLengthMeters(Double lengthMeters) {
+        if (!Objects.equals(this.lengthMeters, lengthMeters)) {
+            lengthVersion = nextVersion(lengthVersion);
+        }
         this.lengthMeters = lengthMeters;
     }
 
@@ -126,6 +153,9 @@ public class InstallationRoute {
     }
 
     public void setOrientation(String orientation) {
+        if (!Objects.equals(this.orientation, orientation)) {
+            detailsVersion = nextVersion(detailsVersion);
+        }
         this.orientation = orientation;
     }
 
@@ -134,6 +164,9 @@ public class InstallationRoute {
     }
 
     public void setFixingMethod(String fixingMethod) {
+        if (!Objects.equals(this.fixingMethod, fixingMethod)) {
+            detailsVersion = nextVersion(detailsVersion);
+        }
         this.fixingMethod = fixingMethod;
     }
 
@@ -152,4 +185,30 @@ public class InstallationRoute {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether the length changed after the given entity version was read.
+     */
+    public boolean lengthChangedSince(long baseVersion) {
+        return lengthVersion > baseVersion;
+    }
+
+    /**
+     * Whether any field other than the length changed after the given entity version was read.
+     */
+    public boolean detailsChangedSince(long baseVersion) {
+        return detailsVersion > baseVersion;
+    }
+
+    private long nextVersion(long current) {
+        return id == null ? current : version + 1;
+    }
+
+    private static Long materialId(Material material) {
+        return material == null ? null : material.getId();
+    }
 }
@@ -12,7 +12,9 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 @Entity
 @Table(name = "topology_links")
@@ -63,6 +65,16 @@ public class TopologyLink {
     @Column(name = "power_source_description")
     private String powerSourceDescription;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "length_version", nullable = false)
+    private long lengthVersion;
+
+    @Column(name = "attributes_version", nullable = false)
+    private long attributesVersion;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -108,6 +120,9 @@ public class TopologyLink {
     }
 
     public void setFromNode(NetworkNode fromNode) {
+        if (!Objects.equals(nodeId(this.fromNode), nodeId(fromNode))) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.fromNode = fromNode;
     }
 
@@ -116,6 +131,9 @@ public class TopologyLink {
     }
 
     public void setToNode(NetworkNode toNode) {
+        if (!Objects.equals(nodeId(this.toNode), nodeId(toNode))) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.toNode = toNode;
     }
 
@@ -124,6 +142,9 @@ public class TopologyLink {
     }
 
     public void setFromDevice(EndpointDevice fromDevice) {
+        if (!Objects.equals(deviceId(this.fromDevice), deviceId(fromDevice))) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.fromDevice = fromDevice;
     }
 
@@ -132,6 +153,9 @@ public class TopologyLink {
     }
 
     public void setToDevice(EndpointDevice toDevice) {
+        if (!Objects.equals(deviceId(this.toDevice), deviceId(toDevice))) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.toDevice = toDevice;
     }
 
@@ -140,6 +164,9 @@ public class TopologyLink {
     }
 
     public void setLinkType(String linkType) {
+        if (!Objects.equals(this.linkType, linkType)) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.linkType = linkType;
     }
 
@@ -148,6 +175,9 @@ public class TopologyLink {
     }
 
     public void setCableLength(Double cableLength) {
+        if (!Objects.equals(this.cableLength, cableLength)) {
+            lengthVersion = nextVersion(lengthVersion);
+        }
         this.cableLength = cableLength;
     }
 
@@ -156,6 +186,9 @@ public class TopologyLink {
     }
 
     public void setWireless(Boolean wireless) {
+        if (!Objects.equals(isWireless, wireless)) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         isWireless = wireless;
     }
 
@@ -164,6 +197,9 @@ public class TopologyLink {
     }
 
     public void setFiberCores(Integer fiberCores) {
+        if (!Objects.equals(this.fiberCores, fiberCores)) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.fiberCores = fiberCores;
     }
 
@@ -172,6 +208,9 @@ public class TopologyLink {
     }
 
     public void setFiberSpliceCount(Integer fiberSpliceCount) {
+        if (!Objects.equals(this.fiberSpliceCount, fiberSpliceCount)) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.fiberSpliceCount = fiberSpliceCount;
     }
 
@@ -180,6 +219,9 @@ public class TopologyLink {
     }
 
     public void setFiberConnectorCount(Integer fiberConnectorCount) {
+        if (!Objects.equals(this.fiberConnectorCount, fiberConnectorCount)) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.fiberConnectorCount = fiberConnectorCount;
     }
 
@@ -188,6 +230,9 @@ public class TopologyLink {
     }
 
     public void setPowerSourceDescription(String powerSourceDescription) {
+        if (!Objects.equals(this.powerSourceDescription, powerSourceDescription)) {
+            attributesVersion = nextVersion(attributesVersion);
+        }
         this.powerSourceDescription = powerSourceDescription;
     }
 
@@ -206,4 +251,34 @@ public class TopologyLink {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether the cable length changed after the given entity version was read.
+     */
+    public boolean lengthChangedSince(long baseVersion) {
+        return lengthVersion > baseVersion;
+    }
+
+    /**
+     * Whether the type, fiber or endpoint fields changed after the given entity version was read.
+     */
+    public boolean attributesChangedSince(long baseVersion) {
+        return attributesVersion > baseVersion;
+    }
+
+    private long nextVersion(long current) {
+        return id == null ? current : version + 1;
+    }
+
+    private static Long nodeId(NetworkNode node) {
+        return node == null ? null : node.getId();
+    }
+
+    private static Long deviceId(EndpointDevice device) {
+        return device == null ? null : device.getId();
+    }
 }
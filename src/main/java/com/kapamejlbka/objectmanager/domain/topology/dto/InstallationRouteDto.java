@@ -10,4 +10,5 @@ public record InstallationRouteDto(
         String fixingMethod,
         Long mainMaterialId,
         String mainMaterialName,
-        String mainMaterialCategory) {}
+        String mainMaterialCategory,
+        long version) {}
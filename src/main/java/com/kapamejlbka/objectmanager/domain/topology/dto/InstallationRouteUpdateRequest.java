@@ -12,6 +12,7 @@ public class InstallationRouteUpdateRequest {
     private String orientation;
     private String fixingMethod;
     private Long mainMaterialId;
+    private Long version;
 
     public String getName() {
         return name;
@@ -68,4 +69,12 @@ public class InstallationRouteUpdateRequest {
     public void setMainMaterialId(Long mainMaterialId) {
         this.mainMaterialId = mainMaterialId;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
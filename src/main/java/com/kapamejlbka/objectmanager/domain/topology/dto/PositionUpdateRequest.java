@@ -1,3 +1,7 @@
 package com.kapamejlbka.objectmanager.domain.topology.dto;
 
-public record PositionUpdateRequest(Integer x, Integer y) {}
+/**
+ * {@code version} is the element version the client last saw; it may be omitted to overwrite
+ * unconditionally.
+ */
+public record PositionUpdateRequest(Integer x, Integer y, Long version) {}
@@ -0,0 +1,18 @@
+package com.kapamejlbka.objectmanager.domain.topology.dto;
+
+import com.kapamejlbka.objectmanager.domain.material.dto.MaterialOptionDto;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Routes and links changed after the requested revision. Material options are only sent with a
+ * {@code full} response, since any material change forces one.
+ */
+public record RoutesDeltaDto(
+        long revision,
+        boolean full,
+        List<InstallationRouteDto> routes,
+        List<RouteLinkDto> links,
+        List<MaterialOptionDto> materials,
+        Set<Long> deletedRouteIds,
+        Set<Long> deletedLinkIds) {}
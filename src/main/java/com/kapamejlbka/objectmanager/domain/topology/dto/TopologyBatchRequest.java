@@ -0,0 +1,32 @@
+package com.kapamejlbka.objectmanager.domain.topology.dto;
+
+import java.util.List;
+
+/**
+ * Mutations collected by the topology editor and applied in one transaction. Every list is
+ * optional.
+ */
+public record TopologyBatchRequest(
+        List<PositionItem> nodePositions,
+        List<PositionItem> devicePositions,
+        List<TopologyLinkRestCreateRequest> createdLinks,
+        List<LinkUpdate> updatedLinks,
+        List<Long> deletedLinkIds) {
+
+    public record PositionItem(Long id, Integer x, Integer y, Long version) {}
+
+    public record LinkUpdate(
+            Long id,
+            String linkType,
+            Double length,
+            Integer fiberCores,
+            Integer fiberSpliceCount,
+            Integer fiberConnectorCount,
+            Long version) {
+
+        public TopologyLinkRestUpdateRequest toUpdateRequest() {
+            return new TopologyLinkRestUpdateRequest(
+                    linkType, length, fiberCores, fiberSpliceCount, fiberConnectorCount, version);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.kapamejlbka.objectmanager.domain.topology.dto;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Elements touched by a topology batch with their new versions; the rest of the topology is
+ * unchanged by the batch and is not repeated.
+ */
+public record TopologyBatchResponse(
+        List<TopologyNodeDto> nodes,
+        List<TopologyDeviceDto> devices,
+        List<TopologyLinkDto> updatedLinks,
+        List<TopologyLinkDto> createdLinks,
+        Set<Long> deletedLinkIds) {}
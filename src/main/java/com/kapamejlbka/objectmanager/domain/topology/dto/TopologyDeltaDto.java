@@ -0,0 +1,18 @@
+package com.kapamejlbka.objectmanager.domain.topology.dto;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Topology elements changed after the requested revision. When {@code full} is set the lists hold
+ * the whole topology and the client should replace its state instead of merging.
+ */
+public record TopologyDeltaDto(
+        long revision,
+        boolean full,
+        List<TopologyNodeDto> nodes,
+        List<TopologyDeviceDto> devices,
+        List<TopologyLinkDto> links,
+        Set<Long> deletedNodeIds,
+        Set<Long> deletedDeviceIds,
+        Set<Long> deletedLinkIds) {}
@@ -1,3 +1,3 @@
 package com.kapamejlbka.objectmanager.domain.topology.dto;
 
-public record TopologyDeviceDto(Long id, String type, String code, String name, Integer x, Integer y) {}
+public record TopologyDeviceDto(Long id, String type, String code, String name, Integer x, Integer y, long version) {}
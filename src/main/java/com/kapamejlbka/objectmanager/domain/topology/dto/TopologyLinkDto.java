@@ -10,4 +10,5 @@ public record TopologyLinkDto(
         Double length,
         Integer fiberCores,
         Integer fiberSpliceCount,
-        Integer fiberConnectorCount) {}
+        Integer fiberConnectorCount,
+        long version) {}
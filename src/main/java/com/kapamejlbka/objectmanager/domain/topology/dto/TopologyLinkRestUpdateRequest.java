@@ -5,4 +5,5 @@ public record TopologyLinkRestUpdateRequest(
         Double length,
         Integer fiberCores,
         Integer fiberSpliceCount,
-        Integer fiberConnectorCount) {}
+        Integer fiberConnectorCount,
+        Long version) {}
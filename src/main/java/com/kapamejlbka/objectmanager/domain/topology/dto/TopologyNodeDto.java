@@ -1,3 +1,3 @@
 package com.kapamejlbka.objectmanager.domain.topology.dto;
 
-public record TopologyNodeDto(Long id, String code, String name, Integer x, Integer y) {}
+public record TopologyNodeDto(Long id, String code, String name, Integer x, Integer y, long version) {}
@@ -1,10 +1,48 @@
 package com.kapamejlbka.objectmanager.domain.topology.repository;
 
 import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface InstallationRouteRepository extends JpaRepository<InstallationRoute, Long> {
 
+    /** Longest cable assigned to {@code route}, or 0 when it has none. */
+    String LONGEST_CABLE = "coalesce(("
+            + "select max(link.cableLength) from RouteSegmentLink segment join segment.topologyLink link"
+            + " where segment.route.id = route.id), 0)";
+
     List<InstallationRoute> findByCalculationId(Long calculationId);
+
+    @Query("select route from InstallationRoute route left join fetch route.mainMaterial"
+            + " where route.calculation.id = :calculationId")
+    List<InstallationRoute> findWithMainMaterialByCalculationId(@Param("calculationId") Long calculationId);
+
+    @Query("select route from InstallationRoute route left join fetch route.mainMaterial"
+            + " where route.calculation.id in :calculationIds")
+    List<InstallationRoute> findWithMainMaterialByCalculationIdIn(
+            @Param("calculationIds") Collection<Long> calculationIds);
+
+    @Query("select route from InstallationRoute route left join fetch route.mainMaterial"
+            + " where route.calculation.id = :calculationId and route.id in :ids")
+    List<InstallationRoute> findWithMainMaterialByCalculationIdAndIdIn(
+            @Param("calculationId") Long calculationId, @Param("ids") Collection<Long> ids);
+
+    @Query("select route.id, route.calculation.id from InstallationRoute route where route.id in :routeIds")
+    List<Object[]> findCalculationIdsByIdIn(@Param("routeIds") Collection<Long> routeIds);
+
+    /**
+     * Sets each route's length to the longest cable assigned to it, or 0 when it has none, in one
+     * statement. Only routes whose length actually changes, or that have no length yet, are touched;
+     * their entity version and length version are bumped like an entity update would.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update versioned InstallationRoute route set route.lengthMeters = " + LONGEST_CABLE + ","
+            + " route.lengthVersion = route.version + 1"
+            + " where route.id in :routeIds"
+            + " and (route.lengthMeters is null or route.lengthMeters <> " + LONGEST_CABLE + ")")
+    int recalculateLengths(@Param("routeIds") Collection<Long> routeIds);
 }
@@ -1,16 +1,31 @@
 package com.kapamejlbka.objectmanager.domain.topology.repository;
 
 import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface RouteSegmentLinkRepository extends JpaRepository<RouteSegmentLink, Long> {
 
     List<RouteSegmentLink> findByRouteId(Long routeId);
 
+    @EntityGraph(attributePaths = {"route", "topologyLink"})
     List<RouteSegmentLink> findByRouteCalculation_Id(Long calculationId);
 
+    @EntityGraph(attributePaths = {"route", "topologyLink"})
+    List<RouteSegmentLink> findByRouteCalculation_IdIn(Collection<Long> calculationIds);
+
     List<RouteSegmentLink> findByTopologyLinkId(Long topologyLinkId);
 
+    @EntityGraph(attributePaths = {"route", "topologyLink"})
+    List<RouteSegmentLink> findByTopologyLinkIdIn(Collection<Long> topologyLinkIds);
+
+    @Query("select distinct segment.route.id from RouteSegmentLink segment"
+            + " where segment.topologyLink.id in :topologyLinkIds")
+    List<Long> findRouteIdsByTopologyLinkIdIn(@Param("topologyLinkIds") Collection<Long> topologyLinkIds);
+
     void deleteByRouteId(Long routeId);
 }
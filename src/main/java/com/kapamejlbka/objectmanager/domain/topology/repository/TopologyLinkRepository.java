@@ -1,10 +1,38 @@
 package com.kapamejlbka.objectmanager.domain.topology.repository;
 
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface TopologyLinkRepository extends JpaRepository<TopologyLink, Long> {
 
     List<TopologyLink> findByCalculationId(Long calculationId);
+
+    @Query("select link from TopologyLink link"
+            + " left join fetch link.fromNode left join fetch link.toNode"
+            + " left join fetch link.fromDevice left join fetch link.toDevice"
+            + " where link.calculation.id = :calculationId")
+    List<TopologyLink> findWithEndpointsByCalculationId(@Param("calculationId") Long calculationId);
+
+    @Query("select link from TopologyLink link"
+            + " left join fetch link.fromNode left join fetch link.toNode"
+            + " left join fetch link.fromDevice left join fetch link.toDevice"
+            + " where link.calculation.id in :calculationIds")
+    List<TopologyLink> findWithEndpointsByCalculationIdIn(@Param("calculationIds") Collection<Long> calculationIds);
+
+    List<TopologyLink> findByCalculationIdAndIdIn(Long calculationId, Collection<Long> ids);
+
+    @Query("select link from TopologyLink link"
+            + " left join fetch link.fromNode left join fetch link.toNode"
+            + " left join fetch link.fromDevice left join fetch link.toDevice"
+            + " where link.calculation.id = :calculationId and link.id in :ids")
+    List<TopologyLink> findWithEndpointsByCalculationIdAndIdIn(
+            @Param("calculationId") Long calculationId, @Param("ids") Collection<Long> ids);
+
+    long countByFromNodeId(Long nodeId);
+
+    long countByToNodeId(Long nodeId);
 }
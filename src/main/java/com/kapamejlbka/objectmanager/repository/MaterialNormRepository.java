@@ -4,7 +4,11 @@ import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface MaterialNormRepository extends JpaRepository<MaterialNorm, Long> {
     List<MaterialNorm> findAllByContextType(MaterialNormContext contextType);
+
+    @Query("select norm from MaterialNorm norm join fetch norm.material")
+    List<MaterialNorm> findAllWithMaterial();
 }
@@ -1,9 +1,20 @@
 package com.kapamejlbka.objectmanager.repository;
 
 import com.kapamejlbka.objectmanager.domain.material.Material;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface MaterialRepository extends JpaRepository<Material, Long> {
     Optional<Material> findByCode(String code);
+
+    List<Material> findByCategoryIn(Collection<MaterialCategory> categories);
+
+    List<Material> findByCategoryInOrIdIn(Collection<MaterialCategory> categories, Collection<Long> ids);
+
+    @Query("select m.id, m.code, m.name, m.notes from Material m")
+    List<Object[]> findSearchRows();
 }
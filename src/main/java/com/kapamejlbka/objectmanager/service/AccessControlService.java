@@ -2,20 +2,42 @@ package com.kapamejlbka.objectmanager.service;
 
 import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
 import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType;
 import com.kapamejlbka.objectmanager.domain.user.AppRole;
 import com.kapamejlbka.objectmanager.domain.user.AppUser;
-import java.util.Objects;
+import java.util.UUID;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class AccessControlService {
 
+    private final VisibilityService visibilityService;
+    private final PermissionCache permissionCache;
+
+    public AccessControlService(VisibilityService visibilityService, PermissionCache permissionCache) {
+        this.visibilityService = visibilityService;
+        this.permissionCache = permissionCache;
+    }
+
+    /**
+     * Uses the role flag resolved at login when {@code user} is the authenticated principal and only
+     * falls back to scanning the roles for other users.
+     */
     public boolean isAdmin(AppUser user) {
         if (user == null) {
             return false;
         }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof AppUserPrincipal principal
+                && principal.getUserId() != null
+                && principal.getUserId().equals(user.getId())) {
+            return principal.isAdmin();
+        }
         return user.getRoles().stream()
                 .map(AppRole::getName)
                 .anyMatch(role -> "ADMIN".equalsIgnoreCase(role));
@@ -25,23 +47,14 @@ public class AccessControlService {
         if (customer == null || user == null) {
             return false;
         }
-        return isAdmin(user)
-                || Objects.equals(
-                        customer.getCreatedBy() == null ? null : customer.getCreatedBy().getId(),
-                        user.getId())
-                || customer.getOwners().stream().anyMatch(owner -> Objects.equals(owner.getId(), user.getId()));
+        return isAdmin(user) || isVisible(user, TargetType.CUSTOMER, customer.getId());
     }
 
     public boolean canAccessObject(ManagedObject managedObject, AppUser user) {
         if (managedObject == null || user == null) {
             return false;
         }
-        return isAdmin(user)
-                || Objects.equals(
-                        managedObject.getCreatedBy() == null ? null : managedObject.getCreatedBy().getId(),
-                        user.getId())
-                || managedObject.getOwners().stream().anyMatch(owner -> Objects.equals(owner.getId(), user.getId()))
-                || canAccessCustomer(managedObject.getCustomer(), user);
+        return isAdmin(user) || isVisible(user, TargetType.OBJECT, managedObject.getId());
     }
 
     public void ensureCanViewObject(ManagedObject managedObject, AppUser user) {
@@ -61,4 +74,9 @@ public class AccessControlService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Нет доступа к заказчику");
         }
     }
+
+    private boolean isVisible(AppUser user, TargetType targetType, UUID targetId) {
+        return permissionCache.computeIfAbsent(new PermissionCache.Key(user.getId(), targetType, targetId),
+                () -> visibilityService.isVisible(user, targetType, targetId));
+    }
 }
@@ -7,7 +7,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -31,10 +30,8 @@ public class AppUserDetailsService implements UserDetailsService {
                 .map(role -> "ROLE_" + role.toUpperCase())
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toSet());
-        return User.withUsername(user.getUsername())
-                .password(user.getPasswordHash())
-                .authorities(authorities)
-                .accountLocked(!user.isEnabled())
-                .build();
+        boolean admin = authorities.contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        return new AppUserPrincipal(user.getId(), user.getUsername(), user.getPasswordHash(),
+                user.isEnabled(), admin, authorities);
     }
 }
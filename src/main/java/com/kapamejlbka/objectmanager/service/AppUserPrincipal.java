@@ -0,0 +1,37 @@
+package com.kapamejlbka.objectmanager.service;
+
+import java.util.Collection;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Authenticated principal that carries the user id and role flags resolved at login, so access
+ * checks do not have to scan the user's roles again on every call.
+ */
+public class AppUserPrincipal extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final boolean admin;
+
+    public AppUserPrincipal(
+            Long userId,
+            String username,
+            String password,
+            boolean enabled,
+            boolean admin,
+            Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, true, true, true, enabled, authorities);
+        this.userId = userId;
+        this.admin = admin;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+}
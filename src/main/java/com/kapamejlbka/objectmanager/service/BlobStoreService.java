@@ -0,0 +1,236 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.config.FileStorageProperties;
+import com.kapamejlbka.objectmanager.domain.customer.FileBlob;
+import com.kapamejlbka.objectmanager.domain.customer.repository.FileBlobRepository;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Content-addressed storage for uploaded files. Blobs are keyed by the SHA-256 of their content and
+ * shared between every {@code StoredFile} and {@code SiteAttachment} that references them; the
+ * {@link FileBlob} row counts those references and the file is removed when the last one goes.
+ *
+ * <p>Every change to a blob happens under a row lock on its {@link FileBlob}. A file is only deleted
+ * by a separate transaction that holds that lock and still sees no references, and a retain that
+ * finds the file gone puts its own staged copy back, so a blob that is released and re-uploaded at
+ * the same time always ends up on disk.
+ */
+@Service
+public class BlobStoreService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlobStoreService.class);
+
+    private static final int MAX_LOCK_ATTEMPTS = 3;
+    private static final Duration ABANDONED_UPLOAD_AGE = Duration.ofHours(1);
+
+    private final Path rootLocation;
+    private final Path tempLocation;
+    private final FileBlobRepository fileBlobRepository;
+    private final TransactionTemplate requiresNew;
+
+    public BlobStoreService(
+            FileStorageProperties properties,
+            FileBlobRepository fileBlobRepository,
+            PlatformTransactionManager transactionManager) {
+        this.rootLocation = Path.of(properties.getUploadDir()).resolve("blobs").toAbsolutePath().normalize();
+        this.tempLocation = rootLocation.resolve("tmp");
+        this.fileBlobRepository = fileBlobRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        init();
+    }
+
+    private void init() {
+        try {
+            Files.createDirectories(tempLocation);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to create blob directory", ex);
+        }
+        removeAbandonedUploads();
+    }
+
+    /**
+     * Streams the content into a staged file while hashing it. The staged file is moved into the store
+     * by {@link #retain(StoredBlob)}, which also removes it; uploads that are never retained are swept
+     * on the next start.
+     */
+    public StoredBlob write(InputStream content) throws IOException {
+        MessageDigest digest = newDigest();
+        Path temp = Files.createTempFile(tempLocation, "upload", ".tmp");
+        try {
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            }
+            return new StoredBlob(HexFormat.of().formatHex(digest.digest()), size, temp);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
+
+    public Path resolve(String contentHash) {
+        if (contentHash == null || !contentHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid content hash: " + contentHash);
+        }
+        return rootLocation.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+
+    /**
+     * Adds a reference to the blob and makes sure its file is in the store. If the transaction rolls
+     * back, a blob that is left without references is removed again.
+     */
+    @Transactional
+    public void retain(StoredBlob blob) {
+        String contentHash = blob.contentHash();
+        Path blobPath = resolve(contentHash);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    collectIfUnreferenced(contentHash);
+                }
+            }
+        });
+        try {
+            FileBlob fileBlob = lockOrCreate(contentHash, blob.size());
+            fileBlob.setReferenceCount(fileBlob.getReferenceCount() + 1);
+            if (Files.exists(blobPath)) {
+                LOG.debug("Blob {} already stored, skipping write", contentHash);
+            } else {
+                Files.createDirectories(blobPath.getParent());
+                Files.move(blob.stagedFile(), blobPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to store blob " + contentHash, ex);
+        } finally {
+            deleteQuietly(blob.stagedFile());
+        }
+    }
+
+    @Transactional
+    public void release(String contentHash) {
+        resolve(contentHash);
+        FileBlob fileBlob = fileBlobRepository.findLockedByContentHash(contentHash).orElse(null);
+        if (fileBlob == null) {
+            LOG.warn("Released blob {} is not registered", contentHash);
+            return;
+        }
+        fileBlob.setReferenceCount(Math.max(0, fileBlob.getReferenceCount() - 1));
+        if (fileBlob.getReferenceCount() > 0) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                collectIfUnreferenced(contentHash);
+            }
+        });
+    }
+
+    /**
+     * Locks the blob row, registering the blob first if needed. The insert runs in its own
+     * transaction so that two first uploads of the same content do not fail on the primary key; the
+     * loop covers a row that is collected between the insert and the lock.
+     */
+    private FileBlob lockOrCreate(String contentHash, long size) {
+        for (int attempt = 0; attempt < MAX_LOCK_ATTEMPTS; attempt++) {
+            Optional<FileBlob> locked = fileBlobRepository.findLockedByContentHash(contentHash);
+            if (locked.isPresent()) {
+                return locked.get();
+            }
+            try {
+                requiresNew.executeWithoutResult(status -> {
+                    if (!fileBlobRepository.existsById(contentHash)) {
+                        fileBlobRepository.saveAndFlush(new FileBlob(contentHash, size, 0, LocalDateTime.now()));
+                    }
+                });
+            } catch (DataIntegrityViolationException ex) {
+                LOG.debug("Blob {} was registered concurrently", contentHash);
+            }
+        }
+        throw new IllegalStateException("Failed to lock blob " + contentHash);
+    }
+
+    /**
+     * Deletes the row and the file of a blob that nobody references any more. Runs after the caller's
+     * transaction has finished, in a new one that holds the row lock while the file is removed.
+     */
+    private void collectIfUnreferenced(String contentHash) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                FileBlob fileBlob = fileBlobRepository.findLockedByContentHash(contentHash).orElse(null);
+                if (fileBlob == null || fileBlob.getReferenceCount() > 0) {
+                    return;
+                }
+                fileBlobRepository.delete(fileBlob);
+                fileBlobRepository.flush();
+                try {
+                    Files.deleteIfExists(resolve(contentHash));
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Failed to delete blob " + contentHash, ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            LOG.warn("Failed to delete blob {}", contentHash, ex);
+        }
+    }
+
+    private void removeAbandonedUploads() {
+        Instant cutoff = Instant.now().minus(ABANDONED_UPLOAD_AGE);
+        try (DirectoryStream<Path> staged = Files.newDirectoryStream(tempLocation, "upload*.tmp")) {
+            for (Path file : staged) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.toInstant().isBefore(cutoff)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to clean up staged uploads", ex);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            LOG.warn("Failed to delete staged upload {}", file, ex);
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    public record StoredBlob(String contentHash, long size, Path stagedFile) {}
+}
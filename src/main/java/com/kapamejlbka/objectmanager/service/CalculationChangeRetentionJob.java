@@ -0,0 +1,30 @@
+package com.kapamejlbka.objectmanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly pruning of the editor change feed; clients further behind than the retained window reload
+ * in full, so older rows are never read.
+ */
+@Component
+public class CalculationChangeRetentionJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CalculationChangeRetentionJob.class);
+
+    private final CalculationRevisionService calculationRevisionService;
+
+    public CalculationChangeRetentionJob(CalculationRevisionService calculationRevisionService) {
+        this.calculationRevisionService = calculationRevisionService;
+    }
+
+    @Scheduled(cron = "${calculation.changes.prune-cron:0 45 3 * * *}")
+    public void prune() {
+        int deleted = calculationRevisionService.pruneChanges();
+        if (deleted > 0) {
+            LOG.info("Pruned {} calculation changes outside the retained window", deleted);
+        }
+    }
+}
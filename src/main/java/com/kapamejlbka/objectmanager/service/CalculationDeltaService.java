@@ -0,0 +1,128 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationDelta;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationEngine;
+import jakarta.transaction.Transactional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class CalculationDeltaService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CalculationDeltaService.class);
+
+    private final CalculationRevisionService calculationRevisionService;
+    private final CalculationEngine calculationEngine;
+
+    public CalculationDeltaService(
+            CalculationRevisionService calculationRevisionService,
+            CalculationEngine calculationEngine) {
+        this.calculationRevisionService = calculationRevisionService;
+        this.calculationEngine = calculationEngine;
+    }
+
+    @Transactional
+    public void elementChanged(Long calculationId, CalculationElement element) {
+        if (calculationId == null) {
+            return;
+        }
+        long revision = calculationRevisionService.markChanged(
+                calculationId, element == null ? List.of() : List.of(element));
+        if (element == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            calculationEngine.evict(calculationId);
+            return;
+        }
+        pendingChanges()
+                .computeIfAbsent(calculationId, id -> new PendingChange(revision - 1))
+                .record(revision, element);
+    }
+
+    /**
+     * Records several changed elements of one calculation under a single revision bump.
+     */
+    @Transactional
+    public void elementsChanged(Long calculationId, Collection<CalculationElement> elements) {
+        if (calculationId == null || elements == null || elements.isEmpty()) {
+            return;
+        }
+        long revision = calculationRevisionService.markChanged(calculationId, elements);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            calculationEngine.evict(calculationId);
+            return;
+        }
+        PendingChange change = pendingChanges()
+                .computeIfAbsent(calculationId, id -> new PendingChange(revision - 1));
+        elements.forEach(element -> change.record(revision, element));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, PendingChange> pendingChanges() {
+        Map<Long, PendingChange> pending =
+                (Map<Long, PendingChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<Long, PendingChange> created = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                created.forEach((calculationId, change) -> {
+                    try {
+                        change.delta = calculationEngine.prepareDelta(calculationId, change.elements);
+                    } catch (RuntimeException ex) {
+                        LOG.warn("Failed to prepare incremental update for calculation {}: {}",
+                                calculationId, ex.getMessage());
+                        change.failed = true;
+                    }
+                });
+            }
+
+            @Override
+            public void afterCommit() {
+                created.forEach((calculationId, change) -> {
+                    if (change.failed) {
+                        calculationEngine.evict(calculationId);
+                    } else {
+                        calculationEngine.applyDelta(change.delta, change.baseRevision, change.latestRevision);
+                    }
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CalculationDeltaService.this);
+            }
+        });
+        return created;
+    }
+
+    private static final class PendingChange {
+
+        private final long baseRevision;
+        private final Set<CalculationElement> elements = new LinkedHashSet<>();
+        private long latestRevision;
+        private CalculationDelta delta;
+        private boolean failed;
+
+        private PendingChange(long baseRevision) {
+            this.baseRevision = baseRevision;
+            this.latestRevision = baseRevision;
+        }
+
+        private void record(long revision, CalculationElement element) {
+            latestRevision = revision;
+            elements.add(element);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes calculation changes to open topology and routes editors over server-sent events. Events
+ * only name the revision and the changed elements; clients fetch the data with {@code ?since=}.
+ * Each subscriber keeps at most one pending event and at most one task on the sender pool:
+ * changes arriving while it waits for the coalescing delay, a heartbeat or a slow send are merged
+ * into the pending event, and a pending event that grows too large collapses into a full reload.
+ * A send that does not finish within the send timeout drops the subscriber and closes its
+ * connection, so a stalled client holds a sender thread for a bounded time only; the browser
+ * reconnects and reloads.
+ */
+@Service
+public class CalculationEventHub {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CalculationEventHub.class);
+
+    static final int MAX_PENDING_ELEMENTS = 200;
+
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final long COALESCE_DELAY_MS = 200;
+    private static final long HEARTBEAT_INTERVAL_SECONDS = 25;
+    private static final long SEND_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final int MAX_SUBMIT_ATTEMPTS = 5;
+    private static final int SENDER_THREADS = 4;
+    private static final int SENDER_QUEUE_CAPACITY = 256;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Supplier<SseEmitter> emitterFactory;
+    private final long sendTimeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor sender;
+
+    public CalculationEventHub() {
+        this(() -> new SseEmitter(EMITTER_TIMEOUT_MS), SEND_TIMEOUT_MS);
+    }
+
+    CalculationEventHub(Supplier<SseEmitter> emitterFactory, long sendTimeoutMs) {
+        this.emitterFactory = emitterFactory;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calc-events-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(SENDER_THREADS, SENDER_THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(SENDER_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "calc-events-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.sender.allowCoreThreadTimeOut(true);
+        this.scheduler.scheduleWithFixedDelay(this::heartbeat,
+                HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        long stallCheckMs = Math.max(sendTimeoutMs / 4, 10);
+        this.scheduler.scheduleWithFixedDelay(this::dropStalled, stallCheckMs, stallCheckMs, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long calculationId, long revision) {
+        SseEmitter emitter = emitterFactory.get();
+        Subscriber subscriber = new Subscriber(calculationId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(calculationId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        try {
+            emitter.send(SseEmitter.event().name("ready").data(
+                    new ChangeEvent(revision, false, List.of()), MediaType.APPLICATION_JSON));
+        } catch (IOException ex) {
+            subscriber.close(ex);
+        }
+        return emitter;
+    }
+
+    /**
+     * Announces a change once the current transaction commits; an empty collection means the
+     * whole calculation changed.
+     */
+    public void publish(Long calculationId, long revision, Collection<CalculationElement> elements) {
+        if (!subscribers.containsKey(calculationId)) {
+            return;
+        }
+        List<CalculationElement> changed = elements == null ? List.of() : List.copyOf(elements);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(calculationId, revision, changed);
+                }
+            });
+            return;
+        }
+        offer(calculationId, revision, changed);
+    }
+
+    /**
+     * Tells every open editor to reload, e.g. after a material or settings change that affects
+     * all calculations.
+     */
+    public void publishAll() {
+        Runnable broadcast = () -> subscribers.values()
+                .forEach(calculationSubscribers -> calculationSubscribers.forEach(Subscriber::offerFull));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast.run();
+                }
+            });
+            return;
+        }
+        broadcast.run();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        subscribers.values().forEach(calculationSubscribers ->
+                calculationSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    int subscriberCount(Long calculationId) {
+        Set<Subscriber> calculationSubscribers = subscribers.get(calculationId);
+        return calculationSubscribers == null ? 0 : calculationSubscribers.size();
+    }
+
+    private void offer(Long calculationId, long revision, List<CalculationElement> elements) {
+        Set<Subscriber> calculationSubscribers = subscribers.get(calculationId);
+        if (calculationSubscribers != null) {
+            calculationSubscribers.forEach(subscriber -> subscriber.offer(revision, elements));
+        }
+    }
+
+    /**
+     * Heartbeats only go to idle subscribers and are skipped while the sender queue is filling up;
+     * they keep proxies from closing quiet connections and are not worth delaying real events for.
+     */
+    private void heartbeat() {
+        if (sender.getQueue().remainingCapacity() < SENDER_QUEUE_CAPACITY / 2) {
+            return;
+        }
+        subscribers.values().forEach(calculationSubscribers -> calculationSubscribers.forEach(subscriber -> {
+            if (subscriber.tryAcquire()) {
+                try {
+                    sender.execute(subscriber::sendHeartbeat);
+                } catch (RejectedExecutionException ex) {
+                    subscriber.release();
+                }
+            }
+        }));
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(calculationSubscribers -> calculationSubscribers.forEach(subscriber -> {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > sendTimeoutNanos) {
+                LOG.debug("Dropping event subscriber of calculation {}: send timed out", subscriber.calculationId);
+                subscriber.close(new IOException("Event send timed out"));
+            }
+        }));
+    }
+
+    private void submit(Subscriber subscriber, Runnable task, int attempt) {
+        try {
+            sender.execute(task);
+        } catch (RejectedExecutionException ex) {
+            if (attempt >= MAX_SUBMIT_ATTEMPTS) {
+                LOG.warn("Event sender is saturated, dropping event subscriber of calculation {}",
+                        subscriber.calculationId);
+                subscriber.close(ex);
+                return;
+            }
+            LOG.debug("Event sender is saturated, delaying events for calculation {}", subscriber.calculationId);
+            scheduler.schedule(() -> submit(subscriber, task, attempt + 1),
+                    COALESCE_DELAY_MS * attempt, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.calculationId, (id, calculationSubscribers) -> {
+            calculationSubscribers.remove(subscriber);
+            return calculationSubscribers.isEmpty() ? null : calculationSubscribers;
+        });
+    }
+
+    /**
+     * Payload of a {@code change} event. {@code revision} is {@code null} when the change spans
+     * several calculations; {@code full} asks the client to reload instead of merging.
+     */
+    public record ChangeEvent(Long revision, boolean full, List<CalculationElement> elements) {}
+
+    private final class Subscriber {
+
+        private final Long calculationId;
+        private final SseEmitter emitter;
+        private final Set<CalculationElement> pendingElements = new LinkedHashSet<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private Long pendingRevision;
+        private boolean pendingFull;
+        private boolean hasPending;
+        private boolean busy;
+        private volatile long sendStartedAt;
+
+        private Subscriber(Long calculationId, SseEmitter emitter) {
+            this.calculationId = calculationId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(long revision, List<CalculationElement> elements) {
+            if (pendingRevision == null || revision > pendingRevision) {
+                pendingRevision = revision;
+            }
+            if (elements.isEmpty()) {
+                pendingFull = true;
+            } else if (!pendingFull) {
+                pendingElements.addAll(elements);
+                if (pendingElements.size() > MAX_PENDING_ELEMENTS) {
+                    pendingFull = true;
+                }
+            }
+            markPending();
+        }
+
+        private synchronized void offerFull() {
+            pendingRevision = null;
+            pendingFull = true;
+            markPending();
+        }
+
+        private void markPending() {
+            if (pendingFull) {
+                pendingElements.clear();
+            }
+            hasPending = true;
+            if (!busy) {
+                busy = true;
+                scheduleFlush();
+            }
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (busy) {
+                return false;
+            }
+            busy = true;
+            return true;
+        }
+
+        /**
+         * Ends the current task: hands over to a flush if changes arrived meanwhile, otherwise
+         * marks the subscriber idle.
+         */
+        private synchronized void release() {
+            if (hasPending && !closed.get()) {
+                scheduleFlush();
+            } else {
+                busy = false;
+            }
+        }
+
+        private void scheduleFlush() {
+            scheduler.schedule(() -> submit(this, this::flush, 1), COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+
+        private void flush() {
+            ChangeEvent event;
+            synchronized (this) {
+                event = new ChangeEvent(pendingRevision, pendingFull, new ArrayList<>(pendingElements));
+                pendingElements.clear();
+                pendingRevision = null;
+                pendingFull = false;
+                hasPending = false;
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name("change").data(event, MediaType.APPLICATION_JSON);
+            if (event.revision() != null) {
+                builder.id(event.revision().toString());
+            }
+            if (send(builder)) {
+                release();
+            }
+        }
+
+        private void sendHeartbeat() {
+            if (send(SseEmitter.event().comment("ping"))) {
+                release();
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return false;
+            }
+            sendStartedAt = System.nanoTime();
+            try {
+                emitter.send(event);
+                return !closed.get();
+            } catch (IOException | IllegalStateException ex) {
+                LOG.debug("Dropping event subscriber of calculation {}: {}", calculationId, ex.getMessage());
+                close(ex);
+                return false;
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+
+        /**
+         * Drops the subscriber and completes its emitter with an error, which also ends a write
+         * that is still blocked on the connection.
+         */
+        private void close(Throwable cause) {
+            if (closed.compareAndSet(false, true)) {
+                unsubscribe(this);
+                emitter.completeWithError(cause);
+            }
+        }
+    }
+}
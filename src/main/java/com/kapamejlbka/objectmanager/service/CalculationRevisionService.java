@@ -0,0 +1,138 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.config.CalculationChangesProperties;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
+import com.kapamejlbka.objectmanager.domain.calculation.CalculationChange;
+import com.kapamejlbka.objectmanager.domain.calculation.repository.CalculationChangeRepository;
+import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
+import jakarta.transaction.Transactional;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps two revisions per calculation. The input revision moves only when something the
+ * calculation engine reads changes and stamps snapshots and cached results; the editor revision
+ * also moves on layout-only edits such as node positions and is what editor ETags, the
+ * {@code ?since=} change feed and pushed events refer to.
+ */
+@Service
+public class CalculationRevisionService {
+
+    private final SystemCalculationRepository systemCalculationRepository;
+    private final CalculationChangeRepository calculationChangeRepository;
+    private final CalculationEventHub calculationEventHub;
+    private final CalculationChangesProperties properties;
+
+    public CalculationRevisionService(
+            SystemCalculationRepository systemCalculationRepository,
+            CalculationChangeRepository calculationChangeRepository,
+            CalculationEventHub calculationEventHub,
+            CalculationChangesProperties properties) {
+        this.systemCalculationRepository = systemCalculationRepository;
+        this.calculationChangeRepository = calculationChangeRepository;
+        this.calculationEventHub = calculationEventHub;
+        this.properties = properties;
+    }
+
+    @Transactional
+    public long markChanged(Long calculationId) {
+        systemCalculationRepository.incrementInputRevision(calculationId);
+        return currentRevision(calculationId);
+    }
+
+    /**
+     * Bumps both revisions and records which elements changed, so that clients can ask for
+     * {@link #changesSince} instead of reloading the whole calculation. An empty collection
+     * records a change of everything. Returns the new input revision.
+     */
+    @Transactional
+    public long markChanged(Long calculationId, Collection<CalculationElement> elements) {
+        long revision = markChanged(calculationId);
+        record(calculationId, currentEditorRevision(calculationId), elements);
+        return revision;
+    }
+
+    /**
+     * Records elements whose change does not affect the calculation result. Only the editor
+     * revision moves, so snapshots and cached results stay valid. Returns the new editor revision.
+     */
+    @Transactional
+    public long markEdited(Long calculationId, Collection<CalculationElement> elements) {
+        systemCalculationRepository.incrementEditorRevision(calculationId);
+        long editorRevision = currentEditorRevision(calculationId);
+        record(calculationId, editorRevision, elements);
+        return editorRevision;
+    }
+
+    @Transactional
+    public void markAllChanged() {
+        systemCalculationRepository.incrementAllInputRevisions();
+        calculationChangeRepository.insertFullChangeForAll();
+        calculationEventHub.publishAll();
+    }
+
+    public long currentRevision(Long calculationId) {
+        return systemCalculationRepository.findInputRevisionById(calculationId)
+                .orElseThrow(() -> new IllegalArgumentException("System calculation not found: " + calculationId));
+    }
+
+    public long currentEditorRevision(Long calculationId) {
+        return systemCalculationRepository.findEditorRevisionById(calculationId)
+                .orElseThrow(() -> new IllegalArgumentException("System calculation not found: " + calculationId));
+    }
+
+    /**
+     * Elements changed after editor revision {@code since}. Falls back to a full reload when
+     * {@code since} is ahead of {@code current} (e.g. a revision from before a database restore) or
+     * so far behind it that the change history may already have been pruned.
+     */
+    public ChangeSet changesSince(Long calculationId, long since, long current) {
+        if (since > current || current - since > properties.getRetainedRevisions()) {
+            return ChangeSet.FULL;
+        }
+        Map<CalculationElement.Type, Set<Long>> elements = new EnumMap<>(CalculationElement.Type.class);
+        for (Object[] row : calculationChangeRepository.findElementsChangedSince(calculationId, since)) {
+            if (row[0] == null) {
+                return ChangeSet.FULL;
+            }
+            elements.computeIfAbsent((CalculationElement.Type) row[0], type -> new HashSet<>()).add((Long) row[1]);
+        }
+        return new ChangeSet(false, elements);
+    }
+
+    /**
+     * Deletes change history that no client can still ask for without falling back to a full
+     * reload anyway.
+     */
+    @Transactional
+    public int pruneChanges() {
+        return calculationChangeRepository.deleteOutsideRetention(properties.getRetainedRevisions());
+    }
+
+    private void record(Long calculationId, long editorRevision, Collection<CalculationElement> elements) {
+        if (elements == null || elements.isEmpty()) {
+            calculationChangeRepository.save(new CalculationChange(calculationId, editorRevision, null));
+        } else {
+            calculationChangeRepository.saveAll(elements.stream()
+                    .map(element -> new CalculationChange(calculationId, editorRevision, element))
+                    .toList());
+        }
+        calculationEventHub.publish(calculationId, editorRevision, elements);
+    }
+
+    /**
+     * Elements changed after a revision, by type; {@code full} means the client has to reload.
+     */
+    public record ChangeSet(boolean full, Map<CalculationElement.Type, Set<Long>> elements) {
+
+        static final ChangeSet FULL = new ChangeSet(true, Map.of());
+
+        public Set<Long> ids(CalculationElement.Type type) {
+            return elements.getOrDefault(type, Set.of());
+        }
+    }
+}
@@ -14,10 +14,15 @@ public class CustomerAccessService {
 
     private final ProjectCustomerRepository customerRepository;
     private final AppUserRepository userRepository;
+    private final VisibilityService visibilityService;
 
-    public CustomerAccessService(ProjectCustomerRepository customerRepository, AppUserRepository userRepository) {
+    public CustomerAccessService(
+            ProjectCustomerRepository customerRepository,
+            AppUserRepository userRepository,
+            VisibilityService visibilityService) {
         this.customerRepository = customerRepository;
         this.userRepository = userRepository;
+        this.visibilityService = visibilityService;
     }
 
     public List<ProjectCustomer> findAll() {
@@ -28,7 +33,7 @@ public class CustomerAccessService {
         if (requester == null) {
             return List.of();
         }
-        return customerRepository.findAllVisibleForUser(requester);
+        return customerRepository.findAllVisibleForUser(requester.getId());
     }
 
     @Transactional
@@ -39,6 +44,7 @@ public class CustomerAccessService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
         customer.addOwner(user);
         customerRepository.save(customer);
+        visibilityService.refreshCustomer(customer);
     }
 
     @Transactional
@@ -49,5 +55,6 @@ public class CustomerAccessService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
         customer.removeOwner(user);
         customerRepository.save(customer);
+        visibilityService.refreshCustomer(customer);
     }
 }
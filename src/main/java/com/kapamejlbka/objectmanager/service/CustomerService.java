@@ -5,8 +5,19 @@ import com.kapamejlbka.objectmanager.domain.customer.dto.CustomerCreateRequest;
 import com.kapamejlbka.objectmanager.domain.customer.dto.CustomerUpdateRequest;
 import com.kapamejlbka.objectmanager.domain.customer.repository.CustomerRepository;
 import jakarta.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -57,6 +68,76 @@ public class CustomerService {
                 normalizedQuery, normalizedQuery);
     }
 
+    public Page<Customer> searchPage(String query, String sort, int page, int size) {
+        String sortKey = sortKey(sort);
+        String normalizedQuery = normalize(query);
+        if ("name".equals(sortKey)) {
+            PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(size, 1));
+            return StringUtils.hasText(normalizedQuery)
+                    ? customerRepository.searchOrderedByName(likePattern(normalizedQuery), pageRequest)
+                    : customerRepository.findOrderedByName(pageRequest);
+        }
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(size, 1), sortFor(sortKey));
+        if (!StringUtils.hasText(normalizedQuery)) {
+            return customerRepository.findAll(pageRequest);
+        }
+        return customerRepository.findByNameContainingIgnoreCaseOrTaxNumberContainingIgnoreCase(
+                normalizedQuery, normalizedQuery, pageRequest);
+    }
+
+    /**
+     * Keyset variant of {@link #searchPage}: the cost of a page does not depend on how deep it is.
+     * The cursor is opaque to callers; a blank cursor starts from the beginning.
+     */
+    public CustomerWindow scroll(String query, String sort, String cursor, int size) {
+        String sortKey = sortKey(sort);
+        Cursor position = decodeCursor(cursor);
+        int pageSize = Math.max(size, 1);
+        String normalizedQuery = normalize(query);
+        if ("name".equals(sortKey)) {
+            return scrollByName(normalizedQuery, position, pageSize);
+        }
+        ScrollPosition scrollPosition = position == null
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(position.keys(sortKey));
+        Limit limit = Limit.of(pageSize);
+        Window<Customer> window = StringUtils.hasText(normalizedQuery)
+                ? customerRepository.findByNameContainingIgnoreCaseOrTaxNumberContainingIgnoreCase(
+                        normalizedQuery, normalizedQuery, scrollPosition, limit, sortFor(sortKey))
+                : customerRepository.findAllBy(scrollPosition, limit, sortFor(sortKey));
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encodeCursor(window.getContent().get(window.size() - 1), sortKey);
+        }
+        return new CustomerWindow(window.getContent(), nextCursor);
+    }
+
+    /**
+     * Spring Data keyset scrolling compares raw property values, so the case-insensitive name
+     * order is scrolled with explicit queries that compare {@code lower(name)} like they sort.
+     */
+    private CustomerWindow scrollByName(String normalizedQuery, Cursor position, int pageSize) {
+        Limit limit = Limit.of(pageSize + 1);
+        boolean filtered = StringUtils.hasText(normalizedQuery);
+        String pattern = filtered ? likePattern(normalizedQuery) : null;
+        List<Customer> customers;
+        if (position == null) {
+            customers = filtered
+                    ? customerRepository.searchOrderedByName(pattern, limit)
+                    : customerRepository.findOrderedByName(limit);
+        } else {
+            customers = filtered
+                    ? customerRepository.searchAfterName(pattern, position.value(), position.id(), limit)
+                    : customerRepository.findAfterName(position.value(), position.id(), limit);
+        }
+        String nextCursor = null;
+        if (customers.size() > pageSize) {
+            customers = customers.subList(0, pageSize);
+            nextCursor = encodeCursor(customers.get(pageSize - 1), "name");
+        }
+        return new CustomerWindow(List.copyOf(customers), nextCursor);
+    }
+
     @Transactional
     public void delete(Long id) {
         Customer customer = getById(id);
@@ -80,6 +161,47 @@ public class CustomerService {
         customer.setNotes(normalize(dto.getNotes()));
     }
 
+    private Sort sortFor(String sortKey) {
+        return Sort.by(Sort.Order.desc(sortKey), Sort.Order.desc("id"));
+    }
+
+    private String sortKey(String sort) {
+        String normalized = sort == null ? "" : sort.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "created" -> "createdAt";
+            case "updated" -> "updatedAt";
+            default -> "name";
+        };
+    }
+
+    private String encodeCursor(Customer last, String sortKey) {
+        Object value = switch (sortKey) {
+            case "createdAt" -> last.getCreatedAt();
+            case "updatedAt" -> last.getUpdatedAt();
+            default -> last.getName();
+        };
+        String raw = last.getId() + ":" + (value == null ? "" : value.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new Cursor(Long.valueOf(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid page cursor", ex);
+        }
+    }
+
+    private String likePattern(String query) {
+        String escaped = query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped.toUpperCase(Locale.ROOT) + "%";
+    }
+
     private String normalize(String value) {
         if (value == null) {
             return null;
@@ -87,4 +209,20 @@ public class CustomerService {
         String trimmed = value.trim();
         return trimmed.isEmpty() ? null : trimmed;
     }
+
+    public record CustomerWindow(List<Customer> customers, String nextCursor) {}
+
+    private record Cursor(Long id, String value) {
+
+        Map<String, Object> keys(String sortKey) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            try {
+                keys.put(sortKey, LocalDateTime.parse(value));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid page cursor", ex);
+            }
+            keys.put("id", id);
+            return keys;
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.kapamejlbka.objectmanager.service;
+
+/**
+ * Thrown when an edit based on an older version of an element would overwrite a field someone
+ * else has changed since. Edits to fields nobody else touched are merged instead.
+ */
+public class EditConflictException extends IllegalStateException {
+
+    public EditConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
@@ -17,12 +18,15 @@ public class EndpointDeviceService {
 
     private final EndpointDeviceRepository endpointDeviceRepository;
     private final SystemCalculationRepository systemCalculationRepository;
+    private final CalculationDeltaService calculationDeltaService;
 
     public EndpointDeviceService(
             EndpointDeviceRepository endpointDeviceRepository,
-            SystemCalculationRepository systemCalculationRepository) {
+            SystemCalculationRepository systemCalculationRepository,
+            CalculationDeltaService calculationDeltaService) {
         this.endpointDeviceRepository = endpointDeviceRepository;
         this.systemCalculationRepository = systemCalculationRepository;
+        this.calculationDeltaService = calculationDeltaService;
     }
 
     @Transactional
@@ -36,7 +40,9 @@ public class EndpointDeviceService {
         LocalDateTime now = LocalDateTime.now();
         endpointDevice.setCreatedAt(now);
         endpointDevice.setUpdatedAt(now);
-        return endpointDeviceRepository.save(endpointDevice);
+        EndpointDevice saved = endpointDeviceRepository.save(endpointDevice);
+        calculationDeltaService.elementChanged(calculationId, CalculationElement.endpoint(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -47,7 +53,10 @@ public class EndpointDeviceService {
         EndpointDevice endpointDevice = getById(id);
         applyDto(endpointDevice, dto);
         endpointDevice.setUpdatedAt(LocalDateTime.now());
-        return endpointDeviceRepository.save(endpointDevice);
+        EndpointDevice saved = endpointDeviceRepository.save(endpointDevice);
+        calculationDeltaService.elementChanged(
+                saved.getCalculation().getId(), CalculationElement.endpoint(saved.getId()));
+        return saved;
     }
 
     public List<EndpointDevice> listByCalculation(Long calculationId) {
@@ -72,6 +81,8 @@ public class EndpointDeviceService {
     public void delete(Long id) {
         EndpointDevice endpointDevice = getById(id);
         endpointDeviceRepository.delete(endpointDevice);
+        calculationDeltaService.elementChanged(
+                endpointDevice.getCalculation().getId(), CalculationElement.endpoint(endpointDevice.getId()));
     }
 
     private EndpointDevice getById(Long id) {
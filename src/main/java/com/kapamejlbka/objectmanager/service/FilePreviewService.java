@@ -1,8 +1,12 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.customer.SiteAttachment;
 import com.kapamejlbka.objectmanager.domain.customer.StoredFile;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import org.apache.poi.hwpf.HWPFDocument;
 import org.apache.poi.hwpf.extractor.WordExtractor;
@@ -40,29 +44,65 @@ public class FilePreviewService {
             + ".preview-hint{margin-top:0.75rem;font-size:12px;color:#6b7280;}";
 
     private final FileStorageService storageService;
-
-    public FilePreviewService(FileStorageService storageService) {
+    private final SiteAttachmentStorageService attachmentStorageService;
+    private final PreviewCache previewCache;
+
+    public FilePreviewService(
+            FileStorageService storageService,
+            SiteAttachmentStorageService attachmentStorageService,
+            PreviewCache previewCache
+    ) {
         this.storageService = storageService;
+        this.attachmentStorageService = attachmentStorageService;
+        this.previewCache = previewCache;
     }
 
     public String renderPreview(StoredFile storedFile) {
-        String contentType = storedFile.getContentType();
-        if (contentType == null) {
+        return renderPreview(sourceOf(storedFile));
+    }
+
+    public String renderPreview(SiteAttachment attachment) {
+        return renderPreview(sourceOf(attachment));
+    }
+
+    public String renderPreview(PreviewSource source) {
+        if (source.contentType() == null) {
             throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Не удалось определить тип файла");
         }
+        return previewCache.get(source, () -> render(source));
+    }
 
-        if (isExcel(contentType, storedFile)) {
+    public PreviewSource sourceOf(StoredFile storedFile) {
+        return PreviewSource.of(storedFile, storageService.resolve(storedFile));
+    }
+
+    public PreviewSource sourceOf(SiteAttachment attachment) {
+        return PreviewSource.of(attachment, attachmentStorageService.resolve(attachment));
+    }
+
+    public boolean supports(PreviewSource source) {
+        return source.contentType() != null
+                && (isExcel(source.contentType(), source) || isWord(source.contentType(), source));
+    }
+
+    public boolean isCached(PreviewSource source) {
+        return previewCache.contains(source);
+    }
+
+    private String render(PreviewSource source) {
+        String contentType = source.contentType();
+        if (isExcel(contentType, source)) {
             try {
-                return renderExcelPreview(storedFile);
+                return renderExcelPreview(source);
             } catch (IOException | InvalidFormatException ex) {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                         "Не удалось подготовить предпросмотр Excel файла", ex);
             }
         }
 
-        if (isWord(contentType, storedFile)) {
+        if (isWord(contentType, source)) {
             try {
-                return renderWordPreview(storedFile);
+                return renderWordPreview(source);
             } catch (IOException ex) {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                         "Не удалось подготовить предпросмотр Word файла", ex);
@@ -73,97 +113,119 @@ public class FilePreviewService {
                 "Предпросмотр для данного типа файла не поддерживается");
     }
 
-    private boolean isExcel(String contentType, StoredFile storedFile) {
+    private boolean isExcel(String contentType, PreviewSource source) {
         if (contentType.startsWith("application/vnd.ms-excel")
                 || contentType.startsWith("application/vnd.openxmlformats-officedocument.spreadsheetml")) {
             return true;
         }
 
-        String extension = storedFile.getExtension();
+        String extension = source.extension();
         return "xls".equalsIgnoreCase(extension) || "xlsx".equalsIgnoreCase(extension);
     }
 
-    private boolean isWord(String contentType, StoredFile storedFile) {
+    private boolean isWord(String contentType, PreviewSource source) {
         if (contentType != null && (contentType.equalsIgnoreCase("application/msword")
                 || contentType.startsWith("application/vnd.openxmlformats-officedocument.wordprocessingml"))) {
             return true;
         }
 
-        String extension = storedFile.getExtension();
+        String extension = source.extension();
         return "doc".equalsIgnoreCase(extension) || "docx".equalsIgnoreCase(extension);
     }
 
-    private String renderExcelPreview(StoredFile storedFile) throws IOException, InvalidFormatException {
-        try (InputStream inputStream = storageService.loadAsResource(storedFile).getInputStream();
+    private String renderExcelPreview(PreviewSource source) throws IOException, InvalidFormatException {
+        DataFormatter formatter = new DataFormatter(Locale.getDefault());
+        XlsxPreviewReader.Window window;
+        if (isXlsx(source)) {
+            window = new XlsxPreviewReader(MAX_PREVIEW_ROWS, MAX_PREVIEW_COLUMNS).read(source.path(), formatter);
+        } else {
+            window = readWorkbookWindow(source, formatter);
+        }
+
+        if (!window.hasSheet()) {
+            return wrapInDocument("<p class=\"preview-empty\">Лист в файле отсутствует.</p>", EXCEL_STYLES);
+        }
+        if (window.rows().isEmpty()) {
+            return wrapInDocument("<p class=\"preview-empty\">Файл не содержит данных для предпросмотра.</p>", EXCEL_STYLES);
+        }
+
+        StringBuilder content = new StringBuilder();
+        content.append("<table class=\"excel-preview-table\">");
+        for (List<String> row : window.rows()) {
+            content.append("<tr>");
+            for (String value : row) {
+                content.append("<td>")
+                        .append(HtmlUtils.htmlEscape(value))
+                        .append("</td>");
+            }
+            if (row.isEmpty()) {
+                content.append("<td></td>");
+            }
+            content.append("</tr>");
+        }
+        content.append("</table>");
+
+        int rowsRendered = window.rows().size();
+        if (window.hasMoreRows() || window.hasMoreColumns()) {
+            content.append("<p class=\"preview-hint\">");
+            content.append("Показаны только первые ").append(rowsRendered).append(" строк");
+            if (window.hasMoreColumns()) {
+                content.append(" и ").append(MAX_PREVIEW_COLUMNS).append(" колонок");
+            }
+            content.append(".</p>");
+        }
+
+        return wrapInDocument(content.toString(), EXCEL_STYLES);
+    }
+
+    private boolean isXlsx(PreviewSource source) {
+        String contentType = source.contentType();
+        if (contentType != null && contentType.startsWith("application/vnd.openxmlformats-officedocument.spreadsheetml")) {
+            return true;
+        }
+        return "xlsx".equalsIgnoreCase(source.extension());
+    }
+
+    private XlsxPreviewReader.Window readWorkbookWindow(PreviewSource source, DataFormatter formatter)
+            throws IOException, InvalidFormatException {
+        try (InputStream inputStream = Files.newInputStream(source.path());
              Workbook workbook = WorkbookFactory.create(inputStream)) {
             if (workbook.getNumberOfSheets() == 0) {
-                return wrapInDocument("<p class=\"preview-empty\">Лист в файле отсутствует.</p>", EXCEL_STYLES);
+                return new XlsxPreviewReader.Window(false, List.of(), false, false);
             }
 
             Sheet sheet = workbook.getSheetAt(0);
-            DataFormatter formatter = new DataFormatter(Locale.getDefault());
-            StringBuilder tableBuilder = new StringBuilder();
-            tableBuilder.append("<table class=\"excel-preview-table\">");
-
-            int rowsRendered = 0;
+            List<List<String>> rows = new ArrayList<>();
             boolean hasMoreColumns = false;
             for (Row row : sheet) {
-                if (rowsRendered >= MAX_PREVIEW_ROWS) {
+                if (rows.size() >= MAX_PREVIEW_ROWS) {
                     break;
                 }
-                tableBuilder.append("<tr>");
-                int physicalLastColumn = row.getLastCellNum();
-                if (physicalLastColumn < 0) {
-                    physicalLastColumn = 0;
-                }
+                int physicalLastColumn = Math.max(row.getLastCellNum(), 0);
                 if (physicalLastColumn > MAX_PREVIEW_COLUMNS) {
                     hasMoreColumns = true;
                 }
                 int lastColumn = Math.min(physicalLastColumn, MAX_PREVIEW_COLUMNS);
+                List<String> values = new ArrayList<>(lastColumn);
                 for (int columnIndex = 0; columnIndex < lastColumn; columnIndex++) {
                     Cell cell = row.getCell(columnIndex);
-                    String value = cell != null ? formatter.formatCellValue(cell) : "";
-                    tableBuilder.append("<td>")
-                            .append(HtmlUtils.htmlEscape(value))
-                            .append("</td>");
-                }
-                if (lastColumn == 0) {
-                    tableBuilder.append("<td></td>");
-                }
-                tableBuilder.append("</tr>");
-                rowsRendered++;
-            }
-
-            if (rowsRendered == 0) {
-                return wrapInDocument("<p class=\"preview-empty\">Файл не содержит данных для предпросмотра.</p>", EXCEL_STYLES);
-            }
-
-            tableBuilder.append("</table>");
-
-            boolean hasMoreRows = sheet.getPhysicalNumberOfRows() > rowsRendered;
-
-            StringBuilder content = new StringBuilder();
-            content.append(tableBuilder);
-            if (hasMoreRows || hasMoreColumns) {
-                content.append("<p class=\"preview-hint\">");
-                content.append("Показаны только первые ").append(rowsRendered).append(" строк");
-                if (hasMoreColumns) {
-                    content.append(" и ").append(MAX_PREVIEW_COLUMNS).append(" колонок");
+                    values.add(cell != null ? formatter.formatCellValue(cell) : "");
                 }
-                content.append(".</p>");
+                rows.add(values);
             }
 
-            return wrapInDocument(content.toString(), EXCEL_STYLES);
+            boolean hasMoreRows = sheet.getPhysicalNumberOfRows() > rows.size();
+            return new XlsxPreviewReader.Window(true, rows, hasMoreRows, hasMoreColumns);
         }
     }
 
-    private String renderWordPreview(StoredFile storedFile) throws IOException {
-        boolean docx = storedFile.getExtension().equalsIgnoreCase("docx")
-                || (storedFile.getContentType() != null
-                && storedFile.getContentType().startsWith("application/vnd.openxmlformats-officedocument.wordprocessingml"));
+    private String renderWordPreview(PreviewSource source) throws IOException {
+        boolean docx = "docx".equalsIgnoreCase(source.extension())
+                || (source.contentType() != null
+                && source.contentType().startsWith("application/vnd.openxmlformats-officedocument.wordprocessingml"));
 
         String text;
-        try (InputStream inputStream = storageService.loadAsResource(storedFile).getInputStream()) {
+        try (InputStream inputStream = Files.newInputStream(source.path())) {
             if (docx) {
                 try (XWPFDocument document = new XWPFDocument(inputStream);
                      XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
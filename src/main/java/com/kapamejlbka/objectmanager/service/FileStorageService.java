@@ -4,15 +4,15 @@ import com.kapamejlbka.objectmanager.config.FileStorageProperties;
 import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
 import com.kapamejlbka.objectmanager.domain.customer.StoredFile;
 import com.kapamejlbka.objectmanager.domain.customer.repository.StoredFileRepository;
+import com.kapamejlbka.objectmanager.service.BlobStoreService.StoredBlob;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -22,10 +22,19 @@ public class FileStorageService {
 
     private final Path rootLocation;
     private final StoredFileRepository storedFileRepository;
+    private final PreviewCache previewCache;
+    private final BlobStoreService blobStoreService;
 
-    public FileStorageService(FileStorageProperties properties, StoredFileRepository storedFileRepository) {
+    public FileStorageService(
+            FileStorageProperties properties,
+            StoredFileRepository storedFileRepository,
+            PreviewCache previewCache,
+            BlobStoreService blobStoreService
+    ) {
         this.rootLocation = Path.of(properties.getUploadDir()).toAbsolutePath().normalize();
         this.storedFileRepository = storedFileRepository;
+        this.previewCache = previewCache;
+        this.blobStoreService = blobStoreService;
         init();
     }
 
@@ -51,16 +60,15 @@ public class FileStorageService {
         UUID fileId = UUID.randomUUID();
         String storedFilename = fileId + extension;
 
-        Path destinationDirectory = rootLocation.resolve(managedObject.getId().toString());
-        try {
-            Files.createDirectories(destinationDirectory);
-            Path destinationFile = destinationDirectory.resolve(storedFilename);
-            Files.copy(file.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream content = file.getInputStream()) {
+            StoredBlob blob = blobStoreService.write(content);
+            blobStoreService.retain(blob);
             String contentType = file.getContentType();
             if (contentType == null || contentType.isBlank()) {
-                contentType = Files.probeContentType(destinationFile);
+                contentType = Files.probeContentType(Path.of(storedFilename));
             }
-            StoredFile storedFile = new StoredFile(originalFilename, storedFilename, file.getSize(), LocalDateTime.now(), contentType);
+            StoredFile storedFile = new StoredFile(originalFilename, storedFilename, blob.size(), LocalDateTime.now(), contentType);
+            storedFile.setContentHash(blob.contentHash());
             storedFile.setManagedObject(managedObject);
             return storedFileRepository.save(storedFile);
         } catch (IOException ex) {
@@ -72,25 +80,33 @@ public class FileStorageService {
         return rootLocation.resolve(managedObject.getId().toString()).resolve(storedFilename).normalize();
     }
 
+    public Path resolve(StoredFile storedFile) {
+        if (storedFile.getContentHash() != null) {
+            return blobStoreService.resolve(storedFile.getContentHash());
+        }
+        return load(storedFile.getManagedObject(), storedFile.getStoredFilename());
+    }
+
     public Resource loadAsResource(StoredFile storedFile) {
-        Path filePath = load(storedFile.getManagedObject(), storedFile.getStoredFilename());
-        try {
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            }
-        } catch (MalformedURLException ex) {
-            throw new IllegalStateException("Failed to read stored file", ex);
+        Path filePath = resolve(storedFile);
+        Resource resource = new FileSystemResource(filePath);
+        if (resource.exists() && resource.isReadable()) {
+            return resource;
         }
         throw new IllegalStateException("Stored file not found: " + storedFile.getStoredFilename());
     }
 
     public void deleteFile(StoredFile storedFile) {
-        Path filePath = load(storedFile.getManagedObject(), storedFile.getStoredFilename());
-        try {
-            Files.deleteIfExists(filePath);
-        } catch (IOException ex) {
-            throw new IllegalStateException("Failed to delete file", ex);
+        Path filePath = resolve(storedFile);
+        previewCache.invalidate(storedFile.getStoredFilename(), filePath);
+        if (storedFile.getContentHash() != null) {
+            blobStoreService.release(storedFile.getContentHash());
+        } else {
+            try {
+                Files.deleteIfExists(filePath);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to delete file", ex);
+            }
         }
         storedFileRepository.delete(storedFile);
     }
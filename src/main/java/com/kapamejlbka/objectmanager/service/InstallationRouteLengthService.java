@@ -1,13 +1,18 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
 import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
 import com.kapamejlbka.objectmanager.domain.topology.repository.InstallationRouteRepository;
 import com.kapamejlbka.objectmanager.domain.topology.repository.RouteSegmentLinkRepository;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.springframework.stereotype.Service;
@@ -17,12 +22,15 @@ public class InstallationRouteLengthService {
 
     private final InstallationRouteRepository installationRouteRepository;
     private final RouteSegmentLinkRepository routeSegmentLinkRepository;
+    private final CalculationDeltaService calculationDeltaService;
 
     public InstallationRouteLengthService(
             InstallationRouteRepository installationRouteRepository,
-            RouteSegmentLinkRepository routeSegmentLinkRepository) {
+            RouteSegmentLinkRepository routeSegmentLinkRepository,
+            CalculationDeltaService calculationDeltaService) {
         this.installationRouteRepository = installationRouteRepository;
         this.routeSegmentLinkRepository = routeSegmentLinkRepository;
+        this.calculationDeltaService = calculationDeltaService;
     }
 
     @Transactional
@@ -43,27 +51,53 @@ public class InstallationRouteLengthService {
                 .orElse(0d);
         route.setLengthMeters(maxLength);
         installationRouteRepository.save(route);
+        calculationDeltaService.elementChanged(route.getCalculation().getId(), CalculationElement.route(routeId));
     }
 
+    /**
+     * Set-based variant of {@link #recalculateRouteLength}: one aggregate update for all routes and
+     * one revision bump per calculation.
+     */
     @Transactional
     public void recalculateRouteLengths(Collection<Long> routeIds) {
-        if (routeIds == null || routeIds.isEmpty()) {
+        Set<Long> ids = nonNullIds(routeIds);
+        if (ids.isEmpty()) {
             return;
         }
-        routeIds.stream().filter(Objects::nonNull).forEach(this::recalculateRouteLength);
+        installationRouteRepository.recalculateLengths(ids);
+        Map<Long, List<CalculationElement>> elementsByCalculation = new HashMap<>();
+        for (Object[] row : installationRouteRepository.findCalculationIdsByIdIn(ids)) {
+            elementsByCalculation.computeIfAbsent((Long) row[1], ignored -> new ArrayList<>())
+                    .add(CalculationElement.route((Long) row[0]));
+        }
+        elementsByCalculation.forEach(calculationDeltaService::elementsChanged);
     }
 
+    /**
+     * Recomputes the lengths of the routes carrying the given links of one calculation and returns
+     * those routes without recording them. The caller records them together with the links, so
+     * that a link edit bumps the revision once.
+     */
     @Transactional
-    public void recalculateForLink(Long topologyLinkId) {
-        if (topologyLinkId == null) {
-            return;
+    public List<CalculationElement> recalculateForLinks(Collection<Long> topologyLinkIds) {
+        Set<Long> linkIds = nonNullIds(topologyLinkIds);
+        if (linkIds.isEmpty()) {
+            return List.of();
         }
-        Set<Long> routeIds = new HashSet<>();
-        routeSegmentLinkRepository.findByTopologyLinkId(topologyLinkId).stream()
-                .map(RouteSegmentLink::getRoute)
-                .filter(Objects::nonNull)
-                .map(InstallationRoute::getId)
-                .forEach(routeIds::add);
-        recalculateRouteLengths(routeIds);
+        List<Long> routeIds = routeSegmentLinkRepository.findRouteIdsByTopologyLinkIdIn(linkIds);
+        if (routeIds.isEmpty()) {
+            return List.of();
+        }
+        installationRouteRepository.recalculateLengths(routeIds);
+        return routeIds.stream().map(CalculationElement::route).toList();
+    }
+
+    private static Set<Long> nonNullIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> result = new HashSet<>(ids);
+        result.remove(null);
+        return result;
     }
 }
@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.material.Material;
@@ -26,14 +27,17 @@ public class InstallationRouteService {
     private final InstallationRouteRepository installationRouteRepository;
     private final SystemCalculationRepository systemCalculationRepository;
     private final MaterialRepository materialRepository;
+    private final CalculationDeltaService calculationDeltaService;
 
     public InstallationRouteService(
             InstallationRouteRepository installationRouteRepository,
             SystemCalculationRepository systemCalculationRepository,
-            MaterialRepository materialRepository) {
+            MaterialRepository materialRepository,
+            CalculationDeltaService calculationDeltaService) {
         this.installationRouteRepository = installationRouteRepository;
         this.systemCalculationRepository = systemCalculationRepository;
         this.materialRepository = materialRepository;
+        this.calculationDeltaService = calculationDeltaService;
     }
 
     @Transactional
@@ -47,7 +51,9 @@ public class InstallationRouteService {
         LocalDateTime now = LocalDateTime.now();
         installationRoute.setCreatedAt(now);
         installationRoute.setUpdatedAt(now);
-        return installationRouteRepository.save(installationRoute);
+        InstallationRoute saved = installationRouteRepository.save(installationRoute);
+        calculationDeltaService.elementChanged(calculationId, CalculationElement.route(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -56,9 +62,19 @@ public class InstallationRouteService {
             throw new IllegalArgumentException("Installation route data is required");
         }
         InstallationRoute installationRoute = getById(id);
+        Long baseVersion = dto.getVersion();
+        boolean lengthStale = baseVersion != null && installationRoute.lengthChangedSince(baseVersion);
+        boolean detailsStale = baseVersion != null && installationRoute.detailsChangedSince(baseVersion);
+        long currentVersion = installationRoute.getVersion();
         applyDto(installationRoute, dto);
+        if (lengthStale && installationRoute.lengthChangedSince(currentVersion)
+                || detailsStale && installationRoute.detailsChangedSince(currentVersion)) {
+            throw new EditConflictException("Трасса изменена другим пользователем");
+        }
         installationRoute.setUpdatedAt(LocalDateTime.now());
-        return installationRouteRepository.save(installationRoute);
+        InstallationRoute saved = installationRouteRepository.save(installationRoute);
+        calculationDeltaService.elementChanged(saved.getCalculation().getId(), CalculationElement.route(saved.getId()));
+        return saved;
     }
 
     public List<InstallationRoute> listByCalculation(Long calculationId) {
@@ -69,6 +85,8 @@ public class InstallationRouteService {
     public void delete(Long id) {
         InstallationRoute installationRoute = getById(id);
         installationRouteRepository.delete(installationRoute);
+        calculationDeltaService.elementChanged(
+                installationRoute.getCalculation().getId(), CalculationElement.route(installationRoute.getId()));
     }
 
     private InstallationRoute getById(Long id) {
@@ -6,15 +6,20 @@ import com.kapamejlbka.objectmanager.domain.customer.ObjectChange;
 import com.kapamejlbka.objectmanager.domain.customer.ObjectChangeType;
 import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
 import com.kapamejlbka.objectmanager.domain.customer.StoredFile;
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType;
 import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ArchivedObjectChangeRepository;
 import com.kapamejlbka.objectmanager.domain.customer.repository.ManagedObjectRepository;
 import com.kapamejlbka.objectmanager.domain.customer.repository.ObjectChangeRepository;
 import com.kapamejlbka.objectmanager.domain.customer.repository.ProjectCustomerRepository;
 import com.kapamejlbka.objectmanager.domain.customer.repository.StoredFileRepository;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
@@ -27,37 +32,62 @@ public class ManagedObjectService {
     private final ManagedObjectRepository managedObjectRepository;
     private final ProjectCustomerRepository customerRepository;
     private final ObjectChangeRepository objectChangeRepository;
+    private final ArchivedObjectChangeRepository archivedObjectChangeRepository;
     private final FileStorageService storageService;
     private final StoredFileRepository storedFileRepository;
     private final AccessControlService accessControlService;
+    private final PreviewGenerationService previewGenerationService;
+    private final VisibilityService visibilityService;
 
     public ManagedObjectService(
             ManagedObjectRepository managedObjectRepository,
             ProjectCustomerRepository customerRepository,
             ObjectChangeRepository objectChangeRepository,
+            ArchivedObjectChangeRepository archivedObjectChangeRepository,
             FileStorageService storageService,
             StoredFileRepository storedFileRepository,
-            AccessControlService accessControlService) {
+            AccessControlService accessControlService,
+            PreviewGenerationService previewGenerationService,
+            VisibilityService visibilityService) {
         this.managedObjectRepository = managedObjectRepository;
         this.customerRepository = customerRepository;
         this.objectChangeRepository = objectChangeRepository;
+        this.archivedObjectChangeRepository = archivedObjectChangeRepository;
         this.storageService = storageService;
         this.storedFileRepository = storedFileRepository;
         this.accessControlService = accessControlService;
+        this.previewGenerationService = previewGenerationService;
+        this.visibilityService = visibilityService;
     }
 
     public List<ManagedObject> listVisibleObjects(AppUser requester) {
         if (accessControlService.isAdmin(requester)) {
             return managedObjectRepository.findAllByDeletionRequestedFalseOrderByCreatedAtDesc();
         }
-        return managedObjectRepository.findAllVisibleForUser(requester);
+        if (requester == null) {
+            return List.of();
+        }
+        return managedObjectRepository.findAllVisibleForUser(requester.getId());
+    }
+
+    public Set<UUID> filterVisibleIds(Collection<UUID> objectIds, AppUser requester) {
+        if (objectIds == null || objectIds.isEmpty()) {
+            return Set.of();
+        }
+        if (accessControlService.isAdmin(requester)) {
+            return new HashSet<>(objectIds);
+        }
+        return visibilityService.filterVisible(requester, TargetType.OBJECT, objectIds);
     }
 
     public List<ManagedObject> listPendingDeletion(AppUser requester) {
         if (accessControlService.isAdmin(requester)) {
             return managedObjectRepository.findAllDeletionRequested();
         }
-        return managedObjectRepository.findAllDeletionRequestedForUser(requester);
+        if (requester == null) {
+            return List.of();
+        }
+        return managedObjectRepository.findAllDeletionRequestedForUser(requester.getId());
     }
 
     public ManagedObject getById(UUID id) {
@@ -65,13 +95,14 @@ public class ManagedObjectService {
                 .orElseThrow(() -> new IllegalArgumentException("Object not found: " + id));
     }
 
+    /**
+     * Marks the object as being worked on. Several users may edit at once: concurrent changes to
+     * topology elements are reconciled by their versions, so this is a status, not a lock.
+     */
     @Transactional
     public ManagedObject startEditing(UUID id, AppUser user) {
         ManagedObject managedObject = getById(id);
         accessControlService.ensureCanEditObject(managedObject, user);
-        if (managedObject.getStatus() == ManagedObjectStatus.IN_PROGRESS) {
-            throw new IllegalStateException("Объект уже редактируется другим пользователем");
-        }
         updateStatus(managedObject, ManagedObjectStatus.IN_PROGRESS, user);
         return managedObject;
     }
@@ -104,6 +135,7 @@ public class ManagedObjectService {
         managedObject.setCreatedBy(creator);
         customer.getOwners().forEach(managedObject::addOwner);
         ManagedObject saved = managedObjectRepository.save(managedObject);
+        visibilityService.refreshObject(saved);
         ObjectChange change = new ObjectChange(ObjectChangeType.CREATED, null, null, null,
                 "Создан объект пользователем " + creator.getUsername());
         change.setUser(creator);
@@ -136,6 +168,7 @@ public class ManagedObjectService {
             recordChange(managedObject, editor, ObjectChangeType.TRANSFERRED,
                     "customer", managedObject.getCustomer().getName(), customer.getName());
             managedObject.setCustomer(customer);
+            visibilityService.refreshObject(managedObject);
         }
         if (!Objects.equals(managedObject.getLatitude(), latitude)) {
             recordChange(managedObject, editor, ObjectChangeType.UPDATED,
@@ -181,6 +214,7 @@ public class ManagedObjectService {
         managedObjectRepository.save(managedObject);
         recordChange(managedObject, uploader, ObjectChangeType.FILE_ATTACHED,
                 "file", null, storedFile.getOriginalFilename());
+        previewGenerationService.schedule(storedFile);
         return storedFile;
     }
 
@@ -194,11 +228,6 @@ public class ManagedObjectService {
         return storageService.loadAsResource(storedFile);
     }
 
-    public List<ObjectChange> getChangeHistory(UUID objectId) {
-        ManagedObject managedObject = getById(objectId);
-        return objectChangeRepository.findAllByManagedObjectOrderByChangedAtDesc(managedObject);
-    }
-
     @Transactional
     public void requestDeletion(UUID objectId, AppUser requester) {
         ManagedObject managedObject = getById(objectId);
@@ -228,6 +257,8 @@ public class ManagedObjectService {
         managedObject.getFiles().forEach(storageService::deleteFile);
         recordChange(managedObject, admin, ObjectChangeType.DELETED, null, null,
                 "Объект \"" + managedObject.getName() + "\" удалён администратором " + admin.getUsername());
+        visibilityService.removeObject(managedObject);
+        archivedObjectChangeRepository.deleteByObjectId(objectId);
         managedObjectRepository.delete(managedObject);
     }
 
@@ -0,0 +1,83 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
+import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class MaterialNormCatalogService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaterialNormCatalogService.class);
+
+    private final MaterialNormRepository materialNormRepository;
+
+    private volatile Map<MaterialNormContext, List<MaterialNorm>> normsByContext;
+
+    public MaterialNormCatalogService(MaterialNormRepository materialNormRepository) {
+        this.materialNormRepository = materialNormRepository;
+    }
+
+    public List<MaterialNorm> findByContext(MaterialNormContext contextType) {
+        if (contextType == null) {
+            return List.of();
+        }
+        return snapshot().getOrDefault(contextType, List.of());
+    }
+
+    public void refresh() {
+        Map<MaterialNormContext, List<MaterialNorm>> rebuilt = load();
+        synchronized (this) {
+            normsByContext = rebuilt;
+        }
+    }
+
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+            return;
+        }
+        refresh();
+    }
+
+    private Map<MaterialNormContext, List<MaterialNorm>> snapshot() {
+        Map<MaterialNormContext, List<MaterialNorm>> current = normsByContext;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (normsByContext == null) {
+                normsByContext = load();
+            }
+            return normsByContext;
+        }
+    }
+
+    private Map<MaterialNormContext, List<MaterialNorm>> load() {
+        Map<MaterialNormContext, List<MaterialNorm>> grouped = new EnumMap<>(MaterialNormContext.class);
+        List<MaterialNorm> norms = materialNormRepository.findAllWithMaterial();
+        for (MaterialNorm norm : norms) {
+            if (norm.getContextType() == null || norm.getMaterial() == null) {
+                continue;
+            }
+            grouped.computeIfAbsent(norm.getContextType(), key -> new ArrayList<>()).add(norm);
+        }
+        grouped.replaceAll((contextType, list) -> List.copyOf(list));
+        LOG.debug("Loaded {} material norms into catalog", norms.size());
+        return Collections.unmodifiableMap(grouped);
+    }
+}
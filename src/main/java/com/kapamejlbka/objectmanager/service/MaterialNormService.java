@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.dsl.ExpressionEvaluator;
 import com.kapamejlbka.objectmanager.domain.material.Material;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
@@ -16,10 +17,21 @@ public class MaterialNormService {
 
     private final MaterialNormRepository normRepository;
     private final MaterialRepository materialRepository;
+    private final ExpressionEvaluator expressionEvaluator;
+    private final MaterialNormCatalogService materialNormCatalogService;
+    private final CalculationRevisionService calculationRevisionService;
 
-    public MaterialNormService(MaterialNormRepository normRepository, MaterialRepository materialRepository) {
+    public MaterialNormService(
+            MaterialNormRepository normRepository,
+            MaterialRepository materialRepository,
+            ExpressionEvaluator expressionEvaluator,
+            MaterialNormCatalogService materialNormCatalogService,
+            CalculationRevisionService calculationRevisionService) {
         this.normRepository = normRepository;
         this.materialRepository = materialRepository;
+        this.expressionEvaluator = expressionEvaluator;
+        this.materialNormCatalogService = materialNormCatalogService;
+        this.calculationRevisionService = calculationRevisionService;
     }
 
     public List<MaterialNorm> listAll() {
@@ -39,23 +51,33 @@ public class MaterialNormService {
         norm.setFormula(form.getFormula().trim());
         norm.setDescription(form.getDescription());
         norm.setMaterial(resolveMaterial(form.getMaterialId()));
-        return normRepository.save(norm);
+        MaterialNorm saved = normRepository.save(norm);
+        materialNormCatalogService.invalidate();
+        calculationRevisionService.markAllChanged();
+        return saved;
     }
 
     @Transactional
     public MaterialNorm update(Long id, MaterialNormForm form) {
         validate(form);
         MaterialNorm existing = getById(id);
+        expressionEvaluator.evict(existing.getFormula());
         existing.setContextType(form.getContextType());
         existing.setFormula(form.getFormula().trim());
         existing.setDescription(form.getDescription());
         existing.setMaterial(resolveMaterial(form.getMaterialId()));
-        return normRepository.save(existing);
+        MaterialNorm saved = normRepository.save(existing);
+        materialNormCatalogService.invalidate();
+        calculationRevisionService.markAllChanged();
+        return saved;
     }
 
     @Transactional
     public void delete(Long id) {
+        normRepository.findById(id).ifPresent(norm -> expressionEvaluator.evict(norm.getFormula()));
         normRepository.deleteById(id);
+        materialNormCatalogService.invalidate();
+        calculationRevisionService.markAllChanged();
     }
 
     public String resolveContextName(MaterialNormContext contextType) {
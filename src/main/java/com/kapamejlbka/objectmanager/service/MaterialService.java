@@ -15,9 +15,16 @@ import org.springframework.util.StringUtils;
 public class MaterialService {
 
     private final MaterialRepository materialRepository;
+    private final MaterialNormCatalogService materialNormCatalogService;
+    private final CalculationRevisionService calculationRevisionService;
 
-    public MaterialService(MaterialRepository materialRepository) {
+    public MaterialService(
+            MaterialRepository materialRepository,
+            MaterialNormCatalogService materialNormCatalogService,
+            CalculationRevisionService calculationRevisionService) {
         this.materialRepository = materialRepository;
+        this.materialNormCatalogService = materialNormCatalogService;
+        this.calculationRevisionService = calculationRevisionService;
     }
 
     public List<Material> listAll() {
@@ -77,12 +84,17 @@ public class MaterialService {
         existing.setCategory(requiredCategory(form.getCategory()));
         existing.setUnit(normalizeRequired(form.getUnit(), "Единица измерения обязательна"));
         existing.setNotes(form.getNotes());
-        return materialRepository.save(existing);
+        Material saved = materialRepository.save(existing);
+        materialNormCatalogService.invalidate();
+        calculationRevisionService.markAllChanged();
+        return saved;
     }
 
     @Transactional
     public void delete(Long id) {
         materialRepository.deleteById(id);
+        materialNormCatalogService.invalidate();
+        calculationRevisionService.markAllChanged();
     }
 
     private void validateCode(String code, Long excludeId) {
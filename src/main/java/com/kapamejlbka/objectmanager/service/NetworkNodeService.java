@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
@@ -17,12 +18,15 @@ public class NetworkNodeService {
 
     private final NetworkNodeRepository networkNodeRepository;
     private final SystemCalculationRepository systemCalculationRepository;
+    private final CalculationDeltaService calculationDeltaService;
 
     public NetworkNodeService(
             NetworkNodeRepository networkNodeRepository,
-            SystemCalculationRepository systemCalculationRepository) {
+            SystemCalculationRepository systemCalculationRepository,
+            CalculationDeltaService calculationDeltaService) {
         this.networkNodeRepository = networkNodeRepository;
         this.systemCalculationRepository = systemCalculationRepository;
+        this.calculationDeltaService = calculationDeltaService;
     }
 
     @Transactional
@@ -36,7 +40,9 @@ public class NetworkNodeService {
         LocalDateTime now = LocalDateTime.now();
         networkNode.setCreatedAt(now);
         networkNode.setUpdatedAt(now);
-        return networkNodeRepository.save(networkNode);
+        NetworkNode saved = networkNodeRepository.save(networkNode);
+        calculationDeltaService.elementChanged(calculationId, CalculationElement.node(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -47,7 +53,9 @@ public class NetworkNodeService {
         NetworkNode networkNode = getById(id);
         applyDto(networkNode, dto);
         networkNode.setUpdatedAt(LocalDateTime.now());
-        return networkNodeRepository.save(networkNode);
+        NetworkNode saved = networkNodeRepository.save(networkNode);
+        calculationDeltaService.elementChanged(saved.getCalculation().getId(), CalculationElement.node(saved.getId()));
+        return saved;
     }
 
     public List<NetworkNode> listByCalculation(Long calculationId) {
@@ -72,6 +80,8 @@ public class NetworkNodeService {
     public void delete(Long id) {
         NetworkNode networkNode = getById(id);
         networkNodeRepository.delete(networkNode);
+        calculationDeltaService.elementChanged(
+                networkNode.getCalculation().getId(), CalculationElement.node(networkNode.getId()));
     }
 
     private NetworkNode getById(Long id) {
@@ -0,0 +1,43 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.config.HistoryArchiveProperties;
+import java.time.LocalDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly move of old object changes into the archive table. Each batch commits on its own so a
+ * large backlog does not hold one long transaction.
+ */
+@Component
+public class ObjectChangeArchiveJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObjectChangeArchiveJob.class);
+
+    private final ObjectChangeHistoryService historyService;
+    private final HistoryArchiveProperties properties;
+
+    public ObjectChangeArchiveJob(ObjectChangeHistoryService historyService, HistoryArchiveProperties properties) {
+        this.historyService = historyService;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${history.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getMaxAge());
+        int total = 0;
+        int moved;
+        do {
+            moved = historyService.archiveBatch(cutoff, properties.getBatchSize());
+            total += moved;
+        } while (moved == properties.getBatchSize());
+        if (total > 0) {
+            LOG.info("Archived {} object changes older than {}", total, cutoff);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.customer.ArchivedObjectChange;
+import com.kapamejlbka.objectmanager.domain.customer.ObjectChange;
+import com.kapamejlbka.objectmanager.domain.customer.ObjectChangeSummary;
+import com.kapamejlbka.objectmanager.domain.customer.ObjectChangeType;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ArchivedObjectChangeRepository;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ObjectChangeRepository;
+import jakarta.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * Reads object history page by page. Recent changes live in {@code object_changes}; older ones are
+ * moved to {@code object_changes_archive} by {@link ObjectChangeArchiveJob}. Every archived change
+ * is older than every hot one, so a page continues into the archive once the hot rows run out and
+ * the same cursor works across both tables.
+ */
+@Service
+public class ObjectChangeHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final ObjectChangeRepository objectChangeRepository;
+    private final ArchivedObjectChangeRepository archivedObjectChangeRepository;
+
+    public ObjectChangeHistoryService(
+            ObjectChangeRepository objectChangeRepository,
+            ArchivedObjectChangeRepository archivedObjectChangeRepository) {
+        this.objectChangeRepository = objectChangeRepository;
+        this.archivedObjectChangeRepository = archivedObjectChangeRepository;
+    }
+
+    public ChangeHistoryPage page(UUID objectId, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Position position = decodeCursor(cursor);
+        Limit limit = Limit.of(pageSize + 1);
+        List<ObjectChangeSummary> changes = new ArrayList<>(position == null
+                ? objectChangeRepository.findSummaries(objectId, limit)
+                : objectChangeRepository.findSummariesBefore(objectId, position.changedAt(), position.id(), limit));
+        if (changes.size() <= pageSize) {
+            Position archivePosition = changes.isEmpty() ? position : Position.of(changes.get(changes.size() - 1));
+            Limit remaining = Limit.of(pageSize + 1 - changes.size());
+            changes.addAll(archivePosition == null
+                    ? archivedObjectChangeRepository.findSummaries(objectId, remaining)
+                    : archivedObjectChangeRepository.findSummariesBefore(
+                            objectId, archivePosition.changedAt(), archivePosition.id(), remaining));
+        }
+        String nextCursor = null;
+        if (changes.size() > pageSize) {
+            changes = changes.subList(0, pageSize);
+            nextCursor = encodeCursor(Position.of(changes.get(pageSize - 1)));
+        }
+        return new ChangeHistoryPage(List.copyOf(changes), nextCursor);
+    }
+
+    public ChangeDetails getChange(UUID objectId, UUID changeId) {
+        return objectChangeRepository.findByIdAndObjectId(changeId, objectId)
+                .map(ChangeDetails::of)
+                .or(() -> archivedObjectChangeRepository.findByIdAndObjectId(changeId, objectId)
+                        .map(ChangeDetails::of))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Изменение " + changeId + " не найдено для объекта " + objectId));
+    }
+
+    /**
+     * Moves up to {@code batchSize} of the oldest changes made before {@code cutoff} into the
+     * archive and returns how many were moved.
+     */
+    @Transactional
+    public int archiveBatch(LocalDateTime cutoff, int batchSize) {
+        List<ObjectChange> batch = objectChangeRepository.findOlderThan(cutoff, Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime archivedAt = LocalDateTime.now();
+        archivedObjectChangeRepository.saveAll(batch.stream()
+                .map(change -> new ArchivedObjectChange(change, archivedAt))
+                .toList());
+        objectChangeRepository.deleteAllInBatch(batch);
+        return batch.size();
+    }
+
+    private String encodeCursor(Position position) {
+        String raw = position.id() + ":" + position.changedAt();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Position decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new Position(LocalDateTime.parse(raw.substring(separator + 1)),
+                    UUID.fromString(raw.substring(0, separator)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid page cursor", ex);
+        }
+    }
+
+    private record Position(LocalDateTime changedAt, UUID id) {
+
+        static Position of(ObjectChangeSummary summary) {
+            return new Position(summary.changedAt(), summary.id());
+        }
+    }
+
+    public record ChangeHistoryPage(List<ObjectChangeSummary> changes, String nextCursor) {}
+
+    public record ChangeDetails(
+            UUID id,
+            LocalDateTime changedAt,
+            ObjectChangeType changeType,
+            String fieldName,
+            String summary,
+            String username,
+            String oldValue,
+            String newValue,
+            boolean archived
+    ) {
+
+        static ChangeDetails of(ObjectChange change) {
+            return new ChangeDetails(change.getId(), change.getChangedAt(), change.getChangeType(),
+                    change.getFieldName(), change.getSummary(),
+                    change.getUser() == null ? null : change.getUser().getUsername(),
+                    change.getOldValue(), change.getNewValue(), false);
+        }
+
+        static ChangeDetails of(ArchivedObjectChange change) {
+            return new ChangeDetails(change.getId(), change.getChangedAt(), change.getChangeType(),
+                    change.getFieldName(), change.getSummary(),
+                    change.getUser() == null ? null : change.getUser().getUsername(),
+                    change.getOldValue(), change.getNewValue(), true);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Memoizes permission decisions for the duration of one HTTP request. Outside a request (startup
+ * runners, background workers) every decision is evaluated afresh.
+ */
+@Component
+public class PermissionCache {
+
+    private static final String ATTRIBUTE = PermissionCache.class.getName() + ".decisions";
+
+    public record Key(Long userId, TargetType targetType, UUID targetId) {}
+
+    public boolean computeIfAbsent(Key key, BooleanSupplier decision) {
+        Map<Key, Boolean> decisions = decisions(true);
+        if (decisions == null) {
+            return decision.getAsBoolean();
+        }
+        Boolean cached = decisions.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        boolean result = decision.getAsBoolean();
+        decisions.put(key, result);
+        return result;
+    }
+
+    /**
+     * Drops the decisions of the current request; called when ownership changes mid-request.
+     */
+    public void clear() {
+        Map<Key, Boolean> decisions = decisions(false);
+        if (decisions != null) {
+            decisions.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, Boolean> decisions(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Key, Boolean> decisions =
+                (Map<Key, Boolean>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (decisions == null && create) {
+            decisions = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, decisions, RequestAttributes.SCOPE_REQUEST);
+        }
+        return decisions;
+    }
+}
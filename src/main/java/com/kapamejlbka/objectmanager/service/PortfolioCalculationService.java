@@ -0,0 +1,105 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.calculation.dto.PortfolioCalculationResult;
+import com.kapamejlbka.objectmanager.domain.calculation.dto.SiteCalculationResult;
+import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationResult;
+import com.kapamejlbka.objectmanager.domain.calcengine.MaterialItemResult;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PortfolioCalculationService {
+
+    private static final int MAX_CALCULATIONS = 1000;
+
+    private final SystemCalculationRepository systemCalculationRepository;
+    private final SystemCalculationService systemCalculationService;
+
+    public PortfolioCalculationService(
+            SystemCalculationRepository systemCalculationRepository,
+            SystemCalculationService systemCalculationService) {
+        this.systemCalculationRepository = systemCalculationRepository;
+        this.systemCalculationService = systemCalculationService;
+    }
+
+    @Transactional
+    public PortfolioCalculationResult calculate(Collection<Long> calculationIds, Long customerId) {
+        Set<Long> requestedIds = new LinkedHashSet<>();
+        if (calculationIds != null) {
+            calculationIds.stream().filter(Objects::nonNull).forEach(requestedIds::add);
+        }
+        List<SystemCalculation> calculations = new ArrayList<>(requestedIds.isEmpty()
+                ? List.of()
+                : systemCalculationRepository.findWithSiteByIdIn(requestedIds));
+        if (calculations.size() != requestedIds.size()) {
+            Set<Long> missing = new LinkedHashSet<>(requestedIds);
+            calculations.forEach(calculation -> missing.remove(calculation.getId()));
+            throw new IllegalArgumentException("System calculation not found: " + missing);
+        }
+        if (customerId != null) {
+            systemCalculationRepository.findWithSiteBySiteCustomerId(customerId).stream()
+                    .filter(calculation -> !requestedIds.contains(calculation.getId()))
+                    .forEach(calculations::add);
+        }
+        if (calculations.isEmpty()) {
+            throw new IllegalArgumentException("Calculation ids or customer id are required");
+        }
+        if (calculations.size() > MAX_CALCULATIONS) {
+            throw new IllegalArgumentException("Too many calculations requested: " + calculations.size());
+        }
+
+        Map<Long, CalculationResult> results = systemCalculationService.getCalculationResults(
+                calculations.stream().map(SystemCalculation::getId).toList());
+
+        List<SiteCalculationResult> sites = new ArrayList<>();
+        Map<String, MaterialItemResult> totals = new LinkedHashMap<>();
+        for (SystemCalculation calculation : calculations) {
+            CalculationResult result = results.get(calculation.getId());
+            if (result == null) {
+                continue;
+            }
+            sites.add(new SiteCalculationResult(
+                    calculation.getId(),
+                    calculation.getSite().getId(),
+                    calculation.getSite().getName(),
+                    result.executedAt(),
+                    result.items()));
+            result.items().forEach(item -> totals.merge(totalKey(item), item, this::sum));
+        }
+
+        List<MaterialItemResult> aggregated = totals.values().stream()
+                .sorted(Comparator.comparing(
+                                MaterialItemResult::category, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(
+                                MaterialItemResult::materialName, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        return new PortfolioCalculationResult(sites, aggregated);
+    }
+
+    private String totalKey(MaterialItemResult item) {
+        if (item.materialCode() != null) {
+            return item.materialCode();
+        }
+        return item.materialName() + "|" + item.unit() + "|" + item.category();
+    }
+
+    private MaterialItemResult sum(MaterialItemResult left, MaterialItemResult right) {
+        return new MaterialItemResult(
+                left.materialCode(),
+                left.materialName(),
+                left.category(),
+                left.unit(),
+                left.quantity() + right.quantity());
+    }
+}
@@ -0,0 +1,146 @@
+package com.kapamejlbka.objectmanager.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rendered preview HTML, kept on disk next to the uploaded file and in a bounded in-memory LRU.
+ */
+@Component
+public class PreviewCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PreviewCache.class);
+
+    private static final int MAX_CACHED_PREVIEWS = 64;
+    private static final long MAX_CACHED_CHARACTERS = 16L * 1024 * 1024;
+    private static final String PREVIEW_MARKER = ".preview-";
+    private static final String PREVIEW_SUFFIX = ".html";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private final Map<String, String> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedCharacters;
+
+    public String get(PreviewSource source, Supplier<String> renderer) {
+        String key = key(source);
+        String cached = fromMemory(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Path previewPath = source.path().resolveSibling(key);
+        Optional<String> stored = readFromDisk(previewPath);
+        if (stored.isPresent()) {
+            remember(key, stored.get());
+            return stored.get();
+        }
+
+        String rendered = renderer.get();
+        writeToDisk(previewPath, rendered);
+        remember(key, rendered);
+        return rendered;
+    }
+
+    public boolean contains(PreviewSource source) {
+        String key = key(source);
+        return fromMemory(key) != null || Files.isRegularFile(source.path().resolveSibling(key));
+    }
+
+    public void invalidate(String storedFilename, Path source) {
+        String prefix = storedFilename + PREVIEW_MARKER;
+        synchronized (memory) {
+            Iterator<Map.Entry<String, String>> iterator = memory.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, String> entry = iterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    cachedCharacters -= entry.getValue().length();
+                    iterator.remove();
+                }
+            }
+        }
+
+        Path directory = source.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> previews = Files.newDirectoryStream(directory, escapeGlob(prefix) + "*" + PREVIEW_SUFFIX)) {
+            for (Path preview : previews) {
+                Files.deleteIfExists(preview);
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to delete cached previews for {}", storedFilename, ex);
+        }
+    }
+
+    private String key(PreviewSource source) {
+        String timestamp = source.timestamp() == null ? "0" : source.timestamp().format(TIMESTAMP_FORMAT);
+        return source.storedFilename() + PREVIEW_MARKER + source.size() + "-" + timestamp + PREVIEW_SUFFIX;
+    }
+
+    private String fromMemory(String key) {
+        synchronized (memory) {
+            return memory.get(key);
+        }
+    }
+
+    private void remember(String key, String html) {
+        if (html.length() > MAX_CACHED_CHARACTERS) {
+            return;
+        }
+        synchronized (memory) {
+            String previous = memory.put(key, html);
+            if (previous != null) {
+                cachedCharacters -= previous.length();
+            }
+            cachedCharacters += html.length();
+            Iterator<Map.Entry<String, String>> eldest = memory.entrySet().iterator();
+            while ((memory.size() > MAX_CACHED_PREVIEWS || cachedCharacters > MAX_CACHED_CHARACTERS) && eldest.hasNext()) {
+                Map.Entry<String, String> entry = eldest.next();
+                cachedCharacters -= entry.getValue().length();
+                eldest.remove();
+            }
+        }
+    }
+
+    private Optional<String> readFromDisk(Path previewPath) {
+        if (!Files.isRegularFile(previewPath)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readString(previewPath, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            LOG.warn("Failed to read cached preview {}", previewPath, ex);
+            return Optional.empty();
+        }
+    }
+
+    private void writeToDisk(Path previewPath, String html) {
+        try {
+            Path temp = Files.createTempFile(previewPath.getParent(), "preview", ".tmp");
+            try {
+                Files.writeString(temp, html, StandardCharsets.UTF_8);
+                Files.move(temp, previewPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to store cached preview {}", previewPath, ex);
+        }
+    }
+
+    private String escapeGlob(String value) {
+        return value.replaceAll("([\\\\*?\\[\\]{}])", "\\\\$1");
+    }
+}
@@ -0,0 +1,144 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.customer.SiteAttachment;
+import com.kapamejlbka.objectmanager.domain.customer.StoredFile;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Pre-renders previews of freshly uploaded files on a small bounded pool so that the first
+ * preview request is served from {@link PreviewCache}. When the queue is full the job is
+ * skipped and the preview is rendered on demand instead. The attachment preview dialog polls
+ * {@link #status(SiteAttachment)} before it loads the preview.
+ */
+@Service
+public class PreviewGenerationService {
+
+    public enum PreviewStatus {
+        NOT_SCHEDULED, QUEUED, RUNNING, READY, FAILED, SKIPPED, UNSUPPORTED
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(PreviewGenerationService.class);
+
+    private static final int WORKER_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 32;
+    private static final int MAX_TRACKED_JOBS = 512;
+
+    private final FilePreviewService filePreviewService;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, PreviewStatus> statuses = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreviewStatus> eldest) {
+            return size() > MAX_TRACKED_JOBS;
+        }
+    };
+
+    public PreviewGenerationService(FilePreviewService filePreviewService) {
+        this.filePreviewService = filePreviewService;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "preview-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void schedule(StoredFile storedFile) {
+        schedule(fileKey(storedFile), filePreviewService.sourceOf(storedFile));
+    }
+
+    public void schedule(SiteAttachment attachment) {
+        schedule(attachmentKey(attachment), filePreviewService.sourceOf(attachment));
+    }
+
+    public PreviewStatus status(SiteAttachment attachment) {
+        return status(attachmentKey(attachment), filePreviewService.sourceOf(attachment));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void schedule(String key, PreviewSource source) {
+        if (!filePreviewService.supports(source)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(key, source);
+                }
+            });
+            return;
+        }
+        submit(key, source);
+    }
+
+    private void submit(String key, PreviewSource source) {
+        setStatus(key, PreviewStatus.QUEUED);
+        try {
+            executor.execute(() -> generate(key, source));
+        } catch (RejectedExecutionException ex) {
+            LOG.debug("Preview queue is full, {} will be rendered on demand", key);
+            setStatus(key, PreviewStatus.SKIPPED);
+        }
+    }
+
+    private void generate(String key, PreviewSource source) {
+        setStatus(key, PreviewStatus.RUNNING);
+        try {
+            filePreviewService.renderPreview(source);
+            setStatus(key, PreviewStatus.READY);
+        } catch (RuntimeException ex) {
+            LOG.warn("Failed to pre-render preview for {}", key, ex);
+            setStatus(key, PreviewStatus.FAILED);
+        }
+    }
+
+    private PreviewStatus status(String key, PreviewSource source) {
+        if (!filePreviewService.supports(source)) {
+            return PreviewStatus.UNSUPPORTED;
+        }
+        PreviewStatus tracked;
+        synchronized (statuses) {
+            tracked = statuses.get(key);
+        }
+        if (tracked != null && tracked != PreviewStatus.SKIPPED) {
+            return tracked;
+        }
+        if (filePreviewService.isCached(source)) {
+            return PreviewStatus.READY;
+        }
+        return tracked != null ? tracked : PreviewStatus.NOT_SCHEDULED;
+    }
+
+    private void setStatus(String key, PreviewStatus status) {
+        synchronized (statuses) {
+            statuses.put(key, status);
+        }
+    }
+
+    private String fileKey(StoredFile storedFile) {
+        return "file:" + storedFile.getId();
+    }
+
+    private String attachmentKey(SiteAttachment attachment) {
+        return "attachment:" + attachment.getId();
+    }
+}
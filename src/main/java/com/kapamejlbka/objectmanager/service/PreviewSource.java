@@ -0,0 +1,41 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.customer.SiteAttachment;
+import com.kapamejlbka.objectmanager.domain.customer.StoredFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Everything needed to render and cache a preview, detached from the JPA entity it came from.
+ */
+public record PreviewSource(
+        String storedFilename,
+        long size,
+        LocalDateTime timestamp,
+        String contentType,
+        String extension,
+        Path path
+) {
+
+    public static PreviewSource of(StoredFile storedFile, Path path) {
+        return new PreviewSource(storedFile.getStoredFilename(), storedFile.getSize(), storedFile.getUploadedAt(),
+                storedFile.getContentType(), storedFile.getExtension(), path);
+    }
+
+    public static PreviewSource of(SiteAttachment attachment, Path path) {
+        return new PreviewSource(attachment.getStorageKey(),
+                attachment.getSize() == null ? 0L : attachment.getSize(),
+                attachment.getUploadedAt(), attachment.getContentType(), extensionOf(attachment.getFileName()), path);
+    }
+
+    private static String extensionOf(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int lastDotIndex = fileName.lastIndexOf('.');
+        if (lastDotIndex < 0 || lastDotIndex == fileName.length() - 1) {
+            return "";
+        }
+        return fileName.substring(lastDotIndex + 1);
+    }
+}
@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
 import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
@@ -19,14 +20,17 @@ public class RouteSegmentLinkService {
     private final RouteSegmentLinkRepository routeSegmentLinkRepository;
     private final InstallationRouteRepository installationRouteRepository;
     private final TopologyLinkRepository topologyLinkRepository;
+    private final CalculationDeltaService calculationDeltaService;
 
     public RouteSegmentLinkService(
             RouteSegmentLinkRepository routeSegmentLinkRepository,
             InstallationRouteRepository installationRouteRepository,
-            TopologyLinkRepository topologyLinkRepository) {
+            TopologyLinkRepository topologyLinkRepository,
+            CalculationDeltaService calculationDeltaService) {
         this.routeSegmentLinkRepository = routeSegmentLinkRepository;
         this.installationRouteRepository = installationRouteRepository;
         this.topologyLinkRepository = topologyLinkRepository;
+        this.calculationDeltaService = calculationDeltaService;
     }
 
     @Transactional
@@ -39,7 +43,9 @@ public class RouteSegmentLinkService {
         LocalDateTime now = LocalDateTime.now();
         routeSegmentLink.setCreatedAt(now);
         routeSegmentLink.setUpdatedAt(now);
-        return routeSegmentLinkRepository.save(routeSegmentLink);
+        RouteSegmentLink saved = routeSegmentLinkRepository.save(routeSegmentLink);
+        segmentChanged(saved.getRoute(), saved.getTopologyLink());
+        return saved;
     }
 
     @Transactional
@@ -48,9 +54,15 @@ public class RouteSegmentLinkService {
             throw new IllegalArgumentException("Route segment link data is required");
         }
         RouteSegmentLink routeSegmentLink = getById(id);
+        InstallationRoute previousRoute = routeSegmentLink.getRoute();
         applyDto(routeSegmentLink, dto);
         routeSegmentLink.setUpdatedAt(LocalDateTime.now());
-        return routeSegmentLinkRepository.save(routeSegmentLink);
+        RouteSegmentLink saved = routeSegmentLinkRepository.save(routeSegmentLink);
+        if (previousRoute != null && !previousRoute.getId().equals(saved.getRoute().getId())) {
+            segmentChanged(previousRoute, saved.getTopologyLink());
+        }
+        segmentChanged(saved.getRoute(), saved.getTopologyLink());
+        return saved;
     }
 
     public List<RouteSegmentLink> listByRoute(Long routeId) {
@@ -61,6 +73,14 @@ public class RouteSegmentLinkService {
     public void delete(Long id) {
         RouteSegmentLink routeSegmentLink = getById(id);
         routeSegmentLinkRepository.delete(routeSegmentLink);
+        segmentChanged(routeSegmentLink.getRoute(), routeSegmentLink.getTopologyLink());
+    }
+
+    private void segmentChanged(InstallationRoute route, TopologyLink topologyLink) {
+        List<CalculationElement> elements = topologyLink == null
+                ? List.of(CalculationElement.route(route.getId()))
+                : List.of(CalculationElement.route(route.getId()), CalculationElement.link(topologyLink.getId()));
+        calculationDeltaService.elementsChanged(route.getCalculation().getId(), elements);
     }
 
     private RouteSegmentLink getById(Long id) {
@@ -0,0 +1,159 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.customer.Customer;
+import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
+import com.kapamejlbka.objectmanager.domain.customer.Site;
+import com.kapamejlbka.objectmanager.domain.customer.repository.CustomerRepository;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ManagedObjectRepository;
+import com.kapamejlbka.objectmanager.domain.customer.repository.SiteRepository;
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import com.kapamejlbka.objectmanager.domain.search.SearchDocument;
+import com.kapamejlbka.objectmanager.domain.search.SearchHit;
+import com.kapamejlbka.objectmanager.domain.search.SearchIndex;
+import com.kapamejlbka.objectmanager.repository.MaterialRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unified search over customers, sites, managed objects and materials. The index is built from
+ * projection queries on first use and then updated from entity listeners after each commit.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchIndexService.class);
+
+    public static final int MAX_RESULTS = 100;
+
+    private final CustomerRepository customerRepository;
+    private final SiteRepository siteRepository;
+    private final ManagedObjectRepository managedObjectRepository;
+    private final MaterialRepository materialRepository;
+    private final SearchIndex index = new SearchIndex();
+
+    private volatile boolean loaded;
+
+    public SearchIndexService(
+            CustomerRepository customerRepository,
+            SiteRepository siteRepository,
+            ManagedObjectRepository managedObjectRepository,
+            MaterialRepository materialRepository
+    ) {
+        this.customerRepository = customerRepository;
+        this.siteRepository = siteRepository;
+        this.managedObjectRepository = managedObjectRepository;
+        this.materialRepository = materialRepository;
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        ensureLoaded();
+        return index.search(query, capped(limit));
+    }
+
+    /**
+     * Same ranking as {@link #search(String, int)}, but hits pass through {@code visible} one page
+     * of {@code limit} at a time until {@code limit} of them are kept or the ranked hits run out, so
+     * hidden hits near the top do not shorten the result.
+     */
+    public List<SearchHit> search(String query, int limit, UnaryOperator<List<SearchHit>> visible) {
+        ensureLoaded();
+        int pageSize = capped(limit);
+        List<SearchHit> ranked = index.search(query, Integer.MAX_VALUE);
+        List<SearchHit> hits = new ArrayList<>(Math.min(pageSize, ranked.size()));
+        for (int from = 0; from < ranked.size() && hits.size() < pageSize; from += pageSize) {
+            List<SearchHit> page = visible.apply(ranked.subList(from, Math.min(from + pageSize, ranked.size())));
+            hits.addAll(page.subList(0, Math.min(page.size(), pageSize - hits.size())));
+        }
+        return hits;
+    }
+
+    public void rebuild() {
+        synchronized (this) {
+            index.clear();
+            for (Object[] row : customerRepository.findSearchRows()) {
+                index.put(SearchDocument.customer((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                        (String) row[4], (String) row[5]));
+            }
+            for (Object[] row : siteRepository.findSearchRows()) {
+                index.put(SearchDocument.site((Long) row[0], (String) row[1], (String) row[2], (String) row[3]));
+            }
+            for (Object[] row : managedObjectRepository.findSearchRows()) {
+                index.put(SearchDocument.managedObject(row[0], (String) row[1], (String) row[2]));
+            }
+            for (Object[] row : materialRepository.findSearchRows()) {
+                index.put(SearchDocument.material((Long) row[0], (String) row[1], (String) row[2], (String) row[3]));
+            }
+            loaded = true;
+            LOG.debug("Search index rebuilt with {} documents", index.size());
+        }
+    }
+
+    public void entitySaved(Object entity) {
+        documentOf(entity).ifPresent(document -> afterCommit(searchIndex -> searchIndex.put(document)));
+    }
+
+    public void entityRemoved(Object entity) {
+        documentOf(entity).ifPresent(document ->
+                afterCommit(searchIndex -> searchIndex.remove(document.type(), document.id())));
+    }
+
+    private static int capped(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_RESULTS);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                rebuild();
+            }
+        }
+    }
+
+    private void afterCommit(Consumer<SearchIndex> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+            return;
+        }
+        apply(change);
+    }
+
+    private void apply(Consumer<SearchIndex> change) {
+        synchronized (this) {
+            if (loaded) {
+                change.accept(index);
+            }
+        }
+    }
+
+    private Optional<SearchDocument> documentOf(Object entity) {
+        if (entity instanceof Customer customer) {
+            return Optional.of(SearchDocument.of(customer));
+        }
+        if (entity instanceof Site site) {
+            return Optional.of(SearchDocument.of(site));
+        }
+        if (entity instanceof ManagedObject managedObject) {
+            return Optional.of(SearchDocument.of(managedObject));
+        }
+        if (entity instanceof Material material) {
+            return Optional.of(SearchDocument.of(material));
+        }
+        return Optional.empty();
+    }
+}
@@ -13,9 +13,12 @@ public class SettingsService {
     private static final long SINGLE_ROW_ID = 1L;
 
     private final CalculationSettingsRepository repository;
+    private final CalculationRevisionService calculationRevisionService;
 
-    public SettingsService(CalculationSettingsRepository repository) {
+    public SettingsService(
+            CalculationSettingsRepository repository, CalculationRevisionService calculationRevisionService) {
         this.repository = repository;
+        this.calculationRevisionService = calculationRevisionService;
     }
 
     @PostConstruct
@@ -40,6 +43,7 @@ public class SettingsService {
         settings.setDefaultHorizontalClipStep(normalizeNullablePositive(dto.getDefaultHorizontalClipStep()));
         settings.setDefaultVerticalClipStep(normalizeNullablePositive(dto.getDefaultVerticalClipStep()));
         repository.save(settings);
+        calculationRevisionService.markAllChanged();
         return getSettings();
     }
 
@@ -5,6 +5,7 @@ import com.kapamejlbka.objectmanager.domain.customer.SiteAttachment;
 import com.kapamejlbka.objectmanager.domain.customer.dto.SiteAttachmentCreateRequest;
 import com.kapamejlbka.objectmanager.domain.customer.repository.SiteAttachmentRepository;
 import com.kapamejlbka.objectmanager.domain.customer.repository.SiteRepository;
+import com.kapamejlbka.objectmanager.service.BlobStoreService.StoredBlob;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,15 +17,29 @@ public class SiteAttachmentService {
 
     private final SiteAttachmentRepository siteAttachmentRepository;
     private final SiteRepository siteRepository;
+    private final PreviewGenerationService previewGenerationService;
+    private final SiteAttachmentStorageService storageService;
+    private final BlobStoreService blobStoreService;
 
     public SiteAttachmentService(
-            SiteAttachmentRepository siteAttachmentRepository, SiteRepository siteRepository) {
+            SiteAttachmentRepository siteAttachmentRepository,
+            SiteRepository siteRepository,
+            PreviewGenerationService previewGenerationService,
+            SiteAttachmentStorageService storageService,
+            BlobStoreService blobStoreService) {
         this.siteAttachmentRepository = siteAttachmentRepository;
         this.siteRepository = siteRepository;
+        this.previewGenerationService = previewGenerationService;
+        this.storageService = storageService;
+        this.blobStoreService = blobStoreService;
     }
 
     @Transactional
-    public SiteAttachment addAttachment(Long siteId, SiteAttachmentCreateRequest dto) {
+    public SiteAttachment addAttachment(Long siteId, SiteAttachmentCreateRequest dto, StoredBlob blob) {
+        if (blob != null) {
+            // Retained first so the staged upload is always consumed; a rollback below releases it again.
+            blobStoreService.retain(blob);
+        }
         if (dto == null) {
             throw new IllegalArgumentException("Attachment data is required");
         }
@@ -33,7 +48,9 @@ public class SiteAttachmentService {
         attachment.setSite(site);
         applyDto(attachment, dto);
         attachment.setUploadedAt(LocalDateTime.now());
-        return siteAttachmentRepository.save(attachment);
+        SiteAttachment saved = siteAttachmentRepository.save(attachment);
+        previewGenerationService.schedule(saved);
+        return saved;
     }
 
     public List<SiteAttachment> listAttachments(Long siteId) {
@@ -52,7 +69,9 @@ public class SiteAttachmentService {
 
     @Transactional
     public void deleteAttachment(Long attachmentId) {
-        siteAttachmentRepository.delete(getById(attachmentId));
+        SiteAttachment attachment = getById(attachmentId);
+        storageService.delete(attachment);
+        siteAttachmentRepository.delete(attachment);
     }
 
     private void applyDto(SiteAttachment attachment, SiteAttachmentCreateRequest dto) {
@@ -69,6 +88,7 @@ public class SiteAttachmentService {
         attachment.setContentType(normalize(dto.getContentType()));
         attachment.setSize(dto.getSize());
         attachment.setAttachmentType(normalize(dto.getAttachmentType()));
+        attachment.setContentHash(normalize(dto.getContentHash()));
     }
 
     private Site getSiteById(Long siteId) {
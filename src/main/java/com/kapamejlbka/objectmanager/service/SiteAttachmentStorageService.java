@@ -1,14 +1,15 @@
 package com.kapamejlbka.objectmanager.service;
 
 import com.kapamejlbka.objectmanager.config.FileStorageProperties;
+import com.kapamejlbka.objectmanager.domain.customer.SiteAttachment;
+import com.kapamejlbka.objectmanager.service.BlobStoreService.StoredBlob;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.UUID;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,12 +18,20 @@ import org.springframework.web.multipart.MultipartFile;
 public class SiteAttachmentStorageService {
 
     private final Path rootLocation;
+    private final PreviewCache previewCache;
+    private final BlobStoreService blobStoreService;
 
-    public SiteAttachmentStorageService(FileStorageProperties properties) {
+    public SiteAttachmentStorageService(
+            FileStorageProperties properties,
+            PreviewCache previewCache,
+            BlobStoreService blobStoreService
+    ) {
         this.rootLocation = Path.of(properties.getUploadDir())
                 .resolve("site-attachments")
                 .toAbsolutePath()
                 .normalize();
+        this.previewCache = previewCache;
+        this.blobStoreService = blobStoreService;
         init();
     }
 
@@ -51,40 +60,41 @@ public class SiteAttachmentStorageService {
         }
         String storedFilename = UUID.randomUUID() + extension;
 
-        Path destinationDirectory = rootLocation.resolve(siteId.toString());
-        try {
-            Files.createDirectories(destinationDirectory);
-            Path destinationFile = destinationDirectory.resolve(storedFilename).normalize();
-            if (!destinationFile.startsWith(destinationDirectory)) {
-                throw new IllegalStateException("Cannot store file outside designated directory");
-            }
-            Files.copy(file.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream content = file.getInputStream()) {
+            StoredBlob blob = blobStoreService.write(content);
             String contentType = file.getContentType();
             if (contentType == null || contentType.isBlank()) {
-                contentType = Files.probeContentType(destinationFile);
+                contentType = Files.probeContentType(Path.of(storedFilename));
             }
-            long size = Files.size(destinationFile);
-            return new StoredAttachmentFile(storedFilename, originalFilename, size, contentType);
+            return new StoredAttachmentFile(storedFilename, originalFilename, contentType, blob);
         } catch (IOException ex) {
             throw new IllegalStateException("Failed to store attachment", ex);
         }
     }
 
-    public Resource loadAsResource(Long siteId, String storageKey) {
-        Path filePath = load(siteId, storageKey);
-        try {
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            }
-        } catch (MalformedURLException ex) {
-            throw new IllegalStateException("Failed to read attachment", ex);
+    public Path resolve(SiteAttachment attachment) {
+        if (attachment.getContentHash() != null) {
+            return blobStoreService.resolve(attachment.getContentHash());
+        }
+        return load(attachment.getSite().getId(), attachment.getStorageKey());
+    }
+
+    public Resource loadAsResource(SiteAttachment attachment) {
+        Path filePath = resolve(attachment);
+        Resource resource = new FileSystemResource(filePath);
+        if (resource.exists() && resource.isReadable()) {
+            return resource;
         }
-        throw new IllegalStateException("Attachment not found: " + storageKey);
+        throw new IllegalStateException("Attachment not found: " + attachment.getStorageKey());
     }
 
-    public void delete(Long siteId, String storageKey) {
-        Path filePath = load(siteId, storageKey);
+    public void delete(SiteAttachment attachment) {
+        Path filePath = resolve(attachment);
+        previewCache.invalidate(attachment.getStorageKey(), filePath);
+        if (attachment.getContentHash() != null) {
+            blobStoreService.release(attachment.getContentHash());
+            return;
+        }
         try {
             Files.deleteIfExists(filePath);
         } catch (IOException ex) {
@@ -104,5 +114,15 @@ public class SiteAttachmentStorageService {
         return filePath;
     }
 
-    public record StoredAttachmentFile(String storageKey, String originalFilename, long size, String contentType) {}
+    public record StoredAttachmentFile(
+            String storageKey, String originalFilename, String contentType, StoredBlob blob) {
+
+        public long size() {
+            return blob.size();
+        }
+
+        public String contentHash() {
+            return blob.contentHash();
+        }
+    }
 }
@@ -8,7 +8,10 @@ import com.kapamejlbka.objectmanager.domain.customer.repository.CustomerReposito
 import com.kapamejlbka.objectmanager.domain.customer.repository.SiteRepository;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -61,6 +64,17 @@ public class SiteService {
         return siteRepository.countByCustomerId(customerId);
     }
 
+    public Map<Long, Long> countByCustomers(Collection<Long> customerIds) {
+        if (customerIds == null || customerIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : siteRepository.countByCustomerIdIn(customerIds)) {
+            counts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
     @Transactional
     public void delete(Long id) {
         Site site = getById(id);
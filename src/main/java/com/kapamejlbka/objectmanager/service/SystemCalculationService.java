@@ -1,16 +1,25 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calculation.CalculationSnapshot;
+import com.kapamejlbka.objectmanager.domain.calculation.CalculationSnapshotItem;
 import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
 import com.kapamejlbka.objectmanager.domain.calculation.dto.SystemCalculationCreateRequest;
 import com.kapamejlbka.objectmanager.domain.calculation.dto.SystemCalculationUpdateRequest;
+import com.kapamejlbka.objectmanager.domain.calculation.repository.CalculationSnapshotRepository;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.calcengine.CalculationEngine;
 import com.kapamejlbka.objectmanager.domain.calcengine.CalculationResult;
+import com.kapamejlbka.objectmanager.domain.calcengine.MaterialItemResult;
 import com.kapamejlbka.objectmanager.domain.customer.Site;
 import com.kapamejlbka.objectmanager.domain.customer.repository.SiteRepository;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -20,14 +29,20 @@ public class SystemCalculationService {
     private final SystemCalculationRepository systemCalculationRepository;
     private final SiteRepository siteRepository;
     private final CalculationEngine calculationEngine;
+    private final CalculationSnapshotRepository calculationSnapshotRepository;
+    private final CalculationRevisionService calculationRevisionService;
 
     public SystemCalculationService(
             SystemCalculationRepository systemCalculationRepository,
             SiteRepository siteRepository,
-            CalculationEngine calculationEngine) {
+            CalculationEngine calculationEngine,
+            CalculationSnapshotRepository calculationSnapshotRepository,
+            CalculationRevisionService calculationRevisionService) {
         this.systemCalculationRepository = systemCalculationRepository;
         this.siteRepository = siteRepository;
         this.calculationEngine = calculationEngine;
+        this.calculationSnapshotRepository = calculationSnapshotRepository;
+        this.calculationRevisionService = calculationRevisionService;
     }
 
     @Transactional
@@ -90,8 +105,99 @@ public class SystemCalculationService {
         systemCalculationRepository.save(calculation);
     }
 
+    @Transactional
+    public CalculationResult getCalculationResult(Long calculationId) {
+        long revision = calculationRevisionService.currentRevision(calculationId);
+        CalculationSnapshot snapshot = calculationSnapshotRepository.findByCalculationId(calculationId).orElse(null);
+        if (snapshot != null && snapshot.getInputRevision() == revision) {
+            return toResult(calculationId, snapshot);
+        }
+        CalculationResult result = calculationEngine.cachedResult(calculationId, revision)
+                .orElseGet(() -> calculationEngine.calculate(calculationId));
+        storeSnapshot(snapshot, calculationId, revision, result);
+        return result;
+    }
+
+    @Transactional
+    public Map<Long, CalculationResult> getCalculationResults(Collection<Long> calculationIds) {
+        Map<Long, Long> revisions = new HashMap<>();
+        for (Object[] row : systemCalculationRepository.findInputRevisionsByIdIn(calculationIds)) {
+            revisions.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        Map<Long, CalculationSnapshot> snapshots = new HashMap<>();
+        calculationSnapshotRepository.findByCalculationIdIn(revisions.keySet())
+                .forEach(snapshot -> snapshots.put(snapshot.getCalculation().getId(), snapshot));
+
+        Map<Long, CalculationResult> results = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        revisions.forEach((calculationId, revision) -> {
+            CalculationSnapshot snapshot = snapshots.get(calculationId);
+            if (snapshot != null && snapshot.getInputRevision() == revision) {
+                results.put(calculationId, toResult(calculationId, snapshot));
+            } else {
+                stale.add(calculationId);
+            }
+        });
+        if (!stale.isEmpty()) {
+            // Ordered by id so that concurrent readers take the calculation row locks in the same order.
+            new TreeMap<>(calculationEngine.calculateAll(stale)).forEach((calculationId, result) -> {
+                storeSnapshot(snapshots.get(calculationId), calculationId, revisions.get(calculationId), result);
+                results.put(calculationId, result);
+            });
+        }
+        return results;
+    }
+
+    @Transactional
     public CalculationResult runCalculation(Long calculationId) {
-        return calculationEngine.calculate(calculationId);
+        long revision = calculationRevisionService.currentRevision(calculationId);
+        CalculationResult result = calculationEngine.calculate(calculationId);
+        CalculationSnapshot snapshot = calculationSnapshotRepository.findByCalculationId(calculationId).orElse(null);
+        storeSnapshot(snapshot, calculationId, revision, result);
+        return result;
+    }
+
+    /**
+     * A missing snapshot is created under a row lock on the calculation, so two concurrent first
+     * reads do not both insert one; the second waits and then updates the snapshot of the first.
+     */
+    private void storeSnapshot(
+            CalculationSnapshot snapshot, Long calculationId, long revision, CalculationResult result) {
+        CalculationSnapshot target = snapshot;
+        if (target == null) {
+            SystemCalculation calculation = systemCalculationRepository.findLockedById(calculationId)
+                    .orElseThrow(() -> new IllegalArgumentException("System calculation not found: " + calculationId));
+            target = calculationSnapshotRepository.findByCalculationId(calculationId).orElse(null);
+            if (target == null) {
+                target = new CalculationSnapshot();
+                target.setCalculation(calculation);
+            }
+        }
+        target.setInputRevision(revision);
+        target.setExecutedAt(result.executedAt());
+        target.getItems().clear();
+        for (MaterialItemResult item : result.items()) {
+            CalculationSnapshotItem snapshotItem = new CalculationSnapshotItem();
+            snapshotItem.setMaterialCode(item.materialCode());
+            snapshotItem.setMaterialName(item.materialName());
+            snapshotItem.setCategory(item.category());
+            snapshotItem.setUnit(item.unit());
+            snapshotItem.setQuantity(item.quantity());
+            target.getItems().add(snapshotItem);
+        }
+        calculationSnapshotRepository.save(target);
+    }
+
+    private CalculationResult toResult(Long calculationId, CalculationSnapshot snapshot) {
+        List<MaterialItemResult> items = snapshot.getItems().stream()
+                .map(item -> new MaterialItemResult(
+                        item.getMaterialCode(),
+                        item.getMaterialName(),
+                        item.getCategory(),
+                        item.getUnit(),
+                        item.getQuantity()))
+                .toList();
+        return new CalculationResult(calculationId, items, snapshot.getExecutedAt());
     }
 
     private void applyDto(SystemCalculation calculation, SystemCalculationCreateRequest dto) {
@@ -0,0 +1,204 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.device.repository.EndpointDeviceRepository;
+import com.kapamejlbka.objectmanager.domain.device.repository.NetworkNodeRepository;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest.LinkUpdate;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest.PositionItem;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkCreateRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestCreateRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestUpdateRequest;
+import com.kapamejlbka.objectmanager.domain.topology.repository.TopologyLinkRepository;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies a {@link TopologyBatchRequest} from the topology editor in a single transaction. The
+ * elements referenced by the batch are loaded with one query per kind and checked against the
+ * calculation; position changes are then flushed as one JDBC batch. Positions are not calculation
+ * inputs, so they only move the editor revision; link changes are recorded under a single input
+ * revision bump. Any invalid or conflicting operation rolls back the whole batch.
+ */
+@Service
+public class TopologyBatchService {
+
+    private final NetworkNodeRepository networkNodeRepository;
+    private final EndpointDeviceRepository endpointDeviceRepository;
+    private final TopologyLinkRepository topologyLinkRepository;
+    private final TopologyLinkService topologyLinkService;
+    private final CalculationDeltaService calculationDeltaService;
+    private final CalculationRevisionService calculationRevisionService;
+
+    public TopologyBatchService(
+            NetworkNodeRepository networkNodeRepository,
+            EndpointDeviceRepository endpointDeviceRepository,
+            TopologyLinkRepository topologyLinkRepository,
+            TopologyLinkService topologyLinkService,
+            CalculationDeltaService calculationDeltaService,
+            CalculationRevisionService calculationRevisionService) {
+        this.networkNodeRepository = networkNodeRepository;
+        this.endpointDeviceRepository = endpointDeviceRepository;
+        this.topologyLinkRepository = topologyLinkRepository;
+        this.topologyLinkService = topologyLinkService;
+        this.calculationDeltaService = calculationDeltaService;
+        this.calculationRevisionService = calculationRevisionService;
+    }
+
+    /**
+     * Returns the elements touched by the batch, with their versions as of the end of the
+     * transaction.
+     */
+    @Transactional
+    public Result apply(Long calculationId, TopologyBatchRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Topology batch is required");
+        }
+        List<PositionItem> nodePositions = orEmpty(request.nodePositions());
+        List<PositionItem> devicePositions = orEmpty(request.devicePositions());
+        List<TopologyLinkRestCreateRequest> createdLinks = orEmpty(request.createdLinks());
+        List<LinkUpdate> updatedLinks = orEmpty(request.updatedLinks());
+        Set<Long> deletedLinkIds = new LinkedHashSet<>(orEmpty(request.deletedLinkIds()));
+
+        Set<Long> nodeIds = new HashSet<>();
+        Set<Long> deviceIds = new HashSet<>();
+        nodePositions.forEach(item -> nodeIds.add(requireId(item.id(), "Network node id is required")));
+        devicePositions.forEach(item -> deviceIds.add(requireId(item.id(), "Endpoint device id is required")));
+        for (TopologyLinkRestCreateRequest link : createdLinks) {
+            addIfPresent(nodeIds, link.fromNodeId());
+            addIfPresent(nodeIds, link.toNodeId());
+            addIfPresent(deviceIds, link.fromDeviceId());
+            addIfPresent(deviceIds, link.toDeviceId());
+        }
+        Map<Long, TopologyLinkRestUpdateRequest> patches = new LinkedHashMap<>();
+        for (LinkUpdate update : updatedLinks) {
+            Long linkId = requireId(update.id(), "Link id is required");
+            if (deletedLinkIds.contains(linkId)) {
+                throw new IllegalArgumentException("Link is both updated and deleted: " + linkId);
+            }
+            patches.put(linkId, update.toUpdateRequest());
+        }
+        Set<Long> linkIds = new HashSet<>(deletedLinkIds);
+        linkIds.addAll(patches.keySet());
+
+        Map<Long, NetworkNode> nodes = load(nodeIds,
+                ids -> networkNodeRepository.findByCalculationIdAndIdIn(calculationId, ids),
+                NetworkNode::getId, "Network node not found");
+        Map<Long, EndpointDevice> devices = load(deviceIds,
+                ids -> endpointDeviceRepository.findByCalculationIdAndIdIn(calculationId, ids),
+                EndpointDevice::getId, "Endpoint device not found");
+        Map<Long, TopologyLink> links = load(linkIds,
+                ids -> topologyLinkRepository.findByCalculationIdAndIdIn(calculationId, ids),
+                TopologyLink::getId, "Link not found");
+
+        List<CalculationElement> moved = new ArrayList<>();
+        List<NetworkNode> movedNodes = new ArrayList<>(nodePositions.size());
+        for (PositionItem item : nodePositions) {
+            NetworkNode node = nodes.get(item.id());
+            boolean stale = item.version() != null && node.positionChangedSince(item.version());
+            long currentVersion = node.getVersion();
+            node.setPosX(item.x());
+            node.setPosY(item.y());
+            if (stale && node.positionChangedSince(currentVersion)) {
+                throw new EditConflictException("Узел перемещён другим пользователем: " + node.getCode());
+            }
+            movedNodes.add(node);
+            moved.add(CalculationElement.node(node.getId()));
+        }
+        List<EndpointDevice> movedDevices = new ArrayList<>(devicePositions.size());
+        for (PositionItem item : devicePositions) {
+            EndpointDevice device = devices.get(item.id());
+            boolean stale = item.version() != null && device.positionChangedSince(item.version());
+            long currentVersion = device.getVersion();
+            device.setPosX(item.x());
+            device.setPosY(item.y());
+            if (stale && device.positionChangedSince(currentVersion)) {
+                throw new EditConflictException("Устройство перемещено другим пользователем: " + device.getCode());
+            }
+            movedDevices.add(device);
+            moved.add(CalculationElement.endpoint(device.getId()));
+        }
+
+        List<TopologyLinkCreateRequest> creates = new ArrayList<>(createdLinks.size());
+        for (TopologyLinkRestCreateRequest link : createdLinks) {
+            TopologyLinkCreateRequest dto = new TopologyLinkCreateRequest();
+            dto.setFromNodeId(link.fromNodeId());
+            dto.setToNodeId(link.toNodeId());
+            dto.setFromDeviceId(link.fromDeviceId());
+            dto.setToDeviceId(link.toDeviceId());
+            dto.setLinkType(link.linkType());
+            dto.setCableLength(link.length());
+            creates.add(dto);
+        }
+        List<CalculationElement> changed = new ArrayList<>();
+        List<TopologyLink> created =
+                topologyLinkService.applyBatch(calculationId, links, deletedLinkIds, patches, creates, changed);
+        if (!moved.isEmpty()) {
+            calculationRevisionService.markEdited(calculationId, moved);
+        }
+        deletedLinkIds.forEach(id -> changed.add(CalculationElement.link(id)));
+        patches.keySet().forEach(id -> changed.add(CalculationElement.link(id)));
+        created.forEach(link -> changed.add(CalculationElement.link(link.getId())));
+        calculationDeltaService.elementsChanged(calculationId, changed);
+
+        // Flushed here so that the returned entities carry the versions written by this batch.
+        topologyLinkRepository.flush();
+        List<TopologyLink> updated = patches.keySet().stream().map(links::get).toList();
+        return new Result(movedNodes, movedDevices, updated, created, deletedLinkIds);
+    }
+
+    private <T> Map<Long, T> load(
+            Set<Long> ids,
+            Function<Set<Long>, List<T>> finder,
+            Function<T, Long> idOf,
+            String notFoundMessage) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, T> loaded = finder.apply(ids).stream()
+                .collect(Collectors.toMap(idOf, Function.identity(), (left, right) -> left, LinkedHashMap::new));
+        for (Long id : ids) {
+            if (!loaded.containsKey(id)) {
+                throw new IllegalArgumentException(notFoundMessage + ": " + id);
+            }
+        }
+        return loaded;
+    }
+
+    private Long requireId(Long id, String message) {
+        if (id == null) {
+            throw new IllegalArgumentException(message);
+        }
+        return id;
+    }
+
+    private void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private <T> List<T> orEmpty(List<T> values) {
+        return values == null ? List.of() : values.stream().filter(Objects::nonNull).toList();
+    }
+
+    public record Result(
+            List<NetworkNode> nodes,
+            List<EndpointDevice> devices,
+            List<TopologyLink> updatedLinks,
+            List<TopologyLink> createdLinks,
+            Set<Long> deletedLinkIds) {}
+}
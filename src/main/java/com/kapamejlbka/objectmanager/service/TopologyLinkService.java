@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.service;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
@@ -9,12 +10,18 @@ import com.kapamejlbka.objectmanager.domain.device.repository.NetworkNodeReposit
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkCreateRequest;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkLengthUpdate;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestUpdateRequest;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkUpdateRequest;
 import com.kapamejlbka.objectmanager.domain.topology.repository.TopologyLinkRepository;
 import com.kapamejlbka.objectmanager.service.InstallationRouteLengthService;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -29,47 +36,91 @@ public class TopologyLinkService {
     private final NetworkNodeRepository networkNodeRepository;
     private final EndpointDeviceRepository endpointDeviceRepository;
     private final InstallationRouteLengthService installationRouteLengthService;
+    private final CalculationDeltaService calculationDeltaService;
 
     public TopologyLinkService(
             TopologyLinkRepository topologyLinkRepository,
             SystemCalculationRepository systemCalculationRepository,
             NetworkNodeRepository networkNodeRepository,
             EndpointDeviceRepository endpointDeviceRepository,
-            InstallationRouteLengthService installationRouteLengthService) {
+            InstallationRouteLengthService installationRouteLengthService,
+            CalculationDeltaService calculationDeltaService) {
         this.topologyLinkRepository = topologyLinkRepository;
         this.systemCalculationRepository = systemCalculationRepository;
         this.networkNodeRepository = networkNodeRepository;
         this.endpointDeviceRepository = endpointDeviceRepository;
         this.installationRouteLengthService = installationRouteLengthService;
+        this.calculationDeltaService = calculationDeltaService;
     }
 
     @Transactional
     public TopologyLink create(Long calculationId, TopologyLinkCreateRequest dto) {
-        if (dto == null) {
-            throw new IllegalArgumentException("Topology link data is required");
-        }
-        TopologyLink topologyLink = new TopologyLink();
-        topologyLink.setCalculation(getCalculationById(calculationId));
-        applyDto(topologyLink, dto);
-        LocalDateTime now = LocalDateTime.now();
-        topologyLink.setCreatedAt(now);
-        topologyLink.setUpdatedAt(now);
-        return topologyLinkRepository.save(topologyLink);
+        TopologyLink saved = topologyLinkRepository.save(newLink(getCalculationById(calculationId), dto));
+        calculationDeltaService.elementChanged(calculationId, CalculationElement.link(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public TopologyLink update(Long id, TopologyLinkUpdateRequest dto) {
+        return update(id, dto, null);
+    }
+
+    private TopologyLink update(Long id, TopologyLinkUpdateRequest dto, Long baseVersion) {
         if (dto == null) {
             throw new IllegalArgumentException("Topology link data is required");
         }
         TopologyLink topologyLink = getById(id);
-        applyDto(topologyLink, dto);
-        topologyLink.setUpdatedAt(LocalDateTime.now());
+        applyVersioned(topologyLink, dto, baseVersion);
         TopologyLink updated = topologyLinkRepository.save(topologyLink);
-        installationRouteLengthService.recalculateForLink(updated.getId());
+        List<CalculationElement> changed =
+                new ArrayList<>(installationRouteLengthService.recalculateForLinks(List.of(updated.getId())));
+        changed.add(CalculationElement.link(updated.getId()));
+        calculationDeltaService.elementsChanged(updated.getCalculation().getId(), changed);
         return updated;
     }
 
+    /**
+     * Partial update from the topology editor: endpoints are kept and every {@code null} field of
+     * the payload keeps its current value.
+     */
+    @Transactional
+    public TopologyLink patch(Long id, TopologyLinkRestUpdateRequest payload) {
+        TopologyLink existing = getById(id);
+        return update(id, toUpdateRequest(existing, payload), payload.version());
+    }
+
+    /**
+     * Set-based counterparts of {@link #create}, {@link #patch} and {@link #delete} for the editor
+     * batch. {@code patches} maps the id of every patched link to its payload and {@code links} must
+     * hold those links and the deleted ones, loaded by the caller. Route lengths are recomputed once
+     * for all patched links and the affected routes are added to {@code changedRoutes}; recording
+     * them and the changed links is left to the caller, so that a batch bumps the revision once
+     * instead of once per link.
+     */
+    @Transactional
+    public List<TopologyLink> applyBatch(
+            Long calculationId,
+            Map<Long, TopologyLink> links,
+            Collection<Long> deletedIds,
+            Map<Long, TopologyLinkRestUpdateRequest> patches,
+            List<TopologyLinkCreateRequest> creates,
+            List<CalculationElement> changedRoutes) {
+        List<TopologyLink> deleted = deletedIds.stream().map(links::get).toList();
+        topologyLinkRepository.deleteAll(deleted);
+        patches.forEach((id, payload) -> {
+            TopologyLink link = links.get(id);
+            applyVersioned(link, toUpdateRequest(link, payload), payload.version());
+        });
+        List<TopologyLink> created = new ArrayList<>(creates.size());
+        if (!creates.isEmpty()) {
+            SystemCalculation calculation = getCalculationById(calculationId);
+            creates.forEach(dto -> created.add(newLink(calculation, dto)));
+            topologyLinkRepository.saveAll(created);
+        }
+        changedRoutes.addAll(installationRouteLengthService.recalculateForLinks(patches.keySet()));
+        return created;
+    }
+
     public List<TopologyLink> listByCalculation(Long calculationId) {
         return topologyLinkRepository.findByCalculationId(calculationId);
     }
@@ -78,33 +129,59 @@ public class TopologyLinkService {
     public void delete(Long id) {
         TopologyLink topologyLink = getById(id);
         topologyLinkRepository.delete(topologyLink);
+        calculationDeltaService.elementChanged(
+                topologyLink.getCalculation().getId(), CalculationElement.link(topologyLink.getId()));
     }
 
+    /**
+     * Applies the lengths submitted in wizard step 4. All links are loaded with one query, changed
+     * links are flushed as a JDBC batch and the lengths of the affected routes are recomputed with
+     * a single aggregate update. The links and routes are recorded under one revision bump.
+     */
     @Transactional
     public void updateCableLengths(Long calculationId, List<TopologyLinkLengthUpdate> updates) {
         if (updates == null || updates.isEmpty()) {
             return;
         }
+        Map<Long, Double> lengths = new LinkedHashMap<>();
         for (TopologyLinkLengthUpdate update : updates) {
             if (update.getId() == null) {
                 continue;
             }
-            TopologyLink link = getById(update.getId());
-            if (!link.getCalculation().getId().equals(calculationId)) {
-                throw new IllegalArgumentException("Link does not belong to calculation");
+            Double length = update.getLength();
+            if (length != null && length < 0) {
+                throw new IllegalArgumentException("Cable length cannot be negative");
             }
+            lengths.put(update.getId(), length);
+        }
+        if (lengths.isEmpty()) {
+            return;
+        }
+        List<TopologyLink> links = topologyLinkRepository.findWithEndpointsByCalculationIdAndIdIn(calculationId, lengths.keySet());
+        if (links.size() != lengths.size()) {
+            throw new IllegalArgumentException("Link does not belong to calculation");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> changedLinkIds = new ArrayList<>();
+        for (TopologyLink link : links) {
             if (!SUPPORTED_LINK_TYPES.contains(link.getLinkType())) {
                 throw new IllegalArgumentException("Unsupported link type: " + link.getLinkType());
             }
-            Double length = update.getLength();
-            if (length != null && length < 0) {
-                throw new IllegalArgumentException("Cable length cannot be negative");
+            Double length = lengths.get(link.getId());
+            if (Objects.equals(link.getCableLength(), length)) {
+                continue;
             }
             link.setCableLength(length);
-            link.setUpdatedAt(LocalDateTime.now());
-            topologyLinkRepository.save(link);
-            installationRouteLengthService.recalculateForLink(link.getId());
+            link.setUpdatedAt(now);
+            changedLinkIds.add(link.getId());
+        }
+        if (changedLinkIds.isEmpty()) {
+            return;
         }
+        List<CalculationElement> changed =
+                new ArrayList<>(installationRouteLengthService.recalculateForLinks(changedLinkIds));
+        changedLinkIds.forEach(id -> changed.add(CalculationElement.link(id)));
+        calculationDeltaService.elementsChanged(calculationId, changed);
     }
 
     private void applyDto(TopologyLink topologyLink, TopologyLinkCreateRequest dto) {
@@ -227,6 +304,58 @@ public class TopologyLinkService {
         }
     }
 
+    private TopologyLink newLink(SystemCalculation calculation, TopologyLinkCreateRequest dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Topology link data is required");
+        }
+        TopologyLink topologyLink = new TopologyLink();
+        topologyLink.setCalculation(calculation);
+        applyDto(topologyLink, dto);
+        LocalDateTime now = LocalDateTime.now();
+        topologyLink.setCreatedAt(now);
+        topologyLink.setUpdatedAt(now);
+        return topologyLink;
+    }
+
+    /**
+     * Fields the request does not change are merged even when {@code baseVersion} is stale; changing
+     * the length or the other attributes after someone else did is an {@link EditConflictException}.
+     */
+    private void applyVersioned(TopologyLink topologyLink, TopologyLinkUpdateRequest dto, Long baseVersion) {
+        boolean lengthStale = baseVersion != null && topologyLink.lengthChangedSince(baseVersion);
+        boolean attributesStale = baseVersion != null && topologyLink.attributesChangedSince(baseVersion);
+        long currentVersion = topologyLink.getVersion();
+        applyDto(topologyLink, dto);
+        if (lengthStale && topologyLink.lengthChangedSince(currentVersion)
+                || attributesStale && topologyLink.attributesChangedSince(currentVersion)) {
+            throw new EditConflictException("Связь изменена другим пользователем");
+        }
+        topologyLink.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private TopologyLinkUpdateRequest toUpdateRequest(TopologyLink existing, TopologyLinkRestUpdateRequest payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Topology link data is required");
+        }
+        TopologyLinkUpdateRequest dto = new TopologyLinkUpdateRequest();
+        dto.setFromNodeId(existing.getFromNode() != null ? existing.getFromNode().getId() : null);
+        dto.setToNodeId(existing.getToNode() != null ? existing.getToNode().getId() : null);
+        dto.setFromDeviceId(existing.getFromDevice() != null ? existing.getFromDevice().getId() : null);
+        dto.setToDeviceId(existing.getToDevice() != null ? existing.getToDevice().getId() : null);
+        dto.setLinkType(payload.linkType() != null ? payload.linkType() : existing.getLinkType());
+        dto.setCableLength(payload.length() != null ? payload.length() : existing.getCableLength());
+        dto.setWireless(existing.getWireless());
+        dto.setFiberCores(payload.fiberCores() != null ? payload.fiberCores() : existing.getFiberCores());
+        dto.setFiberSpliceCount(
+                payload.fiberSpliceCount() != null ? payload.fiberSpliceCount() : existing.getFiberSpliceCount());
+        dto.setFiberConnectorCount(
+                payload.fiberConnectorCount() != null
+                        ? payload.fiberConnectorCount()
+                        : existing.getFiberConnectorCount());
+        dto.setPowerSourceDescription(existing.getPowerSourceDescription());
+        return dto;
+    }
+
     private TopologyLink getById(Long id) {
         return topologyLinkRepository
                 .findById(id)
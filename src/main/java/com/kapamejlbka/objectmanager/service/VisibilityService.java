@@ -0,0 +1,167 @@
+package com.kapamejlbka.objectmanager.service;
+
+import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
+import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry;
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ManagedObjectRepository;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ProjectCustomerRepository;
+import com.kapamejlbka.objectmanager.domain.customer.repository.VisibilityEntryRepository;
+import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the {@link VisibilityEntry} table: who may see which customer and object. A customer
+ * is visible to its creator and owners; an object to its creator, its owners and everyone who sees
+ * its customer. Every ownership change must go through {@link #refreshCustomer} or
+ * {@link #refreshObject} so that access checks can stay a primary-key lookup.
+ */
+@Service
+public class VisibilityService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VisibilityService.class);
+
+    private final VisibilityEntryRepository visibilityEntryRepository;
+    private final ProjectCustomerRepository customerRepository;
+    private final ManagedObjectRepository managedObjectRepository;
+    private final PermissionCache permissionCache;
+
+    public VisibilityService(
+            VisibilityEntryRepository visibilityEntryRepository,
+            ProjectCustomerRepository customerRepository,
+            ManagedObjectRepository managedObjectRepository,
+            PermissionCache permissionCache) {
+        this.visibilityEntryRepository = visibilityEntryRepository;
+        this.customerRepository = customerRepository;
+        this.managedObjectRepository = managedObjectRepository;
+        this.permissionCache = permissionCache;
+    }
+
+    public boolean isVisible(AppUser user, TargetType targetType, UUID targetId) {
+        if (user == null || user.getId() == null || targetId == null) {
+            return false;
+        }
+        return visibilityEntryRepository.existsById(new VisibilityEntry.Key(user.getId(), targetType, targetId));
+    }
+
+    public Set<UUID> filterVisible(AppUser user, TargetType targetType, Collection<UUID> targetIds) {
+        if (user == null || user.getId() == null || targetIds == null || targetIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(visibilityEntryRepository.findVisibleTargetIds(user.getId(), targetType, targetIds));
+    }
+
+    @Transactional
+    public void refreshCustomer(ProjectCustomer customer) {
+        replace(TargetType.CUSTOMER, customer.getId(), customerUsers(customer));
+        for (ManagedObject managedObject : customer.getObjects()) {
+            refreshObject(managedObject);
+        }
+    }
+
+    @Transactional
+    public void refreshObject(ManagedObject managedObject) {
+        Set<Long> users = new HashSet<>();
+        addUser(users, managedObject.getCreatedBy());
+        managedObject.getOwners().forEach(owner -> addUser(users, owner));
+        if (managedObject.getCustomer() != null) {
+            users.addAll(customerUsers(managedObject.getCustomer()));
+        }
+        replace(TargetType.OBJECT, managedObject.getId(), users);
+    }
+
+    @Transactional
+    public void removeObject(ManagedObject managedObject) {
+        replace(TargetType.OBJECT, managedObject.getId(), Set.of());
+    }
+
+    /**
+     * Recomputes the whole table from the ownership columns with four projection queries. Used at
+     * startup to pick up rows written before the table existed or outside the application.
+     */
+    @Transactional
+    public int rebuild() {
+        Map<UUID, Set<Long>> customerUsers = new HashMap<>();
+        for (Object[] row : customerRepository.findVisibilityRows()) {
+            Set<Long> users = customerUsers.computeIfAbsent((UUID) row[0], ignored -> new HashSet<>());
+            if (row[1] != null) {
+                users.add((Long) row[1]);
+            }
+        }
+        for (Object[] row : customerRepository.findOwnerRows()) {
+            customerUsers.computeIfAbsent((UUID) row[0], ignored -> new HashSet<>()).add((Long) row[1]);
+        }
+
+        Map<UUID, Set<Long>> objectUsers = new HashMap<>();
+        for (Object[] row : managedObjectRepository.findVisibilityRows()) {
+            Set<Long> users = objectUsers.computeIfAbsent((UUID) row[0], ignored -> new HashSet<>());
+            if (row[1] != null) {
+                users.add((Long) row[1]);
+            }
+            if (row[2] != null) {
+                users.addAll(customerUsers.getOrDefault((UUID) row[2], Set.of()));
+            }
+        }
+        for (Object[] row : managedObjectRepository.findOwnerRows()) {
+            objectUsers.computeIfAbsent((UUID) row[0], ignored -> new HashSet<>()).add((Long) row[1]);
+        }
+
+        List<VisibilityEntry> entries = new ArrayList<>();
+        customerUsers.forEach((customerId, users) ->
+                users.forEach(userId -> entries.add(new VisibilityEntry(userId, TargetType.CUSTOMER, customerId))));
+        objectUsers.forEach((objectId, users) ->
+                users.forEach(userId -> entries.add(new VisibilityEntry(userId, TargetType.OBJECT, objectId))));
+
+        visibilityEntryRepository.deleteAllInBatch();
+        visibilityEntryRepository.saveAll(entries);
+        LOG.info("Rebuilt visibility table: {} customers, {} objects, {} entries",
+                customerUsers.size(), objectUsers.size(), entries.size());
+        return entries.size();
+    }
+
+    private void replace(TargetType targetType, UUID targetId, Set<Long> users) {
+        if (targetId == null) {
+            return;
+        }
+        permissionCache.clear();
+        Set<Long> missing = new HashSet<>(users);
+        List<VisibilityEntry> stale = new ArrayList<>();
+        for (VisibilityEntry entry : visibilityEntryRepository.findAllByTarget(targetType, targetId)) {
+            if (!missing.remove(entry.getId().getUserId())) {
+                stale.add(entry);
+            }
+        }
+        if (!stale.isEmpty()) {
+            visibilityEntryRepository.deleteAll(stale);
+        }
+        if (!missing.isEmpty()) {
+            visibilityEntryRepository.saveAll(missing.stream()
+                    .map(userId -> new VisibilityEntry(userId, targetType, targetId))
+                    .toList());
+        }
+    }
+
+    private Set<Long> customerUsers(ProjectCustomer customer) {
+        Set<Long> users = new HashSet<>();
+        addUser(users, customer.getCreatedBy());
+        customer.getOwners().forEach(owner -> addUser(users, owner));
+        return users;
+    }
+
+    private void addUser(Set<Long> users, AppUser user) {
+        if (user != null && user.getId() != null) {
+            users.add(user.getId());
+        }
+    }
+}
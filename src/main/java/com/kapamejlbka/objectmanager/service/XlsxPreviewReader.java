@@ -0,0 +1,322 @@
+package com.kapamejlbka.objectmanager.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+/**
+ * Reads the top-left window of the first sheet of an xlsx file by streaming the sheet XML.
+ * Parsing stops once the window is filled; shared strings are resolved afterwards and only
+ * up to the highest index the window refers to.
+ */
+final class XlsxPreviewReader {
+
+    record Window(boolean hasSheet, List<List<String>> rows, boolean hasMoreRows, boolean hasMoreColumns) {
+    }
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final int maxRows;
+    private final int maxColumns;
+
+    XlsxPreviewReader(int maxRows, int maxColumns) {
+        this.maxRows = maxRows;
+        this.maxColumns = maxColumns;
+    }
+
+    Window read(Path file, DataFormatter formatter) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (OpenXML4JException ex) {
+            throw new IOException("Invalid xlsx package", ex);
+        }
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return new Window(false, List.of(), false, false);
+            }
+
+            SheetWindow window;
+            try (InputStream sheet = sheets.next()) {
+                window = readSheet(sheet);
+            }
+
+            Map<Integer, String> sharedStrings = window.sharedStringIndexes.isEmpty()
+                    ? Map.of()
+                    : readSharedStrings(reader, window.sharedStringIndexes);
+            StylesTable styles = window.numericCells ? reader.getStylesTable() : null;
+
+            List<List<String>> rows = new ArrayList<>(window.rows.size());
+            for (List<RawCell> row : window.rows) {
+                List<String> values = new ArrayList<>(row.size());
+                for (RawCell cell : row) {
+                    values.add(cell == null ? "" : cell.format(sharedStrings, styles, formatter));
+                }
+                rows.add(values);
+            }
+            return new Window(true, rows, window.hasMoreRows, window.hasMoreColumns);
+        } catch (OpenXML4JException | XMLStreamException ex) {
+            throw new IOException("Failed to read xlsx sheet", ex);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    private SheetWindow readSheet(InputStream sheet) throws XMLStreamException {
+        SheetWindow window = new SheetWindow();
+        XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(sheet);
+        try {
+            TreeMap<Integer, RawCell> currentRow = null;
+            RawCell currentCell = null;
+            StringBuilder text = null;
+            int nextColumn = 0;
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "row" -> {
+                            if (window.rows.size() >= maxRows) {
+                                window.hasMoreRows = true;
+                                return window;
+                            }
+                            currentRow = new TreeMap<>();
+                            nextColumn = 0;
+                        }
+                        case "c" -> {
+                            int column = columnIndex(xml.getAttributeValue(null, "r"), nextColumn);
+                            nextColumn = column + 1;
+                            if (column >= maxColumns) {
+                                window.hasMoreColumns = true;
+                                currentCell = null;
+                            } else {
+                                currentCell = new RawCell(xml.getAttributeValue(null, "t"),
+                                        xml.getAttributeValue(null, "s"));
+                                if (currentRow != null) {
+                                    currentRow.put(column, currentCell);
+                                }
+                            }
+                        }
+                        case "v", "t" -> text = currentCell != null ? new StringBuilder() : null;
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (text != null) {
+                        text.append(xml.getText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "v", "t" -> {
+                            if (text != null && currentCell != null) {
+                                currentCell.value = currentCell.value == null ? text.toString() : currentCell.value + text;
+                            }
+                            text = null;
+                        }
+                        case "c" -> {
+                            if (currentCell != null) {
+                                window.register(currentCell);
+                            }
+                            currentCell = null;
+                        }
+                        case "row" -> {
+                            if (currentRow != null) {
+                                window.rows.add(toList(currentRow));
+                            }
+                            currentRow = null;
+                        }
+                        case "sheetData" -> {
+                            return window;
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            }
+            return window;
+        } finally {
+            xml.close();
+        }
+    }
+
+    private Map<Integer, String> readSharedStrings(XSSFReader reader, TreeSet<Integer> indexes)
+            throws IOException, OpenXML4JException, XMLStreamException {
+        Map<Integer, String> resolved = new HashMap<>();
+        int lastIndex = indexes.last();
+        try (InputStream sharedStrings = reader.getSharedStringsData()) {
+            if (sharedStrings == null) {
+                return resolved;
+            }
+            XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(sharedStrings);
+            try {
+                int index = -1;
+                int phoneticDepth = 0;
+                boolean inText = false;
+                StringBuilder value = null;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "si" -> {
+                                index++;
+                                value = indexes.contains(index) ? new StringBuilder() : null;
+                            }
+                            case "rPh" -> phoneticDepth++;
+                            case "t" -> inText = value != null && phoneticDepth == 0;
+                            default -> {
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                        if (inText) {
+                            value.append(xml.getText());
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "t" -> inText = false;
+                            case "rPh" -> phoneticDepth--;
+                            case "si" -> {
+                                if (value != null) {
+                                    resolved.put(index, value.toString());
+                                }
+                                value = null;
+                                if (index >= lastIndex) {
+                                    return resolved;
+                                }
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        }
+        return resolved;
+    }
+
+    private static List<RawCell> toList(TreeMap<Integer, RawCell> row) {
+        if (row.isEmpty()) {
+            return List.of();
+        }
+        List<RawCell> cells = new ArrayList<>(row.lastKey() + 1);
+        for (int column = 0; column <= row.lastKey(); column++) {
+            cells.add(row.get(column));
+        }
+        return cells;
+    }
+
+    private static int columnIndex(String reference, int fallback) {
+        if (reference == null || reference.isEmpty()) {
+            return fallback;
+        }
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char symbol = reference.charAt(i);
+            if (symbol < 'A' || symbol > 'Z') {
+                break;
+            }
+            column = column * 26 + (symbol - 'A' + 1);
+        }
+        return column == 0 ? fallback : column - 1;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    private static final class SheetWindow {
+        private final List<List<RawCell>> rows = new ArrayList<>();
+        private final TreeSet<Integer> sharedStringIndexes = new TreeSet<>();
+        private boolean numericCells;
+        private boolean hasMoreRows;
+        private boolean hasMoreColumns;
+
+        private void register(RawCell cell) {
+            if (cell.value == null) {
+                return;
+            }
+            if ("s".equals(cell.type)) {
+                try {
+                    sharedStringIndexes.add(Integer.parseInt(cell.value.trim()));
+                } catch (NumberFormatException ex) {
+                    cell.value = null;
+                }
+            } else if (cell.type == null || "n".equals(cell.type)) {
+                numericCells = true;
+            }
+        }
+    }
+
+    private static final class RawCell {
+        private final String type;
+        private final String style;
+        private String value;
+
+        private RawCell(String type, String style) {
+            this.type = type;
+            this.style = style;
+        }
+
+        private String format(Map<Integer, String> sharedStrings, StylesTable styles, DataFormatter formatter) {
+            if (value == null) {
+                return "";
+            }
+            if (type == null || "n".equals(type)) {
+                return formatNumber(styles, formatter);
+            }
+            return switch (type) {
+                case "s" -> sharedStrings.getOrDefault(Integer.parseInt(value.trim()), "");
+                case "b" -> "1".equals(value.trim()) ? "TRUE" : "FALSE";
+                default -> value;
+            };
+        }
+
+        private String formatNumber(StylesTable styles, DataFormatter formatter) {
+            double number;
+            try {
+                number = Double.parseDouble(value.trim());
+            } catch (NumberFormatException ex) {
+                return value;
+            }
+            if (styles != null && style != null) {
+                try {
+                    XSSFCellStyle cellStyle = styles.getStyleAt(Integer.parseInt(style));
+                    if (cellStyle != null) {
+                        String formatString = cellStyle.getDataFormatString();
+                        if (formatString != null) {
+                            return formatter.formatRawCellContents(number, cellStyle.getDataFormat(), formatString);
+                        }
+                    }
+                } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+                    // fall through to the general format
+                }
+            }
+            return formatter.formatRawCellContents(number, 0, "General");
+        }
+    }
+}
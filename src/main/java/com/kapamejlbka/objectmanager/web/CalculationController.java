@@ -27,14 +27,13 @@ import com.kapamejlbka.objectmanager.service.NetworkNodeService;
 import com.kapamejlbka.objectmanager.service.RouteSegmentLinkService;
 import com.kapamejlbka.objectmanager.service.SystemCalculationService;
 import com.kapamejlbka.objectmanager.service.TopologyLinkService;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -47,11 +46,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
 public class CalculationController {
 
+    private static final int EXCEL_ROW_WINDOW = 100;
+    private static final int MAX_EXCEL_COLUMN_CHARS = 100;
+
     private final SystemCalculationService systemCalculationService;
     private final EndpointDeviceService endpointDeviceService;
     private final NetworkNodeService networkNodeService;
@@ -340,7 +343,7 @@ public class CalculationController {
 
     @GetMapping("/calculations/{id}/wizard/step7")
     public String wizardStep7(@PathVariable("id") Long id, Model model) {
-        CalculationResult result = systemCalculationService.runCalculation(id);
+        CalculationResult result = systemCalculationService.getCalculationResult(id);
         systemCalculationService.changeStatus(id, "CALCULATED");
         SystemCalculation calculation = getCalculation(id);
         model.addAttribute("calculation", calculation);
@@ -350,7 +353,7 @@ public class CalculationController {
 
     @GetMapping("/calculations/{id}/result")
     public String calculationResult(@PathVariable("id") Long id, Model model) {
-        CalculationResult result = systemCalculationService.runCalculation(id);
+        CalculationResult result = systemCalculationService.getCalculationResult(id);
         SystemCalculation calculation = getCalculation(id);
         model.addAttribute("calculation", calculation);
         model.addAttribute("result", result);
@@ -359,24 +362,20 @@ public class CalculationController {
     }
 
     @GetMapping("/calculations/{id}/result.xlsx")
-    public ResponseEntity<byte[]> calculationResultExcel(@PathVariable("id") Long id) {
-        CalculationResult result = systemCalculationService.runCalculation(id);
+    public ResponseEntity<StreamingResponseBody> calculationResultExcel(@PathVariable("id") Long id) {
+        CalculationResult result = systemCalculationService.getCalculationResult(id);
         SystemCalculation calculation = getCalculation(id);
-
-        try (Workbook workbook = buildWorkbook(calculation, result);
-                ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-            workbook.write(output);
-            String filename = ("vedomost_site-" + calculation.getId() + ".xlsx")
-                    .replaceAll("[^A-Za-z0-9._-]", "_");
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                    .contentType(MediaType.parseMediaType(
-                            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(output.toByteArray());
-        } catch (IOException ex) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Не удалось сформировать Excel", ex);
-        }
+        String siteName = calculation.getSite().getName();
+        String calculationName = calculation.getName();
+        String filename = ("vedomost_site-" + calculation.getId() + ".xlsx")
+                .replaceAll("[^A-Za-z0-9._-]", "_");
+
+        StreamingResponseBody body = output -> writeWorkbook(siteName, calculationName, result, output);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(MediaType.parseMediaType(
+                        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
     }
 
     private void applyEndpointSelection(TopologyLinkCreateRequest form, String endpoint, boolean isFrom) {
@@ -421,49 +420,71 @@ public class CalculationController {
         }
     }
 
-    private Workbook buildWorkbook(SystemCalculation calculation, CalculationResult result) {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Ведомость материалов");
-
-        int rowIndex = 0;
-        Row titleRow = sheet.createRow(rowIndex++);
-        titleRow.createCell(0).setCellValue("Ведомость материалов");
-
-        Row siteRow = sheet.createRow(rowIndex++);
-        siteRow.createCell(0).setCellValue("Объект:");
-        siteRow.createCell(1).setCellValue(calculation.getSite().getName());
-
-        Row calcRow = sheet.createRow(rowIndex++);
-        calcRow.createCell(0).setCellValue("Расчёт:");
-        calcRow.createCell(1).setCellValue(calculation.getName());
-
-        Row dateRow = sheet.createRow(rowIndex++);
-        dateRow.createCell(0).setCellValue("Дата:");
-        dateRow.createCell(1).setCellValue(LocalDate.now().toString());
-
-        rowIndex++;
-
-        Row header = sheet.createRow(rowIndex++);
-        header.createCell(0).setCellValue("Код материала");
-        header.createCell(1).setCellValue("Наименование");
-        header.createCell(2).setCellValue("Категория");
-        header.createCell(3).setCellValue("Ед. изм.");
-        header.createCell(4).setCellValue("Количество");
-
-        for (MaterialItemResult item : result.items()) {
-            Row row = sheet.createRow(rowIndex++);
-            row.createCell(0).setCellValue(item.materialCode());
-            row.createCell(1).setCellValue(item.materialName());
-            row.createCell(2).setCellValue(item.category() != null ? item.category().getDisplayNameRu() : "");
-            row.createCell(3).setCellValue(item.unit());
-            row.createCell(4).setCellValue(item.quantity());
-        }
+    private void writeWorkbook(
+            String siteName, String calculationName, CalculationResult result, OutputStream output)
+            throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        try {
+            Sheet sheet = workbook.createSheet("Ведомость материалов");
+            String[] headers = {"Код материала", "Наименование", "Категория", "Ед. изм.", "Количество"};
+            int[] widths = new int[headers.length];
+            widths[0] = "Объект:".length();
+            widths[1] = Math.max(length(siteName), length(calculationName));
+
+            int rowIndex = 0;
+            Row titleRow = sheet.createRow(rowIndex++);
+            titleRow.createCell(0).setCellValue("Ведомость материалов");
+
+            Row siteRow = sheet.createRow(rowIndex++);
+            siteRow.createCell(0).setCellValue("Объект:");
+            siteRow.createCell(1).setCellValue(siteName);
+
+            Row calcRow = sheet.createRow(rowIndex++);
+            calcRow.createCell(0).setCellValue("Расчёт:");
+            calcRow.createCell(1).setCellValue(calculationName);
+
+            Row dateRow = sheet.createRow(rowIndex++);
+            dateRow.createCell(0).setCellValue("Дата:");
+            dateRow.createCell(1).setCellValue(LocalDate.now().toString());
+
+            rowIndex++;
+
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+                widths[i] = Math.max(widths[i], headers[i].length());
+            }
 
-        for (int i = 0; i <= 4; i++) {
-            sheet.autoSizeColumn(i);
+            for (MaterialItemResult item : result.items()) {
+                String category = item.category() != null ? item.category().getDisplayNameRu() : "";
+                String quantity = String.valueOf(item.quantity());
+                Row row = sheet.createRow(rowIndex++);
+                row.createCell(0).setCellValue(item.materialCode());
+                row.createCell(1).setCellValue(item.materialName());
+                row.createCell(2).setCellValue(category);
+                row.createCell(3).setCellValue(item.unit());
+                row.createCell(4).setCellValue(item.quantity());
+                widths[0] = Math.max(widths[0], length(item.materialCode()));
+                widths[1] = Math.max(widths[1], length(item.materialName()));
+                widths[2] = Math.max(widths[2], category.length());
+                widths[3] = Math.max(widths[3], length(item.unit()));
+                widths[4] = Math.max(widths[4], quantity.length());
+            }
+
+            // Widths come from the data itself; autoSizeColumn would need every row kept in memory.
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, Math.min(MAX_EXCEL_COLUMN_CHARS, widths[i] + 2) * 256);
+            }
+
+            workbook.write(output);
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
+    }
 
-        return workbook;
+    private int length(String value) {
+        return value == null ? 0 : value.length();
     }
 
     private SystemCalculation getCalculation(Long id) {
@@ -6,11 +6,9 @@ import com.kapamejlbka.objectmanager.domain.customer.dto.CustomerCreateRequest;
 import com.kapamejlbka.objectmanager.domain.customer.dto.CustomerUpdateRequest;
 import com.kapamejlbka.objectmanager.service.CustomerService;
 import com.kapamejlbka.objectmanager.service.SiteService;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -39,20 +37,39 @@ public class CustomerController {
             @RequestParam(value = "page", defaultValue = "1") int page,
             @RequestParam(value = "size", defaultValue = "12") int size,
             @RequestParam(value = "sort", defaultValue = "name") String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
             Model model) {
-        List<Customer> customers = new ArrayList<>(customerService.search(query));
-        customers.sort(comparatorForSort(sort));
-
         int pageSize = Math.max(1, size);
-        int totalCount = customers.size();
-        int totalPages = Math.max(1, (int) Math.ceil((double) totalCount / pageSize));
-        int currentPage = Math.min(Math.max(page, 1), totalPages);
-        int fromIndex = Math.min((currentPage - 1) * pageSize, totalCount);
-        int toIndex = Math.min(fromIndex + pageSize, totalCount);
-        List<Customer> pageItems = customers.subList(fromIndex, toIndex);
+        List<Customer> pageItems;
+        int currentPage;
+        int totalPages;
+        long totalCount;
+        String nextCursor = null;
+        if (cursor != null) {
+            CustomerService.CustomerWindow window;
+            try {
+                window = customerService.scroll(query, sort, cursor, pageSize);
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+            }
+            pageItems = window.customers();
+            nextCursor = window.nextCursor();
+            currentPage = 1;
+            totalPages = 1;
+            totalCount = pageItems.size();
+        } else {
+            Page<Customer> result = customerService.searchPage(query, sort, page - 1, pageSize);
+            if (result.getTotalPages() > 0 && result.getNumber() >= result.getTotalPages()) {
+                result = customerService.searchPage(query, sort, result.getTotalPages() - 1, pageSize);
+            }
+            pageItems = result.getContent();
+            currentPage = result.getNumber() + 1;
+            totalPages = Math.max(1, result.getTotalPages());
+            totalCount = result.getTotalElements();
+        }
 
-        Map<Long, Long> siteCounts = pageItems.stream()
-                .collect(Collectors.toMap(Customer::getId, c -> siteService.countByCustomer(c.getId())));
+        Map<Long, Long> siteCounts = siteService.countByCustomers(
+                pageItems.stream().map(Customer::getId).toList());
 
         model.addAttribute("customers", pageItems);
         model.addAttribute("query", query);
@@ -62,6 +79,7 @@ public class CustomerController {
         model.addAttribute("totalPages", totalPages);
         model.addAttribute("totalCount", totalCount);
         model.addAttribute("siteCounts", siteCounts);
+        model.addAttribute("nextCursor", nextCursor);
         ensureFlashAttributes(model);
         return "customers/list";
     }
@@ -155,17 +173,6 @@ public class CustomerController {
         return form;
     }
 
-    private Comparator<Customer> comparatorForSort(String sort) {
-        String normalized = sort == null ? "" : sort.trim().toLowerCase();
-        return switch (normalized) {
-            case "created" -> Comparator.comparing(Customer::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
-                    .reversed();
-            case "updated" -> Comparator.comparing(Customer::getUpdatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
-                    .reversed();
-            default -> Comparator.comparing(Customer::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-        };
-    }
-
     private Customer getCustomer(Long id) {
         try {
             return customerService.getById(id);
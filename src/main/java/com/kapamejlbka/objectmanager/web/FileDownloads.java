@@ -0,0 +1,62 @@
+package com.kapamejlbka.objectmanager.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Builds download responses for uploaded files. The response carries a validator (ETag and
+ * Last-Modified) and a long-lived cache policy; Spring MVC answers conditional requests with 304
+ * and serves {@code Range} requests as {@code ResourceRegion}s from the same {@link Resource} body.
+ * An upload never changes under its URL, so the cache entry can be treated as immutable.
+ */
+final class FileDownloads {
+
+    private static final CacheControl CACHE_POLICY = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePrivate()
+            .immutable();
+
+    private FileDownloads() {
+    }
+
+    static ResponseEntity<Resource> inline(
+            Resource resource,
+            String fileName,
+            String contentType,
+            long size,
+            LocalDateTime modifiedAt,
+            String contentHash
+    ) {
+        MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
+        if (contentType != null && !contentType.isBlank()) {
+            mediaType = MediaType.parseMediaType(contentType);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(fileName == null ? "file" : fileName, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .cacheControl(CACHE_POLICY)
+                .eTag(eTag(size, modifiedAt, contentHash));
+        if (modifiedAt != null) {
+            builder.lastModified(modifiedAt.atZone(ZoneId.systemDefault()));
+        }
+        return builder.body(resource);
+    }
+
+    private static String eTag(long size, LocalDateTime modifiedAt, String contentHash) {
+        if (contentHash != null) {
+            return "\"" + contentHash + "\"";
+        }
+        long modified = modifiedAt == null ? 0L : modifiedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return "\"" + size + "-" + modified + "\"";
+    }
+}
@@ -1,15 +1,21 @@
 package com.kapamejlbka.objectmanager.web;
 
 import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
-import com.kapamejlbka.objectmanager.domain.customer.ObjectChange;
+import com.kapamejlbka.objectmanager.domain.customer.StoredFile;
 import com.kapamejlbka.objectmanager.domain.user.AppUser;
 import com.kapamejlbka.objectmanager.service.AccessControlService;
+import com.kapamejlbka.objectmanager.service.FilePreviewService;
 import com.kapamejlbka.objectmanager.service.ManagedObjectService;
+import com.kapamejlbka.objectmanager.service.ObjectChangeHistoryService;
+import com.kapamejlbka.objectmanager.service.ObjectChangeHistoryService.ChangeDetails;
+import com.kapamejlbka.objectmanager.service.ObjectChangeHistoryService.ChangeHistoryPage;
 import com.kapamejlbka.objectmanager.service.UserService;
-import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +24,8 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
@@ -27,23 +35,32 @@ public class ManagedObjectController {
     private final ManagedObjectService managedObjectService;
     private final UserService userService;
     private final AccessControlService accessControlService;
+    private final FilePreviewService filePreviewService;
+    private final ObjectChangeHistoryService historyService;
 
     public ManagedObjectController(ManagedObjectService managedObjectService, UserService userService,
-                                   AccessControlService accessControlService) {
+                                   AccessControlService accessControlService,
+                                   FilePreviewService filePreviewService,
+                                   ObjectChangeHistoryService historyService) {
         this.managedObjectService = managedObjectService;
         this.userService = userService;
         this.accessControlService = accessControlService;
+        this.filePreviewService = filePreviewService;
+        this.historyService = historyService;
     }
 
     @GetMapping("/objects/{id}")
-    public String detail(@PathVariable("id") UUID id, Model model) {
+    public String detail(@PathVariable("id") UUID id,
+                         @RequestParam(value = "historyCursor", required = false) String historyCursor,
+                         Model model) {
         ManagedObject managedObject = managedObjectService.getById(id);
-        List<ObjectChange> changes = managedObjectService.getChangeHistory(id);
         AppUser currentUser = getCurrentUser();
         accessControlService.ensureCanViewObject(managedObject, currentUser);
+        ChangeHistoryPage history = loadHistory(id, historyCursor, ObjectChangeHistoryService.DEFAULT_PAGE_SIZE);
         boolean isAuthor = isAuthor(currentUser, managedObject);
         model.addAttribute("object", managedObject);
-        model.addAttribute("changes", changes);
+        model.addAttribute("changes", history.changes());
+        model.addAttribute("historyNextCursor", history.nextCursor());
         model.addAttribute("isAuthor", isAuthor);
         model.addAttribute("canRequestDeletion", isAuthor || isAdmin(currentUser));
         model.addAttribute("canRevokeDeletion", canRevoke(managedObject, currentUser, isAuthor));
@@ -51,12 +68,47 @@ public class ManagedObjectController {
         return "objects/detail";
     }
 
+    @GetMapping("/objects/{id}/changes")
+    @ResponseBody
+    public ChangeHistoryPage changes(
+            @PathVariable("id") UUID id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        ensureCanViewObject(id);
+        return loadHistory(id, cursor, size);
+    }
+
+    @GetMapping("/objects/{id}/changes/{changeId}")
+    @ResponseBody
+    public ChangeDetails change(@PathVariable("id") UUID id, @PathVariable("changeId") UUID changeId) {
+        ensureCanViewObject(id);
+        try {
+            return historyService.getChange(id, changeId);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage());
+        }
+    }
+
+    @GetMapping("/objects/{id}/files/{fileId}")
+    public ResponseEntity<Resource> downloadFile(@PathVariable("id") UUID id, @PathVariable("fileId") UUID fileId) {
+        StoredFile storedFile = getViewableFile(id, fileId);
+        Resource resource = managedObjectService.loadFileResource(storedFile);
+        return FileDownloads.inline(resource, storedFile.getOriginalFilename(), storedFile.getContentType(),
+                storedFile.getSize(), storedFile.getUploadedAt(), storedFile.getContentHash());
+    }
+
+    @GetMapping(value = "/objects/{id}/files/{fileId}/preview", produces = MediaType.TEXT_HTML_VALUE)
+    @ResponseBody
+    public String filePreview(@PathVariable("id") UUID id, @PathVariable("fileId") UUID fileId) {
+        return filePreviewService.renderPreview(getViewableFile(id, fileId));
+    }
+
     @PostMapping("/objects/{id}/editor/start")
     public String startEditing(@PathVariable("id") UUID id, RedirectAttributes redirectAttributes) {
         AppUser currentUser = getCurrentUser();
         try {
             managedObjectService.startEditing(id, currentUser);
-            redirectAttributes.addFlashAttribute("flashSuccess", "Редактор открыт, объект заблокирован для других пользователей");
+            redirectAttributes.addFlashAttribute("flashSuccess", "Редактор открыт");
         } catch (IllegalStateException ex) {
             redirectAttributes.addFlashAttribute("flashError", ex.getMessage());
         }
@@ -127,6 +179,28 @@ public class ManagedObjectController {
         return "redirect:/";
     }
 
+    private void ensureCanViewObject(UUID objectId) {
+        ManagedObject managedObject = managedObjectService.getById(objectId);
+        accessControlService.ensureCanViewObject(managedObject, getCurrentUser());
+    }
+
+    private ChangeHistoryPage loadHistory(UUID objectId, String cursor, int size) {
+        try {
+            return historyService.page(objectId, cursor, size);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    private StoredFile getViewableFile(UUID objectId, UUID fileId) {
+        ensureCanViewObject(objectId);
+        try {
+            return managedObjectService.getFile(objectId, fileId);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage());
+        }
+    }
+
     private boolean canRevoke(ManagedObject managedObject, AppUser currentUser, boolean isAuthor) {
         if (isAdmin(currentUser)) {
             return true;
@@ -157,4 +231,3 @@ public class ManagedObjectController {
         return userService.getByUsername(authentication.getName());
     }
 }
-
@@ -2,11 +2,12 @@ package com.kapamejlbka.objectmanager.web;
 
 import com.kapamejlbka.objectmanager.domain.customer.SiteAttachment;
 import com.kapamejlbka.objectmanager.domain.customer.dto.SiteAttachmentCreateRequest;
+import com.kapamejlbka.objectmanager.service.FilePreviewService;
+import com.kapamejlbka.objectmanager.service.PreviewGenerationService;
 import com.kapamejlbka.objectmanager.service.SiteAttachmentService;
 import com.kapamejlbka.objectmanager.service.SiteAttachmentStorageService;
 import com.kapamejlbka.objectmanager.service.SiteAttachmentStorageService.StoredAttachmentFile;
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -28,11 +30,18 @@ public class SiteAttachmentController {
 
     private final SiteAttachmentService siteAttachmentService;
     private final SiteAttachmentStorageService storageService;
+    private final FilePreviewService filePreviewService;
+    private final PreviewGenerationService previewGenerationService;
 
     public SiteAttachmentController(
-            SiteAttachmentService siteAttachmentService, SiteAttachmentStorageService storageService) {
+            SiteAttachmentService siteAttachmentService,
+            SiteAttachmentStorageService storageService,
+            FilePreviewService filePreviewService,
+            PreviewGenerationService previewGenerationService) {
         this.siteAttachmentService = siteAttachmentService;
         this.storageService = storageService;
+        this.filePreviewService = filePreviewService;
+        this.previewGenerationService = previewGenerationService;
     }
 
     @PostMapping("/sites/{siteId}/attachments")
@@ -47,7 +56,8 @@ public class SiteAttachmentController {
             request.setStorageKey(storedFile.storageKey());
             request.setContentType(storedFile.contentType());
             request.setSize(storedFile.size());
-            siteAttachmentService.addAttachment(siteId, request);
+            request.setContentHash(storedFile.contentHash());
+            siteAttachmentService.addAttachment(siteId, request, storedFile.blob());
             redirectAttributes.addFlashAttribute("flashSuccess", "Файл загружен");
         } catch (IllegalArgumentException | IllegalStateException ex) {
             redirectAttributes.addFlashAttribute("flashError", ex.getMessage());
@@ -61,17 +71,10 @@ public class SiteAttachmentController {
     @GetMapping("/attachments/{id}")
     public ResponseEntity<Resource> download(@PathVariable("id") Long id) {
         SiteAttachment attachment = getAttachment(id);
-        Resource resource = storageService.loadAsResource(attachment.getSite().getId(), attachment.getStorageKey());
-        MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
-        if (attachment.getContentType() != null && !attachment.getContentType().isBlank()) {
-            mediaType = MediaType.parseMediaType(attachment.getContentType());
-        }
-        String contentDisposition = String.format(
-                "inline; filename=\"%s\"", attachment.getFileName());
-        return ResponseEntity.ok()
-                .contentType(mediaType)
-                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
-                .body(resource);
+        Resource resource = storageService.loadAsResource(attachment);
+        long size = attachment.getSize() == null ? 0L : attachment.getSize();
+        return FileDownloads.inline(resource, attachment.getFileName(), attachment.getContentType(), size,
+                attachment.getUploadedAt(), attachment.getContentHash());
     }
 
     @GetMapping("/attachments/{id}/meta")
@@ -81,11 +84,21 @@ public class SiteAttachmentController {
                 new AttachmentMeta(attachment.getId(), attachment.getContentType(), attachment.getFileName()));
     }
 
+    @GetMapping(value = "/attachments/{id}/preview", produces = MediaType.TEXT_HTML_VALUE)
+    @ResponseBody
+    public String preview(@PathVariable("id") Long id) {
+        return filePreviewService.renderPreview(getAttachment(id));
+    }
+
+    @GetMapping("/attachments/{id}/preview/status")
+    public ResponseEntity<PreviewStatusResponse> previewStatus(@PathVariable("id") Long id) {
+        return ResponseEntity.ok(new PreviewStatusResponse(previewGenerationService.status(getAttachment(id))));
+    }
+
     @DeleteMapping("/attachments/{id}")
     public RedirectView delete(@PathVariable("id") Long id, RedirectAttributes redirectAttributes) {
         SiteAttachment attachment = getAttachment(id);
         try {
-            storageService.delete(attachment.getSite().getId(), attachment.getStorageKey());
             siteAttachmentService.deleteAttachment(id);
             redirectAttributes.addFlashAttribute("flashSuccess", "Файл удалён");
         } catch (IllegalArgumentException | IllegalStateException ex) {
@@ -106,4 +119,6 @@ public class SiteAttachmentController {
     }
 
     public record AttachmentMeta(Long id, String contentType, String fileName) {}
+
+    public record PreviewStatusResponse(PreviewGenerationService.PreviewStatus status) {}
 }
@@ -87,7 +87,7 @@ public class SiteController {
         if (calculation != null) {
             deviceCount = endpointDeviceService.countByCalculation(calculation.getId());
             nodeCount = networkNodeService.countByCalculation(calculation.getId());
-            calculationResult = systemCalculationService.runCalculation(calculation.getId());
+            calculationResult = systemCalculationService.getCalculationResult(calculation.getId());
             materialItemCount = calculationResult.items().size();
         }
         model.addAttribute("site", site);
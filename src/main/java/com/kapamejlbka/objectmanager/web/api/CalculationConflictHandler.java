@@ -0,0 +1,19 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Renders {@link CalculationSync.ConflictException} with its problem detail body; the default
+ * resolver would only send the status.
+ */
+@RestControllerAdvice(basePackageClasses = CalculationConflictHandler.class)
+class CalculationConflictHandler {
+
+    @ExceptionHandler(CalculationSync.ConflictException.class)
+    ResponseEntity<ProblemDetail> handleConflict(CalculationSync.ConflictException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).body(ex.getBody());
+    }
+}
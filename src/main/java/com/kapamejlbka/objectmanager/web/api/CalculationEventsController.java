@@ -0,0 +1,42 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import com.kapamejlbka.objectmanager.service.CalculationEventHub;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent event stream of changes to one calculation, used by the topology and routes editors
+ * to pick up other users' edits without reloading.
+ */
+@RestController
+@RequestMapping("/api/calculations/{calcId}/events")
+public class CalculationEventsController {
+
+    private final CalculationRevisionService calculationRevisionService;
+    private final CalculationEventHub calculationEventHub;
+
+    public CalculationEventsController(
+            CalculationRevisionService calculationRevisionService,
+            CalculationEventHub calculationEventHub) {
+        this.calculationRevisionService = calculationRevisionService;
+        this.calculationEventHub = calculationEventHub;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable("calcId") Long calculationId) {
+        long revision;
+        try {
+            revision = calculationRevisionService.currentEditorRevision(calculationId);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Calculation not found");
+        }
+        return calculationEventHub.subscribe(calculationId, revision);
+    }
+}
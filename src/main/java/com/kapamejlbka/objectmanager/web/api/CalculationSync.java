@@ -0,0 +1,73 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponseException;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional-request plumbing shared by the editor APIs. Representations are versioned by the
+ * calculation's editor revision: the ETag is derived from it and checked before anything is
+ * loaded, and the revision is exposed so clients can follow up with {@code ?since=}.
+ */
+final class CalculationSync {
+
+    static final String REVISION_HEADER = "X-Calculation-Revision";
+
+    private CalculationSync() {
+    }
+
+    static String eTag(String resource, long revision, Long since) {
+        return "\"" + resource + "-" + revision + (since == null ? "" : "-since-" + since) + "\"";
+    }
+
+    static <T> ResponseEntity<T> notModified(WebRequest webRequest, String eTag, long revision) {
+        if (!webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .header(REVISION_HEADER, Long.toString(revision))
+                .build();
+    }
+
+    static <T> ResponseEntity<T> ok(T body, String eTag, long revision) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .header(REVISION_HEADER, Long.toString(revision))
+                .body(body);
+    }
+
+    /**
+     * A 409 response whose problem detail carries the element's current state under
+     * {@code current}, so the client can rebase its edit without another request.
+     */
+    static ConflictException conflict(String message, Object current) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, message);
+        problem.setProperty("current", current);
+        return new ConflictException(problem);
+    }
+
+    /**
+     * Ids that were reported as changed but no longer exist, i.e. were deleted.
+     */
+    static <T> Set<Long> deletedIds(Collection<Long> changedIds, Collection<T> found, Function<T, Long> idOf) {
+        Set<Long> deleted = new HashSet<>(changedIds);
+        found.forEach(element -> deleted.remove(idOf.apply(element)));
+        return deleted;
+    }
+
+    static final class ConflictException extends ErrorResponseException {
+
+        private ConflictException(ProblemDetail problem) {
+            super(HttpStatus.CONFLICT, problem, null);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import com.kapamejlbka.objectmanager.domain.calculation.dto.PortfolioCalculationRequest;
+import com.kapamejlbka.objectmanager.domain.calculation.dto.PortfolioCalculationResult;
+import com.kapamejlbka.objectmanager.service.PortfolioCalculationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/calculations/portfolio")
+public class PortfolioRestController {
+
+    private final PortfolioCalculationService portfolioCalculationService;
+
+    public PortfolioRestController(PortfolioCalculationService portfolioCalculationService) {
+        this.portfolioCalculationService = portfolioCalculationService;
+    }
+
+    @PostMapping("/result")
+    public PortfolioCalculationResult calculate(@RequestBody PortfolioCalculationRequest request) {
+        if (request == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request body is required");
+        }
+        try {
+            return portfolioCalculationService.calculate(request.calculationIds(), request.customerId());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+}
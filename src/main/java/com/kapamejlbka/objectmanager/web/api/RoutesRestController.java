@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.web.api;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.material.Material;
 import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
@@ -13,11 +14,15 @@ import com.kapamejlbka.objectmanager.domain.topology.dto.InstallationRouteUpdate
 import com.kapamejlbka.objectmanager.domain.topology.dto.LinkAssignmentRequest;
 import com.kapamejlbka.objectmanager.domain.topology.dto.RouteLinkDto;
 import com.kapamejlbka.objectmanager.domain.topology.dto.RouteSegmentLinkCreateRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.RoutesDeltaDto;
 import com.kapamejlbka.objectmanager.domain.topology.dto.RoutesResponse;
 import com.kapamejlbka.objectmanager.domain.topology.repository.InstallationRouteRepository;
 import com.kapamejlbka.objectmanager.domain.topology.repository.RouteSegmentLinkRepository;
 import com.kapamejlbka.objectmanager.domain.topology.repository.TopologyLinkRepository;
 import com.kapamejlbka.objectmanager.repository.MaterialRepository;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService.ChangeSet;
+import com.kapamejlbka.objectmanager.service.EditConflictException;
 import com.kapamejlbka.objectmanager.service.InstallationRouteLengthService;
 import com.kapamejlbka.objectmanager.service.InstallationRouteService;
 import com.kapamejlbka.objectmanager.service.RouteSegmentLinkService;
@@ -30,7 +35,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -38,7 +45,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 @RestController
@@ -62,6 +71,7 @@ public class RoutesRestController {
     private final InstallationRouteService installationRouteService;
     private final RouteSegmentLinkService routeSegmentLinkService;
     private final InstallationRouteLengthService installationRouteLengthService;
+    private final CalculationRevisionService calculationRevisionService;
 
     public RoutesRestController(
             SystemCalculationRepository calculationRepository,
@@ -71,7 +81,8 @@ public class RoutesRestController {
             MaterialRepository materialRepository,
             InstallationRouteService installationRouteService,
             RouteSegmentLinkService routeSegmentLinkService,
-            InstallationRouteLengthService installationRouteLengthService) {
+            InstallationRouteLengthService installationRouteLengthService,
+            CalculationRevisionService calculationRevisionService) {
         this.calculationRepository = calculationRepository;
         this.installationRouteRepository = installationRouteRepository;
         this.topologyLinkRepository = topologyLinkRepository;
@@ -80,63 +91,29 @@ public class RoutesRestController {
         this.installationRouteService = installationRouteService;
         this.routeSegmentLinkService = routeSegmentLinkService;
         this.installationRouteLengthService = installationRouteLengthService;
+        this.calculationRevisionService = calculationRevisionService;
     }
 
+    /**
+     * Without {@code since} returns all routes, links and route material options; with it, only the
+     * routes and links changed after that revision. Both carry an ETag derived from the calculation's
+     * editor revision.
+     */
     @GetMapping
-    public RoutesResponse list(@PathVariable("calcId") Long calculationId) {
-        ensureCalculationExists(calculationId);
-        List<InstallationRoute> routes = installationRouteRepository.findByCalculationId(calculationId);
-        List<RouteSegmentLink> assignments = routeSegmentLinkRepository.findByRouteCalculation_Id(calculationId);
-        List<TopologyLink> links = topologyLinkRepository.findByCalculationId(calculationId);
-        Set<Long> selectedMaterialIds = routes.stream()
-                .map(InstallationRoute::getMainMaterial)
-                .filter(Objects::nonNull)
-                .map(Material::getId)
-                .collect(Collectors.toSet());
-        List<MaterialOptionDto> materials = materialRepository.findAll().stream()
-                .filter(material -> isRouteMaterial(material) || selectedMaterialIds.contains(material.getId()))
-                .sorted(Comparator.comparing(Material::getCategory, Comparator.nullsLast(Comparator.naturalOrder()))
-                        .thenComparing(Material::getName))
-                .map(material -> new MaterialOptionDto(material.getId(), material.getName(), material.getCategory()))
-                .toList();
-
-        Map<Long, Long> linkToRoute = assignments.stream()
-                .filter(rl -> rl.getTopologyLink() != null && rl.getRoute() != null)
-                .collect(Collectors.toMap(
-                        rl -> rl.getTopologyLink().getId(),
-                        rl -> rl.getRoute().getId(),
-                        (existing, replacement) -> existing));
-
-        List<InstallationRouteDto> routeDtos = routes.stream()
-                .sorted(Comparator.comparing(InstallationRoute::getName, String.CASE_INSENSITIVE_ORDER))
-                .map(route -> new InstallationRouteDto(
-                        route.getId(),
-                        route.getName(),
-                        route.getRouteType(),
-                        route.getMountSurface(),
-                        Optional.ofNullable(route.getLengthMeters()).orElse(0d),
-                        route.getOrientation(),
-                        route.getFixingMethod(),
-                        Optional.ofNullable(route.getMainMaterial()).map(Material::getId).orElse(null),
-                        Optional.ofNullable(route.getMainMaterial()).map(Material::getName).orElse(null),
-                        Optional.ofNullable(route.getMainMaterial())
-                                .map(material -> material.getCategory().name())
-                                .orElse(null)))
-                .toList();
-
-        List<RouteLinkDto> linkDtos = links.stream()
-                .map(link -> new RouteLinkDto(
-                        link.getId(),
-                        link.getFromNode() != null ? link.getFromNode().getId() : null,
-                        link.getToNode() != null ? link.getToNode().getId() : null,
-                        link.getFromDevice() != null ? link.getFromDevice().getId() : null,
-                        link.getToDevice() != null ? link.getToDevice().getId() : null,
-                        linkToRoute.get(link.getId()),
-                        link.getCableLength(),
-                        link.getLinkType()))
-                .toList();
-
-        return new RoutesResponse(routeDtos, linkDtos, materials);
+    public ResponseEntity<?> list(
+            @PathVariable("calcId") Long calculationId,
+            @RequestParam(value = "since", required = false) Long since,
+            WebRequest webRequest) {
+        long revision = currentEditorRevision(calculationId);
+        String eTag = CalculationSync.eTag("routes", revision, since);
+        ResponseEntity<?> notModified = CalculationSync.notModified(webRequest, eTag, revision);
+        if (notModified != null) {
+            return notModified;
+        }
+        if (since == null) {
+            return CalculationSync.ok(loadRoutes(calculationId), eTag, revision);
+        }
+        return CalculationSync.ok(loadDelta(calculationId, since, revision), eTag, revision);
     }
 
     @PostMapping
@@ -167,11 +144,14 @@ public class RoutesRestController {
         dto.setFixingMethod(Optional.ofNullable(payload.getFixingMethod()).orElse(existing.getFixingMethod()));
         dto.setMainMaterialId(Optional.ofNullable(payload.getMainMaterialId())
                 .orElse(Optional.ofNullable(existing.getMainMaterial()).map(Material::getId).orElse(null)));
+        dto.setVersion(payload.getVersion());
         try {
             InstallationRoute updated = installationRouteService.update(routeId, dto);
             return toDto(updated, existing.getLengthMeters());
         } catch (IllegalArgumentException ex) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        } catch (EditConflictException | OptimisticLockingFailureException ex) {
+            throw CalculationSync.conflict(ex.getMessage(), toDto(findRoute(calculationId, routeId), null));
         }
     }
 
@@ -237,7 +217,7 @@ public class RoutesRestController {
         TopologyLink link = findLink(calculationId, payload.linkId());
         routeSegmentLinkRepository.findByTopologyLinkId(link.getId()).stream()
                 .filter(assignment -> Objects.equals(assignment.getRoute().getId(), routeId))
-                .forEach(routeSegmentLinkRepository::delete);
+                .forEach(assignment -> routeSegmentLinkService.delete(assignment.getId()));
         installationRouteLengthService.recalculateRouteLength(routeId);
     }
 
@@ -261,6 +241,96 @@ public class RoutesRestController {
         return link;
     }
 
+    private RoutesResponse loadRoutes(Long calculationId) {
+        List<InstallationRoute> routes = installationRouteRepository.findWithMainMaterialByCalculationId(calculationId);
+        List<RouteSegmentLink> assignments = routeSegmentLinkRepository.findByRouteCalculation_Id(calculationId);
+        List<TopologyLink> links = topologyLinkRepository.findByCalculationId(calculationId);
+        return new RoutesResponse(toRouteDtos(routes), toLinkDtos(links, assignments), materialOptions(routes));
+    }
+
+    private RoutesDeltaDto loadDelta(Long calculationId, long since, long revision) {
+        ChangeSet changes = calculationRevisionService.changesSince(calculationId, since, revision);
+        if (changes.full()) {
+            RoutesResponse response = loadRoutes(calculationId);
+            return new RoutesDeltaDto(revision, true, response.routes(), response.links(), response.materials(),
+                    Set.of(), Set.of());
+        }
+        Set<Long> routeIds = changes.ids(CalculationElement.Type.ROUTE);
+        Set<Long> linkIds = changes.ids(CalculationElement.Type.LINK);
+        List<InstallationRoute> routes = routeIds.isEmpty()
+                ? List.of()
+                : installationRouteRepository.findWithMainMaterialByCalculationIdAndIdIn(calculationId, routeIds);
+        List<TopologyLink> links = linkIds.isEmpty()
+                ? List.of()
+                : topologyLinkRepository.findByCalculationIdAndIdIn(calculationId, linkIds);
+        List<RouteSegmentLink> assignments = linkIds.isEmpty()
+                ? List.of()
+                : routeSegmentLinkRepository.findByTopologyLinkIdIn(linkIds);
+        return new RoutesDeltaDto(
+                revision,
+                false,
+                toRouteDtos(routes),
+                toLinkDtos(links, assignments),
+                null,
+                CalculationSync.deletedIds(routeIds, routes, InstallationRoute::getId),
+                CalculationSync.deletedIds(linkIds, links, TopologyLink::getId));
+    }
+
+    private List<InstallationRouteDto> toRouteDtos(List<InstallationRoute> routes) {
+        return routes.stream()
+                .sorted(Comparator.comparing(InstallationRoute::getName, String.CASE_INSENSITIVE_ORDER))
+                .map(route -> toDto(route, null))
+                .toList();
+    }
+
+    private List<RouteLinkDto> toLinkDtos(List<TopologyLink> links, List<RouteSegmentLink> assignments) {
+        Map<Long, Long> linkToRoute = assignments.stream()
+                .filter(rl -> rl.getTopologyLink() != null && rl.getRoute() != null)
+                .collect(Collectors.toMap(
+                        rl -> rl.getTopologyLink().getId(),
+                        rl -> rl.getRoute().getId(),
+                        (existing, replacement) -> existing));
+        return links.stream()
+                .map(link -> new RouteLinkDto(
+                        link.getId(),
+                        link.getFromNode() != null ? link.getFromNode().getId() : null,
+                        link.getToNode() != null ? link.getToNode().getId() : null,
+                        link.getFromDevice() != null ? link.getFromDevice().getId() : null,
+                        link.getToDevice() != null ? link.getToDevice().getId() : null,
+                        linkToRoute.get(link.getId()),
+                        link.getCableLength(),
+                        link.getLinkType()))
+                .toList();
+    }
+
+    /**
+     * Route materials plus whatever is already selected on a route, filtered in the database
+     * instead of loading the whole catalogue.
+     */
+    private List<MaterialOptionDto> materialOptions(List<InstallationRoute> routes) {
+        Set<Long> selectedMaterialIds = routes.stream()
+                .map(InstallationRoute::getMainMaterial)
+                .filter(Objects::nonNull)
+                .map(Material::getId)
+                .collect(Collectors.toSet());
+        List<Material> materials = selectedMaterialIds.isEmpty()
+                ? materialRepository.findByCategoryIn(ROUTE_MATERIAL_CATEGORIES)
+                : materialRepository.findByCategoryInOrIdIn(ROUTE_MATERIAL_CATEGORIES, selectedMaterialIds);
+        return materials.stream()
+                .sorted(Comparator.comparing(Material::getCategory, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Material::getName))
+                .map(material -> new MaterialOptionDto(material.getId(), material.getName(), material.getCategory()))
+                .toList();
+    }
+
+    private long currentEditorRevision(Long calculationId) {
+        try {
+            return calculationRevisionService.currentEditorRevision(calculationId);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Calculation not found");
+        }
+    }
+
     private void ensureCalculationExists(Long calculationId) {
         calculationRepository
                 .findById(calculationId)
@@ -283,13 +353,7 @@ public class RoutesRestController {
                 Optional.ofNullable(route.getMainMaterial()).map(Material::getName).orElse(null),
                 Optional.ofNullable(route.getMainMaterial())
                         .map(material -> material.getCategory().name())
-                        .orElse(null));
-    }
-
-    private boolean isRouteMaterial(Material material) {
-        if (material == null || material.getCategory() == null) {
-            return false;
-        }
-        return ROUTE_MATERIAL_CATEGORIES.contains(material.getCategory());
+                        .orElse(null),
+                route.getVersion());
     }
 }
@@ -0,0 +1,69 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import com.kapamejlbka.objectmanager.domain.search.SearchEntityType;
+import com.kapamejlbka.objectmanager.domain.search.SearchHit;
+import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import com.kapamejlbka.objectmanager.service.ManagedObjectService;
+import com.kapamejlbka.objectmanager.service.SearchIndexService;
+import com.kapamejlbka.objectmanager.service.UserService;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchRestController {
+
+    private final SearchIndexService searchIndexService;
+    private final ManagedObjectService managedObjectService;
+    private final UserService userService;
+
+    public SearchRestController(
+            SearchIndexService searchIndexService,
+            ManagedObjectService managedObjectService,
+            UserService userService
+    ) {
+        this.searchIndexService = searchIndexService;
+        this.managedObjectService = managedObjectService;
+        this.userService = userService;
+    }
+
+    @GetMapping
+    public List<SearchHit> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        AppUser user = getCurrentUser();
+        return searchIndexService.search(query, limit, hits -> visibleHits(hits, user));
+    }
+
+    private List<SearchHit> visibleHits(List<SearchHit> hits, AppUser user) {
+        List<UUID> objectIds = hits.stream()
+                .filter(hit -> hit.type() == SearchEntityType.MANAGED_OBJECT)
+                .map(hit -> UUID.fromString(hit.id()))
+                .toList();
+        if (objectIds.isEmpty()) {
+            return hits;
+        }
+        Set<UUID> visible = managedObjectService.filterVisibleIds(objectIds, user);
+        return hits.stream()
+                .filter(hit -> hit.type() != SearchEntityType.MANAGED_OBJECT
+                        || visible.contains(UUID.fromString(hit.id())))
+                .toList();
+    }
+
+    private AppUser getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Пользователь не авторизован");
+        }
+        return userService.getByUsername(authentication.getName());
+    }
+}
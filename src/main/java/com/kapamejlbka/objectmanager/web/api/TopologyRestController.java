@@ -1,5 +1,6 @@
 package com.kapamejlbka.objectmanager.web.api;
 
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
 import com.kapamejlbka.objectmanager.domain.calculation.repository.SystemCalculationRepository;
 import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
 import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
@@ -7,18 +8,28 @@ import com.kapamejlbka.objectmanager.domain.device.repository.EndpointDeviceRepo
 import com.kapamejlbka.objectmanager.domain.device.repository.NetworkNodeRepository;
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
 import com.kapamejlbka.objectmanager.domain.topology.dto.PositionUpdateRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest.PositionItem;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchResponse;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyDeltaDto;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyDeviceDto;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyDto;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkCreateRequest;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkDto;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestCreateRequest;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestUpdateRequest;
-import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkUpdateRequest;
 import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyNodeDto;
 import com.kapamejlbka.objectmanager.domain.topology.repository.TopologyLinkRepository;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService.ChangeSet;
+import com.kapamejlbka.objectmanager.service.EditConflictException;
+import com.kapamejlbka.objectmanager.service.TopologyBatchService;
 import com.kapamejlbka.objectmanager.service.TopologyLinkService;
 import java.util.List;
+import java.util.Set;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -26,7 +37,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 @RestController
@@ -38,33 +51,45 @@ public class TopologyRestController {
     private final EndpointDeviceRepository endpointDeviceRepository;
     private final TopologyLinkRepository topologyLinkRepository;
     private final TopologyLinkService topologyLinkService;
+    private final TopologyBatchService topologyBatchService;
+    private final CalculationRevisionService calculationRevisionService;
 
     public TopologyRestController(
             SystemCalculationRepository calculationRepository,
             NetworkNodeRepository networkNodeRepository,
             EndpointDeviceRepository endpointDeviceRepository,
             TopologyLinkRepository topologyLinkRepository,
-            TopologyLinkService topologyLinkService) {
+            TopologyLinkService topologyLinkService,
+            TopologyBatchService topologyBatchService,
+            CalculationRevisionService calculationRevisionService) {
         this.calculationRepository = calculationRepository;
         this.networkNodeRepository = networkNodeRepository;
         this.endpointDeviceRepository = endpointDeviceRepository;
         this.topologyLinkRepository = topologyLinkRepository;
         this.topologyLinkService = topologyLinkService;
+        this.topologyBatchService = topologyBatchService;
+        this.calculationRevisionService = calculationRevisionService;
     }
 
+    /**
+     * Without {@code since} returns the whole topology; with it, only what changed after that
+     * revision. Both carry an ETag derived from the editor revision.
+     */
     @GetMapping
-    public TopologyDto getTopology(@PathVariable("calcId") Long calculationId) {
-        ensureCalculationExists(calculationId);
-        List<TopologyNodeDto> nodes = networkNodeRepository.findByCalculationId(calculationId).stream()
-                .map(this::toDto)
-                .toList();
-        List<TopologyDeviceDto> devices = endpointDeviceRepository.findByCalculationId(calculationId).stream()
-                .map(this::toDto)
-                .toList();
-        List<TopologyLinkDto> links = topologyLinkRepository.findByCalculationId(calculationId).stream()
-                .map(this::toDto)
-                .toList();
-        return new TopologyDto(nodes, devices, links);
+    public ResponseEntity<?> getTopology(
+            @PathVariable("calcId") Long calculationId,
+            @RequestParam(value = "since", required = false) Long since,
+            WebRequest webRequest) {
+        long revision = currentEditorRevision(calculationId);
+        String eTag = CalculationSync.eTag("topology", revision, since);
+        ResponseEntity<?> notModified = CalculationSync.notModified(webRequest, eTag, revision);
+        if (notModified != null) {
+            return notModified;
+        }
+        if (since == null) {
+            return CalculationSync.ok(loadTopology(calculationId), eTag, revision);
+        }
+        return CalculationSync.ok(loadDelta(calculationId, since, revision), eTag, revision);
     }
 
     @PostMapping("/nodes/{nodeId}/position")
@@ -72,10 +97,14 @@ public class TopologyRestController {
             @PathVariable("calcId") Long calculationId,
             @PathVariable("nodeId") Long nodeId,
             @RequestBody PositionUpdateRequest body) {
-        NetworkNode node = findNode(calculationId, nodeId);
-        node.setPosX(body.x());
-        node.setPosY(body.y());
-        networkNodeRepository.save(node);
+        findNode(calculationId, nodeId);
+        PositionItem item = new PositionItem(nodeId, body.x(), body.y(), body.version());
+        try {
+            topologyBatchService.apply(calculationId,
+                    new TopologyBatchRequest(List.of(item), null, null, null, null));
+        } catch (EditConflictException | OptimisticLockingFailureException ex) {
+            throw CalculationSync.conflict(ex.getMessage(), toDto(findNode(calculationId, nodeId)));
+        }
     }
 
     @PostMapping("/devices/{deviceId}/position")
@@ -83,10 +112,14 @@ public class TopologyRestController {
             @PathVariable("calcId") Long calculationId,
             @PathVariable("deviceId") Long deviceId,
             @RequestBody PositionUpdateRequest body) {
-        EndpointDevice device = findDevice(calculationId, deviceId);
-        device.setPosX(body.x());
-        device.setPosY(body.y());
-        endpointDeviceRepository.save(device);
+        findDevice(calculationId, deviceId);
+        PositionItem item = new PositionItem(deviceId, body.x(), body.y(), body.version());
+        try {
+            topologyBatchService.apply(calculationId,
+                    new TopologyBatchRequest(null, List.of(item), null, null, null));
+        } catch (EditConflictException | OptimisticLockingFailureException ex) {
+            throw CalculationSync.conflict(ex.getMessage(), toDto(findDevice(calculationId, deviceId)));
+        }
     }
 
     @PostMapping("/links")
@@ -116,28 +149,13 @@ public class TopologyRestController {
             @PathVariable("calcId") Long calculationId,
             @PathVariable("linkId") Long linkId,
             @RequestBody TopologyLinkRestUpdateRequest payload) {
-        TopologyLink existing = findLink(calculationId, linkId);
+        findLink(calculationId, linkId);
         try {
-            TopologyLinkUpdateRequest dto = new TopologyLinkUpdateRequest();
-            dto.setFromNodeId(existing.getFromNode() != null ? existing.getFromNode().getId() : null);
-            dto.setToNodeId(existing.getToNode() != null ? existing.getToNode().getId() : null);
-            dto.setFromDeviceId(existing.getFromDevice() != null ? existing.getFromDevice().getId() : null);
-            dto.setToDeviceId(existing.getToDevice() != null ? existing.getToDevice().getId() : null);
-            dto.setLinkType(payload.linkType() != null ? payload.linkType() : existing.getLinkType());
-            dto.setCableLength(payload.length() != null ? payload.length() : existing.getCableLength());
-            dto.setWireless(existing.getWireless());
-            dto.setFiberCores(payload.fiberCores() != null ? payload.fiberCores() : existing.getFiberCores());
-            dto.setFiberSpliceCount(
-                    payload.fiberSpliceCount() != null ? payload.fiberSpliceCount() : existing.getFiberSpliceCount());
-            dto.setFiberConnectorCount(
-                    payload.fiberConnectorCount() != null
-                            ? payload.fiberConnectorCount()
-                            : existing.getFiberConnectorCount());
-            dto.setPowerSourceDescription(existing.getPowerSourceDescription());
-            TopologyLink updated = topologyLinkService.update(linkId, dto);
-            return toDto(updated);
+            return toDto(topologyLinkService.patch(linkId, payload));
         } catch (IllegalArgumentException ex) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        } catch (EditConflictException | OptimisticLockingFailureException ex) {
+            throw CalculationSync.conflict(ex.getMessage(), toDto(findLink(calculationId, linkId)));
         }
     }
 
@@ -147,13 +165,84 @@ public class TopologyRestController {
         topologyLinkService.delete(linkId);
     }
 
+    @PostMapping("/batch")
+    public TopologyBatchResponse applyBatch(
+            @PathVariable("calcId") Long calculationId,
+            @RequestBody TopologyBatchRequest payload) {
+        ensureCalculationExists(calculationId);
+        TopologyBatchService.Result result;
+        try {
+            result = topologyBatchService.apply(calculationId, payload);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        } catch (EditConflictException | OptimisticLockingFailureException ex) {
+            throw CalculationSync.conflict(ex.getMessage(), loadTopology(calculationId));
+        }
+        return new TopologyBatchResponse(
+                result.nodes().stream().map(this::toDto).toList(),
+                result.devices().stream().map(this::toDto).toList(),
+                result.updatedLinks().stream().map(this::toDto).toList(),
+                result.createdLinks().stream().map(this::toDto).toList(),
+                result.deletedLinkIds());
+    }
+
+    private TopologyDto loadTopology(Long calculationId) {
+        List<TopologyNodeDto> nodes = networkNodeRepository.findByCalculationId(calculationId).stream()
+                .map(this::toDto)
+                .toList();
+        List<TopologyDeviceDto> devices = endpointDeviceRepository.findByCalculationId(calculationId).stream()
+                .map(this::toDto)
+                .toList();
+        List<TopologyLinkDto> links = topologyLinkRepository.findByCalculationId(calculationId).stream()
+                .map(this::toDto)
+                .toList();
+        return new TopologyDto(nodes, devices, links);
+    }
+
+    private TopologyDeltaDto loadDelta(Long calculationId, long since, long revision) {
+        ChangeSet changes = calculationRevisionService.changesSince(calculationId, since, revision);
+        if (changes.full()) {
+            TopologyDto topology = loadTopology(calculationId);
+            return new TopologyDeltaDto(revision, true, topology.nodes(), topology.devices(), topology.links(),
+                    Set.of(), Set.of(), Set.of());
+        }
+        Set<Long> nodeIds = changes.ids(CalculationElement.Type.NODE);
+        Set<Long> deviceIds = changes.ids(CalculationElement.Type.ENDPOINT);
+        Set<Long> linkIds = changes.ids(CalculationElement.Type.LINK);
+        List<NetworkNode> nodes = nodeIds.isEmpty()
+                ? List.of()
+                : networkNodeRepository.findByCalculationIdAndIdIn(calculationId, nodeIds);
+        List<EndpointDevice> devices = deviceIds.isEmpty()
+                ? List.of()
+                : endpointDeviceRepository.findByCalculationIdAndIdIn(calculationId, deviceIds);
+        List<TopologyLink> links = linkIds.isEmpty()
+                ? List.of()
+                : topologyLinkRepository.findByCalculationIdAndIdIn(calculationId, linkIds);
+        return new TopologyDeltaDto(
+                revision,
+                false,
+                nodes.stream().map(this::toDto).toList(),
+                devices.stream().map(this::toDto).toList(),
+                links.stream().map(this::toDto).toList(),
+                CalculationSync.deletedIds(nodeIds, nodes, NetworkNode::getId),
+                CalculationSync.deletedIds(deviceIds, devices, EndpointDevice::getId),
+                CalculationSync.deletedIds(linkIds, links, TopologyLink::getId));
+    }
+
     private TopologyNodeDto toDto(NetworkNode node) {
-        return new TopologyNodeDto(node.getId(), node.getCode(), node.getName(), node.getPosX(), node.getPosY());
+        return new TopologyNodeDto(
+                node.getId(), node.getCode(), node.getName(), node.getPosX(), node.getPosY(), node.getVersion());
     }
 
     private TopologyDeviceDto toDto(EndpointDevice device) {
         return new TopologyDeviceDto(
-                device.getId(), device.getType(), device.getCode(), device.getName(), device.getPosX(), device.getPosY());
+                device.getId(),
+                device.getType(),
+                device.getCode(),
+                device.getName(),
+                device.getPosX(),
+                device.getPosY(),
+                device.getVersion());
     }
 
     private TopologyLinkDto toDto(TopologyLink link) {
@@ -167,7 +256,16 @@ public class TopologyRestController {
                 link.getCableLength(),
                 link.getFiberCores(),
                 link.getFiberSpliceCount(),
-                link.getFiberConnectorCount());
+                link.getFiberConnectorCount(),
+                link.getVersion());
+    }
+
+    private long currentEditorRevision(Long calculationId) {
+        try {
+            return calculationRevisionService.currentEditorRevision(calculationId);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Calculation not found");
+        }
     }
 
     private void ensureCalculationExists(Long calculationId) {
@@ -19,6 +19,36 @@
             `;
         };
 
+        const PREVIEW_POLL_INTERVAL_MS = 1000;
+        const PREVIEW_POLL_ATTEMPTS = 30;
+        let previewRequest = 0;
+
+        const delay = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+        // Waits while the background job is queued or running; any other status ends the wait.
+        // After the last attempt the preview is still requested and rendered on demand.
+        const waitForPreview = async (attachmentId, request) => {
+            for (let attempt = 0; attempt < PREVIEW_POLL_ATTEMPTS; attempt++) {
+                const response = await fetch(`/attachments/${attachmentId}/preview/status`);
+                if (!response.ok) {
+                    return 'FAILED';
+                }
+                const { status } = await response.json();
+                if (status !== 'QUEUED' && status !== 'RUNNING') {
+                    return status;
+                }
+                await delay(PREVIEW_POLL_INTERVAL_MS);
+                if (request !== previewRequest) {
+                    return null;
+                }
+            }
+            return 'RUNNING';
+        };
+
+        modalElement.addEventListener('hidden.bs.modal', () => {
+            previewRequest++;
+        });
+
         const previewLinks = document.querySelectorAll('.om-attachment-preview-link');
         previewLinks.forEach((link) => {
             link.addEventListener('click', async (event) => {
@@ -28,6 +58,7 @@
                     return;
                 }
 
+                const request = ++previewRequest;
                 const downloadUrl = `/attachments/${attachmentId}`;
                 modalTitle.textContent = (link.textContent || '').trim() || 'Просмотр файла';
                 modalBody.innerHTML = '<div class="text-center text-muted py-5">Загрузка...</div>';
@@ -48,13 +79,32 @@
 
                 if (contentType && contentType.startsWith('image/')) {
                     modalBody.innerHTML = `<img src="${downloadUrl}" class="img-fluid" alt="${modalTitle.textContent}">`;
-                } else if (contentType && contentType.startsWith('application/pdf')) {
+                    previewModal.show();
+                    return;
+                }
+                if (contentType && contentType.startsWith('application/pdf')) {
                     modalBody.innerHTML = `<iframe src="${downloadUrl}" style="width:100%;height:600px;border:none;"></iframe>`;
-                } else {
-                    renderFallback(downloadUrl);
+                    previewModal.show();
+                    return;
                 }
 
+                modalBody.innerHTML = '<div class="text-center text-muted py-5">Подготовка предпросмотра...</div>';
                 previewModal.show();
+                let status;
+                try {
+                    status = await waitForPreview(attachmentId, request);
+                } catch (error) {
+                    console.error('Не удалось получить статус предпросмотра', error);
+                    status = 'FAILED';
+                }
+                if (status === null || request !== previewRequest) {
+                    return;
+                }
+                if (status === 'UNSUPPORTED' || status === 'FAILED') {
+                    renderFallback(downloadUrl);
+                } else {
+                    modalBody.innerHTML = `<iframe src="${downloadUrl}/preview" style="width:100%;height:600px;border:none;"></iframe>`;
+                }
             });
         });
     });
@@ -71,12 +71,18 @@
     let selectedLinkId = null;
     let colorMap = {};
     let lastSelectedRouteId = null;
+    let revision = null;
+    let refreshInFlight = false;
+    let refreshQueued = false;
 
     window.selectedRouteId = selectedRouteId;
     window.selectedLinkId = selectedLinkId;
 
     Promise.all([apiFetch(topologyApi), apiFetch(apiBase)])
-        .then(([topologyResponse, routesResponse]) => Promise.all([topologyResponse.json(), routesResponse.json()]))
+        .then(([topologyResponse, routesResponse]) => {
+            revision = readRevision(routesResponse);
+            return Promise.all([topologyResponse.json(), routesResponse.json()]);
+        })
         .then(([topologyData, routesData]) => {
             topology = normalizeTopology(topologyData);
             const normalizedRoutes = normalizeRoutesData(routesData);
@@ -84,6 +90,7 @@
             routes = normalizedRoutes.routes;
             materials = normalizedRoutes.materials;
             renderAll();
+            subscribeToChanges();
         })
         .catch(() => {
             inspector.textContent = 'Не удалось загрузить данные о трассах';
@@ -118,9 +125,12 @@
             .catch(() => alert('Не удалось добавить трассу'));
     });
 
-    function refreshRoutes() {
+    function refreshRoutes(options = {}) {
         return Promise.all([apiFetch(topologyApi), apiFetch(apiBase)])
-            .then(([topologyResponse, routesResponse]) => Promise.all([topologyResponse.json(), routesResponse.json()]))
+            .then(([topologyResponse, routesResponse]) => {
+                revision = readRevision(routesResponse) ?? revision;
+                return Promise.all([topologyResponse.json(), routesResponse.json()]);
+            })
             .then(([topologyData, routesData]) => {
                 topology = normalizeTopology(topologyData);
                 const normalizedRoutes = normalizeRoutesData(routesData);
@@ -135,7 +145,48 @@
                 if (selectedLinkId && !topology.links.some((l) => l.id === selectedLinkId)) {
                     setSelectedLink(null);
                 }
-                renderAll();
+                if (options.keepInspector && inspector.contains(document.activeElement)) {
+                    renderRoutesList();
+                    renderNodes();
+                    renderLinks();
+                } else {
+                    renderAll();
+                }
+            });
+    }
+
+    function readRevision(response) {
+        const value = response.headers.get('X-Calculation-Revision');
+        return value === null ? null : Number(value);
+    }
+
+    function subscribeToChanges() {
+        if (typeof EventSource === 'undefined') return;
+        const events = new EventSource(`/api/calculations/${calcId}/events`);
+        const onEvent = (e) => {
+            const data = JSON.parse(e.data);
+            if (data.full || data.revision === null || revision === null || data.revision > revision) {
+                refreshFromRemote();
+            }
+        };
+        events.addEventListener('ready', onEvent);
+        events.addEventListener('change', onEvent);
+    }
+
+    function refreshFromRemote() {
+        if (refreshInFlight) {
+            refreshQueued = true;
+            return;
+        }
+        refreshInFlight = true;
+        refreshRoutes({keepInspector: true})
+            .catch(() => console.warn('Не удалось получить изменения трасс'))
+            .finally(() => {
+                refreshInFlight = false;
+                if (refreshQueued) {
+                    refreshQueued = false;
+                    refreshFromRemote();
+                }
             });
     }
 
@@ -354,9 +405,17 @@
                     routeType: typeSelect.value,
                     surfaceType: surfaceSelect.value,
                     mainMaterialId: materialId,
+                    version: route.version,
                 }),
             })
-                .then((r) => (r.ok ? r.json() : Promise.reject()))
+                .then((r) => {
+                    if (r.status === 409) {
+                        return r.json().then((problem) => {
+                            alert(`${problem.detail}. Показаны актуальные значения.`);
+                        });
+                    }
+                    return r.ok ? r.json() : Promise.reject();
+                })
                 .then(() => refreshRoutes())
                 .catch(() => alert('Не удалось сохранить трассу'));
         });
@@ -15,22 +15,119 @@
     const inspectorContent = document.getElementById('inspector-content');
     const linkOptions = ['UTP', 'FIBER', 'POWER', 'WIFI'];
     const SCALE_METERS_PER_PX = 0.1;
+    const POSITION_FLUSH_DELAY_MS = 300;
 
     let topology = {nodes: [], devices: [], links: []};
+    let revision = null;
+    let syncInFlight = false;
+    let syncQueued = false;
     let selected = {type: null, id: null};
+    const pendingPositions = {nodes: new Map(), devices: new Map()};
+    let positionFlushTimer = null;
+    let positionFlushInFlight = false;
     let mode = 'select';
     let connectStart = null;
 
     function fetchTopology() {
         apiFetch(apiBase)
-            .then((r) => r.json())
+            .then((r) => {
+                revision = readRevision(r);
+                return r.json();
+            })
             .then((data) => {
                 topology = data;
                 renderAll();
+                subscribeToChanges();
             })
             .catch(() => alert('Не удалось загрузить схему.'));
     }
 
+    function readRevision(response) {
+        const value = response.headers.get('X-Calculation-Revision');
+        return value === null ? null : Number(value);
+    }
+
+    function subscribeToChanges() {
+        if (typeof EventSource === 'undefined') return;
+        const events = new EventSource(`/api/calculations/${calcId}/events`);
+        events.addEventListener('ready', (e) => {
+            const data = JSON.parse(e.data);
+            if (revision === null || data.revision > revision) syncTopology();
+        });
+        events.addEventListener('change', (e) => {
+            const data = JSON.parse(e.data);
+            if (data.full || data.revision === null || revision === null || data.revision > revision) {
+                syncTopology();
+            }
+        });
+    }
+
+    function syncTopology() {
+        if (syncInFlight) {
+            syncQueued = true;
+            return;
+        }
+        syncInFlight = true;
+        const url = revision === null ? apiBase : `${apiBase}?since=${revision}`;
+        apiFetch(url)
+            .then((r) => {
+                if (!r.ok) throw new Error('sync failed');
+                const nextRevision = readRevision(r);
+                return r.json().then((data) => applyRemoteChanges(data, nextRevision));
+            })
+            .catch(() => console.warn('Не удалось получить изменения схемы'))
+            .finally(() => {
+                syncInFlight = false;
+                if (syncQueued) {
+                    syncQueued = false;
+                    syncTopology();
+                }
+            });
+    }
+
+    function applyRemoteChanges(data, nextRevision) {
+        if (data.full === undefined || data.full) {
+            topology = {nodes: data.nodes, devices: data.devices, links: data.links};
+        } else {
+            topology.nodes = mergeById(topology.nodes, data.nodes, data.deletedNodeIds);
+            topology.devices = mergeById(topology.devices, data.devices, data.deletedDeviceIds);
+            topology.links = mergeById(topology.links, data.links, data.deletedLinkIds);
+        }
+        topology.nodes = topology.nodes.map((n) => withPendingPosition(n, pendingPositions.nodes));
+        topology.devices = topology.devices.map((d) => withPendingPosition(d, pendingPositions.devices));
+        revision = nextRevision ?? data.revision ?? revision;
+        renderDeviceList();
+        renderNodes();
+        renderLinks();
+        const stillSelected = selected.type === 'node' ? topology.nodes.some((n) => n.id === selected.id)
+            : selected.type === 'device' ? topology.devices.some((d) => d.id === selected.id)
+                : selected.type === 'link' ? topology.links.some((l) => l.id === selected.id)
+                    : true;
+        if (stillSelected) {
+            highlightSelection();
+        } else {
+            clearSelection();
+        }
+    }
+
+    function mergeById(items, changed, deletedIds) {
+        const deleted = new Set(deletedIds || []);
+        const updates = new Map((changed || []).map((item) => [item.id, item]));
+        const merged = items
+            .filter((item) => !deleted.has(item.id))
+            .map((item) => updates.get(item.id) ?? item);
+        const known = new Set(merged.map((item) => item.id));
+        updates.forEach((item, id) => {
+            if (!known.has(id)) merged.push(item);
+        });
+        return merged;
+    }
+
+    function withPendingPosition(item, pending) {
+        const local = pending.get(item.id);
+        return local ? {...item, x: local.x, y: local.y} : item;
+    }
+
     function renderAll() {
         renderDeviceList();
         renderNodes();
@@ -195,11 +292,64 @@
                 ? topology.nodes.find((n) => n.id === id)
                 : topology.devices.find((d) => d.id === id);
         if (!target) return;
-        apiFetch(`${apiBase}/${type === 'node' ? 'nodes' : 'devices'}/${id}/position`, {
+        const pending = type === 'node' ? pendingPositions.nodes : pendingPositions.devices;
+        pending.set(id, {
+            id,
+            x: Math.round(target.x ?? 0),
+            y: Math.round(target.y ?? 0),
+        });
+        schedulePositionFlush();
+    }
+
+    function schedulePositionFlush() {
+        clearTimeout(positionFlushTimer);
+        positionFlushTimer = setTimeout(flushPositions, POSITION_FLUSH_DELAY_MS);
+    }
+
+    // Only one batch is in flight at a time: versions are read when the batch is sent, so a second
+    // move of the same element must wait for the versions written by the first one.
+    function flushPositions() {
+        if (positionFlushInFlight) return;
+        if (pendingPositions.nodes.size === 0 && pendingPositions.devices.size === 0) return;
+        const withVersion = (items, list) =>
+            Array.from(items.values()).map((item) => ({
+                ...item,
+                version: list.find((element) => element.id === item.id)?.version,
+            }));
+        const body = {
+            nodePositions: withVersion(pendingPositions.nodes, topology.nodes),
+            devicePositions: withVersion(pendingPositions.devices, topology.devices),
+        };
+        pendingPositions.nodes.clear();
+        pendingPositions.devices.clear();
+        positionFlushInFlight = true;
+        apiFetch(`${apiBase}/batch`, {
             method: 'POST',
             headers: {'Content-Type': 'application/json'},
-            body: JSON.stringify({x: Math.round(target.x ?? 0), y: Math.round(target.y ?? 0)}),
-        }).catch(() => console.warn('Не удалось сохранить позицию'));
+            body: JSON.stringify(body),
+        }).then((res) => {
+            if (res.status === 409) {
+                return res.json().then((problem) => {
+                    alert(`${problem.detail}. Схема обновлена.`);
+                    applyRemoteChanges(problem.current, null);
+                });
+            }
+            if (!res.ok) throw new Error('batch failed');
+            return res.json().then(refreshVersions);
+        }).catch(() => console.warn('Не удалось сохранить позицию')).finally(() => {
+            positionFlushInFlight = false;
+            if (pendingPositions.nodes.size > 0 || pendingPositions.devices.size > 0) {
+                schedulePositionFlush();
+            }
+        });
+    }
+
+    function refreshVersions(current) {
+        const versions = (items) => new Map((items || []).map((item) => [item.id, item.version]));
+        const nodeVersions = versions(current.nodes);
+        const deviceVersions = versions(current.devices);
+        topology.nodes = topology.nodes.map((n) => (nodeVersions.has(n.id) ? {...n, version: nodeVersions.get(n.id)} : n));
+        topology.devices = topology.devices.map((d) => (deviceVersions.has(d.id) ? {...d, version: deviceVersions.get(d.id)} : d));
     }
 
     function selectItem(type, id) {
@@ -303,7 +453,8 @@
                 length: parseFloatValue(wrapper.querySelector('#link-length').value),
                 fiberCores: parseIntValue(wrapper.querySelector('#fiber-cores').value),
                 fiberSpliceCount: parseIntValue(wrapper.querySelector('#fiber-splice').value),
-                fiberConnectorCount: parseIntValue(wrapper.querySelector('#fiber-connector').value)
+                fiberConnectorCount: parseIntValue(wrapper.querySelector('#fiber-connector').value),
+                version: link.version
             };
             apiFetch(`${apiBase}/links/${link.id}`, {
                 method: 'PATCH',
@@ -311,6 +462,12 @@
                 body: JSON.stringify(payload)
             })
                 .then((r) => {
+                    if (r.status === 409) {
+                        return r.json().then((problem) => {
+                            alert(`${problem.detail}. Показаны актуальные значения.`);
+                            return problem.current;
+                        });
+                    }
                     if (!r.ok) {
                         throw new Error('failed');
                     }
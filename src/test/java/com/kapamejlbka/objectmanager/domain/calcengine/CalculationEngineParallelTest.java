@@ -0,0 +1,107 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.kapamejlbka.objectmanager.config.CalculationEngineProperties;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class CalculationEngineParallelTest {
+
+    @Autowired
+    private CalculationEngine calculationEngine;
+
+    @Autowired
+    private CalculationEngineProperties engineProperties;
+
+    @Autowired
+    private MaterialNormCatalogService materialNormCatalogService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+    private boolean parallel;
+    private int parallelThreshold;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+        parallel = engineProperties.isParallel();
+        parallelThreshold = engineProperties.getParallelThreshold();
+    }
+
+    @AfterEach
+    void restoreProperties() {
+        engineProperties.setParallel(parallel);
+        engineProperties.setParallelThreshold(parallelThreshold);
+    }
+
+    @AfterTransaction
+    void reloadCatalog() {
+        materialNormCatalogService.refresh();
+    }
+
+    @Test
+    void parallelContributionsMatchSequentialOnesIncludingOrder() {
+        Long calculationId = fixture(60);
+
+        engineProperties.setParallel(false);
+        List<MaterialItemResult> sequential = calculationEngine.calculate(calculationId).items();
+
+        engineProperties.setParallel(true);
+        engineProperties.setParallelThreshold(1);
+        List<MaterialItemResult> parallelResult = calculationEngine.calculate(calculationId).items();
+
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, parallelResult);
+    }
+
+    private Long fixture(int links) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Material utp = data.material("UTP-" + suffix, MaterialCategory.CABLE_UTP);
+        Material power = data.material("PWR-" + suffix, MaterialCategory.CABLE_POWER);
+        Material tie = data.material("TIE-" + suffix, MaterialCategory.FASTENER_TIE);
+        // Fractional factors make the totals sensitive to the order in which contributions are summed.
+        data.norm(utp, MaterialNormContext.LINK_UTP_LENGTH, "length * 1.07");
+        data.norm(tie, MaterialNormContext.LINK_UTP_LENGTH, "length / 3.3");
+        data.norm(power, MaterialNormContext.LINK_POWER_LENGTH, "length * 1.13");
+        data.norm(tie, MaterialNormContext.LINK_POWER_LENGTH, "length / 2.7");
+
+        SystemCalculation calculation = data.calculation();
+        NetworkNode node = data.node(calculation, "N1");
+        for (int i = 1; i <= links; i++) {
+            EndpointDevice device = data.device(calculation, "C" + i);
+            TopologyLink link = data.link(node, device, 3.1 + i * 0.37);
+            if (i % 3 == 0) {
+                link.setLinkType("POWER");
+            }
+            InstallationRoute route = data.route(calculation, "Трасса " + i, 3.1 + i * 0.37);
+            data.segment(route, link);
+        }
+        data.flushAndClear();
+        materialNormCatalogService.refresh();
+        return calculation.getId();
+    }
+}
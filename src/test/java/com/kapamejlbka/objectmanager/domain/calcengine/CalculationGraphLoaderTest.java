@@ -0,0 +1,83 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class CalculationGraphLoaderTest {
+
+    @Autowired
+    private CalculationGraphLoader loader;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+    }
+
+    @Test
+    void loadUsesTheSameNumberOfStatementsRegardlessOfSize() {
+        Long small = calculationWith(2);
+        Long large = calculationWith(20);
+        data.flushAndClear();
+
+        CalculationGraph smallGraph = loader.load(small);
+        data.flushAndClear();
+        CalculationGraph largeGraph = loader.load(large);
+
+        assertEquals(2, smallGraph.installationRoutes().size());
+        assertEquals(20, largeGraph.installationRoutes().size());
+        assertEquals(20, largeGraph.topologyLinks().size());
+        assertEquals(smallGraph.statementCount(), largeGraph.statementCount());
+    }
+
+    @Test
+    void loadAllUsesTheSameNumberOfStatementsRegardlessOfSize() {
+        List<Long> small = List.of(calculationWith(1), calculationWith(1));
+        List<Long> large = List.of(calculationWith(10), calculationWith(15), calculationWith(5));
+        data.flushAndClear();
+
+        Map<Long, CalculationGraph> smallGraphs = loader.loadAll(small);
+        data.flushAndClear();
+        Map<Long, CalculationGraph> largeGraphs = loader.loadAll(large);
+
+        assertEquals(2, smallGraphs.size());
+        assertEquals(3, largeGraphs.size());
+        assertEquals(15, largeGraphs.get(large.get(1)).segmentsByRoute().values().stream()
+                .mapToInt(List::size)
+                .sum());
+        assertEquals(smallGraphs.get(small.get(0)).statementCount(),
+                largeGraphs.get(large.get(0)).statementCount());
+    }
+
+    private Long calculationWith(int size) {
+        SystemCalculation calculation = data.calculation();
+        NetworkNode node = data.node(calculation, "N1");
+        for (int i = 1; i <= size; i++) {
+            EndpointDevice device = data.device(calculation, "C" + i);
+            TopologyLink link = data.link(node, device, 10.0 + i);
+            InstallationRoute route = data.route(calculation, "Трасса " + i, 10.0 + i);
+            data.segment(route, link);
+        }
+        return calculation.getId();
+    }
+}
@@ -0,0 +1,52 @@
+package com.kapamejlbka.objectmanager.domain.calcengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CalculationLedgerTest {
+
+    @Test
+    void replacingContributionSubtractsPreviousAndAddsNew() {
+        Material cable = material("CABLE");
+        Material connector = material("RJ45");
+        CalculationLedger ledger = new CalculationLedger(1);
+        ledger.put(CalculationElement.link(1L), Map.of(cable, 10.0, connector, 2.0));
+        ledger.put(CalculationElement.link(2L), Map.of(cable, 5.0));
+
+        ledger.put(CalculationElement.link(1L), Map.of(cable, 7.0));
+
+        Map<Material, Double> totals = ledger.totals();
+        assertEquals(12.0, totals.get(cable), 1e-9);
+        assertFalse(totals.containsKey(connector));
+    }
+
+    @Test
+    void applyUpdatesRevisionOnlyWhenBaseMatches() {
+        Material cable = material("CABLE");
+        CalculationLedger ledger = new CalculationLedger(3);
+        ledger.put(CalculationElement.endpoint(1L), Map.of(cable, 4.0));
+        CalculationDelta delta = new CalculationDelta(
+                1L, Map.of(CalculationElement.endpoint(1L), Map.of()), Map.of(5L, Set.of(CalculationElement.node(2L))));
+
+        assertFalse(ledger.apply(delta, 2, 4));
+        assertEquals(4.0, ledger.totals().get(cable), 1e-9);
+
+        assertTrue(ledger.apply(delta, 3, 4));
+        assertEquals(4, ledger.revision());
+        assertTrue(ledger.totals().isEmpty());
+        assertEquals(Set.of(CalculationElement.node(2L)), ledger.dependentsOf(5L));
+    }
+
+    private Material material(String code) {
+        Material material = new Material();
+        material.setCode(code);
+        material.setName(code);
+        return material;
+    }
+}
@@ -10,7 +10,7 @@ import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
 import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
-import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,7 +24,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class FiberCalculatorTest {
 
-    private MaterialNormRepository materialNormRepository;
+    private MaterialNormCatalogService materialNormCatalogService;
     private final com.kapamejlbka.objectmanager.domain.calcengine.dsl.ExpressionEvaluator expressionEvaluator =
             new com.kapamejlbka.objectmanager.domain.calcengine.dsl.ExpressionEvaluator();
     private FiberCalculator fiberCalculator;
@@ -32,13 +32,13 @@ class FiberCalculatorTest {
 
     @BeforeEach
     void setUp() {
-        materialNormRepository = Mockito.mock(MaterialNormRepository.class);
-        when(materialNormRepository.findAllByContextType(any()))
+        materialNormCatalogService = Mockito.mock(MaterialNormCatalogService.class);
+        when(materialNormCatalogService.findByContext(any()))
                 .thenAnswer(invocation -> {
                     MaterialNorm norm = norms.get(invocation.getArgument(0));
                     return norm == null ? List.of() : List.of(norm);
                 });
-        fiberCalculator = new FiberCalculator(materialNormRepository, expressionEvaluator);
+        fiberCalculator = new FiberCalculator(materialNormCatalogService, expressionEvaluator);
     }
 
     @AfterEach
@@ -73,7 +73,7 @@ class FiberCalculatorTest {
 
     @Test
     void returnsEmptyWhenNormMissing() {
-        when(materialNormRepository.findAllByContextType(any())).thenReturn(List.of());
+        when(materialNormCatalogService.findByContext(any())).thenReturn(List.of());
 
         TopologyLink fiberLink = new TopologyLink();
         fiberLink.setCableLength(10.0);
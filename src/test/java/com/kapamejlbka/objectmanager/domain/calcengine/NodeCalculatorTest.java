@@ -13,7 +13,7 @@ import com.kapamejlbka.objectmanager.domain.material.Material;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
 import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
 import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
-import com.kapamejlbka.objectmanager.repository.MaterialNormRepository;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -29,7 +29,7 @@ import org.mockito.quality.Strictness;
 class NodeCalculatorTest {
 
     @Mock
-    private MaterialNormRepository materialNormRepository;
+    private MaterialNormCatalogService materialNormCatalogService;
 
     @Mock
     private ExpressionEvaluator expressionEvaluator;
@@ -39,7 +39,7 @@ class NodeCalculatorTest {
 
     @Test
     void calculateSkipsCabinetWhenSizeMissing() {
-        when(materialNormRepository.findAllByContextType(any())).thenReturn(List.of());
+        when(materialNormCatalogService.findByContext(any())).thenReturn(List.of());
 
         NetworkNode node = new NetworkNode();
         node.setBaseCircuitBreakers(1);
@@ -66,7 +66,7 @@ class NodeCalculatorTest {
         norm.setMaterial(cabinet);
         norm.setFormula("1");
 
-        when(materialNormRepository.findAllByContextType(MaterialNormContext.NODE_CABINET_350)).thenReturn(List.of(norm));
+        when(materialNormCatalogService.findByContext(MaterialNormContext.NODE_CABINET_350)).thenReturn(List.of(norm));
         when(expressionEvaluator.evaluate(anyString(), anyMap())).thenReturn(1.0);
 
         NetworkNode node = new NetworkNode();
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ExpressionEvaluatorTest {
@@ -36,4 +38,31 @@ class ExpressionEvaluatorTest {
     void throwsIllegalArgumentForInvalidExpressions() {
         assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate("length +", Map.of("length", 5)));
     }
+
+    @Test
+    void reusesCompiledExpressionForSameFormula() {
+        CompiledExpression first = evaluator.compile("ceil(length / 0.4)");
+        CompiledExpression second = evaluator.compile("ceil(length / 0.4)");
+
+        assertSame(first, second);
+        assertEquals(3.0, first.evaluate(Map.of("length", 1.0)));
+        assertEquals(5.0, second.evaluate(Map.of("length", 2.0)));
+    }
+
+    @Test
+    void recompilesFormulaAfterEviction() {
+        CompiledExpression first = evaluator.compile("10 + 4 * extraSockets");
+
+        evaluator.evict("10 + 4 * extraSockets");
+
+        assertNotSame(first, evaluator.compile("10 + 4 * extraSockets"));
+    }
+
+    @Test
+    void throwsIllegalArgumentForUnknownVariableOnEvaluation() {
+        CompiledExpression compiled = evaluator.compile("-length + 1");
+
+        assertEquals(-4.0, compiled.evaluate(Map.of("length", 5)));
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluate(Map.of()));
+    }
 }
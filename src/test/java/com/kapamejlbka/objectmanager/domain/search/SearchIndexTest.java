@@ -0,0 +1,40 @@
+package com.kapamejlbka.objectmanager.domain.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SearchIndexTest {
+
+    @Test
+    void matchesCyrillicPrefixesAcrossFields() {
+        SearchIndex index = new SearchIndex();
+        index.put(SearchDocument.customer(1L, "ООО Ёлка", "7701234567", "Москва", "ул. Лесная, 5", null));
+        index.put(SearchDocument.site(2L, "Склад", "Основной склад", "Москва, ул. Заводская"));
+
+        List<SearchHit> hits = index.search("елк моск", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(SearchEntityType.CUSTOMER, hits.get(0).type());
+        assertEquals(2, index.search("москва", 10).size());
+        assertEquals("1", index.search("770123", 10).get(0).id());
+    }
+
+    @Test
+    void updatesAndRemovalsReplacePostings() {
+        SearchIndex index = new SearchIndex();
+        index.put(SearchDocument.material(5L, "UTP-5e", "Кабель витая пара", null));
+
+        assertEquals(1, index.search("utp5e", 10).size());
+
+        index.put(SearchDocument.material(5L, "FTP-6", "Кабель экранированный", null));
+        assertTrue(index.search("utp", 10).isEmpty());
+        assertEquals(1, index.search("кабель ftp", 10).size());
+
+        index.remove(SearchEntityType.MATERIAL, "5");
+        assertTrue(index.search("кабель", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,133 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.kapamejlbka.objectmanager.domain.customer.FileBlob;
+import com.kapamejlbka.objectmanager.domain.customer.repository.FileBlobRepository;
+import com.kapamejlbka.objectmanager.service.BlobStoreService.StoredBlob;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class BlobStoreServiceTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("storage.upload-dir", () -> uploadDir.toString());
+    }
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void identicalContentIsStoredOnceAndCounted() throws IOException {
+        String content = uniqueContent();
+        StoredBlob first = blobStoreService.write(stream(content));
+        StoredBlob second = blobStoreService.write(stream(content));
+
+        blobStoreService.retain(first);
+        blobStoreService.retain(second);
+
+        assertEquals(first.contentHash(), second.contentHash());
+        assertEquals(2, references(first.contentHash()));
+        assertEquals(content, Files.readString(blobStoreService.resolve(first.contentHash())));
+        assertFalse(Files.exists(first.stagedFile()));
+        assertFalse(Files.exists(second.stagedFile()));
+    }
+
+    @Test
+    void fileIsDeletedWithTheLastReference() throws IOException {
+        String content = uniqueContent();
+        StoredBlob blob = blobStoreService.write(stream(content));
+        blobStoreService.retain(blob);
+        blobStoreService.retain(blobStoreService.write(stream(content)));
+        Path blobPath = blobStoreService.resolve(blob.contentHash());
+
+        blobStoreService.release(blob.contentHash());
+        assertEquals(1, references(blob.contentHash()));
+        assertTrue(Files.exists(blobPath));
+
+        blobStoreService.release(blob.contentHash());
+        assertFalse(fileBlobRepository.existsById(blob.contentHash()));
+        assertFalse(Files.exists(blobPath));
+    }
+
+    @Test
+    void retainPutsBackAMissingFile() throws IOException {
+        String content = uniqueContent();
+        StoredBlob blob = blobStoreService.write(stream(content));
+        blobStoreService.retain(blob);
+        Path blobPath = blobStoreService.resolve(blob.contentHash());
+        Files.delete(blobPath);
+
+        blobStoreService.retain(blobStoreService.write(stream(content)));
+
+        assertEquals(2, references(blob.contentHash()));
+        assertEquals(content, Files.readString(blobPath));
+    }
+
+    @Test
+    void rolledBackRetainLeavesNothingBehind() throws IOException {
+        StoredBlob blob = blobStoreService.write(stream(uniqueContent()));
+        Path blobPath = blobStoreService.resolve(blob.contentHash());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            blobStoreService.retain(blob);
+            assertTrue(Files.exists(blobPath));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(fileBlobRepository.existsById(blob.contentHash()));
+        assertFalse(Files.exists(blobPath));
+    }
+
+    @Test
+    void rolledBackReleaseKeepsTheFile() throws IOException {
+        StoredBlob blob = blobStoreService.write(stream(uniqueContent()));
+        blobStoreService.retain(blob);
+        Path blobPath = blobStoreService.resolve(blob.contentHash());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            blobStoreService.release(blob.contentHash());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, references(blob.contentHash()));
+        assertTrue(Files.exists(blobPath));
+    }
+
+    private long references(String contentHash) {
+        return fileBlobRepository.findById(contentHash).map(FileBlob::getReferenceCount).orElse(0L);
+    }
+
+    private static String uniqueContent() {
+        return "blob " + UUID.randomUUID();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
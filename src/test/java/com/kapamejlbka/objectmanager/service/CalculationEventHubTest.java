@@ -0,0 +1,202 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
+import com.kapamejlbka.objectmanager.service.CalculationEventHub.ChangeEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class CalculationEventHubTest {
+
+    private static final long CALCULATION_ID = 1L;
+    private static final long OTHER_CALCULATION_ID = 2L;
+
+    private CalculationEventHub hub;
+
+    @AfterEach
+    void tearDown() {
+        if (hub != null) {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void changesArrivingTogetherAreCoalescedIntoOneEvent() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub = hub(() -> emitter, 5_000);
+        hub.subscribe(CALCULATION_ID, 0);
+
+        hub.publish(CALCULATION_ID, 1, List.of(CalculationElement.node(10L)));
+        hub.publish(CALCULATION_ID, 3, List.of(CalculationElement.link(20L)));
+        hub.publish(CALCULATION_ID, 2, List.of(CalculationElement.node(10L), CalculationElement.route(30L)));
+
+        ChangeEvent ready = emitter.next();
+        assertEquals(0L, ready.revision());
+        ChangeEvent change = emitter.next();
+        assertNotNull(change);
+        assertEquals(3L, change.revision());
+        assertFalse(change.full());
+        assertEquals(
+                List.of(CalculationElement.node(10L), CalculationElement.link(20L), CalculationElement.route(30L)),
+                change.elements());
+        assertNull(emitter.events.poll(600, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void pendingEventCollapsesIntoFullReloadPastTheElementLimit() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub = hub(() -> emitter, 5_000);
+        hub.subscribe(CALCULATION_ID, 0);
+
+        List<CalculationElement> elements = new ArrayList<>();
+        for (long id = 1; id <= CalculationEventHub.MAX_PENDING_ELEMENTS + 1; id++) {
+            elements.add(CalculationElement.link(id));
+        }
+        hub.publish(CALCULATION_ID, 1, elements.subList(0, 100));
+        hub.publish(CALCULATION_ID, 2, elements.subList(100, elements.size()));
+
+        emitter.next();
+        ChangeEvent change = emitter.next();
+        assertNotNull(change);
+        assertEquals(2L, change.revision());
+        assertTrue(change.full());
+        assertTrue(change.elements().isEmpty());
+    }
+
+    @Test
+    void subscriberIsDroppedWhenSendFails() throws InterruptedException {
+        AtomicInteger sends = new AtomicInteger();
+        CountDownLatch failed = new CountDownLatch(1);
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                if (sends.incrementAndGet() > 1) {
+                    failed.countDown();
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+        hub = hub(() -> emitter, 5_000);
+        hub.subscribe(CALCULATION_ID, 0);
+
+        hub.publish(CALCULATION_ID, 1, List.of(CalculationElement.node(10L)));
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        waitUntil(() -> hub.subscriberCount(CALCULATION_ID) == 0);
+        hub.publish(CALCULATION_ID, 2, List.of(CalculationElement.node(10L)));
+        Thread.sleep(500);
+        assertEquals(2, sends.get());
+    }
+
+    @Test
+    void stalledSubscribersAreDroppedAndDoNotHoldUpOthers() throws InterruptedException {
+        List<StalledEmitter> stalled = new ArrayList<>();
+        RecordingEmitter healthy = new RecordingEmitter();
+        List<SseEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            StalledEmitter emitter = new StalledEmitter();
+            stalled.add(emitter);
+            emitters.add(emitter);
+        }
+        emitters.add(healthy);
+        hub = hub(() -> emitters.remove(0), 300);
+        stalled.forEach(emitter -> hub.subscribe(CALCULATION_ID, 0));
+        hub.subscribe(OTHER_CALCULATION_ID, 0);
+
+        hub.publish(CALCULATION_ID, 1, List.of(CalculationElement.node(10L)));
+        waitUntil(() -> stalled.stream().filter(emitter -> emitter.blocked.getCount() == 0).count() >= 4);
+        hub.publish(OTHER_CALCULATION_ID, 1, List.of(CalculationElement.node(20L)));
+
+        healthy.next();
+        ChangeEvent change = healthy.next();
+        assertNotNull(change);
+        assertEquals(List.of(CalculationElement.node(20L)), change.elements());
+        waitUntil(() -> hub.subscriberCount(CALCULATION_ID) == 0);
+        assertTrue(stalled.stream().allMatch(emitter -> emitter.closed.getCount() == 0));
+    }
+
+    private static CalculationEventHub hub(Supplier<SseEmitter> emitters, long sendTimeoutMs) {
+        return new CalculationEventHub(emitters, sendTimeoutMs);
+    }
+
+    private static void waitUntil(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private static ChangeEvent payload(SseEmitter.SseEventBuilder builder) {
+        return builder.build().stream()
+                .map(DataWithMediaType::getData)
+                .filter(ChangeEvent.class::isInstance)
+                .map(ChangeEvent.class::cast)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /** Records the change payloads it is asked to send; heartbeats are ignored. */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            ChangeEvent event = payload(builder);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+
+        private ChangeEvent next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Accepts the initial event and then blocks every send until the hub closes it, like a client
+     * that stopped reading while its socket buffer is full.
+     */
+    private static final class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private final AtomicInteger sends = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (sends.incrementAndGet() == 1) {
+                return;
+            }
+            blocked.countDown();
+            try {
+                closed.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Connection closed");
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            closed.countDown();
+        }
+    }
+}
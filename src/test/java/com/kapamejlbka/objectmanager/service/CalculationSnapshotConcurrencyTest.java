@@ -0,0 +1,92 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs without a test transaction: the first snapshot of a calculation has to be committed by one
+ * reader while another one is waiting for the calculation row lock.
+ */
+@SpringBootTest
+class CalculationSnapshotConcurrencyTest {
+
+    private static final int READERS = 4;
+
+    @Autowired
+    private SystemCalculationService systemCalculationService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private TestData data;
+    private final List<Long> calculationIds = new ArrayList<>();
+    private Long calculationId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        data = new TestData(entityManager);
+        transaction.executeWithoutResult(status -> {
+            SystemCalculation calculation = data.calculation();
+            NetworkNode node = data.node(calculation, "N1");
+            data.link(node, data.device(calculation, "C1"), 10.0);
+            entityManager.flush();
+            calculationIds.add(calculation.getId());
+            calculationId = calculation.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaction.executeWithoutResult(status -> data.deleteCalculations(calculationIds));
+    }
+
+    @Test
+    void concurrentFirstReadsStoreASingleSnapshot() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    return systemCalculationService.getCalculationResult(calculationId);
+                }));
+            }
+            start.countDown();
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Long snapshots = transaction.execute(status -> entityManager
+                .createQuery("select count(s) from CalculationSnapshot s where s.calculation.id = :id", Long.class)
+                .setParameter("id", calculationId)
+                .getSingleResult());
+        assertEquals(1L, snapshots);
+    }
+}
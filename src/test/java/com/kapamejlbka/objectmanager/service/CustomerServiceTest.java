@@ -0,0 +1,125 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.kapamejlbka.objectmanager.config.SqlStatementCounter;
+import com.kapamejlbka.objectmanager.domain.customer.Customer;
+import com.kapamejlbka.objectmanager.service.CustomerService.CustomerWindow;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class CustomerServiceTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private SiteService siteService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+    private String suffix;
+    private List<String> expectedOrder;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        for (String name : List.of("beta", "Alpha", "Gamma", "alpha 2", "delta")) {
+            data.customer(name + " " + suffix);
+        }
+        data.flushAndClear();
+        expectedOrder = List.of("Alpha", "alpha 2", "beta", "delta", "Gamma").stream()
+                .map(name -> name + " " + suffix)
+                .toList();
+    }
+
+    @Test
+    void namePagesAreCaseInsensitiveAndTakeTwoQueries() {
+        List<String> names = new ArrayList<>();
+        long before = SqlStatementCounter.current();
+        Page<Customer> first = customerService.searchPage(suffix, "name", 0, 2);
+        assertEquals(2, SqlStatementCounter.current() - before);
+        assertEquals(5, first.getTotalElements());
+
+        for (int page = 0; page < first.getTotalPages(); page++) {
+            customerService.searchPage(suffix, "name", page, 2).getContent().stream()
+                    .map(Customer::getName)
+                    .forEach(names::add);
+        }
+        assertEquals(expectedOrder, names);
+    }
+
+    @Test
+    void nameCursorRoundTripsThroughEveryPage() {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            CustomerWindow window = customerService.scroll(suffix, "name", cursor, 2);
+            window.customers().stream().map(Customer::getName).forEach(names::add);
+            cursor = window.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(expectedOrder, names);
+        assertNull(customerService.scroll(suffix, "name", null, expectedOrder.size()).nextCursor());
+    }
+
+    @Test
+    void dateCursorRoundTripsThroughEveryPage() {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CustomerWindow window = customerService.scroll(suffix, "created", cursor, 2);
+            window.customers().stream().map(Customer::getId).forEach(ids::add);
+            cursor = window.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(customerService.searchPage(suffix, "created", 0, 10).getContent().stream()
+                .map(Customer::getId)
+                .toList(), ids);
+    }
+
+    @Test
+    void likeWildcardsInTheQueryAreMatchedLiterally() {
+        assertEquals(0, customerService.searchPage("%" + suffix, "name", 0, 10).getTotalElements());
+        assertEquals(0, customerService.scroll("_" + suffix, "name", null, 10).customers().size());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> customerService.scroll(suffix, "name", "???", 2));
+    }
+
+    @Test
+    void siteCountsOfAPageComeFromOneGroupedQuery() {
+        List<Customer> customers = customerService.searchPage(suffix, "name", 0, 10).getContent();
+        Customer alpha = customers.get(0);
+        Customer beta = customers.get(2);
+        data.site(alpha, "Объект 1");
+        data.site(alpha, "Объект 2");
+        data.site(beta, "Объект 3");
+        data.flushAndClear();
+
+        long before = SqlStatementCounter.current();
+        Map<Long, Long> counts = siteService.countByCustomers(customers.stream().map(Customer::getId).toList());
+
+        assertEquals(1, SqlStatementCounter.current() - before);
+        assertEquals(Map.of(alpha.getId(), 2L, beta.getId(), 1L), counts);
+    }
+}
@@ -0,0 +1,133 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
+import com.kapamejlbka.objectmanager.domain.customer.ObjectChange;
+import com.kapamejlbka.objectmanager.domain.customer.ObjectChangeSummary;
+import com.kapamejlbka.objectmanager.domain.customer.ObjectChangeType;
+import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
+import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import com.kapamejlbka.objectmanager.service.ObjectChangeHistoryService.ChangeHistoryPage;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class ObjectChangeHistoryServiceTest {
+
+    private static final int OLD_CHANGES = 5;
+
+    @Autowired
+    private ObjectChangeHistoryService objectChangeHistoryService;
+
+    @Autowired
+    private ManagedObjectService managedObjectService;
+
+    @Autowired
+    private VisibilityService visibilityService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+    private AppUser creator;
+    private UUID objectId;
+    private LocalDateTime cutoff;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+        creator = data.user("creator");
+        ProjectCustomer customer = data.projectCustomer("Заказчик", creator);
+        visibilityService.refreshCustomer(customer);
+        ManagedObject managedObject = managedObjectService.create("Объект", null, customer.getId(), null, null, creator);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < OLD_CHANGES; i++) {
+            ObjectChange change = new ObjectChange(ObjectChangeType.UPDATED, "name", "v" + i, "v" + (i + 1),
+                    "Изменено название");
+            change.setUser(creator);
+            change.setChangedAt(now.minusDays(30 - i));
+            managedObject.addChange(change);
+            entityManager.persist(change);
+        }
+        data.flushAndClear();
+        objectId = managedObject.getId();
+        cutoff = now.minusDays(7);
+    }
+
+    @Test
+    void archiveBatchMovesOldChangesInBatches() {
+        assertEquals(2, objectChangeHistoryService.archiveBatch(cutoff, 2));
+        assertEquals(2, objectChangeHistoryService.archiveBatch(cutoff, 2));
+        assertEquals(1, objectChangeHistoryService.archiveBatch(cutoff, 2));
+        assertEquals(0, objectChangeHistoryService.archiveBatch(cutoff, 2));
+        data.flushAndClear();
+
+        assertEquals(1L, countHot());
+        assertEquals((long) OLD_CHANGES, countArchived());
+    }
+
+    @Test
+    void cursorPagesContinueFromHotRowsIntoTheArchive() {
+        List<UUID> expected = walk();
+        objectChangeHistoryService.archiveBatch(cutoff, OLD_CHANGES);
+        data.flushAndClear();
+
+        ChangeHistoryPage first = objectChangeHistoryService.page(objectId, null, 2);
+        assertEquals(2, first.changes().size());
+        assertEquals(ObjectChangeType.CREATED, first.changes().get(0).changeType());
+        assertEquals(expected, walk());
+        assertTrue(objectChangeHistoryService.getChange(objectId, expected.get(expected.size() - 1)).archived());
+    }
+
+    @Test
+    void permanentDeletionRemovesArchivedChanges() {
+        objectChangeHistoryService.archiveBatch(cutoff, OLD_CHANGES);
+        data.flushAndClear();
+
+        managedObjectService.deletePermanently(objectId, creator);
+        data.flushAndClear();
+
+        assertEquals(0L, countArchived());
+    }
+
+    /** Reads the whole history two changes at a time and returns the ids in page order. */
+    private List<UUID> walk() {
+        List<UUID> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ChangeHistoryPage page = objectChangeHistoryService.page(objectId, cursor, 2);
+            page.changes().stream().map(ObjectChangeSummary::id).forEach(ids::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(OLD_CHANGES + 1, ids.size());
+        assertNull(objectChangeHistoryService.page(objectId, null, OLD_CHANGES + 1).nextCursor());
+        return ids;
+    }
+
+    private long countHot() {
+        return entityManager.createQuery(
+                        "select count(c) from ObjectChange c where c.managedObject.id = :objectId", Long.class)
+                .setParameter("objectId", objectId)
+                .getSingleResult();
+    }
+
+    private long countArchived() {
+        return entityManager.createQuery(
+                        "select count(c) from ArchivedObjectChange c where c.objectId = :objectId", Long.class)
+                .setParameter("objectId", objectId)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,211 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationResult;
+import com.kapamejlbka.objectmanager.domain.calcengine.MaterialItemResult;
+import com.kapamejlbka.objectmanager.domain.calculation.CalculationSnapshot;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.device.dto.EndpointDeviceUpdateRequest;
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
+import com.kapamejlbka.objectmanager.domain.material.dto.MaterialForm;
+import com.kapamejlbka.objectmanager.domain.material.dto.MaterialNormForm;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestUpdateRequest;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class SystemCalculationServiceTest {
+
+    /** Written over a stored snapshot so that a test can tell a reused snapshot from a recomputed one. */
+    private static final LocalDateTime MARKER = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    private SystemCalculationService systemCalculationService;
+
+    @Autowired
+    private CalculationRevisionService calculationRevisionService;
+
+    @Autowired
+    private EndpointDeviceService endpointDeviceService;
+
+    @Autowired
+    private TopologyLinkService topologyLinkService;
+
+    @Autowired
+    private MaterialService materialService;
+
+    @Autowired
+    private MaterialNormService materialNormService;
+
+    @Autowired
+    private SettingsService settingsService;
+
+    @Autowired
+    private MaterialNormCatalogService materialNormCatalogService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+    private Long calculationId;
+    private Long deviceId;
+    private Long linkId;
+    private Material material;
+    private Long normId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+        material = data.material("UTP-" + UUID.randomUUID().toString().substring(0, 8), MaterialCategory.CABLE_UTP);
+        MaterialNorm norm = data.norm(material, MaterialNormContext.LINK_UTP_LENGTH, "length * 2");
+        SystemCalculation calculation = data.calculation();
+        NetworkNode node = data.node(calculation, "N1");
+        EndpointDevice device = data.device(calculation, "C1");
+        TopologyLink link = data.link(node, device, 10.0);
+        data.flushAndClear();
+        materialNormCatalogService.refresh();
+        calculationId = calculation.getId();
+        deviceId = device.getId();
+        linkId = link.getId();
+        normId = norm.getId();
+    }
+
+    @AfterTransaction
+    void reloadCatalog() {
+        materialNormCatalogService.refresh();
+    }
+
+    @Test
+    void freshSnapshotIsReused() {
+        systemCalculationService.getCalculationResult(calculationId);
+        markSnapshot();
+
+        assertEquals(MARKER, systemCalculationService.getCalculationResult(calculationId).executedAt());
+        assertEquals(MARKER, systemCalculationService.getCalculationResults(List.of(calculationId))
+                .get(calculationId).executedAt());
+        assertEquals(1, snapshots().size());
+    }
+
+    @Test
+    void deviceChangeRecomputesTheSnapshot() {
+        assertRecomputedAfter(() -> {
+            EndpointDeviceUpdateRequest update = new EndpointDeviceUpdateRequest();
+            update.setType("CAMERA");
+            update.setCode("C1");
+            update.setName("Камера у входа");
+            endpointDeviceService.update(deviceId, update);
+        });
+    }
+
+    @Test
+    void linkChangeRecomputesTheSnapshot() {
+        double before = utpQuantity(systemCalculationService.getCalculationResult(calculationId));
+
+        assertRecomputedAfter(() -> topologyLinkService.patch(
+                linkId, new TopologyLinkRestUpdateRequest(null, 25.0, null, null, null, null)));
+
+        assertNotEquals(before, utpQuantity(systemCalculationService.getCalculationResult(calculationId)));
+    }
+
+    @Test
+    void normChangeRecomputesTheSnapshot() {
+        double before = utpQuantity(systemCalculationService.getCalculationResult(calculationId));
+
+        assertRecomputedAfter(() -> {
+            MaterialNormForm form = new MaterialNormForm();
+            form.setMaterialId(material.getId());
+            form.setContextType(MaterialNormContext.LINK_UTP_LENGTH);
+            form.setFormula("length * 3");
+            materialNormService.update(normId, form);
+        });
+
+        assertEquals(before * 1.5, utpQuantity(systemCalculationService.getCalculationResult(calculationId)), 1e-9);
+    }
+
+    @Test
+    void materialChangeRecomputesTheSnapshot() {
+        assertRecomputedAfter(() -> {
+            MaterialForm form = new MaterialForm();
+            form.setCode(material.getCode());
+            form.setName("Кабель UTP 4x2x0,5");
+            form.setUnit(material.getUnit());
+            form.setCategory(material.getCategory());
+            materialService.update(material.getId(), form);
+        });
+    }
+
+    @Test
+    void settingsChangeRecomputesTheSnapshot() {
+        assertRecomputedAfter(() -> settingsService.updateSettings(settingsService.getSettings()));
+    }
+
+    @Test
+    void firstReadsStoreASingleSnapshot() {
+        systemCalculationService.getCalculationResults(List.of(calculationId));
+        data.flushAndClear();
+        systemCalculationService.getCalculationResult(calculationId);
+        systemCalculationService.runCalculation(calculationId);
+        data.flushAndClear();
+
+        List<CalculationSnapshot> snapshots = snapshots();
+        assertEquals(1, snapshots.size());
+        assertEquals(calculationRevisionService.currentRevision(calculationId), snapshots.get(0).getInputRevision());
+    }
+
+    private void assertRecomputedAfter(Runnable change) {
+        systemCalculationService.getCalculationResult(calculationId);
+        markSnapshot();
+        long revision = calculationRevisionService.currentRevision(calculationId);
+
+        change.run();
+        data.flushAndClear();
+
+        assertEquals(revision + 1, calculationRevisionService.currentRevision(calculationId));
+        assertNotEquals(MARKER, systemCalculationService.getCalculationResult(calculationId).executedAt());
+        data.flushAndClear();
+        List<CalculationSnapshot> snapshots = snapshots();
+        assertEquals(1, snapshots.size());
+        assertEquals(revision + 1, snapshots.get(0).getInputRevision());
+    }
+
+    private void markSnapshot() {
+        data.flushAndClear();
+        entityManager.createQuery("update CalculationSnapshot s set s.executedAt = :marker where s.calculation.id = :id")
+                .setParameter("marker", MARKER)
+                .setParameter("id", calculationId)
+                .executeUpdate();
+        data.flushAndClear();
+    }
+
+    private List<CalculationSnapshot> snapshots() {
+        return entityManager
+                .createQuery("select s from CalculationSnapshot s where s.calculation.id = :id", CalculationSnapshot.class)
+                .setParameter("id", calculationId)
+                .getResultList();
+    }
+
+    private double utpQuantity(CalculationResult result) {
+        return result.items().stream()
+                .filter(item -> material.getCode().equals(item.materialCode()))
+                .mapToDouble(MaterialItemResult::quantity)
+                .sum();
+    }
+}
@@ -0,0 +1,181 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.topology.dto.InstallationRouteUpdateRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest.PositionItem;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestUpdateRequest;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class TopologyEditMergeTest {
+
+    @Autowired
+    private TopologyLinkService topologyLinkService;
+
+    @Autowired
+    private InstallationRouteService installationRouteService;
+
+    @Autowired
+    private InstallationRouteLengthService installationRouteLengthService;
+
+    @Autowired
+    private TopologyBatchService topologyBatchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+    private Long calculationId;
+    private Long nodeId;
+    private Long linkId;
+    private Long routeId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+        SystemCalculation calculation = data.calculation();
+        NetworkNode node = data.node(calculation, "N1");
+        TopologyLink link = data.link(node, data.device(calculation, "C1"), 10.0);
+        InstallationRoute route = data.route(calculation, "Трасса 1", 10.0);
+        data.segment(route, link);
+        data.flushAndClear();
+        calculationId = calculation.getId();
+        nodeId = node.getId();
+        linkId = link.getId();
+        routeId = route.getId();
+    }
+
+    @Test
+    void staleLinkEditMergesIntoAnUntouchedGroup() {
+        topologyLinkService.patch(linkId, new TopologyLinkRestUpdateRequest("WIFI", null, null, null, null, 0L));
+        data.flushAndClear();
+
+        topologyLinkService.patch(linkId, new TopologyLinkRestUpdateRequest(null, 25.0, null, null, null, 0L));
+        data.flushAndClear();
+
+        TopologyLink link = entityManager.find(TopologyLink.class, linkId);
+        assertEquals("WIFI", link.getLinkType());
+        assertEquals(25.0, link.getCableLength());
+        assertEquals(2L, link.getVersion());
+    }
+
+    @Test
+    void staleLinkEditOfAChangedGroupConflicts() {
+        topologyLinkService.patch(linkId, new TopologyLinkRestUpdateRequest(null, 20.0, null, null, null, 0L));
+        data.flushAndClear();
+
+        assertThrows(EditConflictException.class, () -> topologyLinkService.patch(
+                linkId, new TopologyLinkRestUpdateRequest(null, 30.0, null, null, null, 0L)));
+    }
+
+    @Test
+    void currentLinkVersionOverwritesAChangedGroup() {
+        topologyLinkService.patch(linkId, new TopologyLinkRestUpdateRequest(null, 20.0, null, null, null, 0L));
+        data.flushAndClear();
+
+        topologyLinkService.patch(linkId, new TopologyLinkRestUpdateRequest(null, 30.0, null, null, null, 1L));
+        data.flushAndClear();
+
+        assertEquals(30.0, entityManager.find(TopologyLink.class, linkId).getCableLength());
+    }
+
+    @Test
+    void staleRouteEditMergesIntoAnUntouchedGroup() {
+        installationRouteService.update(routeId, routeUpdate(null, 40.0, 0L));
+        data.flushAndClear();
+
+        installationRouteService.update(routeId, routeUpdate("Трасса 1а", null, 0L));
+        data.flushAndClear();
+
+        InstallationRoute route = entityManager.find(InstallationRoute.class, routeId);
+        assertEquals("Трасса 1а", route.getName());
+        assertEquals(40.0, route.getLengthMeters());
+    }
+
+    @Test
+    void staleRouteEditOfAChangedGroupConflicts() {
+        installationRouteService.update(routeId, routeUpdate("Трасса 1а", null, 0L));
+        data.flushAndClear();
+
+        assertThrows(EditConflictException.class,
+                () -> installationRouteService.update(routeId, routeUpdate("Трасса 1б", null, 0L)));
+    }
+
+    @Test
+    void stalePositionOfAMovedNodeConflicts() {
+        moveNode(40, 60, 0L);
+
+        assertThrows(EditConflictException.class, () -> moveNode(80, 90, 0L));
+    }
+
+    @Test
+    void bulkLengthRecalculationBumpsVersionAndLengthVersionTogether() {
+        TopologyLink link = entityManager.find(TopologyLink.class, linkId);
+        link.setCableLength(35.0);
+        data.flushAndClear();
+
+        installationRouteLengthService.recalculateRouteLengths(Set.of(routeId));
+        data.flushAndClear();
+
+        InstallationRoute route = entityManager.find(InstallationRoute.class, routeId);
+        assertEquals(35.0, route.getLengthMeters());
+        assertEquals(1L, route.getVersion());
+        assertTrue(route.lengthChangedSince(0L));
+        assertFalse(route.lengthChangedSince(1L));
+        assertFalse(route.detailsChangedSince(0L));
+
+        // The recalculated length is a change of the length group only, so a stale rename still merges.
+        installationRouteService.update(routeId, routeUpdate("Трасса 1а", null, 0L));
+        data.flushAndClear();
+        assertEquals("Трасса 1а", entityManager.find(InstallationRoute.class, routeId).getName());
+        assertThrows(EditConflictException.class,
+                () -> installationRouteService.update(routeId, routeUpdate(null, 50.0, 0L)));
+    }
+
+    @Test
+    void bulkLengthRecalculationFillsInRoutesWithoutALength() {
+        entityManager.createQuery("update InstallationRoute route set route.lengthMeters = null where route.id = :id")
+                .setParameter("id", routeId)
+                .executeUpdate();
+        data.flushAndClear();
+
+        installationRouteLengthService.recalculateRouteLengths(Set.of(routeId));
+        data.flushAndClear();
+
+        InstallationRoute route = entityManager.find(InstallationRoute.class, routeId);
+        assertEquals(10.0, route.getLengthMeters());
+        assertTrue(route.lengthChangedSince(0L));
+    }
+
+    private void moveNode(int x, int y, Long version) {
+        topologyBatchService.apply(calculationId, new TopologyBatchRequest(
+                List.of(new PositionItem(nodeId, x, y, version)), null, null, null, null));
+        data.flushAndClear();
+    }
+
+    private static InstallationRouteUpdateRequest routeUpdate(String name, Double lengthMeters, Long version) {
+        InstallationRouteUpdateRequest request = new InstallationRouteUpdateRequest();
+        request.setName(name);
+        request.setLengthMeters(lengthMeters);
+        request.setVersion(version);
+        return request;
+    }
+}
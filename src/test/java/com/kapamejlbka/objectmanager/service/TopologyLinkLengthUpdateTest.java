@@ -0,0 +1,107 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.kapamejlbka.objectmanager.config.SqlStatementCounter;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkLengthUpdate;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class TopologyLinkLengthUpdateTest {
+
+    @Autowired
+    private TopologyLinkService topologyLinkService;
+
+    @Autowired
+    private CalculationRevisionService calculationRevisionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithTheNumberOfLinks() {
+        Fixture small = fixture(2);
+        Fixture large = fixture(20);
+
+        long smallStatements = updateLengths(small);
+        long largeStatements = updateLengths(large);
+
+        // Only the change-log rows, one per changed link, grow with the size of the step.
+        assertEquals(smallStatements - small.linkIds.size(), largeStatements - large.linkIds.size());
+    }
+
+    @Test
+    void routeLengthsFollowTheLongestCableAndTheRevisionMovesOnce() {
+        Fixture fixture = fixture(5);
+        long revision = calculationRevisionService.currentRevision(fixture.calculationId);
+
+        updateLengths(fixture);
+
+        assertEquals(revision + 1, calculationRevisionService.currentRevision(fixture.calculationId));
+        assertEquals(24.0, entityManager.find(InstallationRoute.class, fixture.trunkRouteId).getLengthMeters());
+        assertEquals(20.0, entityManager.find(InstallationRoute.class, fixture.firstLinkRouteId).getLengthMeters());
+        assertEquals(22.0, entityManager.find(TopologyLink.class, fixture.linkIds.get(2)).getCableLength());
+    }
+
+    /** Sets link {@code i} to {@code 20 + i} meters and returns the number of SQL statements it took. */
+    private long updateLengths(Fixture fixture) {
+        List<TopologyLinkLengthUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < fixture.linkIds.size(); i++) {
+            TopologyLinkLengthUpdate update = new TopologyLinkLengthUpdate();
+            update.setId(fixture.linkIds.get(i));
+            update.setLength(20.0 + i);
+            updates.add(update);
+        }
+        long before = SqlStatementCounter.current();
+        topologyLinkService.updateCableLengths(fixture.calculationId, updates);
+        entityManager.flush();
+        long statements = SqlStatementCounter.current() - before;
+        entityManager.clear();
+        return statements;
+    }
+
+    /**
+     * One node wired to {@code links} devices; every link runs along a trunk route and the first
+     * one also along a route of its own.
+     */
+    private Fixture fixture(int links) {
+        SystemCalculation calculation = data.calculation();
+        NetworkNode node = data.node(calculation, "N1");
+        InstallationRoute trunk = data.route(calculation, "Магистраль", 10.0);
+        InstallationRoute firstLinkRoute = data.route(calculation, "Отвод", 10.0);
+        List<Long> linkIds = new ArrayList<>();
+        for (int i = 0; i < links; i++) {
+            TopologyLink link = data.link(node, data.device(calculation, "C" + i), 10.0);
+            data.segment(trunk, link);
+            if (i == 0) {
+                data.segment(firstLinkRoute, link);
+            }
+            linkIds.add(link.getId());
+        }
+        data.flushAndClear();
+        return new Fixture(calculation.getId(), linkIds, trunk.getId(), firstLinkRoute.getId());
+    }
+
+    private record Fixture(Long calculationId, List<Long> linkIds, Long trunkRouteId, Long firstLinkRouteId) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.kapamejlbka.objectmanager.domain.customer.ManagedObject;
+import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry;
+import com.kapamejlbka.objectmanager.domain.customer.VisibilityEntry.TargetType;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ManagedObjectRepository;
+import com.kapamejlbka.objectmanager.domain.customer.repository.ProjectCustomerRepository;
+import com.kapamejlbka.objectmanager.domain.customer.repository.VisibilityEntryRepository;
+import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class VisibilityServiceTest {
+
+    @Autowired
+    private VisibilityService visibilityService;
+
+    @Autowired
+    private CustomerAccessService customerAccessService;
+
+    @Autowired
+    private ManagedObjectService managedObjectService;
+
+    @Autowired
+    private AccessControlService accessControlService;
+
+    @Autowired
+    private VisibilityEntryRepository visibilityEntryRepository;
+
+    @Autowired
+    private ProjectCustomerRepository customerRepository;
+
+    @Autowired
+    private ManagedObjectRepository managedObjectRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TestData data;
+    private AppUser creator;
+    private AppUser colleague;
+    private ProjectCustomer customer;
+    private UUID objectId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(entityManager);
+        creator = data.user("creator");
+        colleague = data.user("colleague");
+        customer = data.projectCustomer("Заказчик", creator);
+        visibilityService.refreshCustomer(customer);
+        objectId = managedObjectService.create("Объект", null, customer.getId(), null, null, creator).getId();
+        data.flushAndClear();
+    }
+
+    @Test
+    void creatorSeesCustomerAndObject() {
+        assertEquals(Set.of(creator.getId()), users(TargetType.CUSTOMER, customer.getId()));
+        assertEquals(Set.of(creator.getId()), users(TargetType.OBJECT, objectId));
+    }
+
+    @Test
+    void grantAddsEntriesForCustomerAndItsObjects() {
+        customerAccessService.grantAccess(customer.getId(), colleague.getId());
+        data.flushAndClear();
+
+        assertEquals(Set.of(creator.getId(), colleague.getId()), users(TargetType.CUSTOMER, customer.getId()));
+        assertEquals(Set.of(creator.getId(), colleague.getId()), users(TargetType.OBJECT, objectId));
+        assertTrue(accessControlService.canAccessObject(object(), user(colleague)));
+    }
+
+    @Test
+    void revokeRemovesEntriesAndDeniesAccess() {
+        customerAccessService.grantAccess(customer.getId(), colleague.getId());
+        data.flushAndClear();
+        customerAccessService.revokeAccess(customer.getId(), colleague.getId());
+        data.flushAndClear();
+
+        assertEquals(Set.of(creator.getId()), users(TargetType.CUSTOMER, customer.getId()));
+        assertEquals(Set.of(creator.getId()), users(TargetType.OBJECT, objectId));
+        assertFalse(accessControlService.canAccessCustomer(
+                customerRepository.findById(customer.getId()).orElseThrow(), user(colleague)));
+        assertFalse(accessControlService.canAccessObject(object(), user(colleague)));
+    }
+
+    @Test
+    void transferMovesObjectToTheUsersOfTheNewCustomer() {
+        AppUser otherOwner = data.user("other");
+        ProjectCustomer otherCustomer = data.projectCustomer("Другой заказчик", otherOwner);
+        otherCustomer.addOwner(creator);
+        visibilityService.refreshCustomer(otherCustomer);
+        customerAccessService.grantAccess(customer.getId(), colleague.getId());
+        data.flushAndClear();
+
+        managedObjectService.update(objectId, "Объект", null, null, otherCustomer.getId(), null, null, user(creator));
+        data.flushAndClear();
+
+        assertEquals(Set.of(creator.getId(), otherOwner.getId()), users(TargetType.OBJECT, objectId));
+        assertFalse(accessControlService.canAccessObject(object(), user(colleague)));
+        assertTrue(accessControlService.canAccessObject(object(), user(otherOwner)));
+    }
+
+    @Test
+    void rebuildMatchesIncrementalEntries() {
+        customerAccessService.grantAccess(customer.getId(), colleague.getId());
+        data.flushAndClear();
+        Set<Long> customerUsers = users(TargetType.CUSTOMER, customer.getId());
+        Set<Long> objectUsers = users(TargetType.OBJECT, objectId);
+
+        visibilityService.rebuild();
+        data.flushAndClear();
+
+        assertEquals(customerUsers, users(TargetType.CUSTOMER, customer.getId()));
+        assertEquals(objectUsers, users(TargetType.OBJECT, objectId));
+    }
+
+    private Set<Long> users(TargetType targetType, UUID targetId) {
+        return visibilityEntryRepository.findAllByTarget(targetType, targetId).stream()
+                .map(VisibilityEntry::getId)
+                .map(VisibilityEntry.Key::getUserId)
+                .collect(Collectors.toSet());
+    }
+
+    private ManagedObject object() {
+        return managedObjectRepository.findById(objectId).orElseThrow();
+    }
+
+    private AppUser user(AppUser user) {
+        return entityManager.find(AppUser.class, user.getId());
+    }
+}
@@ -0,0 +1,62 @@
+package com.kapamejlbka.objectmanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class XlsxPreviewReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsOnlyTheRequestedWindow() throws Exception {
+        Path file = tempDir.resolve("sheet.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Data");
+            for (int r = 0; r < 5; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("name-" + r);
+                row.createCell(1).setCellValue(r * 1.5);
+                row.createCell(4).setCellValue("wide");
+            }
+            workbook.write(out);
+        }
+
+        XlsxPreviewReader.Window window = new XlsxPreviewReader(3, 2).read(file, new DataFormatter(Locale.ROOT));
+
+        assertTrue(window.hasSheet());
+        assertTrue(window.hasMoreRows());
+        assertTrue(window.hasMoreColumns());
+        assertEquals(3, window.rows().size());
+        assertEquals(List.of("name-2", "3"), window.rows().get(2));
+    }
+
+    @Test
+    void keepsGapsBetweenCells() throws Exception {
+        Path file = tempDir.resolve("gaps.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Row row = workbook.createSheet("Data").createRow(0);
+            row.createCell(2).setCellValue(true);
+            workbook.write(out);
+        }
+
+        XlsxPreviewReader.Window window = new XlsxPreviewReader(50, 20).read(file, new DataFormatter(Locale.ROOT));
+
+        assertFalse(window.hasMoreRows());
+        assertFalse(window.hasMoreColumns());
+        assertEquals(List.of("", "", "TRUE"), window.rows().get(0));
+    }
+}
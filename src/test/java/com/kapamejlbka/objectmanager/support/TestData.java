@@ -0,0 +1,211 @@
+package com.kapamejlbka.objectmanager.support;
+
+import com.kapamejlbka.objectmanager.domain.calculation.CalculationSnapshot;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.customer.Customer;
+import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
+import com.kapamejlbka.objectmanager.domain.customer.Site;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNorm;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.RouteSegmentLink;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persists minimal valid entities for integration tests that run inside a rolled-back transaction.
+ */
+public final class TestData {
+
+    private final EntityManager entityManager;
+
+    public TestData(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public AppUser user(String username) {
+        AppUser user = new AppUser();
+        user.setUsername(username + "-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPasswordHash("{noop}secret");
+        user.setFullName(username);
+        user.setEmail(user.getUsername() + "@example.com");
+        entityManager.persist(user);
+        return user;
+    }
+
+    public ProjectCustomer projectCustomer(String name, AppUser createdBy) {
+        ProjectCustomer customer = new ProjectCustomer(
+                name + " " + UUID.randomUUID().toString().substring(0, 8), null, null, null, null);
+        customer.setCreatedBy(createdBy);
+        entityManager.persist(customer);
+        return customer;
+    }
+
+    public Customer customer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        entityManager.persist(customer);
+        return customer;
+    }
+
+    public Site site(Customer customer, String name) {
+        Site site = new Site();
+        site.setCustomer(customer);
+        site.setName(name);
+        entityManager.persist(site);
+        return site;
+    }
+
+    public SystemCalculation calculation(Site site) {
+        SystemCalculation calculation = new SystemCalculation();
+        calculation.setSite(site);
+        calculation.setName(site.getName() + " — данные по объекту");
+        calculation.setSystemType("GENERAL");
+        calculation.setStatus("DRAFT");
+        entityManager.persist(calculation);
+        return calculation;
+    }
+
+    public SystemCalculation calculation() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return calculation(site(customer("Заказчик " + suffix), "Объект " + suffix));
+    }
+
+    public NetworkNode node(SystemCalculation calculation, String code) {
+        NetworkNode node = new NetworkNode();
+        node.setCalculation(calculation);
+        node.setCode(code);
+        node.setName("Узел " + code);
+        node.setCabinetSizeAuto(Boolean.TRUE);
+        node.setBaseCircuitBreakers(0);
+        node.setExtraCircuitBreakers(0);
+        node.setBaseSockets(0);
+        node.setExtraSockets(0);
+        node.setPosX(0);
+        node.setPosY(0);
+        entityManager.persist(node);
+        return node;
+    }
+
+    public EndpointDevice device(SystemCalculation calculation, String code) {
+        EndpointDevice device = new EndpointDevice();
+        device.setCalculation(calculation);
+        device.setType("CAMERA");
+        device.setCode(code);
+        device.setName("Камера " + code);
+        device.setPosX(0);
+        device.setPosY(0);
+        entityManager.persist(device);
+        return device;
+    }
+
+    public TopologyLink link(NetworkNode node, EndpointDevice device, double cableLength) {
+        TopologyLink link = new TopologyLink();
+        link.setCalculation(node.getCalculation());
+        link.setFromNode(node);
+        link.setToDevice(device);
+        link.setLinkType("UTP");
+        link.setCableLength(cableLength);
+        link.setWireless(Boolean.FALSE);
+        entityManager.persist(link);
+        return link;
+    }
+
+    public InstallationRoute route(SystemCalculation calculation, String name, double lengthMeters) {
+        InstallationRoute route = new InstallationRoute();
+        route.setCalculation(calculation);
+        route.setName(name);
+        route.setRouteType("CABLE_CHANNEL");
+        route.setLengthMeters(lengthMeters);
+        entityManager.persist(route);
+        return route;
+    }
+
+    public RouteSegmentLink segment(InstallationRoute route, TopologyLink link) {
+        RouteSegmentLink segment = new RouteSegmentLink();
+        segment.setRoute(route);
+        segment.setTopologyLink(link);
+        segment.setPortionRatio(1.0);
+        entityManager.persist(segment);
+        return segment;
+    }
+
+    public Material material(String code, MaterialCategory category) {
+        Material material = new Material();
+        material.setCode(code);
+        material.setName("Материал " + code);
+        material.setUnit("м");
+        material.setCategory(category);
+        entityManager.persist(material);
+        return material;
+    }
+
+    public MaterialNorm norm(Material material, MaterialNormContext context, String formula) {
+        MaterialNorm norm = new MaterialNorm();
+        norm.setMaterial(material);
+        norm.setContextType(context);
+        norm.setFormula(formula);
+        entityManager.persist(norm);
+        return norm;
+    }
+
+    /**
+     * Deletes calculations committed by a test together with their topology, routes, change log and
+     * site; must run inside a transaction.
+     */
+    public void deleteCalculations(Collection<Long> calculationIds) {
+        if (calculationIds.isEmpty()) {
+            return;
+        }
+        Collection<Long> siteIds = entityManager
+                .createQuery("select c.site.id from SystemCalculation c where c.id in :ids", Long.class)
+                .setParameter("ids", calculationIds)
+                .getResultList();
+        Collection<Long> customerIds = siteIds.isEmpty() ? List.of() : entityManager
+                .createQuery("select s.customer.id from Site s where s.id in :ids", Long.class)
+                .setParameter("ids", siteIds)
+                .getResultList();
+        entityManager
+                .createQuery("select s from CalculationSnapshot s where s.calculation.id in :ids",
+                        CalculationSnapshot.class)
+                .setParameter("ids", calculationIds)
+                .getResultList()
+                .forEach(entityManager::remove);
+        entityManager.flush();
+        for (String statement : new String[] {
+                "delete from RouteSegmentLink s where s.route.id in "
+                        + "(select r.id from InstallationRoute r where r.calculation.id in :ids)",
+                "delete from InstallationRoute r where r.calculation.id in :ids",
+                "delete from TopologyLink l where l.calculation.id in :ids",
+                "delete from NetworkNode n where n.calculation.id in :ids",
+                "delete from EndpointDevice d where d.calculation.id in :ids",
+                "delete from CalculationChange c where c.calculationId in :ids",
+                "delete from SystemCalculation c where c.id in :ids"}) {
+            entityManager.createQuery(statement).setParameter("ids", calculationIds).executeUpdate();
+        }
+        if (!siteIds.isEmpty()) {
+            entityManager.createQuery("delete from Site s where s.id in :ids")
+                    .setParameter("ids", siteIds)
+                    .executeUpdate();
+        }
+        if (!customerIds.isEmpty()) {
+            entityManager.createQuery("delete from Customer c where c.id in :ids")
+                    .setParameter("ids", customerIds)
+                    .executeUpdate();
+        }
+    }
+
+    /** Writes pending changes and detaches everything so the next read goes to the database. */
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,227 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kapamejlbka.objectmanager.config.CalculationChangesProperties;
+import com.kapamejlbka.objectmanager.domain.calcengine.CalculationElement;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.topology.InstallationRoute;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyBatchRequest.PositionItem;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService;
+import com.kapamejlbka.objectmanager.service.TopologyBatchService;
+import com.kapamejlbka.objectmanager.service.TopologyLinkService;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest
+@Transactional
+class CalculationDeltaApiTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CalculationRevisionService calculationRevisionService;
+
+    @Autowired
+    private CalculationChangesProperties changesProperties;
+
+    @Autowired
+    private TopologyBatchService topologyBatchService;
+
+    @Autowired
+    private TopologyLinkService topologyLinkService;
+
+    private MockMvc mockMvc;
+    private TestData data;
+    private long retainedRevisions;
+
+    private Long calculationId;
+    private Long movedNodeId;
+    private Long linkId;
+    private Long changedRouteId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        data = new TestData(entityManager);
+        retainedRevisions = changesProperties.getRetainedRevisions();
+
+        SystemCalculation calculation = data.calculation();
+        NetworkNode movedNode = data.node(calculation, "N1");
+        NetworkNode otherNode = data.node(calculation, "N2");
+        TopologyLink link = data.link(movedNode, data.device(calculation, "C1"), 10.0);
+        data.link(otherNode, data.device(calculation, "C2"), 15.0);
+        InstallationRoute changedRoute = data.route(calculation, "Трасса 1", 10.0);
+        data.route(calculation, "Трасса 2", 15.0);
+        data.flushAndClear();
+        calculationId = calculation.getId();
+        movedNodeId = movedNode.getId();
+        linkId = link.getId();
+        changedRouteId = changedRoute.getId();
+    }
+
+    @AfterEach
+    void restoreProperties() {
+        changesProperties.setRetainedRevisions(retainedRevisions);
+    }
+
+    @Test
+    void unchangedTopologyAnswersNotModified() throws Exception {
+        String eTag = mockMvc.perform(topology(null))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(topology(null).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        moveNode();
+
+        mockMvc.perform(topology(null).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unchangedRoutesAnswerNotModified() throws Exception {
+        String eTag = mockMvc.perform(routes(null))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(routes(null).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void nodeMoveMovesOnlyTheEditorRevision() {
+        long inputRevision = calculationRevisionService.currentRevision(calculationId);
+        long editorRevision = calculationRevisionService.currentEditorRevision(calculationId);
+
+        moveNode();
+
+        assertEquals(inputRevision, calculationRevisionService.currentRevision(calculationId));
+        assertEquals(editorRevision + 1, calculationRevisionService.currentEditorRevision(calculationId));
+    }
+
+    @Test
+    void topologySinceReturnsOnlyChangedElementsAndDeletedIds() throws Exception {
+        long since = calculationRevisionService.currentEditorRevision(calculationId);
+        moveNode();
+        topologyLinkService.delete(linkId);
+        data.flushAndClear();
+
+        mockMvc.perform(topology(since))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full").value(false))
+                .andExpect(jsonPath("$.nodes[*].id", contains(movedNodeId.intValue())))
+                .andExpect(jsonPath("$.nodes[0].x").value(40))
+                .andExpect(jsonPath("$.devices.length()").value(0))
+                .andExpect(jsonPath("$.links.length()").value(0))
+                .andExpect(jsonPath("$.deletedLinkIds", contains(linkId.intValue())));
+    }
+
+    @Test
+    void routesSinceReturnsOnlyChangedRoutes() throws Exception {
+        long since = calculationRevisionService.currentEditorRevision(calculationId);
+        calculationRevisionService.markChanged(calculationId, List.of(CalculationElement.route(changedRouteId)));
+
+        mockMvc.perform(routes(since))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full").value(false))
+                .andExpect(jsonPath("$.routes[*].id", contains(changedRouteId.intValue())))
+                .andExpect(jsonPath("$.links.length()").value(0))
+                .andExpect(jsonPath("$.deletedRouteIds.length()").value(0));
+    }
+
+    @Test
+    void fullChangeFallsBackToFullPayload() throws Exception {
+        long since = calculationRevisionService.currentEditorRevision(calculationId);
+        calculationRevisionService.markAllChanged();
+
+        mockMvc.perform(topology(since))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full").value(true))
+                .andExpect(jsonPath("$.nodes.length()").value(2))
+                .andExpect(jsonPath("$.links.length()").value(2));
+        mockMvc.perform(routes(since))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full").value(true))
+                .andExpect(jsonPath("$.routes.length()").value(2));
+    }
+
+    @Test
+    void sinceAheadOfTheRevisionFallsBackToFullPayload() throws Exception {
+        long revision = calculationRevisionService.currentEditorRevision(calculationId);
+
+        mockMvc.perform(topology(revision + 5))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CalculationSync.REVISION_HEADER, Long.toString(revision)))
+                .andExpect(jsonPath("$.full").value(true))
+                .andExpect(jsonPath("$.nodes.length()").value(2));
+    }
+
+    @Test
+    void sinceOutsideTheRetainedWindowFallsBackToFullPayload() throws Exception {
+        changesProperties.setRetainedRevisions(1);
+        long since = calculationRevisionService.currentEditorRevision(calculationId);
+        moveNode();
+        moveNode();
+
+        assertTrue(calculationRevisionService.pruneChanges() > 0);
+        mockMvc.perform(topology(since))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full").value(true))
+                .andExpect(jsonPath("$.nodes.length()").value(2));
+        mockMvc.perform(topology(since + 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full").value(false))
+                .andExpect(jsonPath("$.nodes[*].id", contains(movedNodeId.intValue())));
+    }
+
+    private void moveNode() {
+        topologyBatchService.apply(calculationId, new TopologyBatchRequest(
+                List.of(new PositionItem(movedNodeId, 40, 60, null)), null, null, null, null));
+        data.flushAndClear();
+    }
+
+    private MockHttpServletRequestBuilder topology(Long since) {
+        return withSince(get("/api/calculations/{calcId}/topology", calculationId), since);
+    }
+
+    private MockHttpServletRequestBuilder routes(Long since) {
+        return withSince(get("/api/calculations/{calcId}/routes", calculationId), since);
+    }
+
+    private MockHttpServletRequestBuilder withSince(MockHttpServletRequestBuilder request, Long since) {
+        if (since != null) {
+            request.param("since", since.toString());
+        }
+        return request.with(user("viewer").roles("VIEWER"));
+    }
+}
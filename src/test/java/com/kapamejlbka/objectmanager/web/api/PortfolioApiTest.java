@@ -0,0 +1,156 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kapamejlbka.objectmanager.domain.calcengine.MaterialItemResult;
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.calculation.dto.PortfolioCalculationResult;
+import com.kapamejlbka.objectmanager.domain.calculation.dto.SiteCalculationResult;
+import com.kapamejlbka.objectmanager.domain.customer.Customer;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.material.Material;
+import com.kapamejlbka.objectmanager.domain.material.MaterialCategory;
+import com.kapamejlbka.objectmanager.domain.material.MaterialNormContext;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.service.MaterialNormCatalogService;
+import com.kapamejlbka.objectmanager.service.PortfolioCalculationService;
+import com.kapamejlbka.objectmanager.service.SystemCalculationService;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest
+@Transactional
+class PortfolioApiTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private PortfolioCalculationService portfolioCalculationService;
+
+    @Autowired
+    private SystemCalculationService systemCalculationService;
+
+    @Autowired
+    private MaterialNormCatalogService materialNormCatalogService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private MockMvc mockMvc;
+    private TestData data;
+
+    private Long customerId;
+    private Long firstCalculationId;
+    private Long secondCalculationId;
+    private Long otherCalculationId;
+    private String utpCode;
+    private String tieCode;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        data = new TestData(entityManager);
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Material utp = data.material("UTP-" + suffix, MaterialCategory.CABLE_UTP);
+        Material tie = data.material("TIE-" + suffix, MaterialCategory.FASTENER_TIE);
+        data.norm(utp, MaterialNormContext.LINK_UTP_LENGTH, "length * 1.1");
+        data.norm(tie, MaterialNormContext.LINK_UTP_LENGTH, "length / 3");
+        utpCode = utp.getCode();
+        tieCode = tie.getCode();
+
+        Customer customer = data.customer("Заказчик " + suffix);
+        firstCalculationId = calculation(customer, "Объект 1", 12.0, 20.0);
+        secondCalculationId = calculation(customer, "Объект 2", 7.5);
+        otherCalculationId = calculation(data.customer("Другой заказчик " + suffix), "Объект 3", 30.0);
+        data.flushAndClear();
+        customerId = customer.getId();
+        materialNormCatalogService.refresh();
+    }
+
+    @AfterTransaction
+    void reloadCatalog() {
+        materialNormCatalogService.refresh();
+    }
+
+    @Test
+    void portfolioMatchesTheResultsOfItsCalculations() {
+        PortfolioCalculationResult portfolio =
+                portfolioCalculationService.calculate(List.of(otherCalculationId), customerId);
+
+        assertEquals(3, portfolio.sites().size());
+        Map<String, Double> expectedTotals = new HashMap<>();
+        for (SiteCalculationResult site : portfolio.sites()) {
+            List<MaterialItemResult> items = systemCalculationService.getCalculationResult(site.calculationId()).items();
+            assertFalse(items.isEmpty());
+            assertEquals(items, site.items());
+            items.forEach(item -> expectedTotals.merge(key(item), item.quantity(), Double::sum));
+        }
+        assertEquals(expectedTotals.size(), portfolio.totals().size());
+        for (MaterialItemResult total : portfolio.totals()) {
+            assertEquals(expectedTotals.get(key(total)), total.quantity(), 1e-9);
+        }
+    }
+
+    @Test
+    void batchEndpointReturnsEverySiteOnce() throws Exception {
+        mockMvc.perform(post("/api/calculations/portfolio/result")
+                        .with(user("engineer").roles("ENGINEER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"calculationIds\": [%d, %d], \"customerId\": %d}"
+                                .formatted(firstCalculationId, otherCalculationId, customerId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sites[*].calculationId", containsInAnyOrder(
+                        firstCalculationId.intValue(), secondCalculationId.intValue(), otherCalculationId.intValue())))
+                .andExpect(jsonPath("$.sites[*].siteName", containsInAnyOrder("Объект 1", "Объект 2", "Объект 3")))
+                .andExpect(jsonPath("$.totals[*].materialCode", hasItems(utpCode, tieCode)));
+    }
+
+    @Test
+    void unknownCalculationIsRejected() throws Exception {
+        mockMvc.perform(post("/api/calculations/portfolio/result")
+                        .with(user("engineer").roles("ENGINEER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"calculationIds\": [-1]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long calculation(Customer customer, String siteName, double... cableLengths) {
+        SystemCalculation calculation = data.calculation(data.site(customer, siteName));
+        NetworkNode node = data.node(calculation, "N1");
+        for (int i = 0; i < cableLengths.length; i++) {
+            TopologyLink link = data.link(node, data.device(calculation, "C" + i), cableLengths[i]);
+            data.segment(data.route(calculation, "Трасса " + i, cableLengths[i]), link);
+        }
+        return calculation.getId();
+    }
+
+    private static String key(MaterialItemResult item) {
+        return item.materialCode() != null
+                ? item.materialCode()
+                : item.materialName() + "|" + item.unit() + "|" + item.category();
+    }
+}
@@ -0,0 +1,102 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kapamejlbka.objectmanager.domain.customer.ProjectCustomer;
+import com.kapamejlbka.objectmanager.domain.user.AppUser;
+import com.kapamejlbka.objectmanager.service.ManagedObjectService;
+import com.kapamejlbka.objectmanager.service.SearchIndexService;
+import com.kapamejlbka.objectmanager.service.VisibilityService;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest
+@Transactional
+class SearchApiTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ManagedObjectService managedObjectService;
+
+    @Autowired
+    private VisibilityService visibilityService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private MockMvc mockMvc;
+    private String token;
+    private String viewer;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        TestData data = new TestData(entityManager);
+        token = "obj" + UUID.randomUUID().toString().substring(0, 8);
+
+        AppUser owner = data.user("owner");
+        AppUser colleague = data.user("viewer");
+        ProjectCustomer hidden = data.projectCustomer("Чужой заказчик", owner);
+        ProjectCustomer shared = data.projectCustomer("Свой заказчик", colleague);
+        visibilityService.refreshCustomer(hidden);
+        visibilityService.refreshCustomer(shared);
+        // Hidden objects sort first among equally scored hits, so they fill the first page.
+        for (String name : new String[] {"A1", "A2", "A3"}) {
+            managedObjectService.create(name + " " + token, null, hidden.getId(), null, null, owner);
+        }
+        for (String name : new String[] {"B1", "B2"}) {
+            managedObjectService.create(name + " " + token, null, shared.getId(), null, null, colleague);
+        }
+        data.flushAndClear();
+        // The index only follows committed changes, so load the uncommitted fixture directly.
+        searchIndexService.rebuild();
+        viewer = colleague.getUsername();
+    }
+
+    @AfterTransaction
+    void reloadIndex() {
+        searchIndexService.rebuild();
+    }
+
+    @Test
+    void hiddenHitsDoNotShortenTheResult() throws Exception {
+        mockMvc.perform(get("/api/search")
+                        .with(user(viewer).roles("ENGINEER"))
+                        .param("q", token)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].title", contains("B1 " + token, "B2 " + token)));
+    }
+
+    @Test
+    void limitIsKeptWhenMoreHitsAreVisible() throws Exception {
+        mockMvc.perform(get("/api/search")
+                        .with(user(viewer).roles("ENGINEER"))
+                        .param("q", token)
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("B1 " + token));
+    }
+}
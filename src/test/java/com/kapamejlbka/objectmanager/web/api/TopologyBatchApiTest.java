@@ -0,0 +1,176 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.EndpointDevice;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.service.CalculationRevisionService;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Runs without a test transaction so that a rejected batch is rolled back by the application itself
+ * and the checks read what was actually committed.
+ */
+@SpringBootTest
+class TopologyBatchApiTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CalculationRevisionService calculationRevisionService;
+
+    private MockMvc mockMvc;
+    private TransactionTemplate transaction;
+    private TestData data;
+    private final List<Long> calculationIds = new ArrayList<>();
+
+    private Long calculationId;
+    private Long nodeId;
+    private Long deviceId;
+    private Long linkId;
+    private Long foreignLinkId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        transaction = new TransactionTemplate(transactionManager);
+        data = new TestData(entityManager);
+        transaction.executeWithoutResult(status -> {
+            SystemCalculation calculation = data.calculation();
+            NetworkNode node = data.node(calculation, "N1");
+            EndpointDevice device = data.device(calculation, "C1");
+            TopologyLink link = data.link(node, device, 12.0);
+            SystemCalculation other = data.calculation();
+            TopologyLink foreignLink = data.link(data.node(other, "N1"), data.device(other, "C1"), 5.0);
+            entityManager.flush();
+            calculationIds.add(calculation.getId());
+            calculationIds.add(other.getId());
+            calculationId = calculation.getId();
+            nodeId = node.getId();
+            deviceId = device.getId();
+            linkId = link.getId();
+            foreignLinkId = foreignLink.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaction.executeWithoutResult(status -> data.deleteCalculations(calculationIds));
+    }
+
+    @Test
+    void batchReturnsOnlyTouchedElementsWithNewVersions() throws Exception {
+        long revision = calculationRevisionService.currentRevision(calculationId);
+
+        mockMvc.perform(batch("""
+                        {"nodePositions": [{"id": %d, "x": 40, "y": 60, "version": 0}],
+                         "updatedLinks": [{"id": %d, "length": 20.0, "version": 0}]}
+                        """.formatted(nodeId, linkId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nodes.length()").value(1))
+                .andExpect(jsonPath("$.nodes[0].id").value(nodeId))
+                .andExpect(jsonPath("$.nodes[0].version").value(1))
+                .andExpect(jsonPath("$.devices.length()").value(0))
+                .andExpect(jsonPath("$.updatedLinks[0].id").value(linkId))
+                .andExpect(jsonPath("$.updatedLinks[0].length").value(20.0))
+                .andExpect(jsonPath("$.updatedLinks[0].version").value(1))
+                .andExpect(jsonPath("$.createdLinks.length()").value(0))
+                .andExpect(jsonPath("$.topology").doesNotExist());
+
+        assertTrue(calculationRevisionService.currentRevision(calculationId) > revision);
+    }
+
+    @Test
+    void foreignLinkIdRejectsTheWholeBatch() throws Exception {
+        long revision = calculationRevisionService.currentRevision(calculationId);
+
+        mockMvc.perform(batch("""
+                        {"nodePositions": [{"id": %d, "x": 40, "y": 60}],
+                         "updatedLinks": [{"id": %d, "length": 20.0}],
+                         "deletedLinkIds": [%d]}
+                        """.formatted(nodeId, linkId, foreignLinkId)))
+                .andExpect(status().isBadRequest());
+
+        assertUnchanged(revision);
+        assertEquals(5.0, entityManager.find(TopologyLink.class, foreignLinkId).getCableLength());
+    }
+
+    @Test
+    void missingDeviceIdRejectsTheWholeBatch() throws Exception {
+        long revision = calculationRevisionService.currentRevision(calculationId);
+
+        mockMvc.perform(batch("""
+                        {"nodePositions": [{"id": %d, "x": 40, "y": 60}],
+                         "devicePositions": [{"id": %d, "x": 1, "y": 1}],
+                         "updatedLinks": [{"id": %d, "length": 20.0}]}
+                        """.formatted(nodeId, Long.MAX_VALUE, linkId)))
+                .andExpect(status().isBadRequest());
+
+        assertUnchanged(revision);
+    }
+
+    @Test
+    void linkUpdatedAndDeletedInOneBatchIsRejected() throws Exception {
+        long revision = calculationRevisionService.currentRevision(calculationId);
+
+        mockMvc.perform(batch("""
+                        {"nodePositions": [{"id": %d, "x": 40, "y": 60}],
+                         "updatedLinks": [{"id": %d, "length": 20.0}],
+                         "deletedLinkIds": [%d]}
+                        """.formatted(nodeId, linkId, linkId)))
+                .andExpect(status().isBadRequest());
+
+        assertUnchanged(revision);
+    }
+
+    private void assertUnchanged(long revision) {
+        transaction.executeWithoutResult(status -> {
+            NetworkNode node = entityManager.find(NetworkNode.class, nodeId);
+            TopologyLink link = entityManager.find(TopologyLink.class, linkId);
+            assertEquals(0, node.getPosX());
+            assertEquals(0, node.getPosY());
+            assertEquals(0L, node.getVersion());
+            assertEquals(12.0, link.getCableLength());
+            assertEquals(0L, link.getVersion());
+            assertEquals(deviceId, link.getToDevice().getId());
+        });
+        assertEquals(revision, calculationRevisionService.currentRevision(calculationId));
+    }
+
+    private RequestBuilder batch(String body) {
+        return post("/api/calculations/{calcId}/topology/batch", calculationId)
+                .with(user("engineer").roles("ENGINEER"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
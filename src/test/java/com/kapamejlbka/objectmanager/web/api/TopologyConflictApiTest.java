@@ -0,0 +1,144 @@
+package com.kapamejlbka.objectmanager.web.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kapamejlbka.objectmanager.domain.calculation.SystemCalculation;
+import com.kapamejlbka.objectmanager.domain.device.NetworkNode;
+import com.kapamejlbka.objectmanager.domain.topology.TopologyLink;
+import com.kapamejlbka.objectmanager.domain.topology.dto.TopologyLinkRestUpdateRequest;
+import com.kapamejlbka.objectmanager.service.TopologyLinkService;
+import com.kapamejlbka.objectmanager.support.TestData;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Runs without a test transaction: the conflicting edit has to be committed before the stale one
+ * arrives, and {@code current} must reflect the database rather than the rejected edit.
+ */
+@SpringBootTest
+class TopologyConflictApiTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TopologyLinkService topologyLinkService;
+
+    private MockMvc mockMvc;
+    private TransactionTemplate transaction;
+    private TestData data;
+    private final List<Long> calculationIds = new ArrayList<>();
+
+    private Long calculationId;
+    private Long nodeId;
+    private Long linkId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        transaction = new TransactionTemplate(transactionManager);
+        data = new TestData(entityManager);
+        transaction.executeWithoutResult(status -> {
+            SystemCalculation calculation = data.calculation();
+            NetworkNode node = data.node(calculation, "N1");
+            TopologyLink link = data.link(node, data.device(calculation, "C1"), 10.0);
+            entityManager.flush();
+            calculationIds.add(calculation.getId());
+            calculationId = calculation.getId();
+            nodeId = node.getId();
+            linkId = link.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaction.executeWithoutResult(status -> data.deleteCalculations(calculationIds));
+    }
+
+    @Test
+    void staleLinkEditAnswersConflictWithTheCurrentLink() throws Exception {
+        topologyLinkService.patch(linkId, new TopologyLinkRestUpdateRequest(null, 20.0, null, null, null, 0L));
+
+        mockMvc.perform(json(patch("/api/calculations/{calcId}/topology/links/{linkId}", calculationId, linkId),
+                        "{\"length\": 30.0, \"version\": 0}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value("Связь изменена другим пользователем"))
+                .andExpect(jsonPath("$.current.id").value(linkId))
+                .andExpect(jsonPath("$.current.length").value(20.0))
+                .andExpect(jsonPath("$.current.version").value(1));
+
+        assertEquals(20.0, entityManager.find(TopologyLink.class, linkId).getCableLength());
+    }
+
+    @Test
+    void staleLinkEditOfAnotherGroupIsMerged() throws Exception {
+        topologyLinkService.patch(linkId, new TopologyLinkRestUpdateRequest("WIFI", null, null, null, null, 0L));
+
+        mockMvc.perform(json(patch("/api/calculations/{calcId}/topology/links/{linkId}", calculationId, linkId),
+                        "{\"length\": 30.0, \"version\": 0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linkType").value("WIFI"))
+                .andExpect(jsonPath("$.length").value(30.0))
+                .andExpect(jsonPath("$.version").value(2));
+    }
+
+    @Test
+    void stalePositionAnswersConflictWithTheCurrentNode() throws Exception {
+        mockMvc.perform(json(post("/api/calculations/{calcId}/topology/nodes/{nodeId}/position", calculationId, nodeId),
+                        "{\"x\": 40, \"y\": 60, \"version\": 0}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(json(post("/api/calculations/{calcId}/topology/nodes/{nodeId}/position", calculationId, nodeId),
+                        "{\"x\": 80, \"y\": 90, \"version\": 0}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.id").value(nodeId))
+                .andExpect(jsonPath("$.current.x").value(40))
+                .andExpect(jsonPath("$.current.version").value(1));
+    }
+
+    @Test
+    void staleBatchAnswersConflictWithTheCurrentTopology() throws Exception {
+        String move = "{\"nodePositions\": [{\"id\": %d, \"x\": %d, \"y\": 60, \"version\": 0}]}";
+        mockMvc.perform(json(post("/api/calculations/{calcId}/topology/batch", calculationId),
+                        move.formatted(nodeId, 40)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(json(post("/api/calculations/{calcId}/topology/batch", calculationId),
+                        move.formatted(nodeId, 80)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.nodes[0].id").value(nodeId))
+                .andExpect(jsonPath("$.current.nodes[0].x").value(40))
+                .andExpect(jsonPath("$.current.links[0].id").value(linkId));
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.with(user("engineer").roles("ENGINEER"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}